@@ -0,0 +1,24 @@
+// This example selects shapes from a binary snapshot of the model written by the oldest supported
+// version of the Smithy CLI.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+dependencies {
+    smithyCli("software.amazon.smithy:smithy-cli:1.60.2")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        buildModelSnapshot.set(true)
+    }
+    format.set(false)
+}
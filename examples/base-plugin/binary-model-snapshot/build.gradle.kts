@@ -0,0 +1,19 @@
+// This example selects shapes from a binary snapshot of the model written by the build.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        buildModelSnapshot.set(true)
+    }
+    format.set(false)
+}
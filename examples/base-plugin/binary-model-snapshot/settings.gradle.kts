@@ -0,0 +1,10 @@
+rootProject.name = "binary-model-snapshot"
+
+pluginManagement {
+    repositories {
+        mavenLocal()
+        mavenCentral()
+        // Uncomment these to use the published version of the plugin from your preferred source.
+        // gradlePluginPortal()
+    }
+}
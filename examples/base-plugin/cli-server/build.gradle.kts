@@ -0,0 +1,21 @@
+import java.time.Duration
+
+// This example runs the Smithy CLI in a persistent server process that is shared
+// by every Gradle build using the same CLI classpath.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    cliServer.set(true)
+    // Keep the server short-lived since this example is run as a test.
+    cliServerIdleTimeout.set(Duration.ofSeconds(30))
+    format.set(false)
+}
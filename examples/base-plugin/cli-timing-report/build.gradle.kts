@@ -0,0 +1,13 @@
+// This example shows the timing reports written for Smithy CLI invocations. Each
+// task writes a breakdown of its invocations to build/reports/smithy-timings, and
+// the timings of every task in the build are aggregated into build.json.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
@@ -0,0 +1,19 @@
+// This example builds models by calling the smithy-build API directly rather than
+// running the build command of the Smithy CLI.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+    }
+    format.set(false)
+}
@@ -0,0 +1,26 @@
+// This example builds models by calling the smithy-build API directly with the oldest supported
+// version of the Smithy CLI, using the plugin artifact cache, the parse cache, and incremental builds.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+dependencies {
+    smithyCli("software.amazon.smithy:smithy-cli:1.60.2")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        pluginArtifactCache.set(true)
+        parseCache.set(true)
+        semanticFingerprint.set(true)
+    }
+    format.set(false)
+}
@@ -0,0 +1,18 @@
+// This example fails to build because the model targets a shape that does not exist.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+    }
+    format.set(false)
+}
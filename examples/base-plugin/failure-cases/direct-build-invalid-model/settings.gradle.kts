@@ -0,0 +1,8 @@
+rootProject.name = "direct-build-invalid-model"
+
+pluginManagement {
+    repositories {
+        mavenLocal()
+        mavenCentral()
+    }
+}
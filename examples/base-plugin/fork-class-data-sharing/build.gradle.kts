@@ -0,0 +1,18 @@
+// This example forks the Smithy CLI into worker processes that share an AppCDS
+// archive of the CLI classpath. Class data sharing is enabled for forked workers on
+// Java 17 or newer by the smithy.cli.classDataSharing property in gradle.properties.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    fork.set(true)
+    format.set(false)
+}
@@ -0,0 +1,19 @@
+// This example forks the Smithy CLI into worker processes with custom JVM arguments,
+// and lets the plugin size the heap of the workers automatically.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    fork.set(true)
+    forkJvmArgs.add("-XX:+UseSerialGC")
+    forkHeapAutoSizing.set(true)
+    format.set(false)
+}
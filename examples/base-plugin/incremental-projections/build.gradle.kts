@@ -0,0 +1,18 @@
+// This example only rebuilds the projections affected by changed model files.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+    }
+    format.set(false)
+}
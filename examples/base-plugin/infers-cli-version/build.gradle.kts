@@ -0,0 +1,22 @@
+// This example is an integration test to ensure that the smithy-cli version is inferred
+// from the version of smithy-model that the runtime dependencies of the project resolve to,
+// when the smithyCli configuration declares no version of the CLI.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+dependencies {
+    // smithy-model is only a transitive dependency of smithy-aws-traits.
+    implementation("software.amazon.smithy:smithy-aws-traits:1.60.2")
+}
+
+smithy {
+    format.set(false)
+}
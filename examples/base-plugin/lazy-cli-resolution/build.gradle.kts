@@ -0,0 +1,49 @@
+import java.util.concurrent.atomic.AtomicBoolean
+import software.amazon.smithy.gradle.SmithyExtension
+import software.amazon.smithy.gradle.tasks.SmithyBuildTask
+
+// This example applies the plugin to many projects. Configuring the projects must not
+// resolve any of their dependencies: the Smithy CLI version is only detected once a
+// Smithy task of the task graph needs the CLI.
+
+plugins {
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0").apply(false)
+}
+
+// Fails the build if any configuration is resolved before every project is configured.
+val projectsEvaluated = AtomicBoolean()
+gradle.projectsEvaluated { projectsEvaluated.set(true) }
+
+subprojects {
+    apply(plugin = "java-library")
+    apply(plugin = "software.amazon.smithy.gradle.smithy-base")
+
+    repositories {
+        mavenLocal()
+        mavenCentral()
+    }
+
+    // The plugin is applied from the root project, so the Smithy CLI version is taken from smithy-model.
+    dependencies {
+        "implementation"("software.amazon.smithy:smithy-model:[1.0, 2.0[")
+    }
+
+    extensions.configure<SmithyExtension> {
+        format.set(false)
+    }
+
+    tasks.register<SmithyBuildTask>("lazyBuild") {
+        models.set(rootProject.files("model/"))
+        smithyBuildConfigs.set(rootProject.files("smithy-build.json"))
+    }
+
+    val projectPath = path
+    configurations.configureEach {
+        val configurationName = name
+        incoming.beforeResolve {
+            if (!projectsEvaluated.get()) {
+                throw GradleException("$projectPath:$configurationName was resolved while configuring the build")
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+rootProject.name = "lazy-cli-resolution"
+
+pluginManagement {
+    repositories {
+        mavenLocal()
+        mavenCentral()
+        // Uncomment these to use the published version of the plugin from your preferred source.
+        // gradlePluginPortal()
+    }
+}
+
+// Many projects that apply the plugin. The projects have no files of their own, so their
+// directories are created here.
+(1..400).forEach { i ->
+    include("project-$i")
+    project(":project-$i").projectDir = file("projects/project-$i").apply { mkdirs() }
+}
@@ -0,0 +1,29 @@
+import software.amazon.smithy.gradle.tasks.SmithyBuildTask
+
+// This example registers a Smithy build task in each of several projects. Run with
+// --parallel, the tasks start at the same time, but the memory budget set in
+// gradle.properties only admits one in-process Smithy CLI invocation at a time.
+
+plugins {
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0").apply(false)
+}
+
+subprojects {
+    apply(plugin = "java-library")
+    apply(plugin = "software.amazon.smithy.gradle.smithy-base")
+
+    repositories {
+        mavenLocal()
+        mavenCentral()
+    }
+
+    // The plugin is applied from the root project, so the Smithy CLI version is taken from smithy-model.
+    dependencies {
+        "implementation"("software.amazon.smithy:smithy-model:[1.0, 2.0[")
+    }
+
+    tasks.register<SmithyBuildTask>("budgetedBuild") {
+        models.set(rootProject.files("model/"))
+        smithyBuildConfigs.set(rootProject.files("smithy-build.json"))
+    }
+}
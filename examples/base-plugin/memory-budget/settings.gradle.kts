@@ -0,0 +1,17 @@
+rootProject.name = "memory-budget"
+
+pluginManagement {
+    repositories {
+        mavenLocal()
+        mavenCentral()
+        // Uncomment these to use the published version of the plugin from your preferred source.
+        // gradlePluginPortal()
+    }
+}
+
+// Tasks in the same project never run at the same time, so each build task gets its own
+// project. The projects have no files of their own, so their directories are created here.
+(1..8).forEach { i ->
+    include("budget-$i")
+    project(":budget-$i").projectDir = file("projects/budget-$i").apply { mkdirs() }
+}
@@ -0,0 +1,38 @@
+import software.amazon.smithy.gradle.tasks.SmithyBuildTask
+
+// This example registers a Smithy build task in each of many projects. Run with
+// --parallel, the tasks run the Smithy CLI in the Gradle daemon at the same time,
+// which makes this a stress test of concurrent in-process CLI execution.
+
+plugins {
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0").apply(false)
+}
+
+subprojects {
+    apply(plugin = "java-library")
+    apply(plugin = "software.amazon.smithy.gradle.smithy-base")
+
+    repositories {
+        mavenLocal()
+        mavenCentral()
+    }
+
+    // The plugin is applied from the root project, so the Smithy CLI version is taken from smithy-model.
+    dependencies {
+        "implementation"("software.amazon.smithy:smithy-model:[1.0, 2.0[")
+    }
+
+    tasks.register<SmithyBuildTask>("parallelBuild") {
+        models.set(rootProject.files("model/"))
+        smithyBuildConfigs.set(rootProject.files("smithy-build.json"))
+    }
+}
+
+// JVM-wide settings applied while the CLI runs must be restored once every build is done.
+tasks.register("verifySettingsRestored") {
+    mustRunAfter(subprojects.map { it.tasks.named("parallelBuild") })
+    doLast {
+        val dependencyMode = System.getProperty("SMITHY_DEPENDENCY_MODE")
+        check(dependencyMode == null) { "SMITHY_DEPENDENCY_MODE was left set to $dependencyMode" }
+    }
+}
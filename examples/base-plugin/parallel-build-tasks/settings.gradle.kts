@@ -0,0 +1,17 @@
+rootProject.name = "parallel-build-tasks"
+
+pluginManagement {
+    repositories {
+        mavenLocal()
+        mavenCentral()
+        // Uncomment these to use the published version of the plugin from your preferred source.
+        // gradlePluginPortal()
+    }
+}
+
+// Tasks in the same project never run at the same time, so each build task gets its own
+// project. The projects have no files of their own, so their directories are created here.
+(1..32).forEach { i ->
+    include("build-$i")
+    project(":build-$i").projectDir = file("projects/build-$i").apply { mkdirs() }
+}
@@ -0,0 +1,19 @@
+// This example loads unchanged model files from a cache of parsed files.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        parseCache.set(true)
+    }
+    format.set(false)
+}
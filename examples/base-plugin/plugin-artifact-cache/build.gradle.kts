@@ -0,0 +1,19 @@
+// This example restores the artifacts of smithy-build plugins from a cache.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        pluginArtifactCache.set(true)
+    }
+    format.set(false)
+}
@@ -0,0 +1,16 @@
+// This example leaves generated files untouched when their content does not change.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    preserveUnchangedOutputs.set(true)
+    format.set(false)
+}
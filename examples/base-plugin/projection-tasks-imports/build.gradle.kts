@@ -0,0 +1,20 @@
+// This example builds each projection of two smithy-build configs in its own task. One of the
+// projections imports models that are not part of the sources of the project.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    // smithy-build imports model files, not other configs, so every config that defines
+    // projections is listed here.
+    smithyBuildConfigs.set(files("smithy-build.json", "internal-build.json"))
+    projectionTasks.set(true)
+    format.set(false)
+}
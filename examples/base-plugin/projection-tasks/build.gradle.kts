@@ -0,0 +1,16 @@
+// This example builds each projection of smithy-build.json in its own task.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    projectionTasks.set(true)
+    format.set(false)
+}
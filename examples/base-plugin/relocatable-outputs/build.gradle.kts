@@ -0,0 +1,17 @@
+// This example makes the outputs of the Smithy build task relocatable, so that they
+// can be loaded from the build cache in other checkouts of the project.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    relocatableOutputs.set(true)
+    format.set(false)
+}
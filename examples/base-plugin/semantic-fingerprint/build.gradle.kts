@@ -0,0 +1,21 @@
+// This example skips projections when model files change without changing the model. Its outputs
+// would otherwise be relocatable, but are not cached since they may come from earlier model files.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        semanticFingerprint.set(true)
+    }
+    relocatableOutputs.set(true)
+    format.set(false)
+}
@@ -0,0 +1,20 @@
+// This example shares the assembled model between the Smithy tasks of a build.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-base").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+smithy {
+    directBuild {
+        enabled.set(true)
+        shareModels.set(true)
+    }
+    projectionTasks.set(true)
+    format.set(false)
+}
@@ -1,7 +1,7 @@
 // This project adds smithy models to a JAR created by a Kotlin project
 
 plugins {
-    kotlin("jvm") version "1.9.23"
+    kotlin("jvm") version "2.2.0"
     id("software.amazon.smithy.gradle.smithy-jar").version("1.5.0")
 }
 
@@ -0,0 +1,28 @@
+import java.util.concurrent.ConcurrentLinkedQueue
+
+// This example records the tasks that are created while running the build. The plugins
+// register their tasks lazily, so a build that does not run them does not create them.
+
+plugins {
+    id("java-library")
+    id("software.amazon.smithy.gradle.smithy-jar").version("1.5.0")
+}
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+dependencies {
+    implementation("software.amazon.smithy:smithy-model:[1.0, 2.0[")
+}
+
+smithy {
+    format.set(false)
+}
+
+val realizedTasks = ConcurrentLinkedQueue<String>()
+tasks.configureEach { realizedTasks.add(name) }
+gradle.taskGraph.whenReady {
+    logger.lifecycle("Realized tasks: " + realizedTasks.sorted().joinToString(", "))
+}
@@ -0,0 +1,26 @@
+import java.util.concurrent.ConcurrentLinkedQueue
+
+// This example records the tasks that are created while running the build. The project has
+// a hand-written trait provider, so the plugin also registers the task that merges SPI files.
+
+plugins {
+    id("software.amazon.smithy.gradle.smithy-trait-package").version("1.5.0")
+}
+
+group = "software.amazon.smithy"
+version = "9.9.9"
+
+repositories {
+    mavenLocal()
+    mavenCentral()
+}
+
+dependencies {
+    implementation("software.amazon.smithy:smithy-model:[1.0, 2.0[")
+}
+
+val realizedTasks = ConcurrentLinkedQueue<String>()
+tasks.configureEach { realizedTasks.add(name) }
+gradle.taskGraph.whenReady {
+    logger.lifecycle("Realized tasks: " + realizedTasks.sorted().joinToString(", "))
+}
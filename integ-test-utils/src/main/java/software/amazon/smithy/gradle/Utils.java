@@ -15,8 +15,11 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
@@ -112,6 +115,59 @@ public final class Utils {
         return Paths.get("..").resolve("examples").resolve(name);
     }
 
+    /**
+     * Lists the example projects of a plugin, leaving out the failure cases that are expected to fail.
+     *
+     * @param plugin directory of the examples of the plugin, such as {@code base-plugin}.
+     * @return the names of the example projects, relative to the examples directory.
+     */
+    public static Stream<String> listExampleProjects(String plugin) {
+        try (Stream<Path> projects = Files.list(getProjectDir(plugin))) {
+            return projects.filter(project -> Files.isRegularFile(project.resolve("settings.gradle.kts")))
+                    .map(project -> plugin + "/" + project.getFileName())
+                    .sorted()
+                    .collect(Collectors.toList())
+                    .stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds a copy of a project twice with the configuration cache enabled, and asserts that the first
+     * build stores a configuration cache entry without problems that the second build reuses.
+     *
+     * @param projectName name of the example project to build.
+     * @param tasks tasks to run in both builds.
+     */
+    public static void assertConfigurationCacheReused(String projectName, String... tasks) {
+        withCopy(projectName, buildDir -> {
+            BuildResult first = createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments(withConfigurationCache(tasks))
+                    .build();
+            Assertions.assertTrue(first.getOutput().contains("Configuration cache entry stored"),
+                    "no configuration cache entry was stored for " + projectName);
+
+            BuildResult second = createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments(withConfigurationCache(tasks))
+                    .build();
+            Assertions.assertTrue(second.getOutput().contains("Configuration cache entry reused"),
+                    "the configuration cache entry was not reused for " + projectName);
+        });
+    }
+
+    private static List<String> withConfigurationCache(String... tasks) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(tasks));
+        arguments.add("--configuration-cache");
+        arguments.add("--configuration-cache-problems=fail");
+        arguments.add("--stacktrace");
+        return arguments;
+    }
+
     public static void assertSmithyBuildTaskRan(BuildResult result) {
         Assertions.assertTrue(result.task(":smithyBuild").getOutcome() == TaskOutcome.SUCCESS);
 
@@ -36,3 +36,33 @@ tasks.withType<Test> {
     // Override version in tests
     environment( "smithygradle.version.override", "0.0.Alpha-Test");
 }
+
+/*
+ * Benchmarks
+ * ====================================================
+ *
+ * Run the JMH benchmarks with `./gradlew :smithy-base:jmh`. Pass `-PjmhIncludes=<regex>` to only
+ * run the matching benchmarks.
+ */
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output + configurations["runtimeClasspath"]
+        runtimeClasspath += output + compileClasspath
+    }
+}
+
+dependencies {
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
+}
+
+// We don't need to lint benchmarks.
+tasks["spotbugsJmh"].enabled = false
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the JMH benchmarks."
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+}
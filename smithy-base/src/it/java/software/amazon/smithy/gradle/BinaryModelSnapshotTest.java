@@ -0,0 +1,67 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BinaryModelSnapshotTest {
+    @Test
+    public void selectsShapesFromSnapshot() {
+        Utils.withCopy("base-plugin/binary-model-snapshot", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "select", "--selector", "[trait|required]", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir, "build/smithy-model-snapshots/smithyBuild.bin");
+            Assertions.assertTrue(result.getOutput().contains("Selecting Smithy shapes from model snapshot"));
+            Assertions.assertTrue(result.getOutput().contains("example.snapshot#Widget$name"));
+            Assertions.assertFalse(result.getOutput().contains("example.snapshot#Gadget$size"));
+
+            BuildResult mixins = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("select", "--selector", "member[id|namespace = 'example.snapshot']")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.UP_TO_DATE, mixins.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(mixins.getOutput().contains("example.snapshot#Widget$created"));
+        });
+    }
+
+    @Test
+    public void selectsErrorsWithMinimumCliVersion() {
+        Utils.withCopy("base-plugin/binary-model-snapshot-minimum-cli", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "select", "--selector", ":is(service, operation) -[error]-> *")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(result.getOutput().contains("example.snapshot#NotFound"));
+            Assertions.assertTrue(result.getOutput().contains("example.snapshot#Throttled"));
+        });
+    }
+
+    @Test
+    public void selectsWithCliWhenShowingValues() {
+        Utils.withCopy("base-plugin/binary-model-snapshot", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("select", "--selector", "[trait|deprecated]", "--show", "type", "--info")
+                    .build();
+
+            Assertions.assertFalse(result.getOutput().contains("Selecting Smithy shapes from model snapshot"));
+            Assertions.assertTrue(result.getOutput().contains("\"shape\": \"example.snapshot#Gadget\""));
+        });
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ClassDataSharingTest {
+    @Test
+    public void forkedWorkersReuseArchive() {
+        Utils.withCopy("base-plugin/fork-class-data-sharing", buildDir -> {
+            // Other forked tests may already have created the archive for this classpath.
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(first);
+            Assertions.assertTrue(first.getOutput().contains("Smithy CLI class data sharing archive"));
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(second);
+            Assertions.assertTrue(second.getOutput().contains("Smithy CLI class data sharing archive hit"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/fork-class-data-sharing/source/model/model.json");
+        });
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CliServerTest {
+    @Test
+    public void reusesServerAcrossBuilds() {
+        Utils.withCopy("base-plugin/cli-server", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(first);
+            Utils.assertValidationRan(first);
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/cli-server/source/build-info/smithy-build-info.json",
+                    "build/smithyprojections/cli-server/source/model/model.json");
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(second);
+            Assertions.assertFalse(second.getOutput().contains("Starting Smithy CLI server"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/cli-server/source/model/model.json");
+        });
+    }
+
+    @Test
+    public void reusesServerWhenUnrelatedEnvironmentVariablesChange() {
+        Utils.withCopy("base-plugin/cli-server", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withEnvironment(environment("step-1"))
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(first);
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withEnvironment(environment("step-2"))
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(second);
+            Assertions.assertFalse(second.getOutput().contains("Starting Smithy CLI server"));
+        });
+    }
+
+    // CI systems such as GitHub Actions set variables like GITHUB_ACTION to a new value in each step.
+    private static Map<String, String> environment(String step) {
+        Map<String, String> result = new HashMap<>(System.getenv());
+        result.put("GITHUB_ACTION", step);
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CliTimingReportTest {
+    @Test
+    public void writesTimingReportsOfTasksAndBuild() {
+        Utils.withCopy("base-plugin/cli-timing-report", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildTaskRan(result);
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/reports/smithy-timings/smithyBuild.json",
+                    "build/reports/smithy-timings/build.json");
+            Assertions.assertTrue(result.getOutput().contains("Smithy CLI invocation(s) of :smithyBuild took"));
+
+            String taskReport = read(buildDir, "build/reports/smithy-timings/smithyBuild.json");
+            Assertions.assertTrue(taskReport.contains("\"command\": \"build\""));
+            Assertions.assertTrue(taskReport.contains("\"classLoader\""));
+            Assertions.assertTrue(taskReport.contains("\"run\""));
+            String buildReport = read(buildDir, "build/reports/smithy-timings/build.json");
+            Assertions.assertTrue(buildReport.contains("\":smithyBuild\""));
+
+            // The timings of each invocation are deleted once they are added to the report.
+            File[] timingFiles = new File(buildDir, "build/tmp/smithyBuild")
+                    .listFiles((dir, name) -> name.startsWith("cli-timings"));
+            Assertions.assertTrue(timingFiles == null || timingFiles.length == 0);
+        });
+    }
+
+    private static String read(File buildDir, String path) {
+        try {
+            return new String(Files.readAllBytes(buildDir.toPath().resolve(path)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import software.amazon.smithy.utils.MapUtils;
+
+public class ConfigurationCacheTest {
+    // Examples that register their own Smithy build tasks rather than configuring the build task.
+    private static final Map<String, String[]> TASKS = MapUtils.of(
+            "base-plugin/lazy-cli-resolution", new String[] {":project-1:clean", ":project-1:lazyBuild"},
+            "base-plugin/memory-budget", new String[] {"clean", "budgetedBuild", "--parallel"},
+            "base-plugin/parallel-build-tasks", new String[] {"clean", "parallelBuild", "--parallel"});
+
+    @ParameterizedTest
+    @MethodSource("exampleProjects")
+    public void reusesConfigurationCache(String projectName) {
+        Utils.assertConfigurationCacheReused(projectName, TASKS.getOrDefault(projectName,
+                new String[] {"clean", "build"}));
+    }
+
+    static Stream<String> exampleProjects() {
+        return Utils.listExampleProjects("base-plugin");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DirectBuildTest {
+    @Test
+    public void buildsProjectionsThroughSmithyBuildApi() {
+        Utils.withCopy("base-plugin/direct-build-api", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildTaskRan(result);
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/direct-build-api/source/build-info/smithy-build-info.json",
+                    "build/smithyprojections/direct-build-api/source/model/model.json",
+                    "build/smithyprojections/direct-build-api/external/model/model.json");
+            Assertions.assertTrue(result.getOutput().contains("Smithy projection source completed after"));
+            Assertions.assertTrue(result.getOutput().contains("Smithy projection external completed after"));
+            Assertions.assertFalse(result.getOutput().contains("Executing smithy build with arguments"));
+
+            String timings = read(buildDir, "build/reports/smithy-timings/smithyBuild.json");
+            Assertions.assertTrue(timings.contains("\"assembleModel\""));
+            Assertions.assertTrue(timings.contains("\"pluginMillis\""));
+        });
+    }
+
+    @Test
+    public void buildsProjectionsWithMinimumCliVersion() {
+        Utils.withCopy("base-plugin/direct-build-minimum-cli", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildTaskRan(result);
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/direct-build-minimum-cli/source/model/model.json",
+                    "build/smithyprojections/direct-build-minimum-cli/external/model/model.json");
+            // The bridge links against the oldest supported version of Smithy, so no feature is dropped.
+            Assertions.assertFalse(result.getOutput().contains("does not support incremental builds"));
+            Assertions.assertFalse(result.getOutput().contains("Executing smithy build with arguments"));
+
+            // Rebuilding with the caches of the first build must not fail either.
+            BuildResult rebuild = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildTaskRan(rebuild);
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/direct-build-minimum-cli/external/model/model.json");
+        });
+    }
+
+    @Test
+    public void reportsValidationEventsOfBrokenModels() {
+        Utils.withCopy("base-plugin/failure-cases/direct-build-invalid-model", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .buildAndFail();
+
+            Assertions.assertTrue(result.getOutput().contains("[ERROR] smithy.example#Baz$foo"));
+            Assertions.assertTrue(result.getOutput().contains("Smithy build failed"));
+            Utils.assertArtifactsNotCreated(buildDir,
+                    "build/smithyprojections/direct-build-invalid-model/source/build-info/smithy-build-info.json");
+        });
+    }
+
+    private static String read(File buildDir, String path) {
+        try {
+            return new String(Files.readAllBytes(buildDir.toPath().resolve(path)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
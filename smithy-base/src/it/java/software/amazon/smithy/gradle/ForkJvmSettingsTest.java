@@ -0,0 +1,37 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ForkJvmSettingsTest {
+    @Test
+    public void sizesHeapFromRecordedUsage() {
+        Utils.withCopy("base-plugin/fork-jvm-settings", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(first);
+            Assertions.assertTrue(first.getOutput().contains("Sizing Smithy CLI worker heap from"));
+            Assertions.assertTrue(first.getOutput().contains("bytes of models"));
+            Assertions.assertTrue(first.getOutput().contains("Forked Smithy CLI worker peak live heap was"));
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+            Utils.assertSmithyBuildTaskRan(second);
+            Assertions.assertTrue(second.getOutput().contains("peak live heap of"));
+            Assertions.assertTrue(second.getOutput().contains("with a maximum heap of"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/fork-jvm-settings/source/model/model.json");
+        });
+    }
+}
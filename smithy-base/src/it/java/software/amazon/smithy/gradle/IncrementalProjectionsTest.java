@@ -0,0 +1,96 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalProjectionsTest {
+    private static final String OUTPUT = "build/smithyprojections/incremental-projections/";
+
+    @Test
+    public void rebuildsOnlyAffectedProjections() {
+        Utils.withCopy("base-plugin/incremental-projections", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir,
+                    OUTPUT + "a/model/model.json",
+                    OUTPUT + "b/model/model.json",
+                    OUTPUT + "source/model/model.json",
+                    "build/smithy-projection-index/smithyBuild.json");
+            Path bModel = buildDir.toPath().resolve(OUTPUT + "b/model/model.json");
+            FileTime bModified = Files.getLastModifiedTime(bModel);
+
+            Files.write(buildDir.toPath().resolve("model/a.smithy"),
+                    "\nstructure A2 {}\n".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(second.getOutput().contains("up to date: [b]"));
+            Assertions.assertEquals(bModified, Files.getLastModifiedTime(bModel));
+            Assertions.assertTrue(read(buildDir, OUTPUT + "a/model/model.json").contains("example.a#A2"));
+            Assertions.assertTrue(read(buildDir, OUTPUT + "source/model/model.json").contains("example.a#A2"));
+        });
+    }
+
+    @Test
+    public void rebuildsEveryProjectionWithoutDirectBuild() {
+        Utils.withCopy("base-plugin/incremental-projections", buildDir -> {
+            Path buildFile = buildDir.toPath().resolve("build.gradle.kts");
+            Files.write(buildFile, read(buildDir, "build.gradle.kts")
+                    .replace("enabled.set(true)", "enabled.set(false)")
+                    .getBytes(StandardCharsets.UTF_8));
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir,
+                    OUTPUT + "a/model/model.json",
+                    OUTPUT + "b/model/model.json",
+                    OUTPUT + "source/sources/b.smithy");
+            Utils.assertArtifactsNotCreated(buildDir, "build/smithy-projection-index/smithyBuild.json");
+
+            Files.delete(buildDir.toPath().resolve("model/b.smithy"));
+            Files.write(buildDir.toPath().resolve("model/a.smithy"),
+                    "\nstructure A2 {}\n".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuild").getOutcome());
+            Assertions.assertFalse(second.getOutput().contains("Smithy model files changed since the previous build"));
+            Assertions.assertTrue(read(buildDir, OUTPUT + "a/model/model.json").contains("example.a#A2"));
+            Assertions.assertFalse(read(buildDir, OUTPUT + "b/model/model.json").contains("example.b#"));
+            Utils.assertArtifactsNotCreated(buildDir, OUTPUT + "source/sources/b.smithy");
+        });
+    }
+
+    private static String read(File buildDir, String path) throws IOException {
+        return new String(Files.readAllBytes(buildDir.toPath().resolve(path)), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InfersCliVersionTest {
+    @Test
+    public void infersCliVersionFromRuntimeDependencies() {
+        Utils.withCopy("base-plugin/infers-cli-version", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "dependencies", "--configuration", "smithyCli",
+                            "--info", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildTaskRan(result);
+            Assertions.assertTrue(result.getOutput().contains("(detected Smithy CLI version 1.60.2)"));
+            Assertions.assertTrue(result.getOutput().contains("software.amazon.smithy:smithy-cli:1.60.2"));
+        });
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LazyCliResolutionTest {
+    @Test
+    public void configuringProjectsDoesNotResolveDependencies() {
+        Utils.withCopy("base-plugin/lazy-cli-resolution", buildDir -> {
+            Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("help", "--stacktrace")
+                    .build();
+
+            // The CLI version is detected from smithy-model once a Smithy task needs the CLI.
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments(":project-1:lazyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":project-1:lazyBuild").getOutcome());
+            Assertions.assertTrue(result.getOutput().contains("(detected Smithy CLI version"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "projects/project-1/build/smithyprojections/project-1/source/model/model.json");
+        });
+    }
+}
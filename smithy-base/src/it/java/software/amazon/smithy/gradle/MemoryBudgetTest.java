@@ -0,0 +1,79 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+
+public class MemoryBudgetTest {
+    private static final int TASK_COUNT = 8;
+    // The wall clock that invocations are started by can be coarser than the durations of their phases.
+    private static final long CLOCK_TOLERANCE_MILLIS = 20;
+
+    @Test
+    public void runsOneInvocationAtATimeWithinBudget() {
+        Utils.withCopy("base-plugin/memory-budget", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("budgetedBuild", "--parallel", "--max-workers=4", "--stacktrace")
+                    .build();
+
+            // Each invocation runs from when it started until the end of its last phase. The time spent
+            // queued for a worker is measured before the invocation starts.
+            List<long[]> invocations = new ArrayList<>();
+            int waited = 0;
+            for (int i = 1; i <= TASK_COUNT; i++) {
+                String project = "budget-" + i;
+                Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":" + project + ":budgetedBuild").getOutcome());
+                Utils.assertArtifactsCreated(buildDir,
+                        "projects/" + project + "/build/smithyprojections/" + project + "/source/model/model.json");
+                ObjectNode report = readReport(buildDir, project);
+                if (report.expectObjectMember("phases").containsMember("memoryBudget")) {
+                    waited++;
+                }
+                for (Node invocation : report.expectArrayMember("invocations").getElements()) {
+                    ObjectNode timings = invocation.expectObjectNode();
+                    long start = timings.expectNumberMember("startedAtEpochMillis").getValue().longValue();
+                    long duration = 0;
+                    for (Map.Entry<StringNode, Node> phase : timings.expectObjectMember("phases").getMembers()
+                            .entrySet()) {
+                        if (!phase.getKey().getValue().equals("queue")) {
+                            duration += phase.getValue().expectNumberNode().getValue().longValue();
+                        }
+                    }
+                    invocations.add(new long[] {start, start + duration});
+                }
+            }
+
+            Assertions.assertEquals(TASK_COUNT, invocations.size());
+            invocations.sort(Comparator.comparingLong(invocation -> invocation[0]));
+            for (int i = 1; i < invocations.size(); i++) {
+                Assertions.assertTrue(invocations.get(i - 1)[1] <= invocations.get(i)[0] + CLOCK_TOLERANCE_MILLIS,
+                        "in-process Smithy CLI invocations overlapped although the budget only admits one");
+            }
+            Assertions.assertTrue(waited > 0, "no task waited for the memory budget");
+        });
+    }
+
+    private static ObjectNode readReport(File buildDir, String project) throws IOException {
+        File report = new File(buildDir, "projects/" + project + "/build/reports/smithy-timings/budgetedBuild.json");
+        return Node.parse(new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8))
+                .expectObjectNode();
+    }
+}
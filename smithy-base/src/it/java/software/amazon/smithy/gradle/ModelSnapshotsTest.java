@@ -0,0 +1,28 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ModelSnapshotsTest {
+    @Test
+    public void discoversModelsInSnapshotsOfDependencies() {
+        Utils.withCopy("base-plugin/model-snapshots", buildDir -> {
+            // Debug output includes the discovery classpath passed to the Smithy CLI.
+            BuildResult result = Utils.createGradleRunner()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--debug", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(result.getOutput().contains("-smithy-snapshot.jar"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/model-snapshots/source/model/model.json");
+        });
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParallelBuildTasksTest {
+    private static final int TASK_COUNT = 32;
+
+    @Test
+    public void runsManyBuildTasksConcurrentlyInOneDaemon() {
+        Utils.withCopy("base-plugin/parallel-build-tasks", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("parallelBuild", "verifySettingsRestored", "--parallel", "--max-workers=8", "--stacktrace")
+                    .build();
+
+            for (int i = 1; i <= TASK_COUNT; i++) {
+                String project = "build-" + i;
+                Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":" + project + ":parallelBuild").getOutcome());
+                Utils.assertArtifactsCreated(buildDir,
+                        "projects/" + project + "/build/smithyprojections/" + project
+                                + "/source/build-info/smithy-build-info.json",
+                        "projects/" + project + "/build/smithyprojections/" + project + "/source/model/model.json");
+            }
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":verifySettingsRestored").getOutcome());
+        });
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParseCacheTest {
+    private static final Pattern LOADED = Pattern.compile(
+            "Loaded (\\d+) Smithy model file\\(s\\) from the parse cache and parsed (\\d+)");
+
+    @Test
+    public void parsesOnlyChangedFiles() {
+        Utils.withCopy("base-plugin/parse-cache", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--info", "--stacktrace")
+                    .build();
+
+            // Earlier runs of the test may have cached the files already.
+            Matcher first = matchLoaded(result);
+            Assertions.assertEquals(3, Integer.parseInt(first.group(1)) + Integer.parseInt(first.group(2)));
+            Utils.assertArtifactsCreated(buildDir, "build/smithyprojections/parse-cache/source/model/model.json");
+
+            // The comment makes the contents of the file new to the cache.
+            append(buildDir.toPath().resolve("model/gadgets.smithy"),
+                    "\n// Edited at " + System.nanoTime() + "\nstructure Gizmo with [Identified] {}\n");
+            result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("build", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Matcher second = matchLoaded(result);
+            Assertions.assertEquals("2", second.group(1));
+            Assertions.assertEquals("1", second.group(2));
+            String model = new String(Files.readAllBytes(buildDir.toPath()
+                    .resolve("build/smithyprojections/parse-cache/source/model/model.json")), StandardCharsets.UTF_8);
+            Assertions.assertTrue(model.contains("example.parsed#Gizmo"));
+            Assertions.assertTrue(model.contains("A widget that can be part of a gadget."));
+        });
+    }
+
+    @Test
+    public void reportsErrorsOfCachedModels() {
+        Utils.withCopy("base-plugin/parse-cache", buildDir -> {
+            Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("build", "--stacktrace")
+                    .build();
+
+            append(buildDir.toPath().resolve("model/gadgets.smithy"),
+                    "\n// Edited at " + System.nanoTime() + "\nstructure Broken { missing: Missing }\n");
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("build", "--stacktrace")
+                    .buildAndFail();
+
+            Assertions.assertTrue(result.getOutput().contains("example.parsed#Missing"));
+            Assertions.assertTrue(result.getOutput().contains("gadgets.smithy"));
+        });
+    }
+
+    private static Matcher matchLoaded(BuildResult result) {
+        Matcher matcher = LOADED.matcher(result.getOutput());
+        Assertions.assertTrue(matcher.find(), "parse cache was not used");
+        return matcher;
+    }
+
+    private static void append(Path file, String contents) throws IOException {
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
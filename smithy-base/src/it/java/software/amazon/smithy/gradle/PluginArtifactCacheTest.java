@@ -0,0 +1,39 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PluginArtifactCacheTest {
+    private static final String REPORT =
+            "build/smithyprojections/plugin-artifact-cache/source/nullabilityReport/nullability-report.json";
+
+    @Test
+    public void restoresPluginArtifactsAfterClean() {
+        Utils.withCopy("base-plugin/plugin-artifact-cache", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir, REPORT);
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(second.getOutput()
+                    .contains("source restored artifacts of plugins from cache: [nullabilityReport]"));
+            Utils.assertArtifactsCreated(buildDir, REPORT);
+        });
+    }
+}
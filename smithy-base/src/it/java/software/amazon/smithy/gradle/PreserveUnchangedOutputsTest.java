@@ -0,0 +1,89 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PreserveUnchangedOutputsTest {
+    private static final String OUTPUT = "build/smithyprojections/preserve-unchanged-outputs/source/";
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000L);
+
+    @Test
+    public void leavesUnchangedOutputsUntouched() {
+        Utils.withCopy("base-plugin/preserve-unchanged-outputs", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir,
+                    OUTPUT + "model/model.json",
+                    OUTPUT + "sources/main.smithy");
+            Path modelJson = buildDir.toPath().resolve(OUTPUT + "model/model.json");
+            Files.setLastModifiedTime(modelJson, OLD);
+
+            Files.write(buildDir.toPath().resolve("model/main.smithy"),
+                    "\n// A comment does not change the model.\n".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(second.getOutput().contains("Synchronized Smithy build outputs"));
+            Assertions.assertEquals(OLD, Files.getLastModifiedTime(modelJson));
+            Assertions.assertTrue(read(buildDir.toPath().resolve(OUTPUT + "sources/main.smithy"))
+                    .contains("A comment does not change the model."));
+        });
+    }
+
+    @Test
+    public void rewritesOutputsWhenBuildIsNotIncremental() {
+        Utils.withCopy("base-plugin/preserve-unchanged-outputs", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Path modelJson = buildDir.toPath().resolve(OUTPUT + "model/model.json");
+            Files.setLastModifiedTime(modelJson, OLD);
+
+            // A change to a smithy-build config is not incremental, so Gradle empties the output directory.
+            Files.write(buildDir.toPath().resolve("smithy-build.json"),
+                    "{\n  \"version\": \"1.0\",\n  \"projections\": {\"other\": {}}\n}\n"
+                            .getBytes(StandardCharsets.UTF_8));
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(second.getOutput().contains(", 0 unchanged,"));
+            Utils.assertArtifactsCreated(buildDir,
+                    OUTPUT + "model/model.json",
+                    OUTPUT + "sources/main.smithy",
+                    "build/smithyprojections/preserve-unchanged-outputs/other/model/model.json");
+            Assertions.assertNotEquals(OLD, Files.getLastModifiedTime(modelJson));
+        });
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
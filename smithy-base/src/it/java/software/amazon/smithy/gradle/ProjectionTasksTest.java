@@ -0,0 +1,124 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProjectionTasksTest {
+    private static final String EXTERNAL_MODEL = "build/smithyprojections/projection-tasks/external/model/model.json";
+
+    @Test
+    public void buildsEachProjectionInItsOwnTask() {
+        Utils.withCopy("base-plugin/projection-tasks", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildSource").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildExternal").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Assertions.assertNull(result.task(":smithyBuildWithoutInternal"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/projection-tasks/source/build-info/smithy-build-info.json",
+                    "build/smithyprojections/projection-tasks/source/model/model.json",
+                    "build/smithyprojections/projection-tasks/external/build-info/smithy-build-info.json",
+                    EXTERNAL_MODEL);
+            Utils.assertArtifactsNotCreated(buildDir,
+                    "build/smithyprojections/projection-tasks/without-internal",
+                    "build/smithyprojections/projection-tasks/source/external");
+
+            String externalModel = new String(Files.readAllBytes(buildDir.toPath().resolve(EXTERNAL_MODEL)),
+                    StandardCharsets.UTF_8);
+            Assertions.assertTrue(externalModel.contains("smithy.example#Foo"));
+            Assertions.assertFalse(externalModel.contains("smithy.example#Bar"));
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.UP_TO_DATE, second.task(":smithyBuildSource").getOutcome());
+            Assertions.assertEquals(TaskOutcome.UP_TO_DATE, second.task(":smithyBuildExternal").getOutcome());
+            // The build task has no actions of its own, so it is only up to date when its projection tasks are.
+            Assertions.assertEquals(TaskOutcome.UP_TO_DATE, second.task(":smithyBuild").getOutcome());
+        });
+    }
+
+    @Test
+    public void addingProjectionInvalidatesConfigurationCache() {
+        Utils.withCopy("base-plugin/projection-tasks", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--configuration-cache", "--stacktrace")
+                    .build();
+            Assertions.assertTrue(first.getOutput().contains("Configuration cache entry stored"));
+
+            Path config = buildDir.toPath().resolve("smithy-build.json");
+            String contents = new String(Files.readAllBytes(config), StandardCharsets.UTF_8);
+            Files.write(config, contents.replace("\"external\": {", "\"internal\": {},\n    \"external\": {")
+                    .getBytes(StandardCharsets.UTF_8));
+
+            BuildResult second = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--configuration-cache", "--stacktrace")
+                    .build();
+            Assertions.assertFalse(second.getOutput().contains("Configuration cache entry reused"));
+            Assertions.assertEquals(TaskOutcome.SUCCESS, second.task(":smithyBuildInternal").getOutcome());
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/projection-tasks/internal/model/model.json");
+        });
+    }
+
+    @Test
+    public void buildsProjectionsWithImportsAndOfEveryConfig() {
+        Utils.withCopy("base-plugin/projection-tasks-imports", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "build", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildSource").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildExternal").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildInternal").getOutcome());
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/projection-tasks-imports/internal/model/model.json");
+
+            String externalModel = new String(Files.readAllBytes(buildDir.toPath()
+                    .resolve("build/smithyprojections/projection-tasks-imports/external/model/model.json")),
+                    StandardCharsets.UTF_8);
+            Assertions.assertTrue(externalModel.contains("smithy.example#Imported"));
+        });
+    }
+
+    @Test
+    public void failsWhenConfigImportsAnotherConfig() {
+        Utils.withCopy("base-plugin/projection-tasks-imports", buildDir -> {
+            Path config = buildDir.toPath().resolve("smithy-build.json");
+            String contents = new String(Files.readAllBytes(config), StandardCharsets.UTF_8);
+            Files.write(config, contents.replace("[\"imports\"]", "[\"imports\", \"internal-build.json\"]")
+                    .getBytes(StandardCharsets.UTF_8));
+
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("tasks", "--stacktrace")
+                    .buildAndFail();
+
+            Assertions.assertTrue(result.getOutput().contains("internal-build.json"));
+            Assertions.assertTrue(result.getOutput().contains("add these configs to `smithyBuildConfigs`"));
+        });
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RelocatableOutputsTest {
+    private static final String PROJECT = "base-plugin/relocatable-outputs";
+    private static final String BUILD_INFO =
+            "build/smithyprojections/relocatable-outputs/source/build-info/smithy-build-info.json";
+
+    @Test
+    public void loadsOutputsFromCacheInAnotherCheckout() {
+        Utils.withCopy(PROJECT, buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--build-cache", "--stacktrace")
+                    .build();
+            Assertions.assertNotEquals(TaskOutcome.FAILED, first.task(":smithyBuild").getOutcome());
+            String buildInfo = new String(Files.readAllBytes(buildDir.toPath().resolve(BUILD_INFO)),
+                    StandardCharsets.UTF_8);
+            Assertions.assertTrue(buildInfo.contains("\"model/main.smithy\""));
+            Assertions.assertFalse(buildInfo.contains(buildDir.getCanonicalPath()));
+            Assertions.assertFalse(buildInfo.contains(buildDir.getAbsolutePath()));
+
+            File movedDir = Utils.createTempDir("relocatable-outputs-moved").toFile();
+            try {
+                Utils.copyProject(PROJECT, movedDir);
+                BuildResult moved = Utils.createGradleRunner()
+                        .forwardOutput()
+                        .withProjectDir(movedDir)
+                        .withArguments("clean", "smithyBuild", "--build-cache", "--stacktrace")
+                        .build();
+                Assertions.assertEquals(TaskOutcome.FROM_CACHE, moved.task(":smithyBuild").getOutcome());
+                Utils.assertArtifactsCreated(movedDir, BUILD_INFO);
+            } finally {
+                Utils.deleteTempDir(movedDir);
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SemanticFingerprintTest {
+    private static final String MODEL_JSON = "build/smithyprojections/semantic-fingerprint/source/model/model.json";
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000L);
+
+    @Test
+    public void skipsProjectionsWhenModelIsUnchanged() {
+        Utils.withCopy("base-plugin/semantic-fingerprint", buildDir -> {
+            BuildResult first = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--stacktrace")
+                    .build();
+            Assertions.assertEquals(TaskOutcome.SUCCESS, first.task(":smithyBuild").getOutcome());
+            Utils.assertArtifactsCreated(buildDir, MODEL_JSON);
+            Path modelJson = buildDir.toPath().resolve(MODEL_JSON);
+            Files.setLastModifiedTime(modelJson, OLD);
+
+            append(buildDir.toPath(), "\n// A comment does not change the model.\n");
+            BuildResult reformatted = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, reformatted.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(reformatted.getOutput().contains("unchanged apart from formatting"));
+            Assertions.assertEquals(OLD, Files.getLastModifiedTime(modelJson));
+
+            append(buildDir.toPath(), "\nstructure Gadget {}\n");
+            BuildResult changed = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("smithyBuild", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, changed.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(new String(Files.readAllBytes(modelJson), StandardCharsets.UTF_8)
+                    .contains("example.fingerprint#Gadget"));
+        });
+    }
+
+    @Test
+    public void doesNotCacheOutputsThatMayComeFromEarlierModelFiles() {
+        Utils.withCopy("base-plugin/semantic-fingerprint", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "--build-cache", "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuild").getOutcome());
+            Assertions.assertTrue(result.getOutput().contains(
+                    "semantic fingerprints may keep outputs built from earlier model files"));
+        });
+    }
+
+    private static void append(Path buildDir, String contents) throws IOException {
+        Files.write(buildDir.resolve("model/main.smithy"), contents.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    }
+}
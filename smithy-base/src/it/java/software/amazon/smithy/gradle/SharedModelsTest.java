@@ -0,0 +1,63 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SharedModelsTest {
+    private static final String REUSED = "Reused the Smithy model assembled by an earlier task of the build";
+    private static final String SELECTED = "Selecting Smithy shapes from the model shared by an earlier task";
+
+    @Test
+    public void sharesModelBetweenTasks() {
+        Utils.withCopy("base-plugin/shared-models", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("clean", "smithyBuild", "select", "--selector", "[trait|required]",
+                            "--info", "--stacktrace")
+                    .build();
+
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildSource").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":smithyBuildExternal").getOutcome());
+            // The model is assembled by the first projection task and reused by the second one.
+            Assertions.assertEquals(1, count(result.getOutput(), REUSED));
+            Assertions.assertTrue(result.getOutput().contains(SELECTED));
+            Assertions.assertTrue(result.getOutput().contains("example.shared#Widget$name"));
+            Assertions.assertTrue(result.getOutput().contains("example.shared#InternalWidget$id"));
+            Utils.assertArtifactsCreated(buildDir,
+                    "build/smithyprojections/shared-models/external/model/model.json");
+        });
+    }
+
+    @Test
+    public void assemblesModelWhenSelectingAlone() {
+        Utils.withCopy("base-plugin/shared-models", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("select", "--selector", "[trait|required]", "--info", "--stacktrace")
+                    .build();
+
+            Utils.assertSmithyBuildDidNotRun(result);
+            Assertions.assertNull(result.task(":smithyBuildSource"));
+            Assertions.assertFalse(result.getOutput().contains(SELECTED));
+            Assertions.assertTrue(result.getOutput().contains("example.shared#Widget$name"));
+        });
+    }
+
+    private static int count(String output, String message) {
+        int count = 0;
+        int index = output.indexOf(message);
+        while (index >= 0) {
+            count++;
+            index = output.indexOf(message, index + message.length());
+        }
+        return count;
+    }
+}
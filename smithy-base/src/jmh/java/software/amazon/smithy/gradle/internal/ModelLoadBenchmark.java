@@ -0,0 +1,97 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.shapes.ModelSerializer;
+
+/**
+ * Compares loading the same model from the Smithy IDL, the JSON AST, and a {@link BinaryModelSnapshot}.
+ *
+ * <p>Every load skips validation, so that only the cost of reading the model is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelLoadBenchmark {
+    @Param({"100", "1000"})
+    public int structures;
+
+    private String idl;
+    private String json;
+    private Path snapshotDir;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        idl = generateIdl(structures);
+        Model model = Model.assembler().addUnparsedModel("model.smithy", idl).assemble().unwrap();
+        json = Node.printJson(ModelSerializer.builder().build().serialize(model));
+        snapshotDir = Files.createTempDirectory("smithy-model-snapshot");
+        snapshot = snapshotDir.resolve("model.bin");
+        BinaryModelSnapshot.write(model, snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(snapshotDir);
+    }
+
+    @Benchmark
+    public Model loadIdl() {
+        return Model.assembler().addUnparsedModel("model.smithy", idl).disableValidation().assemble().unwrap();
+    }
+
+    @Benchmark
+    public Model loadJsonAst() {
+        return Model.assembler().addUnparsedModel("model.json", json).disableValidation().assemble().unwrap();
+    }
+
+    @Benchmark
+    public Model loadSnapshot() {
+        return BinaryModelSnapshot.read(snapshot).load(getClass().getClassLoader());
+    }
+
+    // Each structure has documented members with constraint traits, like a typical service model.
+    private static String generateIdl(int structures) {
+        StringBuilder builder = new StringBuilder("$version: \"2.0\"\n\nnamespace smithy.example\n\n");
+        builder.append("enum Status {\n    ACTIVE\n    INACTIVE\n}\n\n");
+        for (int i = 0; i < structures; i++) {
+            builder.append("/// Structure number ").append(i).append(".\n")
+                    .append("structure Structure").append(i).append(" {\n")
+                    .append("    /// The name.\n    @required\n    @length(min: 1, max: 256)\n    name: String\n\n")
+                    .append("    /// The count.\n    @range(min: 0)\n    count: Integer = 0\n\n")
+                    .append("    status: Status\n\n")
+                    .append("    @timestampFormat(\"date-time\")\n    created: Timestamp\n");
+            if (i > 0) {
+                builder.append("\n    previous: Structure").append(i - 1).append('\n');
+            }
+            builder.append("}\n\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+
+/**
+ * Settings of builds that call the smithy-build API directly instead of running the {@code build}
+ * command of the Smithy CLI.
+ *
+ * <p>Every setting other than {@link #getEnabled()} only applies while direct builds are enabled.
+ * Build tasks warn about settings that are enabled while direct builds are not, see
+ * {@link #findIgnoredSettings()}. Every setting defaults to {@code false}.
+ */
+public abstract class DirectBuildSettings {
+    public DirectBuildSettings() {
+        getEnabled().convention(false);
+        getPluginArtifactCache().convention(false);
+        getSemanticFingerprint().convention(false);
+        getBuildModelSnapshot().convention(false);
+        getShareModels().convention(false);
+        getParseCache().convention(false);
+    }
+
+    /**
+     * Gets whether to build models by calling the smithy-build API directly instead of
+     * running the {@code build} command of the Smithy CLI.
+     *
+     * <p>The build still runs with the Smithy libraries of the CLI classpath, but the task
+     * receives structured results: validation events are reported through Gradle logging,
+     * and the build time and produced files of each projection are logged at info level.
+     * The setting does not affect the outputs of the task.
+     *
+     * <p>This setting takes precedence over {@link SmithyExtension#getCliServer()}.
+     *
+     * @return Returns true if models should be built through the smithy-build API.
+     */
+    @Internal
+    public abstract Property<Boolean> getEnabled();
+
+    /**
+     * Gets whether to restore the artifacts of smithy-build plugins from a cache when they run again
+     * with the same inputs.
+     *
+     * <p>When enabled, the artifacts of each plugin are stored in the Gradle user home, keyed by the
+     * projected model, the source shapes of the projection, the plugin settings, and the contents of the
+     * Smithy CLI and model discovery classpaths. A plugin that runs with the same key again, in any project
+     * or after a clean, restores its artifacts instead. The built-in {@code model}, {@code sources}, and
+     * {@code build-info} plugins are always run. Plugins that write files outside of their file manifest
+     * are run every time.
+     *
+     * @return Returns true if plugin artifacts should be cached.
+     */
+    @Internal
+    public abstract Property<Boolean> getPluginArtifactCache();
+
+    /**
+     * Gets whether to skip building projections when changed model files still define the same model.
+     *
+     * <p>When enabled, a fingerprint of the shapes, traits, and metadata of the assembled model is
+     * compared with the one of the previous build, so that reformatting a file, reordering its
+     * {@code use} statements, or editing its comments does not rebuild any projection. Outputs that
+     * copy the model files themselves, such as those of the {@code sources} plugin, are not updated by
+     * such edits. Since the outputs of the task may then have been built from earlier model files, they
+     * are not stored in the build cache.
+     *
+     * @return Returns true if model fingerprints should be compared.
+     */
+    @Input
+    public abstract Property<Boolean> getSemanticFingerprint();
+
+    /**
+     * Gets whether the build task writes a binary snapshot of the assembled model for later tasks to load.
+     *
+     * <p>When enabled, the build task of each source set writes a compact binary snapshot of its
+     * assembled model to {@code build/smithy-model-snapshots}. The select task of the source set then
+     * depends on the build task and selects shape IDs from the snapshot, without parsing or validating
+     * the models again. Select tasks with the {@code --show} or {@code --show-traits} options still
+     * run the Smithy CLI. Snapshots are not written when {@link SmithyExtension#getProjectionTasks()}
+     * is enabled.
+     *
+     * @return Returns true if the build task should write a model snapshot.
+     */
+    @Internal
+    public abstract Property<Boolean> getBuildModelSnapshot();
+
+    /**
+     * Gets whether Smithy tasks of the same build share assembled models.
+     *
+     * <p>When enabled, the build task, each projection task, and the select task of a source set keep
+     * the validated model they assemble in a build service, keyed by the hash of their model files,
+     * smithy-build configs, model discovery classpath, and Smithy CLI classpath. Later tasks of the build
+     * with the same inputs reuse the model rather than parsing and validating the models again, and
+     * select tasks without the {@code --show} or {@code --show-traits} options select shapes from it.
+     * Models are held by soft references, so they are released under memory pressure.
+     *
+     * <p>Models are only shared when {@link SmithyExtension#getFork()} is disabled, since they can only
+     * be reused by tasks that run in the Gradle daemon with the same Smithy CLI class loader.
+     *
+     * @return Returns true if assembled models should be shared between tasks.
+     */
+    @Internal
+    public abstract Property<Boolean> getShareModels();
+
+    /**
+     * Gets whether the build task loads unchanged model files from a cache of parsed files.
+     *
+     * <p>When enabled, the parsed form of each Smithy IDL file of the source directories is kept in the
+     * Gradle user home, keyed by the hash of the file contents and the Smithy version. Later builds only
+     * tokenize and parse the files that changed, and load the others from the cache before validating
+     * the model as a whole. Entries that have not been used for a week are removed, along with the least
+     * recently used entries once the cache grows beyond 512 MiB.
+     *
+     * @return Returns true if parsed model files should be cached.
+     */
+    @Internal
+    public abstract Property<Boolean> getParseCache();
+
+    /**
+     * Finds the settings that are enabled but have no effect, since direct builds are disabled.
+     *
+     * @return Returns the names of the ignored settings, or an empty list if none are ignored.
+     */
+    public List<String> findIgnoredSettings() {
+        List<String> ignored = new ArrayList<>();
+        if (getEnabled().get()) {
+            return ignored;
+        }
+        addIfEnabled(ignored, "pluginArtifactCache", getPluginArtifactCache());
+        addIfEnabled(ignored, "semanticFingerprint", getSemanticFingerprint());
+        addIfEnabled(ignored, "buildModelSnapshot", getBuildModelSnapshot());
+        addIfEnabled(ignored, "shareModels", getShareModels());
+        addIfEnabled(ignored, "parseCache", getParseCache());
+        return ignored;
+    }
+
+    // Copies the settings of the extension to a task, so that they stay lazily connected.
+    void set(DirectBuildSettings settings) {
+        getEnabled().set(settings.getEnabled());
+        getPluginArtifactCache().set(settings.getPluginArtifactCache());
+        getSemanticFingerprint().set(settings.getSemanticFingerprint());
+        getBuildModelSnapshot().set(settings.getBuildModelSnapshot());
+        getShareModels().set(settings.getShareModels());
+        getParseCache().set(settings.getParseCache());
+    }
+
+    private static void addIfEnabled(List<String> names, String name, Property<Boolean> setting) {
+        if (setting.get()) {
+            names.add(name);
+        }
+    }
+}
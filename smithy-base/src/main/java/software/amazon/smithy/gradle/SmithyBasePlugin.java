@@ -4,6 +4,10 @@
  */
 package software.amazon.smithy.gradle;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import org.gradle.api.GradleException;
@@ -11,18 +15,31 @@ import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.language.base.plugins.LifecycleBasePlugin;
 import org.gradle.plugins.ide.idea.IdeaPlugin;
 import org.gradle.util.GradleVersion;
+import software.amazon.smithy.gradle.internal.CliClassLoaderService;
 import software.amazon.smithy.gradle.internal.CliDependencyResolver;
+import software.amazon.smithy.gradle.internal.ModelSnapshotTransform;
+import software.amazon.smithy.gradle.internal.SmithyBuildConfigService;
+import software.amazon.smithy.gradle.internal.SmithyBuildProjections;
+import software.amazon.smithy.gradle.internal.SmithyMemoryBudgetService;
+import software.amazon.smithy.gradle.internal.SmithyModelService;
+import software.amazon.smithy.gradle.internal.SmithyTimingService;
 import software.amazon.smithy.gradle.tasks.SmithyBuildTask;
 import software.amazon.smithy.gradle.tasks.SmithyFormatCheckTask;
 import software.amazon.smithy.gradle.tasks.SmithyFormatTask;
 import software.amazon.smithy.gradle.tasks.SmithySelectTask;
+import software.amazon.smithy.gradle.tasks.SmithyValidateTask;
 
 /**
  * A {@link org.gradle.api.Plugin} that builds and validates Smithy models.
@@ -46,8 +63,11 @@ public final class SmithyBasePlugin implements Plugin<Project> {
     public static final String SMITHY_FORMAT_CHECK_TASK_NAME = "smithyFormatCheck";
 
     private static final GradleVersion MINIMUM_GRADLE_VERSION = GradleVersion.version("8.2");
+    private static final String MODEL_SNAPSHOT_DIR = "smithy-model-snapshots";
+    private static final String HEAP_HISTORY_DIR = "smithy/fork-heap";
 
     private final Project project;
+    private Provider<SmithyBuildConfigService> buildConfigs;
 
     @Inject
     public SmithyBasePlugin(Project project) {
@@ -66,6 +86,26 @@ public final class SmithyBasePlugin implements Plugin<Project> {
         SmithyExtension smithyExtension = project.getExtensions().create("smithy", SmithyExtension.class);
 
         configureSmithyCliConfig(project);
+        configureCliTaskDefaults(project);
+
+        // Share CLI class loaders between every Smithy task in the build
+        CliClassLoaderService.register(project);
+
+        // Limit concurrent in-process Smithy CLI invocations by their estimated memory
+        SmithyMemoryBudgetService.register(project);
+
+        // Aggregate the CLI timings of every Smithy task in the build
+        SmithyTimingService.register(project);
+
+        // Share assembled models between the Smithy tasks of the build
+        SmithyModelService.register(project);
+
+        // Parse each smithy-build config once per build
+        buildConfigs = SmithyBuildConfigService.register(project);
+
+        // Parse the models of dependency JARs once per JAR rather than in every build
+        ModelSnapshotTransform.register(project);
+
         configureSourceSetDefaults(project, smithyExtension);
     }
 
@@ -84,14 +124,50 @@ public final class SmithyBasePlugin implements Plugin<Project> {
                 .maybeCreate(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME);
         smithyCliConfiguration.setVisible(true);
         smithyCliConfiguration.setDescription("Configuration for Smithy CLI and associated dependencies.");
+
+        // Add the Smithy CLI artifact once the configuration is resolved
+        CliDependencyResolver.register(project);
+    }
+
+    private static void configureCliTaskDefaults(Project project) {
+        // Tasks never read the project, so the defaults that come from it are set here as providers.
+        Provider<Configuration> cliClasspath = project.getConfigurations()
+                .named(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME);
+        File projectCacheDir = project.getGradle().getStartParameter().getProjectCacheDir();
+        File rootDir = project.getRootDir();
+        Provider<Directory> heapHistory = project.getLayout()
+                .dir(project.getProviders().provider(() -> projectCacheDir != null
+                        ? projectCacheDir
+                        : new File(rootDir, ".gradle")))
+                .map(dir -> dir.dir(HEAP_HISTORY_DIR));
+        Provider<Directory> outputDir = SmithyUtils.getProjectionOutputDirProperty(project);
+        TaskContainer tasks = project.getTasks();
+        tasks.withType(SmithyBuildTask.class).configureEach(task -> {
+            task.getCliClasspath().convention(cliClasspath);
+            task.getForkHeapHistoryDirectory().convention(heapHistory);
+            task.getOutputDir().convention(outputDir);
+        });
+        tasks.withType(SmithySelectTask.class).configureEach(task -> {
+            task.getCliClasspath().convention(cliClasspath);
+            task.getForkHeapHistoryDirectory().convention(heapHistory);
+        });
+        tasks.withType(SmithyValidateTask.class).configureEach(task -> {
+            task.getCliClasspath().convention(cliClasspath);
+            task.getForkHeapHistoryDirectory().convention(heapHistory);
+        });
+        // Also configures format check tasks, which extend format tasks.
+        tasks.withType(SmithyFormatTask.class).configureEach(task -> {
+            task.getCliClasspath().convention(cliClasspath);
+            task.getForkHeapHistoryDirectory().convention(heapHistory);
+        });
     }
 
     private void configureSourceSetDefaults(Project project, SmithyExtension extension) {
         project.getExtensions().getByType(SourceSetContainer.class).all(sourceSet -> {
             createConfigurations(sourceSet, project.getConfigurations());
             SmithySourceDirectorySet sds = registerSourceSets(sourceSet, extension);
-            addSelectTaskForSourceSet(sourceSet, sds, extension);
             TaskProvider<SmithyBuildTask> buildTaskTaskProvider = addBuildTaskForSourceSet(sourceSet, sds, extension);
+            addSelectTaskForSourceSet(sourceSet, sds, extension, buildTaskTaskProvider);
             // Ensure smithy-build is executed as part of building the "main" feature
             if (SourceSet.isMain(sourceSet)) {
                 // The CLI configuration should extend the main runtimeClasspath config, so we can
@@ -99,14 +175,12 @@ public final class SmithyBasePlugin implements Plugin<Project> {
                 Configuration runtimeClasspathConfig = project.getConfigurations()
                         .getByName(sourceSet.getRuntimeClasspathConfigurationName());
                 SmithyUtils.getCliConfiguration(project).extendsFrom(runtimeClasspathConfig);
-                project.getTasks().getByName("build").dependsOn(buildTaskTaskProvider);
+                project.getTasks()
+                        .named(LifecycleBasePlugin.BUILD_TASK_NAME, build -> build.dependsOn(buildTaskTaskProvider));
             }
         });
 
         project.afterEvaluate(p -> {
-            // Resolve the Smithy CLI artifact
-            CliDependencyResolver.resolve(p);
-
             IdeaPlugin ideaPlugin = p.getPlugins().getPlugin(IdeaPlugin.class);
 
             p.getExtensions().getByType(SourceSetContainer.class).all(sourceSet -> {
@@ -121,6 +195,11 @@ public final class SmithyBasePlugin implements Plugin<Project> {
                 if (extension.getFormat().get()) {
                     addFormatTaskForSourceSet(sourceSet, sds, extension);
                 }
+
+                // Split the build task into one task per projection if enabled
+                if (extension.getProjectionTasks().get()) {
+                    addProjectionTasksForSourceSet(sourceSet, sds, extension);
+                }
             });
         });
     }
@@ -189,14 +268,15 @@ public final class SmithyBasePlugin implements Plugin<Project> {
 
         // Smithy files should be formatted before they are built
         if (SourceSet.isMain(sourceSet)) {
-            project.getTasks().getByName(SMITHY_BUILD_TASK_NAME).dependsOn(smithyFormat);
+            project.getTasks().named(SMITHY_BUILD_TASK_NAME, build -> build.dependsOn(smithyFormat));
         }
     }
 
     private void addSelectTaskForSourceSet(
             SourceSet sourceSet,
             SmithySourceDirectorySet sds,
-            SmithyExtension extension
+            SmithyExtension extension,
+            TaskProvider<SmithyBuildTask> buildTask
     ) {
         String taskName = SmithyUtils.getRelativeSourceSetName(sourceSet, SMITHY_SELECT_TASK_NAME);
         String runtimeConfigName = sourceSet.getRuntimeClasspathConfigurationName();
@@ -205,12 +285,28 @@ public final class SmithyBasePlugin implements Plugin<Project> {
             selectTask.getAllowUnknownTraits().set(extension.getAllowUnknownTraits());
             selectTask.getModels().set(sds.getSourceDirectories());
             selectTask.getFork().set(extension.getFork());
+            selectTask.getForkJvmArgs().set(extension.getForkJvmArgs());
+            selectTask.getForkMaxHeapSize().set(extension.getForkMaxHeapSize());
+            selectTask.getForkHeapAutoSizing().set(extension.getForkHeapAutoSizing());
+            selectTask.getCliServer().set(extension.getCliServer());
+            selectTask.getCliServerIdleTimeout().set(extension.getCliServerIdleTimeout());
             selectTask.getCliClasspath()
                     .set(project.getConfigurations()
                             .getByName(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME));
             selectTask.getModelDiscoveryClasspath()
-                    .set(project.getConfigurations()
-                            .getByName(runtimeConfigName));
+                    .set(withModelSnapshots(extension, project.getConfigurations().getByName(runtimeConfigName)));
+            // Depending on the snapshot makes the select task run after the build task that writes it.
+            selectTask.getModelSnapshot()
+                    .set(extension.getDirectBuild().getBuildModelSnapshot()
+                            .flatMap(enabled -> enabled
+                                    ? buildTask.flatMap(SmithyBuildTask::getModelSnapshotFile)
+                                    : project.getObjects().fileProperty()));
+            // Shared models are assembled by the build task, so selecting after it reuses its model.
+            selectTask.getShareModels()
+                    .set(extension.getDirectBuild().getShareModels()
+                            .zip(extension.getDirectBuild().getEnabled(), (share, direct) -> share && direct));
+            selectTask.getSmithyBuildConfigs().set(extension.getSmithyBuildConfigs());
+            selectTask.mustRunAfter(buildTask);
         });
     }
 
@@ -220,36 +316,108 @@ public final class SmithyBasePlugin implements Plugin<Project> {
             SmithyExtension extension
     ) {
         String taskName = SmithyUtils.getRelativeSourceSetName(sourceSet, SMITHY_BUILD_TASK_NAME);
+
+        return project.getTasks().register(taskName, SmithyBuildTask.class, build -> {
+            configureBuildTask(build, sourceSet, sds, extension);
+            build.setDescription("Builds Smithy models for " + sourceSet.getName() + " source set.");
+            // Projection tasks only build part of the model, so only this task writes a snapshot.
+            build.getModelSnapshotFile()
+                    .set(extension.getDirectBuild().getBuildModelSnapshot()
+                            .flatMap(enabled -> enabled
+                                    ? project.getLayout().getBuildDirectory().file(MODEL_SNAPSHOT_DIR + "/"
+                                            + taskName + ".bin")
+                                    : project.getObjects().fileProperty()));
+        });
+    }
+
+    private void addProjectionTasksForSourceSet(
+            SourceSet sourceSet,
+            SmithySourceDirectorySet sds,
+            SmithyExtension extension
+    ) {
+        String aggregateName = SmithyUtils.getRelativeSourceSetName(sourceSet, SMITHY_BUILD_TASK_NAME);
+        List<TaskProvider<SmithyBuildTask>> projectionTasks = new ArrayList<>();
+        FileCollection configs = extension.getSmithyBuildConfigs().get();
+        List<File> importedConfigs = buildConfigs.get()
+                .findImportedConfigs(configs, project.getProviders(), project.getLayout());
+        if (!importedConfigs.isEmpty()) {
+            throw new GradleException("Smithy projection tasks cannot build the projections of smithy-build configs "
+                    + "that are imported by another config: " + importedConfigs + ". smithy-build loads imports as "
+                    + "model files, so add these configs to `smithyBuildConfigs` instead.");
+        }
+        List<String> projections = SmithyBuildProjections.of(buildConfigs.get()
+                .read(configs, project.getProviders(), project.getLayout()));
+        for (Map.Entry<String, String> entry : SmithyBuildProjections.taskNameSuffixes(projections).entrySet()) {
+            String projection = entry.getKey();
+            String taskName = aggregateName + entry.getValue();
+            projectionTasks.add(project.getTasks().register(taskName, SmithyBuildTask.class, build -> {
+                configureBuildTask(build, sourceSet, sds, extension);
+                build.setDescription("Builds the " + projection + " Smithy projection for "
+                        + sourceSet.getName() + " source set.");
+                build.getProjection().set(projection);
+                build.getOutputDir().set(extension.getOutputDirectory().dir(projection));
+                if (SourceSet.isMain(sourceSet) && extension.getFormat().get()) {
+                    build.dependsOn(SMITHY_FORMAT_TASK_NAME);
+                }
+            }));
+        }
+
+        // The build task is already registered, and may already be referenced as a build task, when the
+        // projections are known. It is turned into a lifecycle task that only depends on the projection tasks:
+        // without actions, Gradle neither runs it nor snapshots the outputs it declares. Its output directory
+        // is kept, so that its plugin projection directories still resolve inside the projection tasks' outputs.
+        project.getTasks().named(aggregateName, SmithyBuildTask.class, build -> {
+            build.getActions().clear();
+            build.getProjectionIndexFile().convention((RegularFile) null);
+            build.getModelSnapshotFile().set((RegularFile) null);
+            build.dependsOn(projectionTasks);
+        });
+    }
+
+    private void configureBuildTask(
+            SmithyBuildTask build,
+            SourceSet sourceSet,
+            SmithySourceDirectorySet sds,
+            SmithyExtension extension
+    ) {
         String buildConfigName = SmithyUtils.getSmithyBuildConfigurationName(sourceSet);
         String runtimeConfigName = sourceSet.getRuntimeClasspathConfigurationName();
 
-        return project.getTasks()
-                .register(taskName,
-                        SmithyBuildTask.class,
-                        build -> {
-                            // Configure basic extension settings
-                            build.setDescription("Builds Smithy models for " + sourceSet.getName() + " source set.");
-                            build.getAllowUnknownTraits().set(extension.getAllowUnknownTraits());
-                            build.getModels().set(sds.getSourceDirectories());
-                            build.getFork().set(extension.getFork());
-                            build.getSmithyBuildConfigs().set(extension.getSmithyBuildConfigs());
-                            build.getSourceProjection().set(extension.getSourceProjection());
-                            build.getProjectionSourceTags().set(extension.getProjectionSourceTags());
-                            build.getOutputDir().set(extension.getOutputDirectory());
-
-                            // Add smithy configurations as classpaths for build task
-                            build.getCliClasspath()
-                                    .set(project.getConfigurations()
-                                            .getByName(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME));
-                            build.getBuildClasspath()
-                                    .set(project.getConfigurations()
-                                            .getByName(buildConfigName));
-                            build.getModelDiscoveryClasspath()
-                                    .set(
-                                            project.getConfigurations().getByName(runtimeConfigName));
-
-                            // this allows the main smithy build task to show up when running `gradle tasks`
-                            build.setGroup(LifecycleBasePlugin.BUILD_GROUP);
-                        });
+        // Configure basic extension settings
+        build.getAllowUnknownTraits().set(extension.getAllowUnknownTraits());
+        build.getModels().set(sds.getSourceDirectories());
+        build.getFork().set(extension.getFork());
+        build.getForkJvmArgs().set(extension.getForkJvmArgs());
+        build.getForkMaxHeapSize().set(extension.getForkMaxHeapSize());
+        build.getForkHeapAutoSizing().set(extension.getForkHeapAutoSizing());
+        build.getCliServer().set(extension.getCliServer());
+        build.getCliServerIdleTimeout().set(extension.getCliServerIdleTimeout());
+        build.getDirectBuild().set(extension.getDirectBuild());
+        build.getRelocatableOutputs().set(extension.getRelocatableOutputs());
+        build.getPreserveUnchangedOutputs().set(extension.getPreserveUnchangedOutputs());
+        build.getSmithyBuildConfigs().set(extension.getSmithyBuildConfigs());
+        build.getSourceProjection().set(extension.getSourceProjection());
+        build.getProjectionSourceTags().set(extension.getProjectionSourceTags());
+        build.getOutputDir().set(extension.getOutputDirectory());
+
+        // Add smithy configurations as classpaths for build task
+        build.getCliClasspath()
+                .set(project.getConfigurations()
+                        .getByName(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME));
+        build.getBuildClasspath()
+                .set(withModelSnapshots(extension, project.getConfigurations().getByName(buildConfigName)));
+        build.getModelDiscoveryClasspath()
+                .set(withModelSnapshots(extension, project.getConfigurations().getByName(runtimeConfigName)));
+
+        // this allows the main smithy build task to show up when running `gradle tasks`
+        build.setGroup(LifecycleBasePlugin.BUILD_GROUP);
+    }
+
+    private static Provider<FileCollection> withModelSnapshots(
+            SmithyExtension extension,
+            Configuration configuration
+    ) {
+        return extension.getModelSnapshots()
+                .map(enabled -> enabled ? ModelSnapshotTransform.view(configuration) : configuration);
     }
 }
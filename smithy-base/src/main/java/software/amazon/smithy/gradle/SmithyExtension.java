@@ -4,29 +4,31 @@
  */
 package software.amazon.smithy.gradle;
 
-import java.io.File;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Optional;
-import java.util.Set;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
-import org.gradle.api.GradleException;
+import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Project;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
 import software.amazon.smithy.gradle.internal.DefaultSmithySourceDirectorySet;
-import software.amazon.smithy.model.node.Node;
-import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.gradle.internal.SmithyBuildConfigFile;
+import software.amazon.smithy.gradle.internal.SmithyBuildConfigService;
 import software.amazon.smithy.model.traits.DynamicTrait;
-import software.amazon.smithy.utils.IoUtils;
 
 /**
  * Gradle configuration settings for Smithy plugins.
@@ -34,7 +36,7 @@ import software.amazon.smithy.utils.IoUtils;
 public abstract class SmithyExtension {
     private static final String SMITHY_BUILD_CONFIG_DEFAULT = "smithy-build.json";
     private static final String SMITHY_SOURCE_PROJECTION_DEFAULT = "source";
-    private static final String OUTPUT_DIRECTORY = "outputDirectory";
+    private static final Duration DEFAULT_CLI_SERVER_IDLE_TIMEOUT = Duration.ofMinutes(30);
 
     private final NamedDomainObjectContainer<SmithySourceDirectorySet> sourceSets;
 
@@ -50,6 +52,14 @@ public abstract class SmithyExtension {
         getSmithyBuildConfigs().convention(project.files(SMITHY_BUILD_CONFIG_DEFAULT));
         getSourceProjection().convention(SMITHY_SOURCE_PROJECTION_DEFAULT);
         getFork().convention(false);
+        getForkJvmArgs().convention(Collections.emptyList());
+        getForkHeapAutoSizing().convention(false);
+        getCliServer().convention(false);
+        getCliServerIdleTimeout().convention(DEFAULT_CLI_SERVER_IDLE_TIMEOUT);
+        getRelocatableOutputs().convention(false);
+        getProjectionTasks().convention(false);
+        getPreserveUnchangedOutputs().convention(false);
+        getModelSnapshots().convention(false);
         getFormat().convention(true);
         getAllowUnknownTraits().convention(false);
         getOutputDirectory().convention(getDefaultOutputDirectory(project));
@@ -137,6 +147,148 @@ public abstract class SmithyExtension {
      */
     public abstract Property<Boolean> getFork();
 
+    /**
+     * Gets additional JVM arguments of the worker processes the Smithy CLI is forked into.
+     *
+     * <p>This can be used to tune the garbage collector or JIT compiler of forked workers.
+     * Only used when {@link #getFork()} is true. Defaults to an empty list.
+     *
+     * @return Returns the JVM arguments of forked workers.
+     */
+    public abstract ListProperty<String> getForkJvmArgs();
+
+    /**
+     * Gets the maximum heap size of the worker processes the Smithy CLI is forked into, such as {@code 2g}.
+     *
+     * <p>Only used when {@link #getFork()} is true. This setting takes precedence over
+     * {@link #getForkHeapAutoSizing()}. By default, Gradle's worker heap size is used.
+     *
+     * @return Returns the maximum heap size of forked workers.
+     */
+    public abstract Property<String> getForkMaxHeapSize();
+
+    /**
+     * Gets whether to pick the maximum heap size of forked workers automatically.
+     *
+     * <p>When enabled, each task sizes the heap of its workers from the peak live heap
+     * recorded on its earlier runs, or from the size of its models when no runs have been
+     * recorded yet. Runs that run out of memory double the heap of the next run.
+     *
+     * <p>Only used when {@link #getFork()} is true and {@link #getForkMaxHeapSize()} is not set.
+     * Defaults to {@code false}.
+     *
+     * @return Returns true if the heap of forked workers should be sized automatically.
+     */
+    public abstract Property<Boolean> getForkHeapAutoSizing();
+
+    /**
+     * Gets whether to run the Smithy CLI in a persistent server process.
+     *
+     * <p>When enabled, the CLI is run in a long-lived server process that is
+     * started on first use and shared by every Gradle build run by the current
+     * user with the same CLI classpath, Java installation, working directory,
+     * {@code SMITHY_*} environment variables, and environment variables referenced
+     * by the smithy-build configs. The server only sees these variables and the few
+     * that the JVM needs, such as {@code PATH}, so other variables neither start a new
+     * server nor reach Smithy build plugins. This avoids paying the cost of starting
+     * the CLI in each separate Gradle invocation, such as in CI pipelines.
+     *
+     * <p>This setting takes precedence over {@link #getFork()}. Defaults to {@code false}.
+     *
+     * @return Returns true if the CLI should run in a server process.
+     */
+    public abstract Property<Boolean> getCliServer();
+
+    /**
+     * Gets how long a Smithy CLI server process stays alive without receiving requests.
+     *
+     * <p>Defaults to 30 minutes.
+     *
+     * @return Returns the idle timeout of the CLI server.
+     */
+    public abstract Property<Duration> getCliServerIdleTimeout();
+
+    /**
+     * Gets the settings of builds that call the smithy-build API directly instead of running the
+     * {@code build} command of the Smithy CLI.
+     *
+     * @return Returns the direct build settings.
+     */
+    @Nested
+    public abstract DirectBuildSettings getDirectBuild();
+
+    /**
+     * Configures builds that call the smithy-build API directly.
+     *
+     * <pre>{@code
+     * smithy {
+     *     directBuild {
+     *         enabled.set(true)
+     *         parseCache.set(true)
+     *     }
+     * }
+     * }</pre>
+     *
+     * @param action Action that configures the direct build settings.
+     */
+    public void directBuild(Action<? super DirectBuildSettings> action) {
+        action.execute(getDirectBuild());
+    }
+
+    /**
+     * Gets whether to load the models of dependency JARs from pre-parsed snapshots.
+     *
+     * <p>When enabled, an artifact transform replaces the Smithy IDL models of each JAR on the build
+     * and model discovery classpaths with a JSON AST snapshot of the same model. Gradle caches the
+     * transformed JARs, so the IDL of a dependency is only parsed once per version on each machine.
+     * JARs whose models cannot be loaded on their own, or that contain IDL 1.0 models, are used as
+     * they are. Validation events of snapshotted shapes refer to the snapshot rather than the original
+     * files. Defaults to {@code false}.
+     *
+     * @return Returns true if dependency models should be loaded from snapshots.
+     */
+    public abstract Property<Boolean> getModelSnapshots();
+
+    /**
+     * Gets whether to leave generated files untouched when a build produces them with the same content again.
+     *
+     * <p>When enabled, smithy-build writes to a staging directory, and only the files whose content
+     * differs from the files already in the output directory are moved into place. Files that are no
+     * longer produced are deleted. This avoids new modification times on unchanged files, which would
+     * otherwise wake up file watchers. Defaults to {@code false}.
+     *
+     * @return Returns true if unchanged outputs should be preserved.
+     */
+    public abstract Property<Boolean> getPreserveUnchangedOutputs();
+
+    /**
+     * Gets whether to rewrite the absolute paths that smithy-build writes to its outputs so that
+     * the outputs of the build task are the same in every checkout of the project.
+     *
+     * <p>When enabled, the build task rewrites paths in {@code smithy-build-info.json} files to be
+     * relative to the project directory, and can load its outputs from the build cache.
+     * Defaults to {@code false}.
+     *
+     * @return Returns true if build outputs should be relocatable.
+     */
+    public abstract Property<Boolean> getRelocatableOutputs();
+
+    /**
+     * Gets whether to build each projection of the smithy-build configs in its own task.
+     *
+     * <p>When enabled, a task such as {@code smithyBuildOpenapi} is registered for each projection
+     * and writes to the directory of its projection inside the output directory, so projections can
+     * run in parallel and be up-to-date or cached on their own. The {@code smithyBuild} task then
+     * depends on the projection tasks instead of building the projections itself. The projections
+     * are read from the smithy-build configs when the project is configured, and configuration fails
+     * if two of them map to the same task name, such as {@code foo-bar} and {@code fooBar}, or if a
+     * config imports another smithy-build config, whose projections smithy-build does not build.
+     * Defaults to {@code false}.
+     *
+     * @return Returns true if each projection should be built by its own task.
+     */
+    public abstract Property<Boolean> getProjectionTasks();
+
     /**
      * Gets the output directory for running Smithy build.
      *
@@ -169,39 +321,19 @@ public abstract class SmithyExtension {
      */
     @Internal
     private Provider<Directory> getDefaultOutputDirectory(final Project project) {
+        // Parsed configs are shared by every project of the build
+        Provider<SmithyBuildConfigService> buildConfigs = SmithyBuildConfigService.register(project);
+        ProviderFactory providers = project.getProviders();
+        ProjectLayout layout = project.getLayout();
         return getSmithyBuildConfigs()
                 .flatMap(FileCollection::getElements)
-                .map(SmithyExtension::getOutputDirFromSmithyBuild)
+                .map(locations -> SmithyBuildConfigFile.getOutputDirectory(buildConfigs.get()
+                        .read(locations.stream().map(FileSystemLocation::getAsFile).collect(Collectors.toList()),
+                                providers,
+                                layout))
+                        .orElse(null))
                 .map(project::file)
                 .flatMap(file -> project.getLayout().getBuildDirectory().dir(file.getPath()))
                 .orElse(SmithyUtils.getProjectionOutputDirProperty(project));
     }
-
-    private static String getOutputDirFromSmithyBuild(Set<FileSystemLocation> fileSystemLocations) {
-        return fileSystemLocations.stream()
-                .map(FileSystemLocation::getAsFile)
-                .map(File::toPath)
-                .map(SmithyExtension::parseOutputDirFromBuildConfig)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .reduce((a, b) -> {
-                    throw new GradleException(
-                            "Conflicting output directories defined in provided smithy build configs: "
-                                    + a + ", " + b);
-                })
-                .orElse(null);
-    }
-
-    private static Optional<String> parseOutputDirFromBuildConfig(Path buildConfigPath) {
-        // The smithy-build.json file does not necessarily exist. If it does not exist
-        // do not try to read the config information
-        if (!Files.exists(buildConfigPath)) {
-            return Optional.empty();
-        }
-        return Node.parseJsonWithComments(IoUtils.readUtf8File(buildConfigPath))
-                .expectObjectNode()
-                .getMember(OUTPUT_DIRECTORY)
-                .map(Node::expectStringNode)
-                .map(StringNode::getValue);
-    }
 }
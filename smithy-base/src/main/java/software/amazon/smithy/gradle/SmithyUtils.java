@@ -9,8 +9,8 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.net.URLConnection;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -22,16 +22,29 @@ import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.workers.WorkAction;
 import org.gradle.workers.WorkParameters;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
-import software.amazon.smithy.build.SmithyBuildException;
 import software.amazon.smithy.cli.EnvironmentVariable;
+import software.amazon.smithy.gradle.internal.ClassDataSharing;
+import software.amazon.smithy.gradle.internal.ClasspathHasher;
+import software.amazon.smithy.gradle.internal.CliClassLoaderService;
 import software.amazon.smithy.gradle.internal.CliDependencyResolver;
+import software.amazon.smithy.gradle.internal.CliTimings;
+import software.amazon.smithy.gradle.internal.DirectBuildEngine;
+import software.amazon.smithy.gradle.internal.DirectBuildRequest;
+import software.amazon.smithy.gradle.internal.ForkHeapSizing;
+import software.amazon.smithy.gradle.internal.ForkSettings;
+import software.amazon.smithy.gradle.internal.InProcessCliGuard;
+import software.amazon.smithy.gradle.internal.ModelCache;
+import software.amazon.smithy.gradle.internal.SmithyModelService;
+import software.amazon.smithy.gradle.internal.WorkerClassLoaders;
 import software.amazon.smithy.utils.SmithyInternalApi;
 import software.amazon.smithy.utils.StringUtils;
 
@@ -43,6 +56,7 @@ public final class SmithyUtils {
     private static final String SMITHY_BUILD_CONFIGURATION_NAME = "smithyBuild";
     private static final String SMITHY_PROJECTIONS = "smithyprojections";
     private static final String SMITHY_GRADLE_CLI_DEP_MODE = "forbid";
+    private static final String SMITHY_BUILD_COMMAND = "smithy-build";
 
     private SmithyUtils() {}
 
@@ -63,6 +77,21 @@ public final class SmithyUtils {
                 .resolve(plugin);
     }
 
+    /**
+     * Gets the path to the staging directory that contains the {@code META-INF} directory
+     * of the Smithy model resources placed in the generated JAR of a project.
+     *
+     * @param taskName name of the task using this staging directory
+     * @param outputDir output directory to inspect.
+     * @return Returns the staging directory.
+     */
+    public static File getSmithyResourceStagingDir(String taskName, File outputDir) {
+        return outputDir.toPath()
+                .resolve("tmp")
+                .resolve("staging-" + taskName)
+                .toFile();
+    }
+
     /**
      * Gets the path to the temp directory where Smithy model resources are placed
      * in the generated JAR of a project.
@@ -76,9 +105,7 @@ public final class SmithyUtils {
      * @return Returns the classpath.
      */
     public static File getSmithyResourceTempDir(String taskName, File outputDir) {
-        return outputDir.toPath()
-                .resolve("tmp")
-                .resolve("staging-" + taskName)
+        return getSmithyResourceStagingDir(taskName, outputDir).toPath()
                 .resolve("META-INF")
                 .resolve("smithy")
                 .toFile();
@@ -109,12 +136,98 @@ public final class SmithyUtils {
             List<String> arguments,
             FileCollection cliClasspath,
             boolean fork
+    ) {
+        executeCli(executor, arguments, cliClasspath, fork, null);
+    }
+
+    /**
+     * Executes the Smithy CLI in a separate thread or process.
+     *
+     * <p>When the CLI is not forked and a class loader service is provided, the CLI is run
+     * in a class loader shared with every other invocation in the build that uses the same
+     * classpath rather than in a new class loader.
+     *
+     * @param executor WorkerExecutor to use for executing CLI command.
+     * @param arguments CLI arguments.
+     * @param cliClasspath Classpath to use when running the CLI.
+     * @param fork whether to fork a new process or not
+     * @param classLoaders Shared class loader service to use, or null to create a new class loader.
+     */
+    public static void executeCli(
+            WorkerExecutor executor,
+            List<String> arguments,
+            FileCollection cliClasspath,
+            boolean fork,
+            Provider<CliClassLoaderService> classLoaders
+    ) {
+        submitCli(executor, arguments, cliClasspath, fork, classLoaders).await();
+    }
+
+    /**
+     * Submits the Smithy CLI for execution in a separate thread or process without waiting for it to complete.
+     *
+     * <p>Tasks that run the CLI several times can submit every invocation before awaiting any of them,
+     * which lets Gradle run the invocations in parallel on the worker leases available to the build.
+     *
+     * @param executor WorkerExecutor to use for executing CLI command.
+     * @param arguments CLI arguments.
+     * @param cliClasspath Classpath to use when running the CLI.
+     * @param fork whether to fork a new process or not
+     * @param classLoaders Shared class loader service to use, or null to create a new class loader.
+     * @return Returns a handle used to wait for the CLI to complete.
+     * @see CliExecution#awaitAll(Collection)
+     */
+    public static CliExecution submitCli(
+            WorkerExecutor executor,
+            List<String> arguments,
+            FileCollection cliClasspath,
+            boolean fork,
+            Provider<CliClassLoaderService> classLoaders
+    ) {
+        return submitCli(executor, arguments, cliClasspath, fork, classLoaders, ForkSettings.defaults(), null);
+    }
+
+    /**
+     * Submits the Smithy CLI for execution in a separate thread or process without waiting for it to complete.
+     *
+     * <p>When the CLI is forked, the worker processes it runs in are configured with the given
+     * fork settings. When a timing file is given, the worker writes the
+     * {@link software.amazon.smithy.gradle.internal.CliTimings} of the invocation to it.
+     *
+     * @param executor WorkerExecutor to use for executing CLI command.
+     * @param arguments CLI arguments.
+     * @param cliClasspath Classpath to use when running the CLI.
+     * @param fork whether to fork a new process or not
+     * @param classLoaders Shared class loader service to use, or null to create a new class loader.
+     * @param forkSettings JVM settings of forked worker processes.
+     * @param timingFile File to write the timings of the invocation to, or null to not record them.
+     * @return Returns a handle used to wait for the CLI to complete.
+     * @see CliExecution#awaitAll(Collection)
+     */
+    public static CliExecution submitCli(
+            WorkerExecutor executor,
+            List<String> arguments,
+            FileCollection cliClasspath,
+            boolean fork,
+            Provider<CliClassLoaderService> classLoaders,
+            ForkSettings forkSettings,
+            File timingFile
     ) {
         CliDependencyResolver.validateCliClasspath(cliClasspath);
-        WorkQueue queue = getWorkQueue(executor, cliClasspath, fork);
+        boolean shareClassLoaders = !fork && classLoaders != null && classLoaders.isPresent();
+        WorkQueue queue = getWorkQueue(executor, cliClasspath, fork, forkSettings);
 
         queue.submit(RunCli.class, params -> {
             params.getArguments().set(arguments);
+            params.getTimingFile().set(timingFile);
+            if (shareClassLoaders) {
+                params.getClassLoaderService().set(classLoaders);
+            }
+            params.getUseWorkerClassLoaderCache().set(fork);
+            if (fork) {
+                params.getHeapUsageFile().set(forkSettings.getHeapUsageFile());
+            }
+            params.getDependencyMode().set(SMITHY_GRADLE_CLI_DEP_MODE);
 
             // The isolated classloader WorkQueue doesn't seem to be as isolated as we need
             // for running the Smithy CLI. Relying on it rather than creating a custom
@@ -123,13 +236,122 @@ public final class SmithyUtils {
             params.getClassPath().setFrom(cliClasspath);
         });
 
-        queue.await();
+        return queue::await;
+    }
+
+    /**
+     * Submits a smithy-build run that calls the smithy-build API directly rather than the Smithy CLI.
+     *
+     * <p>The build runs in the same kinds of threads, processes, and class loaders as
+     * {@link #submitCli}, and writes a {@link software.amazon.smithy.gradle.internal.DirectBuildResult}
+     * to the given file once it completes.
+     *
+     * @param executor WorkerExecutor to use for executing the build.
+     * @param request Build to perform.
+     * @param resultFile File the result of the build is written to.
+     * @param cliClasspath Classpath to use when running the build.
+     * @param fork whether to fork a new process or not
+     * @param classLoaders Shared class loader service to use, or null to create a new class loader.
+     * @param models Shared model service to reuse assembled models from, or null to always assemble them.
+     *               Models are only shared by builds that run in the Gradle daemon with shared class loaders.
+     * @param forkSettings JVM settings of forked worker processes.
+     * @param timingFile File to write the timings of the build to, or null to not record them.
+     * @return Returns a handle used to wait for the build to complete.
+     */
+    @SmithyInternalApi
+    public static CliExecution submitSmithyBuild(
+            WorkerExecutor executor,
+            DirectBuildRequest request,
+            File resultFile,
+            FileCollection cliClasspath,
+            boolean fork,
+            Provider<CliClassLoaderService> classLoaders,
+            Provider<SmithyModelService> models,
+            ForkSettings forkSettings,
+            File timingFile
+    ) {
+        CliDependencyResolver.validateCliClasspath(cliClasspath);
+        boolean shareClassLoaders = !fork && classLoaders != null && classLoaders.isPresent();
+        WorkQueue queue = getWorkQueue(executor, cliClasspath, fork, forkSettings);
+
+        queue.submit(RunSmithyBuild.class, params -> {
+            params.getRequest().set(request.dependencyMode(SMITHY_GRADLE_CLI_DEP_MODE));
+            params.getResultFile().set(resultFile);
+            params.getTimingFile().set(timingFile);
+            if (shareClassLoaders) {
+                params.getClassLoaderService().set(classLoaders);
+                // Models can only be shared by builds that load them with the same class loaders.
+                if (models != null && models.isPresent()) {
+                    params.getModelService().set(models);
+                }
+            }
+            params.getUseWorkerClassLoaderCache().set(fork);
+            if (fork) {
+                params.getHeapUsageFile().set(forkSettings.getHeapUsageFile());
+            }
+            params.getDependencyMode().set(SMITHY_GRADLE_CLI_DEP_MODE);
+            params.getClassPath().setFrom(cliClasspath);
+        });
+
+        return queue::await;
     }
 
-    private static WorkQueue getWorkQueue(WorkerExecutor executor, FileCollection cliClasspath, boolean fork) {
+    /**
+     * Handle to a submitted Smithy CLI invocation.
+     */
+    @FunctionalInterface
+    public interface CliExecution {
+        /**
+         * Waits for the invocation to complete.
+         *
+         * @throws org.gradle.workers.WorkerExecutionException if the invocation failed.
+         */
+        void await();
+
+        /**
+         * Waits for every given invocation to complete, even if some of them fail.
+         *
+         * <p>The first failure is rethrown once all invocations are complete, with any
+         * later failures added to it as suppressed exceptions.
+         *
+         * @param executions Invocations to wait for.
+         */
+        static void awaitAll(Collection<CliExecution> executions) {
+            RuntimeException failure = null;
+            for (CliExecution execution : executions) {
+                try {
+                    execution.await();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static WorkQueue getWorkQueue(
+            WorkerExecutor executor,
+            FileCollection cliClasspath,
+            boolean fork,
+            ForkSettings forkSettings
+    ) {
         if (fork) {
             return executor.processIsolation(spec -> {
                 spec.getClasspath().setFrom(cliClasspath);
+                String classpathHash = ClasspathHasher.hash(cliClasspath);
+                // Pin workers to a classpath so that reused workers already have a warm class loader for it
+                spec.getForkOptions().systemProperty(WorkerClassLoaders.AFFINITY_PROPERTY, classpathHash);
+                forkSettings.configure(spec.getForkOptions(), classpathHash);
+                String workerCacheSize = System.getProperty(WorkerClassLoaders.MAX_LOADERS_PROPERTY);
+                if (workerCacheSize != null) {
+                    spec.getForkOptions().systemProperty(WorkerClassLoaders.MAX_LOADERS_PROPERTY, workerCacheSize);
+                }
                 // Explicitly forbid the use of maven dependency resolution using an environment variable
                 spec.getForkOptions()
                         .environment(
@@ -137,11 +359,10 @@ public final class SmithyUtils {
                                 SMITHY_GRADLE_CLI_DEP_MODE);
             });
         } else {
-            return executor.classLoaderIsolation(spec -> {
-                spec.getClasspath().setFrom(cliClasspath);
-                // Explicitly forbid the use of maven dependency resolution using a system property
-                System.setProperty(EnvironmentVariable.SMITHY_DEPENDENCY_MODE.toString(), SMITHY_GRADLE_CLI_DEP_MODE);
-            });
+            // Both in-process modes use no isolation: the CLI always runs in its own class loader,
+            // and every invocation must share the JVM-wide settings guarded by InProcessCliGuard.
+            // Build services can also only be passed to work actions that use no isolation.
+            return executor.noIsolation();
         }
     }
 
@@ -150,45 +371,116 @@ public final class SmithyUtils {
         abstract ListProperty<String> getArguments();
 
         abstract ConfigurableFileCollection getClassPath();
+
+        abstract Property<CliClassLoaderService> getClassLoaderService();
+
+        abstract Property<Boolean> getUseWorkerClassLoaderCache();
+
+        abstract Property<String> getDependencyMode();
+
+        abstract RegularFileProperty getHeapUsageFile();
+
+        abstract RegularFileProperty getTimingFile();
     }
 
     @SmithyInternalApi
     public abstract static class RunCli implements WorkAction<CliConfig> {
         @Override
         public void execute() {
-            withClassloader(getParameters().getClassPath().getFiles(), classLoader -> {
-                Thread thread = Thread.currentThread();
-                ClassLoader previous = thread.getContextClassLoader();
-                try {
-                    // Downstream Smithy can rely on thread context class loader.
-                    thread.setContextClassLoader(classLoader);
-                    withCacheBuster(() -> {
-                        try {
-                            Class<?> smithyCliClass = classLoader.loadClass("software.amazon.smithy.cli.SmithyCli");
-                            Object cli = smithyCliClass.getDeclaredMethod("create").invoke(null);
-                            smithyCliClass.getDeclaredMethod("run", List.class)
-                                    .invoke(cli, getParameters().getArguments().get());
-                        } catch (ReflectiveOperationException e) {
-                            // Unwrap to the root cause message. We intentionally do NOT reuse
-                            // unwrapException() here and do NOT attach the cause to GradleException:
-                            // smithy-model types (e.g. ModelSyntaxException, which references ShapeId)
-                            // are loaded only in the isolated URLClassLoader, so Gradle's daemon
-                            // serializer cannot see them. Attaching the cause chain would produce a
-                            // secondary NoClassDefFoundError that obscures the real error.
-                            Throwable cause = e;
-                            while (cause.getCause() != null) {
-                                cause = cause.getCause();
-                            }
-                            String message = cause.getMessage() != null
-                                    ? cause.getMessage()
-                                    : cause.getClass().getName();
-                            throw new GradleException(message);
-                        }
-                    });
-                } finally {
-                    thread.setContextClassLoader(previous);
+            List<String> arguments = getParameters().getArguments().get();
+            withCliClassLoader(getParameters(), arguments.isEmpty() ? "" : arguments.get(0), this::run);
+        }
+
+        private void run(ClassLoader classLoader) {
+            try {
+                Class<?> smithyCliClass = classLoader.loadClass("software.amazon.smithy.cli.SmithyCli");
+                Object cli = smithyCliClass.getDeclaredMethod("create").invoke(null);
+                smithyCliClass.getDeclaredMethod("run", List.class)
+                        .invoke(cli, getParameters().getArguments().get());
+            } catch (ReflectiveOperationException e) {
+                // Unwrap to the root cause message. We intentionally do NOT reuse
+                // unwrapException() here and do NOT attach the cause to GradleException:
+                // smithy-model types (e.g. ModelSyntaxException, which references ShapeId)
+                // are loaded only in the isolated URLClassLoader, so Gradle's daemon
+                // serializer cannot see them. Attaching the cause chain would produce a
+                // secondary NoClassDefFoundError that obscures the real error.
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
                 }
-            });
+                String message = cause.getMessage() != null
+                        ? cause.getMessage()
+                        : cause.getClass().getName();
+                throw new GradleException(message);
+            }
+        }
+    }
+
+    @SmithyInternalApi
+    public abstract static class DirectBuildConfig extends CliConfig {
+        abstract Property<DirectBuildRequest> getRequest();
+
+        abstract RegularFileProperty getResultFile();
+
+        abstract Property<SmithyModelService> getModelService();
+    }
+
+    @SmithyInternalApi
+    public abstract static class RunSmithyBuild implements WorkAction<DirectBuildConfig> {
+        @Override
+        public void execute() {
+            Property<SmithyModelService> models = getParameters().getModelService();
+            ModelCache cache = models.isPresent() ? models.get().getCache() : null;
+            // Shared models and bridge class loaders are keyed by the same content hash that class loaders
+            // are cached by.
+            String classpathHash = ClasspathHasher.hash(getParameters().getClassPath());
+            withCliClassLoader(getParameters(), SMITHY_BUILD_COMMAND, classLoader -> DirectBuildEngine
+                    .build(classLoader, classpathHash, getParameters().getRequest().get(), cache)
+                    .write(getParameters().getResultFile().get().getAsFile().toPath()));
+        }
+    }
+
+    // Runs the action in the class loader selected by the parameters, with that class loader set as the
+    // thread context class loader and the in-process CLI settings applied.
+    private static void withCliClassLoader(CliConfig parameters, String command, Consumer<ClassLoader> action) {
+        CliTimings timings = new CliTimings(command, System.currentTimeMillis());
+        long start = System.nanoTime();
+        Consumer<ClassLoader> guarded = classLoader -> {
+            long runStart = timings.record(CliTimings.CLASS_LOADER, start);
+            Thread thread = Thread.currentThread();
+            ClassLoader previous = thread.getContextClassLoader();
+            try {
+                // Downstream Smithy can rely on thread context class loader.
+                thread.setContextClassLoader(classLoader);
+                InProcessCliGuard.run(parameters.getDependencyMode().get(), () -> action.accept(classLoader));
+            } finally {
+                thread.setContextClassLoader(previous);
+                timings.record(CliTimings.RUN, runStart);
+            }
+        };
+
+        Set<File> classpath = parameters.getClassPath().getFiles();
+        Property<CliClassLoaderService> classLoaders = parameters.getClassLoaderService();
+        if (classLoaders.isPresent()) {
+            classLoaders.get().withClassLoader(classpath, guarded);
+        } else if (parameters.getUseWorkerClassLoaderCache().getOrElse(false)) {
+            if (parameters.getHeapUsageFile().isPresent()) {
+                ForkHeapSizing.measure(parameters.getHeapUsageFile().get().getAsFile(),
+                        () -> WorkerClassLoaders.withClassLoader(classpath, guarded));
+            } else {
+                WorkerClassLoaders.withClassLoader(classpath, guarded);
+            }
+            // Archive the classes loaded by the first invocation in a worker asked to create an archive.
+            long dumpStart = System.nanoTime();
+            if (ClassDataSharing.dumpIfRequested()) {
+                timings.record(CliTimings.CLASS_DATA_SHARING_DUMP, dumpStart);
+            }
+        } else {
+            withClassloader(classpath, guarded);
+        }
+
+        if (parameters.getTimingFile().isPresent()) {
+            timings.write(parameters.getTimingFile().get().getAsFile());
         }
     }
 
@@ -211,32 +503,6 @@ public final class SmithyUtils {
         }
     }
 
-    private static void withCacheBuster(Runnable runnable) {
-        // URL caching must be disabled when running the Smithy CLI using a
-        // custom class loader. An "empty" resource was added to the Gradle
-        // plugin to provide access to the global URL-wide caching behavior
-        // provided by URLConnection#setDefaultUseCaches. Setting that to
-        // false on any URLConnection disables caching on all URLConnections.
-        // Not doing this will lead to consistent errors like
-        // java.util.zip.ZipException: ZipFile invalid LOC header (bad signature)
-        // The default caching setting is restored after invoking the CLI.
-        URLConnection cacheBuster = null;
-        boolean isCachingEnabled = false;
-
-        try {
-            cacheBuster = Objects.requireNonNull(SmithyUtils.class.getResource("empty")).openConnection();
-            isCachingEnabled = cacheBuster.getDefaultUseCaches();
-            cacheBuster.setDefaultUseCaches(false);
-            runnable.run();
-        } catch (IOException e) {
-            throw new SmithyBuildException(e);
-        } finally {
-            if (cacheBuster != null) {
-                cacheBuster.setDefaultUseCaches(isCachingEnabled);
-            }
-        }
-    }
-
     private static RuntimeException unwrapException(Throwable current) {
         while (current.getCause() != null) {
             current = current.getCause();
@@ -0,0 +1,668 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.SourceLocation;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.NumberNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.model.shapes.AbstractShapeBuilder;
+import software.amazon.smithy.model.shapes.MemberShape;
+import software.amazon.smithy.model.shapes.OperationShape;
+import software.amazon.smithy.model.shapes.ResourceShape;
+import software.amazon.smithy.model.shapes.ServiceShape;
+import software.amazon.smithy.model.shapes.Shape;
+import software.amazon.smithy.model.shapes.ShapeId;
+import software.amazon.smithy.model.shapes.ShapeType;
+import software.amazon.smithy.model.traits.AbstractTrait;
+import software.amazon.smithy.model.traits.DynamicTrait;
+import software.amazon.smithy.model.traits.Trait;
+import software.amazon.smithy.model.traits.TraitFactory;
+import software.amazon.smithy.model.traits.TraitService;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Compact binary snapshot of an assembled model that loads faster than its IDL or JSON AST.
+ *
+ * <p>A snapshot is encoded as follows:
+ *
+ * <ul>
+ *     <li>Every string, such as a shape ID, member name, or string value, is stored once in a table
+ *     of interned strings and referenced by index everywhere else.</li>
+ *     <li>Each shape is a packed record of its shape ID, its type, and the length of its body, so
+ *     that the shapes of a snapshot can be listed without decoding their members and traits.</li>
+ *     <li>The body of a shape holds its mixins, its members, the properties of its type, and the
+ *     values of the traits it introduces. It is only decoded when the model is loaded.</li>
+ *     <li>The values of traits that have no Java class on the classpath of the model, such as
+ *     traits defined by the model itself, stay encoded when the model is loaded, and are only
+ *     decoded the first time they are read. Traits with a Java class are created from their
+ *     value when the model is loaded, since their type depends on it.</li>
+ * </ul>
+ *
+ * <p>Loading a snapshot builds its shapes directly rather than through a
+ * {@link software.amazon.smithy.model.loader.ModelAssembler}, so no text is parsed and no
+ * validation is run: the model it was written from has already been validated. Source locations
+ * are not kept.
+ *
+ * <p>This class is defined inside the class loader of the Smithy CLI classpath by
+ * {@link DirectBuildEngine} along with {@link SmithyBuildBridge}, so it must not reference Gradle.
+ */
+@SmithyInternalApi
+public final class BinaryModelSnapshot {
+    private static final byte[] MAGIC = {'S', 'M', 'S', 'N'};
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int STRING = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int BIG_INTEGER = 6;
+    private static final int BIG_DECIMAL = 7;
+    private static final int ARRAY = 8;
+    private static final int OBJECT = 9;
+
+    private final byte[] bytes;
+    private final String[] strings;
+    private final int metadataOffset;
+    private final Map<ShapeId, ShapeRecord> shapes;
+
+    private BinaryModelSnapshot(byte[] bytes, String[] strings, int metadataOffset, Map<ShapeId, ShapeRecord> shapes) {
+        this.bytes = bytes;
+        this.strings = strings;
+        this.metadataOffset = metadataOffset;
+        this.shapes = shapes;
+    }
+
+    /**
+     * Writes a snapshot of a model.
+     *
+     * @param model Model to write. Prelude shapes are only written if the model changed them.
+     * @param file File to write the snapshot to.
+     */
+    public static void write(Model model, Path file) {
+        Model prelude = loadPrelude();
+        Encoder encoder = new Encoder();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Map<StringNode, Node> metadata = new LinkedHashMap<>();
+        for (Map.Entry<String, Node> entry : model.getMetadata().entrySet()) {
+            metadata.put(Node.from(entry.getKey()), entry.getValue());
+        }
+        encoder.writeNode(body, Node.objectNode(metadata));
+
+        // Mixins are written before the shapes that use them, so that they are built first when loading.
+        List<Shape> ordered = new ArrayList<>();
+        Set<ShapeId> visited = new HashSet<>();
+        for (Shape shape : model.toSet()) {
+            if (!shape.isMemberShape() && !prelude.getShape(shape.getId()).filter(shape::equals).isPresent()) {
+                orderMixinsFirst(model, shape, visited, ordered);
+            }
+        }
+        writeVarInt(body, ordered.size());
+        ByteArrayOutputStream shapeBody = new ByteArrayOutputStream();
+        for (Shape shape : ordered) {
+            shapeBody.reset();
+            encoder.writeShape(shapeBody, shape);
+            writeVarInt(body, encoder.intern(shape.getId().toString()));
+            writeVarInt(body, encoder.intern(shape.getType().toString()));
+            writeVarInt(body, shapeBody.size());
+            body.write(shapeBody.toByteArray(), 0, shapeBody.size());
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(MAGIC, 0, MAGIC.length);
+        writeVarInt(header, FORMAT_VERSION);
+        writeVarInt(header, encoder.strings.size());
+        for (String string : encoder.strings) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(header, utf8.length);
+            header.write(utf8, 0, utf8.length);
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().toFile().getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                header.writeTo(out);
+                body.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(Model, Path)}.
+     *
+     * <p>Only the string table and the shape records are read. The bodies of the shapes are
+     * decoded by {@link #load(ClassLoader)}.
+     *
+     * @param file File to read.
+     * @return Returns the snapshot.
+     * @throws IllegalArgumentException if the file is not a snapshot of a supported version.
+     */
+    public static BinaryModelSnapshot read(Path file) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Reader reader = new Reader(bytes, null, 0);
+        for (byte b : MAGIC) {
+            if (reader.position >= bytes.length || bytes[reader.position++] != b) {
+                throw new IllegalArgumentException("Not a Smithy model snapshot: " + file);
+            }
+        }
+        int version = reader.readVarInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported Smithy model snapshot version " + version + ": " + file);
+        }
+        String[] strings = new String[reader.readVarInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = reader.readVarInt();
+            strings[i] = new String(bytes, reader.position, length, StandardCharsets.UTF_8);
+            reader.position += length;
+        }
+
+        int metadataOffset = reader.position;
+        reader.skipNode();
+        int shapeCount = reader.readVarInt();
+        Map<ShapeId, ShapeRecord> shapes = new LinkedHashMap<>();
+        for (int i = 0; i < shapeCount; i++) {
+            ShapeId id = ShapeId.from(strings[reader.readVarInt()]);
+            String type = strings[reader.readVarInt()];
+            int length = reader.readVarInt();
+            shapes.put(id, new ShapeRecord(ShapeType.fromString(type).orElseThrow(
+                    () -> new IllegalArgumentException("Unknown shape type `" + type + "` in snapshot: " + file)),
+                    reader.position));
+            reader.position += length;
+        }
+        return new BinaryModelSnapshot(bytes, strings, metadataOffset, shapes);
+    }
+
+    /**
+     * Lists the shapes of the snapshot without decoding them.
+     *
+     * @return Returns the type of each shape, by shape ID, in the order they were written.
+     */
+    public Map<ShapeId, ShapeType> getShapeTypes() {
+        Map<ShapeId, ShapeType> types = new LinkedHashMap<>();
+        for (Map.Entry<ShapeId, ShapeRecord> entry : shapes.entrySet()) {
+            types.put(entry.getKey(), entry.getValue().type);
+        }
+        return types;
+    }
+
+    /**
+     * Loads the model of the snapshot, along with the prelude.
+     *
+     * @param classLoader Class loader used to create the traits of the model. The values of traits
+     *                    that it does not provide are decoded when they are first read.
+     * @return Returns the loaded model.
+     */
+    public Model load(ClassLoader classLoader) {
+        Traits traits = new Traits(classLoader);
+        Model.Builder model = Model.builder().addShapes(loadPrelude());
+        Map<StringNode, Node> metadata = new Reader(bytes, strings, metadataOffset).readNode()
+                .expectObjectNode()
+                .getMembers();
+        for (Map.Entry<StringNode, Node> entry : metadata.entrySet()) {
+            model.putMetadataProperty(entry.getKey().getValue(), entry.getValue());
+        }
+
+        Map<ShapeId, Shape> built = new HashMap<>();
+        for (Map.Entry<ShapeId, ShapeRecord> entry : shapes.entrySet()) {
+            ShapeRecord record = entry.getValue();
+            Reader reader = new Reader(bytes, strings, record.offset);
+            Shape shape = reader.readShape(entry.getKey(), record.type, built, traits);
+            built.put(shape.getId(), shape);
+            model.addShape(shape);
+        }
+        return model.build();
+    }
+
+    // The model assembler caches the prelude, so assembling an empty model is cheap.
+    private static Model loadPrelude() {
+        return Model.assembler(BinaryModelSnapshot.class.getClassLoader())
+                .disableValidation()
+                .assemble()
+                .unwrap();
+    }
+
+    private static void orderMixinsFirst(Model model, Shape shape, Set<ShapeId> visited, List<Shape> ordered) {
+        if (!visited.add(shape.getId())) {
+            return;
+        }
+        for (ShapeId mixin : shape.getMixins()) {
+            model.getShape(mixin).ifPresent(m -> orderMixinsFirst(model, m, visited, ordered));
+        }
+        ordered.add(shape);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static final class ShapeRecord {
+        private final ShapeType type;
+        private final int offset;
+
+        ShapeRecord(ShapeType type, int offset) {
+            this.type = type;
+            this.offset = offset;
+        }
+    }
+
+    // Creates the traits of a loaded model.
+    private final class Traits {
+        private final TraitFactory factory;
+        private final Set<ShapeId> typed = new HashSet<>();
+
+        Traits(ClassLoader classLoader) {
+            factory = TraitFactory.createServiceFactory(classLoader);
+            for (TraitService service : ServiceLoader.load(TraitService.class, classLoader)) {
+                typed.add(service.getShapeId());
+            }
+        }
+
+        // The reader is left after the value of the trait.
+        Trait read(Reader reader, ShapeId traitId, ShapeId target) {
+            if (!typed.contains(traitId)) {
+                int offset = reader.position;
+                reader.skipNode();
+                return new EncodedTrait(traitId, offset);
+            }
+            Node value = reader.readNode();
+            return factory.createTrait(traitId, target, value).orElseGet(() -> new DynamicTrait(traitId, value));
+        }
+    }
+
+    // A trait without a Java class, like a dynamic trait, whose value is decoded from the snapshot when first read.
+    // It refers to the bytes of the snapshot, which are kept as long as the loaded model.
+    private final class EncodedTrait extends AbstractTrait {
+        private final int offset;
+
+        EncodedTrait(ShapeId id, int offset) {
+            super(id, SourceLocation.NONE);
+            this.offset = offset;
+        }
+
+        @Override
+        protected Node createNode() {
+            // AbstractTrait keeps the created node, so the value is only decoded once.
+            return new Reader(bytes, strings, offset).readNode();
+        }
+    }
+
+    private static final class Encoder {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        int intern(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.add(value);
+                indexes.put(value, index);
+            }
+            return index;
+        }
+
+        void writeShape(ByteArrayOutputStream out, Shape shape) {
+            writeIds(out, shape.getMixins());
+            writeVarInt(out, shape.getAllMembers().size());
+            for (MemberShape member : shape.getAllMembers().values()) {
+                writeVarInt(out, intern(member.getMemberName()));
+                writeId(out, member.getTarget());
+                writeIds(out, member.getMixins());
+                writeTraits(out, member);
+            }
+            if (shape instanceof ServiceShape) {
+                ServiceShape service = (ServiceShape) shape;
+                writeOptional(out, service.getIntroducedVersion());
+                writeIds(out, service.getIntroducedOperations());
+                writeIds(out, service.getIntroducedResources());
+                writeIds(out, service.getIntroducedErrorsSet());
+                writeVarInt(out, service.getIntroducedRename().size());
+                for (Map.Entry<ShapeId, String> rename : service.getIntroducedRename().entrySet()) {
+                    writeId(out, rename.getKey());
+                    writeVarInt(out, intern(rename.getValue()));
+                }
+            } else if (shape instanceof ResourceShape) {
+                ResourceShape resource = (ResourceShape) shape;
+                writeIdMap(out, resource.getIdentifiers());
+                writeIdMap(out, resource.getProperties());
+                writeOptionalId(out, resource.getPut());
+                writeOptionalId(out, resource.getCreate());
+                writeOptionalId(out, resource.getRead());
+                writeOptionalId(out, resource.getUpdate());
+                writeOptionalId(out, resource.getDelete());
+                writeOptionalId(out, resource.getList());
+                writeIds(out, resource.getIntroducedOperations());
+                writeIds(out, resource.getCollectionOperations());
+                writeIds(out, resource.getIntroducedResources());
+            } else if (shape instanceof OperationShape) {
+                OperationShape operation = (OperationShape) shape;
+                writeId(out, operation.getInputShape());
+                writeId(out, operation.getOutputShape());
+                writeIds(out, operation.getIntroducedErrorsSet());
+            }
+            writeTraits(out, shape);
+        }
+
+        // Synthetic traits are added back by the shape builders, so they are not written.
+        private void writeTraits(ByteArrayOutputStream out, Shape shape) {
+            List<Trait> traits = new ArrayList<>();
+            for (Trait trait : shape.getIntroducedTraits().values()) {
+                if (!trait.isSynthetic()) {
+                    traits.add(trait);
+                }
+            }
+            writeVarInt(out, traits.size());
+            for (Trait trait : traits) {
+                writeId(out, trait.toShapeId());
+                writeNode(out, trait.toNode());
+            }
+        }
+
+        private void writeId(ByteArrayOutputStream out, ShapeId id) {
+            writeVarInt(out, intern(id.toString()));
+        }
+
+        private void writeIds(ByteArrayOutputStream out, Collection<ShapeId> ids) {
+            writeVarInt(out, ids.size());
+            for (ShapeId id : ids) {
+                writeId(out, id);
+            }
+        }
+
+        private void writeIdMap(ByteArrayOutputStream out, Map<String, ShapeId> ids) {
+            writeVarInt(out, ids.size());
+            for (Map.Entry<String, ShapeId> entry : ids.entrySet()) {
+                writeVarInt(out, intern(entry.getKey()));
+                writeId(out, entry.getValue());
+            }
+        }
+
+        // Absent values are written as 0, and present values as their index plus one.
+        private void writeOptional(ByteArrayOutputStream out, String value) {
+            writeVarInt(out, value == null ? 0 : intern(value) + 1);
+        }
+
+        private void writeOptionalId(ByteArrayOutputStream out, Optional<ShapeId> id) {
+            writeOptional(out, id.map(ShapeId::toString).orElse(null));
+        }
+
+        void writeNode(ByteArrayOutputStream out, Node node) {
+            if (node.isNullNode()) {
+                out.write(NULL);
+            } else if (node.isBooleanNode()) {
+                out.write(node.expectBooleanNode().getValue() ? TRUE : FALSE);
+            } else if (node.isStringNode()) {
+                out.write(STRING);
+                writeVarInt(out, intern(node.expectStringNode().getValue()));
+            } else if (node.isNumberNode()) {
+                writeNumber(out, node.expectNumberNode());
+            } else if (node.isArrayNode()) {
+                List<Node> elements = node.expectArrayNode().getElements();
+                out.write(ARRAY);
+                writeVarInt(out, elements.size());
+                for (Node element : elements) {
+                    writeNode(out, element);
+                }
+            } else {
+                Map<StringNode, Node> members = node.expectObjectNode().getMembers();
+                out.write(OBJECT);
+                writeVarInt(out, members.size());
+                for (Map.Entry<StringNode, Node> member : members.entrySet()) {
+                    writeVarInt(out, intern(member.getKey().getValue()));
+                    writeNode(out, member.getValue());
+                }
+            }
+        }
+
+        private void writeNumber(ByteArrayOutputStream out, NumberNode node) {
+            Number value = node.getValue();
+            if (value instanceof BigDecimal) {
+                out.write(BIG_DECIMAL);
+                writeVarInt(out, intern(value.toString()));
+            } else if (value instanceof BigInteger) {
+                out.write(BIG_INTEGER);
+                writeVarInt(out, intern(value.toString()));
+            } else if (value instanceof Double || value instanceof Float) {
+                out.write(DOUBLE);
+                long bits = Double.doubleToLongBits(value.doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) (bits >>> shift));
+                }
+            } else {
+                // Zig-zag encoding keeps small negative numbers small.
+                long longValue = value.longValue();
+                out.write(LONG);
+                writeVarLong(out, (longValue << 1) ^ (longValue >> 63));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private final String[] strings;
+        private int position;
+
+        Reader(byte[] bytes, String[] strings, int position) {
+            this.bytes = bytes;
+            this.strings = strings;
+            this.position = position;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+
+        String readString() {
+            return strings[readVarInt()];
+        }
+
+        ShapeId readId() {
+            return ShapeId.from(readString());
+        }
+
+        String readOptional() {
+            int index = readVarInt();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        ShapeId readOptionalId() {
+            String id = readOptional();
+            return id == null ? null : ShapeId.from(id);
+        }
+
+        List<ShapeId> readIds() {
+            int size = readVarInt();
+            List<ShapeId> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ids.add(readId());
+            }
+            return ids;
+        }
+
+        Shape readShape(ShapeId id, ShapeType type, Map<ShapeId, Shape> built, Traits traits) {
+            AbstractShapeBuilder<?, ?> builder = type.createBuilderForType().id(id);
+            for (ShapeId mixin : readIds()) {
+                builder.addMixin(built.get(mixin));
+            }
+            int memberCount = readVarInt();
+            for (int i = 0; i < memberCount; i++) {
+                MemberShape.Builder member = MemberShape.builder().id(id.withMember(readString())).target(readId());
+                for (ShapeId mixin : readIds()) {
+                    member.addMixin(built.get(mixin.withoutMember()).getMember(mixin.getMember().get()).get());
+                }
+                readTraits(member, traits);
+                builder.addMember(member.build());
+            }
+            if (builder instanceof ServiceShape.Builder) {
+                ServiceShape.Builder service = (ServiceShape.Builder) builder;
+                service.version(readOptional());
+                service.operations(readIds());
+                service.resources(readIds());
+                service.errors(readIds());
+                int renames = readVarInt();
+                for (int i = 0; i < renames; i++) {
+                    service.putRename(readId(), readString());
+                }
+            } else if (builder instanceof ResourceShape.Builder) {
+                ResourceShape.Builder resource = (ResourceShape.Builder) builder;
+                int identifiers = readVarInt();
+                for (int i = 0; i < identifiers; i++) {
+                    resource.addIdentifier(readString(), readId());
+                }
+                int properties = readVarInt();
+                for (int i = 0; i < properties; i++) {
+                    resource.addProperty(readString(), readId());
+                }
+                resource.put(readOptionalId());
+                resource.create(readOptionalId());
+                resource.read(readOptionalId());
+                resource.update(readOptionalId());
+                resource.delete(readOptionalId());
+                resource.list(readOptionalId());
+                resource.operations(readIds());
+                resource.collectionOperations(readIds());
+                resource.resources(readIds());
+            } else if (builder instanceof OperationShape.Builder) {
+                OperationShape.Builder operation = (OperationShape.Builder) builder;
+                operation.input(readId());
+                operation.output(readId());
+                operation.errors(readIds());
+            }
+            readTraits(builder, traits);
+            return builder.build();
+        }
+
+        private void readTraits(AbstractShapeBuilder<?, ?> builder, Traits traits) {
+            int traitCount = readVarInt();
+            for (int i = 0; i < traitCount; i++) {
+                builder.addTrait(traits.read(this, readId(), builder.getId()));
+            }
+        }
+
+        Node readNode() {
+            int tag = bytes[position++];
+            switch (tag) {
+                case NULL:
+                    return Node.nullNode();
+                case TRUE:
+                    return Node.from(true);
+                case FALSE:
+                    return Node.from(false);
+                case STRING:
+                    return Node.from(readString());
+                case LONG:
+                    long zigZag = readVarLong();
+                    return Node.from((zigZag >>> 1) ^ -(zigZag & 1));
+                case DOUBLE:
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | (bytes[position++] & 0xFF);
+                    }
+                    return Node.from(Double.longBitsToDouble(bits));
+                case BIG_INTEGER:
+                    return Node.from(new BigInteger(readString()));
+                case BIG_DECIMAL:
+                    return Node.from(new BigDecimal(readString()));
+                case ARRAY:
+                    int size = readVarInt();
+                    List<Node> elements = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        elements.add(readNode());
+                    }
+                    return ArrayNode.fromNodes(elements);
+                case OBJECT:
+                    int memberCount = readVarInt();
+                    Map<StringNode, Node> members = new LinkedHashMap<>();
+                    for (int i = 0; i < memberCount; i++) {
+                        StringNode key = Node.from(readString());
+                        members.put(key, readNode());
+                    }
+                    return Node.objectNode(members);
+                default:
+                    throw new IllegalArgumentException("Invalid value tag in Smithy model snapshot: " + tag);
+            }
+        }
+
+        void skipNode() {
+            int tag = bytes[position++];
+            switch (tag) {
+                case STRING:
+                case LONG:
+                case BIG_INTEGER:
+                case BIG_DECIMAL:
+                    readVarLong();
+                    break;
+                case DOUBLE:
+                    position += 8;
+                    break;
+                case ARRAY:
+                    int size = readVarInt();
+                    for (int i = 0; i < size; i++) {
+                        skipNode();
+                    }
+                    break;
+                case OBJECT:
+                    int memberCount = readVarInt();
+                    for (int i = 0; i < memberCount; i++) {
+                        readVarInt();
+                        skipNode();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
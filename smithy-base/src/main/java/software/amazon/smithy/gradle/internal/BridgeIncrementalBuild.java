@@ -0,0 +1,150 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.build.ProjectionResult;
+import software.amazon.smithy.build.SmithyBuild;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Finds the projections of a {@link SmithyBuildBridge} build that changed files affect, using the
+ * {@link ProjectionIndex} written by the previous build.
+ */
+@SmithyInternalApi
+public final class BridgeIncrementalBuild {
+    private final BridgeRequest request;
+    private final ProjectionIndex index;
+    private final ProjectionIndex previous;
+
+    private BridgeIncrementalBuild(BridgeRequest request, Model model) {
+        this.request = request;
+        Path baseDirectory = request.getBaseDirectory() != null ? Paths.get(request.getBaseDirectory()) : null;
+        index = ProjectionIndex.of(model, baseDirectory);
+        previous = request.getChangedFiles() != null
+                ? ProjectionIndex.read(Paths.get(request.getIndexFile()), baseDirectory)
+                : null;
+        if (request.isSemanticFingerprint()) {
+            index.setFingerprint(ProjectionIndex.fingerprint(model));
+        }
+    }
+
+    /**
+     * Creates the incremental state of a build.
+     *
+     * @param request Request of the build.
+     * @param model Validated model of the build.
+     * @return Returns the incremental state, or null if the request does not keep an index.
+     */
+    static BridgeIncrementalBuild of(BridgeRequest request, Model model) {
+        return request.getIndexFile() != null ? new BridgeIncrementalBuild(request, model) : null;
+    }
+
+    /**
+     * Deletes the index, so that the next build rebuilds every projection.
+     *
+     * @param request Request of the build.
+     */
+    static void discard(BridgeRequest request) {
+        SmithyBuildBridge.deleteFile(request.getIndexFile());
+    }
+
+    /**
+     * Marks every projection up to date if the changed files still define the same model.
+     *
+     * <p>The index is written again, since shapes may have moved between files.
+     *
+     * @param result Result to record the up-to-date projections in.
+     * @return Returns true if no projection needs to be rebuilt.
+     */
+    boolean reuseUnchangedModel(BridgeResult result) {
+        if (previous == null || index.getFingerprint() == null
+                || !index.getFingerprint().equals(previous.getFingerprint())) {
+            return false;
+        }
+        index.copyProjections(previous);
+        index.write(Paths.get(request.getIndexFile()));
+        result.put(SmithyBuildBridge.INCREMENTAL, true);
+        result.put(SmithyBuildBridge.MODEL_UNCHANGED, true);
+        result.put(SmithyBuildBridge.UP_TO_DATE_PROJECTIONS, new ArrayList<>(index.getProjections()));
+        return true;
+    }
+
+    /**
+     * Finds the projections that need to be rebuilt and deletes their outputs.
+     *
+     * @param projector Creates the build that applies the projections without their plugins.
+     * @param result Result to record the up-to-date projections in.
+     * @return Returns the projections to rebuild, or null if every projection is rebuilt.
+     */
+    Set<String> findAffectedProjections(Supplier<SmithyBuild> projector, BridgeResult result) {
+        if (previous == null) {
+            return null;
+        }
+        // Applying the projections without their plugins finds the shapes each one now contains.
+        Set<String> failed = Collections.synchronizedSet(new TreeSet<>());
+        SmithyBuild build = projector.get();
+        build.pluginFilter(name -> false);
+        build.build(projectionResult -> index.addProjection(projectionResult.getProjectionName(),
+                projectionResult.getModel()), (name, error) -> failed.add(name));
+        Set<String> rebuild = index.findAffectedProjections(previous, request.getChangedFiles());
+        // Projections that could not be applied are rebuilt so that their errors are reported.
+        rebuild.addAll(failed);
+        Set<String> upToDate = index.getProjections();
+        upToDate.removeAll(rebuild);
+        result.put(SmithyBuildBridge.INCREMENTAL, true);
+        result.put(SmithyBuildBridge.UP_TO_DATE_PROJECTIONS, new ArrayList<>(upToDate));
+        if (request.getOutput() != null) {
+            for (String name : rebuild) {
+                deleteDirectory(Paths.get(request.getOutput(), name));
+            }
+        }
+        return rebuild;
+    }
+
+    void addProjection(ProjectionResult projectionResult) {
+        // Incremental builds already indexed every projection while finding the affected ones.
+        if (previous == null) {
+            index.addProjection(projectionResult.getProjectionName(), projectionResult.getModel());
+        }
+    }
+
+    // A failed build leaves the outputs in an unknown state, so the next build rebuilds everything.
+    void finish(boolean succeeded) {
+        if (succeeded) {
+            index.write(Paths.get(request.getIndexFile()));
+        } else {
+            discard(request);
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.build.SmithyBuild;
+import software.amazon.smithy.build.model.MavenConfig;
+import software.amazon.smithy.build.model.SmithyBuildConfig;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.loader.ModelAssembler;
+import software.amazon.smithy.model.validation.ValidatedResult;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Loads the smithy-build config and the model of a {@link SmithyBuildBridge} request.
+ *
+ * <p>Models are taken from the model cache of the request if it has an equivalent model, and are
+ * otherwise assembled, loading the IDL files that the {@link ParsedFileCache} has an entry for
+ * instead of parsing them.
+ */
+@SmithyInternalApi
+public final class BridgeModelLoader {
+    private static final String DEPENDENCY_MODE_FORBID = "forbid";
+
+    private final BridgeRequest request;
+    private final SmithyBuildConfig config;
+    private final List<String> sourcePaths;
+    private String cacheKey;
+
+    BridgeModelLoader(BridgeRequest request) {
+        this.request = request;
+        config = loadConfig(request.getConfigs());
+        sourcePaths = new ArrayList<>(config.getSources());
+        sourcePaths.addAll(request.getSources());
+    }
+
+    SmithyBuildConfig getConfig() {
+        return config;
+    }
+
+    List<String> getSourcePaths() {
+        return sourcePaths;
+    }
+
+    // Mirror the error the Smithy CLI raises when SMITHY_DEPENDENCY_MODE is set to "forbid".
+    void checkDependencyMode() {
+        if (!DEPENDENCY_MODE_FORBID.equals(request.getDependencyMode())) {
+            return;
+        }
+        Set<String> dependencies = config.getMaven()
+                .map(MavenConfig::getDependencies)
+                .orElse(Collections.emptySet());
+        if (!dependencies.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "SMITHY_DEPENDENCY_MODE is set to 'forbid', but the following Maven dependencies are defined "
+                            + "in smithy-build.json: %s. Dependencies are forbidden in this configuration.",
+                    dependencies));
+        }
+    }
+
+    /**
+     * Gets the model that another request already assembled from the same inputs.
+     *
+     * <p>Cached models are only reused if their classes are the Smithy classes of this class loader.
+     *
+     * @param result Result to record the shared model and the time spent hashing inputs in.
+     * @return Returns the shared model, or null if the request does not share models or none is cached.
+     */
+    AssembledModel getSharedModel(BridgeResult result) {
+        if (request.getModelCacheGet() == null) {
+            return null;
+        }
+        cacheKey = modelCacheKey();
+        result.recordPhase(SmithyBuildBridge.PHASE_HASH_MODEL_INPUTS);
+        AssembledModel shared = AssembledModel.fromCached(request.getModelCacheGet().apply(cacheKey));
+        if (shared != null) {
+            result.put(SmithyBuildBridge.SHARED_MODEL, true);
+        }
+        return shared;
+    }
+
+    /**
+     * Assembles and validates the model, and stores it in the model cache of the request if it has one.
+     *
+     * <p>The caller closes the model once the request no longer needs it.
+     *
+     * @param result Result to record phases and parse cache statistics in.
+     * @return Returns the validated model and the class loader it was assembled with.
+     */
+    AssembledModel assemble(BridgeResult result) {
+        ParsedFileCache parseCache = request.getParseCacheDirectory() != null
+                ? new ParsedFileCache(Paths.get(request.getParseCacheDirectory()), ParsedFileCache.DEFAULT_MAX_BYTES)
+                : null;
+        ParsedSources parsed = new ParsedSources(parseCache);
+        AssembledModel assembled = assemble(result, parsed);
+        ValidatedResult<Model> validated = assembled.getResult();
+        boolean hits = !parsed.hits.isEmpty();
+        if (hits && (validated.isBroken() || !ParsedFileCache.isValid(validated.unwrap(), parsed.hits))) {
+            // The files are parsed again, so that the model and its errors are exactly those of the files.
+            assembled.close();
+            parsed = new ParsedSources(null);
+            assembled = assemble(result, parsed);
+        } else if (hits) {
+            Model ordered = ParsedFileCache.orderMetadata(validated.unwrap(), parsed.files);
+            assembled = assembled.withResult(new ValidatedResult<>(ordered, validated.getValidationEvents()));
+        }
+        if (parseCache != null) {
+            try {
+                storeParsedFiles(parseCache, parsed, assembled.getResult(), result);
+            } catch (RuntimeException e) {
+                assembled.close();
+                throw e;
+            }
+        }
+        if (cacheKey != null) {
+            request.getModelCachePut().accept(cacheKey, assembled.toCached());
+        }
+        return assembled;
+    }
+
+    private static void storeParsedFiles(
+            ParsedFileCache parseCache,
+            ParsedSources parsed,
+            ValidatedResult<Model> validated,
+            BridgeResult result
+    ) {
+        result.startPhase();
+        if (!validated.isBroken()) {
+            Model model = validated.unwrap();
+            Set<String> uncacheable = ParsedFileCache.findUncacheableFiles(model);
+            for (String[] miss : parsed.misses) {
+                parseCache.store(miss[1], miss[0], miss[2], model, validated.getValidationEvents(), uncacheable);
+            }
+        }
+        parseCache.removeUnusedEntries();
+        result.recordPhase(SmithyBuildBridge.PHASE_STORE_PARSED_FILES);
+        result.put(SmithyBuildBridge.PARSE_CACHE_HITS, parsed.hits.size());
+        result.put(SmithyBuildBridge.PARSE_CACHE_MISSES, parsed.misses.size());
+    }
+
+    // The IDL files of the sources of the request are loaded from the parse cache if it has an entry for their
+    // contents, and are otherwise parsed and recorded as misses.
+    private AssembledModel assemble(BridgeResult result, ParsedSources parsed) {
+        result.startPhase();
+        // Models are discovered on a class loader that includes the discovery classpath, so that
+        // traits and validators defined alongside discovered models are also available.
+        ClassLoader modelClassLoader = createDiscoveryClassLoader();
+        try {
+            ModelAssembler assembler = createAssembler(modelClassLoader, request.isAllowUnknownTraits());
+            if (request.isDiscover()) {
+                assembler.discoverModels(modelClassLoader);
+            }
+            result.recordPhase(SmithyBuildBridge.PHASE_DISCOVER_MODELS);
+            config.getImports().forEach(assembler::addImport);
+            if (parsed.cache == null) {
+                sourcePaths.forEach(assembler::addImport);
+            } else {
+                config.getSources().forEach(assembler::addImport);
+                for (String source : request.getSources()) {
+                    for (Path file : listFiles(Paths.get(source))) {
+                        parsed.add(assembler, file);
+                    }
+                }
+            }
+
+            // Assembling parses and validates the model in one step.
+            ValidatedResult<Model> validated = assembler.assemble();
+            result.recordPhase(SmithyBuildBridge.PHASE_ASSEMBLE_MODEL);
+            return new AssembledModel(validated, modelClassLoader);
+        } catch (RuntimeException e) {
+            closeDiscoveryClassLoader(modelClassLoader);
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the class loader that models are discovered and plugins are loaded from.
+     *
+     * <p>The caller closes the class loader with {@link #closeDiscoveryClassLoader(ClassLoader)}.
+     *
+     * @return Returns a class loader of the discovery classpath, or the CLI class loader if there is none.
+     */
+    ClassLoader createDiscoveryClassLoader() {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        String classpath = request.getDiscoveryClasspath();
+        if (classpath == null || classpath.isEmpty()) {
+            return parent;
+        }
+        List<URL> urls = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                try {
+                    urls.add(Paths.get(entry).toUri().toURL());
+                } catch (MalformedURLException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+        }
+        return new DiscoveryClassLoader(urls.toArray(new URL[0]), parent);
+    }
+
+    /**
+     * Closes a class loader created by {@link #createDiscoveryClassLoader()}.
+     *
+     * @param classLoader Class loader to close. The CLI class loader is never closed.
+     */
+    static void closeDiscoveryClassLoader(ClassLoader classLoader) {
+        if (classLoader instanceof DiscoveryClassLoader) {
+            try {
+                ((DiscoveryClassLoader) classLoader).close();
+            } catch (IOException e) {
+                // Closing only releases file handles, so a failure here is not fatal.
+            }
+        }
+    }
+
+    static ModelAssembler createAssembler(ClassLoader classLoader, boolean allowUnknownTraits) {
+        ModelAssembler assembler = Model.assembler(classLoader);
+        if (allowUnknownTraits) {
+            assembler.putProperty(ModelAssembler.ALLOW_UNKNOWN_TRAITS, true);
+        }
+        return assembler;
+    }
+
+    private static SmithyBuildConfig loadConfig(List<String> configs) {
+        SmithyBuildConfig.Builder builder = SmithyBuildConfig.builder();
+        if (configs.isEmpty()) {
+            builder.version(SmithyBuild.VERSION);
+        } else {
+            for (String config : configs) {
+                builder.load(Paths.get(config));
+            }
+        }
+        return builder.build();
+    }
+
+    // Files are listed in the order that ModelAssembler#addImport walks directories in.
+    private static List<Path> listFiles(Path source) {
+        if (!Files.isDirectory(source)) {
+            return Collections.singletonList(source);
+        }
+        try (Stream<Path> walk = Files.walk(source)) {
+            return walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Models are keyed by the contents of their model files and configs, the files of the discovery
+    // classpath, the options they were assembled with, and the content hash of the Smithy CLI classpath,
+    // which determines the version of Smithy. JARs and class directories on the discovery classpath are
+    // not rewritten in place during a build, so only their sizes and modification times are hashed.
+    // Models of an equal classpath loaded by another class loader are rejected by getSharedModel.
+    private String modelCacheKey() {
+        MessageDigest digest = ClasspathHasher.newDigest();
+        update(digest, String.valueOf(request.getCliClasspathHash()));
+        update(digest, String.valueOf(request.isDiscover()));
+        update(digest, String.valueOf(request.isAllowUnknownTraits()));
+        for (String configFile : request.getConfigs()) {
+            updateWithFiles(digest, Paths.get(configFile), true);
+        }
+        List<String> modelPaths = new ArrayList<>(config.getImports());
+        modelPaths.addAll(sourcePaths);
+        for (String path : modelPaths) {
+            updateWithFiles(digest, Paths.get(path), true);
+        }
+        String classpath = request.getDiscoveryClasspath();
+        if (classpath != null) {
+            for (String entry : classpath.split(File.pathSeparator)) {
+                if (!entry.isEmpty()) {
+                    updateWithFiles(digest, Paths.get(entry), false);
+                }
+            }
+        }
+        return ClasspathHasher.toHex(digest.digest());
+    }
+
+    private static void updateWithFiles(MessageDigest digest, Path path, boolean contents) {
+        update(digest, path.toAbsolutePath().toString());
+        if (!Files.exists(path)) {
+            update(digest, "missing");
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            List<Path> files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            for (Path file : files) {
+                update(digest, file.toString());
+                if (contents) {
+                    digest.update(Files.readAllBytes(file));
+                } else {
+                    update(digest, Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * A validated model and the class loader it was assembled with, which later tasks reuse so that
+     * their plugins see the same trait classes as the model.
+     *
+     * <p>Closing the model closes the discovery class loader it was assembled with, unless the model was
+     * stored in the model cache, which then owns the class loader.
+     */
+    static final class AssembledModel implements AutoCloseable {
+        private final Object[] values;
+        private DiscoveryClassLoader owned;
+
+        AssembledModel(ValidatedResult<Model> result, ClassLoader classLoader) {
+            this(new Object[] {result, classLoader},
+                    classLoader instanceof DiscoveryClassLoader ? (DiscoveryClassLoader) classLoader : null);
+        }
+
+        private AssembledModel(Object[] values, DiscoveryClassLoader owned) {
+            this.values = values;
+            this.owned = owned;
+        }
+
+        @SuppressWarnings("unchecked")
+        ValidatedResult<Model> getResult() {
+            return (ValidatedResult<Model>) values[0];
+        }
+
+        ClassLoader getClassLoader() {
+            return (ClassLoader) values[1];
+        }
+
+        // Ownership of the class loader moves to the new model.
+        AssembledModel withResult(ValidatedResult<Model> result) {
+            AssembledModel replacement = new AssembledModel(new Object[] {result, values[1]}, owned);
+            owned = null;
+            return replacement;
+        }
+
+        // Each request defines this class in a new class loader, so models are cached as JDK types: the
+        // model and its class loader, and the class loader the cache closes once the model is evicted.
+        Object[] toCached() {
+            Object[] cached = {values, owned};
+            owned = null;
+            return cached;
+        }
+
+        static AssembledModel fromCached(Object cached) {
+            if (cached instanceof Object[] && ((Object[]) cached).length == 2
+                    && ((Object[]) cached)[0] instanceof ValidatedResult
+                    && ((Object[]) cached)[1] instanceof ClassLoader) {
+                // The cached array is kept, since the cache only holds it softly while this model is in use.
+                return new AssembledModel((Object[]) cached, null);
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closeDiscoveryClassLoader(owned);
+            owned = null;
+        }
+    }
+
+    // Class loaders of the discovery classpath of a request, which are closed once the request no longer
+    // needs them.
+    private static final class DiscoveryClassLoader extends URLClassLoader {
+        DiscoveryClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+    }
+
+    // Sources loaded from or missing in the parse cache. Misses are the file name, key, and contents.
+    // Files are the names of the files in the order the assembler would parse them in.
+    private static final class ParsedSources {
+        private final ParsedFileCache cache;
+        private final List<ParsedFileCache.Entry> hits = new ArrayList<>();
+        private final List<String[]> misses = new ArrayList<>();
+        private final List<String> files = new ArrayList<>();
+
+        ParsedSources(ParsedFileCache cache) {
+            this.cache = cache;
+        }
+
+        void add(ModelAssembler assembler, Path file) {
+            files.add(file.toString());
+            if (!file.toString().endsWith(".smithy") || !Files.isRegularFile(file)) {
+                assembler.addImport(file);
+                return;
+            }
+            try {
+                byte[] contents = Files.readAllBytes(file);
+                String key = cache.key(contents);
+                ParsedFileCache.Entry entry = cache.load(key, file.toString());
+                if (entry != null) {
+                    hits.add(entry);
+                    assembler.addDocumentNode(entry.getDocument());
+                } else {
+                    String text = new String(contents, StandardCharsets.UTF_8);
+                    misses.add(new String[] {file.toString(), key, text});
+                    assembler.addUnparsedModel(file.toString(), text);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import software.amazon.smithy.build.PluginContext;
+import software.amazon.smithy.build.SmithyBuildPlugin;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Creates the smithy-build plugins of a {@link SmithyBuildBridge} build.
+ *
+ * <p>Every plugin is timed. If the request has a plugin cache directory, the artifacts of each plugin
+ * are also stored in and restored from a {@link PluginArtifactCache}.
+ */
+@SmithyInternalApi
+public final class BridgePlugins {
+    // Built-in plugins only serialize the model and copy its sources, so restoring them is no faster.
+    private static final Set<String> UNCACHED_PLUGINS = new TreeSet<>(Arrays.asList("build-info", "model", "sources"));
+
+    private final Map<String, Map<String, Long>> pluginMillis = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> cachedPlugins = new ConcurrentHashMap<>();
+    private final Function<String, Optional<SmithyBuildPlugin>> factory;
+
+    BridgePlugins(BridgeRequest request, ClassLoader modelClassLoader) {
+        Function<String, Optional<SmithyBuildPlugin>> plugins = SmithyBuildPlugin.createServiceFactory(
+                modelClassLoader);
+        if (request.getPluginCacheDirectory() != null) {
+            PluginArtifactCache cache = new PluginArtifactCache(Paths.get(request.getPluginCacheDirectory()),
+                    request.getPluginCacheSalt());
+            cache.removeUnusedEntries();
+            Function<String, Optional<SmithyBuildPlugin>> uncached = plugins;
+            Map<String, String> modelKeys = new ConcurrentHashMap<>();
+            plugins = name -> uncached.apply(name)
+                    .map(p -> UNCACHED_PLUGINS.contains(name) ? p : new CachingPlugin(p, cache, modelKeys));
+        }
+        Function<String, Optional<SmithyBuildPlugin>> timed = plugins;
+        factory = name -> timed.apply(name).map(TimedPlugin::new);
+    }
+
+    Function<String, Optional<SmithyBuildPlugin>> getFactory() {
+        return factory;
+    }
+
+    Map<String, Long> getPluginMillis(String projection) {
+        return pluginMillis.get(projection);
+    }
+
+    Set<String> getCachedPlugins(String projection) {
+        return cachedPlugins.get(projection);
+    }
+
+    private abstract static class DelegatingPlugin implements SmithyBuildPlugin {
+        final SmithyBuildPlugin delegate;
+
+        DelegatingPlugin(SmithyBuildPlugin delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public boolean requiresValidModel() {
+            return delegate.requiresValidModel();
+        }
+
+        @Override
+        public boolean isSerial() {
+            return delegate.isSerial();
+        }
+
+        @Override
+        public List<String> runBefore() {
+            return delegate.runBefore();
+        }
+
+        @Override
+        public List<String> runAfter() {
+            return delegate.runAfter();
+        }
+    }
+
+    // Restores the artifacts of a plugin from the cache when the plugin runs again with the same inputs.
+    private final class CachingPlugin extends DelegatingPlugin {
+        private final PluginArtifactCache cache;
+        private final Map<String, String> modelKeys;
+
+        CachingPlugin(SmithyBuildPlugin delegate, PluginArtifactCache cache, Map<String, String> modelKeys) {
+            super(delegate);
+            this.cache = cache;
+            this.modelKeys = modelKeys;
+        }
+
+        @Override
+        public void execute(PluginContext context) {
+            String artifactName = context.getArtifactName().orElse(getName());
+            String key = cache.key(getName(), artifactName, context.getProjectionName(),
+                    modelKeys.computeIfAbsent(context.getProjectionName(), name -> modelKey(context)),
+                    Node.printJson(context.getSettings()));
+            if (cache.restore(key, context.getFileManifest())) {
+                cachedPlugins.computeIfAbsent(context.getProjectionName(), name -> ConcurrentHashMap.newKeySet())
+                        .add(artifactName);
+                return;
+            }
+
+            // Artifacts written to the shared manifest are not part of the entry, so they prevent caching.
+            Set<Path> sharedFiles = new TreeSet<>(context.getSharedFileManifest().getFiles());
+            delegate.execute(context);
+            if (sharedFiles.equals(new TreeSet<>(context.getSharedFileManifest().getFiles()))) {
+                cache.store(key, context.getFileManifest());
+            }
+        }
+
+        // Every plugin of a projection receives the same model, so its key is only computed once.
+        private String modelKey(PluginContext context) {
+            Model model = context.getModel();
+            StringBuilder sourceShapes = new StringBuilder();
+            model.shapes()
+                    .filter(context::isSourceShape)
+                    .map(shape -> shape.getId().toString())
+                    .sorted()
+                    .forEach(id -> sourceShapes.append(id).append('\n'));
+            return ProjectionIndex.fingerprint(model) + ':' + PluginArtifactCache.hash(sourceShapes.toString());
+        }
+    }
+
+    // Records how long each plugin of each projection takes to run.
+    private final class TimedPlugin extends DelegatingPlugin {
+        TimedPlugin(SmithyBuildPlugin delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void execute(PluginContext context) {
+            long start = System.nanoTime();
+            try {
+                delegate.execute(context);
+            } finally {
+                pluginMillis.computeIfAbsent(context.getProjectionName(), name -> new ConcurrentHashMap<>())
+                        .put(context.getArtifactName().orElse(getName()), BridgeResult.elapsedMillis(start));
+            }
+        }
+    }
+}
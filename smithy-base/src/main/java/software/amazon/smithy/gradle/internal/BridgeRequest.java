@@ -0,0 +1,254 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * A {@link DirectBuildRequest} as read by {@link SmithyBuildBridge} inside the class loader of the Smithy CLI.
+ *
+ * <p>Requests cross class loaders as maps of JDK types, which are only read here, once per request.
+ * Like the bridge, this class must not reference Gradle or other plugin classes.
+ */
+@SmithyInternalApi
+public final class BridgeRequest {
+    static final String CONFIGS = "configs";
+    static final String SOURCES = "sources";
+    static final String DISCOVER = "discover";
+    static final String DISCOVERY_CLASSPATH = "discoveryClasspath";
+    static final String OUTPUT = "output";
+    static final String PROJECTION = "projection";
+    static final String ALLOW_UNKNOWN_TRAITS = "allowUnknownTraits";
+    static final String DEPENDENCY_MODE = "dependencyMode";
+    static final String INDEX_FILE = "indexFile";
+    static final String CHANGED_FILES = "changedFiles";
+    static final String BASE_DIRECTORY = "baseDirectory";
+    static final String PLUGIN_CACHE_DIRECTORY = "pluginCacheDirectory";
+    static final String PLUGIN_CACHE_SALT = "pluginCacheSalt";
+    static final String MODEL_SNAPSHOT_FILE = "modelSnapshotFile";
+    static final String SELECTOR = "selector";
+    static final String MODEL_CACHE_GET = "modelCacheGet";
+    static final String MODEL_CACHE_PUT = "modelCachePut";
+    static final String CLI_CLASSPATH_HASH = "cliClasspathHash";
+    static final String PARSE_CACHE_DIRECTORY = "parseCacheDirectory";
+    static final String SEMANTIC_FINGERPRINT = "semanticFingerprint";
+
+    private final List<String> configs;
+    private final List<String> sources;
+    private final boolean discover;
+    private final String discoveryClasspath;
+    private final String output;
+    private final String projection;
+    private final boolean allowUnknownTraits;
+    private final String dependencyMode;
+    private final String indexFile;
+    private final List<String> changedFiles;
+    private final String baseDirectory;
+    private final String pluginCacheDirectory;
+    private final String pluginCacheSalt;
+    private final String modelSnapshotFile;
+    private final String selector;
+    private final Function<String, Object> modelCacheGet;
+    private final BiConsumer<String, Object> modelCachePut;
+    private final String cliClasspathHash;
+    private final String parseCacheDirectory;
+    private final boolean semanticFingerprint;
+
+    @SuppressWarnings("unchecked")
+    private BridgeRequest(Map<String, Object> map) {
+        configs = strings(map.get(CONFIGS));
+        sources = strings(map.get(SOURCES));
+        discover = Boolean.TRUE.equals(map.get(DISCOVER));
+        discoveryClasspath = (String) map.get(DISCOVERY_CLASSPATH);
+        output = (String) map.get(OUTPUT);
+        projection = (String) map.get(PROJECTION);
+        allowUnknownTraits = Boolean.TRUE.equals(map.get(ALLOW_UNKNOWN_TRAITS));
+        dependencyMode = (String) map.get(DEPENDENCY_MODE);
+        indexFile = (String) map.get(INDEX_FILE);
+        changedFiles = map.get(CHANGED_FILES) != null ? strings(map.get(CHANGED_FILES)) : null;
+        baseDirectory = (String) map.get(BASE_DIRECTORY);
+        pluginCacheDirectory = (String) map.get(PLUGIN_CACHE_DIRECTORY);
+        pluginCacheSalt = (String) map.get(PLUGIN_CACHE_SALT);
+        modelSnapshotFile = (String) map.get(MODEL_SNAPSHOT_FILE);
+        selector = (String) map.get(SELECTOR);
+        modelCacheGet = (Function<String, Object>) map.get(MODEL_CACHE_GET);
+        modelCachePut = (BiConsumer<String, Object>) map.get(MODEL_CACHE_PUT);
+        cliClasspathHash = (String) map.get(CLI_CLASSPATH_HASH);
+        parseCacheDirectory = (String) map.get(PARSE_CACHE_DIRECTORY);
+        semanticFingerprint = Boolean.TRUE.equals(map.get(SEMANTIC_FINGERPRINT));
+    }
+
+    /**
+     * Reads a request created by {@link DirectBuildRequest#toMap()}.
+     *
+     * @param map Request as a map of JDK types.
+     * @return Returns the typed request.
+     */
+    public static BridgeRequest fromMap(Map<String, Object> map) {
+        return new BridgeRequest(map);
+    }
+
+    /**
+     * @return Returns the absolute paths of the smithy-build configs to load.
+     */
+    public List<String> getConfigs() {
+        return configs;
+    }
+
+    /**
+     * @return Returns the absolute paths of the source models and JARs to build.
+     */
+    public List<String> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return Returns whether to discover models on the classpath.
+     */
+    public boolean isDiscover() {
+        return discover;
+    }
+
+    /**
+     * @return Returns the classpath used to discover models, or null to use the CLI classpath.
+     */
+    public String getDiscoveryClasspath() {
+        return discoveryClasspath;
+    }
+
+    /**
+     * @return Returns the directory projections are written to, or null.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * @return Returns the only projection to build, or null to build every projection.
+     */
+    public String getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return Returns whether to ignore unknown traits.
+     */
+    public boolean isAllowUnknownTraits() {
+        return allowUnknownTraits;
+    }
+
+    /**
+     * @return Returns the value of {@code SMITHY_DEPENDENCY_MODE} to apply to the build, or null.
+     */
+    public String getDependencyMode() {
+        return dependencyMode;
+    }
+
+    /**
+     * @return Returns the file the {@link ProjectionIndex} is kept in, or null.
+     */
+    public String getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * @return Returns the files that changed since the previous build, or null to rebuild every projection.
+     */
+    public List<String> getChangedFiles() {
+        return changedFiles;
+    }
+
+    /**
+     * @return Returns the directory that the index records files relative to, or null.
+     */
+    public String getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    /**
+     * @return Returns the directory of the {@link PluginArtifactCache}, or null to not cache artifacts.
+     */
+    public String getPluginCacheDirectory() {
+        return pluginCacheDirectory;
+    }
+
+    /**
+     * @return Returns the hash of every classpath that plugins and models are loaded from.
+     */
+    public String getPluginCacheSalt() {
+        return pluginCacheSalt;
+    }
+
+    /**
+     * @return Returns the file a {@link BinaryModelSnapshot} is kept in, or null.
+     */
+    public String getModelSnapshotFile() {
+        return modelSnapshotFile;
+    }
+
+    /**
+     * @return Returns the selector to query the model with, or null to build the model.
+     */
+    public String getSelector() {
+        return selector;
+    }
+
+    /**
+     * @return Returns the function that gets shared models by key, or null if models are not shared.
+     */
+    public Function<String, Object> getModelCacheGet() {
+        return modelCacheGet;
+    }
+
+    /**
+     * Gets the function that stores shared models by key.
+     *
+     * <p>Values are stored as an array of the model to share and an {@link AutoCloseable} resource of the
+     * model, or null. The model cache owns the resource and closes it once the model is evicted.
+     *
+     * @return Returns the function that stores shared models, or null if models are not shared.
+     */
+    public BiConsumer<String, Object> getModelCachePut() {
+        return modelCachePut;
+    }
+
+    /**
+     * @return Returns the content hash of the Smithy CLI classpath, which shared models are keyed by.
+     */
+    public String getCliClasspathHash() {
+        return cliClasspathHash;
+    }
+
+    /**
+     * @return Returns the directory of the {@link ParsedFileCache}, or null to parse every file.
+     */
+    public String getParseCacheDirectory() {
+        return parseCacheDirectory;
+    }
+
+    /**
+     * @return Returns whether to skip projections when the model is semantically unchanged.
+     */
+    public boolean isSemanticFingerprint() {
+        return semanticFingerprint;
+    }
+
+    private static List<String> strings(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            result.add((String) element);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
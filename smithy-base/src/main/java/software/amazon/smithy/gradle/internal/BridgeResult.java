@@ -0,0 +1,159 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import software.amazon.smithy.build.FileManifest;
+import software.amazon.smithy.build.ProjectionResult;
+import software.amazon.smithy.model.SourceLocation;
+import software.amazon.smithy.model.validation.Severity;
+import software.amazon.smithy.model.validation.ValidatedResult;
+import software.amazon.smithy.model.validation.ValidationEvent;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Collects the result of a {@link SmithyBuildBridge} request, to be read by {@link DirectBuildResult#fromMap(Map)}.
+ *
+ * <p>Results are written with the result keys of {@link SmithyBuildBridge}, using only JDK types so that they
+ * can cross class loaders. Phases are timed from the end of the previous phase.
+ */
+@SmithyInternalApi
+public final class BridgeResult {
+    private final long start = System.nanoTime();
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Map<String, Object> phases = new LinkedHashMap<>();
+    private final List<Map<String, Object>> events = Collections.synchronizedList(new ArrayList<>());
+    private final List<Map<String, Object>> projections = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+    // Projections read the start of their phase from the threads that build them.
+    private volatile long phaseStart = start;
+    private volatile long projectionsStart;
+
+    BridgeResult() {
+        values.put(SmithyBuildBridge.BROKEN, false);
+        values.put(SmithyBuildBridge.EVENTS, events);
+        values.put(SmithyBuildBridge.PHASES, phases);
+    }
+
+    void put(String key, Object value) {
+        values.put(key, value);
+    }
+
+    void setBroken() {
+        values.put(SmithyBuildBridge.BROKEN, true);
+    }
+
+    // Phases that are not recorded, like loading the config of a selection, count towards the next phase.
+    void startPhase() {
+        phaseStart = System.nanoTime();
+    }
+
+    void recordPhase(String phase) {
+        phases.put(phase, elapsedMillis(phaseStart));
+        phaseStart = System.nanoTime();
+    }
+
+    void addEvents(ValidatedResult<?> validated) {
+        for (ValidationEvent event : validated.getValidationEvents()) {
+            events.add(toMap(null, event));
+        }
+    }
+
+    // Projections are built in parallel, so projection results are collected by synchronized lists.
+    void startProjections() {
+        values.put(SmithyBuildBridge.PROJECTIONS, projections);
+        values.put(SmithyBuildBridge.FAILURES, failures);
+        startPhase();
+        projectionsStart = phaseStart;
+    }
+
+    void addProjection(ProjectionResult projectionResult, BridgePlugins plugins) {
+        projections.add(toMap(projectionResult, plugins));
+        for (ValidationEvent event : projectionResult.getEvents()) {
+            if (event.getSeverity().compareTo(Severity.DANGER) >= 0) {
+                events.add(toMap(projectionResult.getProjectionName(), event));
+            }
+        }
+    }
+
+    void addFailure(String projection, Throwable error) {
+        failures.add(projection + ": " + rootMessage(error));
+    }
+
+    boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    Map<String, Object> finish() {
+        values.put(SmithyBuildBridge.DURATION_MILLIS, elapsedMillis(start));
+        return values;
+    }
+
+    static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private Map<String, Object> toMap(ProjectionResult projectionResult, BridgePlugins plugins) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        projection.put(SmithyBuildBridge.NAME, projectionResult.getProjectionName());
+        projection.put(SmithyBuildBridge.BROKEN, projectionResult.isBroken());
+        // Projections are built in parallel, so this is when the projection finished relative
+        // to the start of the build rather than how long the projection itself took.
+        projection.put(SmithyBuildBridge.COMPLETED_AFTER_MILLIS, elapsedMillis(projectionsStart));
+        Map<String, Object> manifests = new LinkedHashMap<>();
+        for (Map.Entry<String, FileManifest> entry : projectionResult.getPluginManifests().entrySet()) {
+            Set<String> files = new TreeSet<>();
+            for (Path file : entry.getValue().getFiles()) {
+                files.add(file.toAbsolutePath().toString());
+            }
+            manifests.put(entry.getKey(), new ArrayList<>(files));
+        }
+        projection.put(SmithyBuildBridge.PLUGINS, manifests);
+        Map<String, Long> timings = plugins.getPluginMillis(projectionResult.getProjectionName());
+        if (timings != null) {
+            projection.put(SmithyBuildBridge.PLUGIN_MILLIS, new TreeMap<>(timings));
+        }
+        Set<String> cached = plugins.getCachedPlugins(projectionResult.getProjectionName());
+        if (cached != null) {
+            projection.put(SmithyBuildBridge.CACHED_PLUGINS, new ArrayList<>(new TreeSet<>(cached)));
+        }
+        return projection;
+    }
+
+    private static Map<String, Object> toMap(String projection, ValidationEvent event) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(SmithyBuildBridge.ID, event.getId());
+        result.put(SmithyBuildBridge.SEVERITY, event.getSeverity().toString());
+        result.put(SmithyBuildBridge.MESSAGE, event.getMessage());
+        event.getShapeId().ifPresent(id -> result.put(SmithyBuildBridge.SHAPE_ID, id.toString()));
+        SourceLocation location = event.getSourceLocation();
+        if (location != SourceLocation.NONE) {
+            result.put(SmithyBuildBridge.FILE, location.getFilename());
+            result.put(SmithyBuildBridge.LINE, (long) location.getLine());
+            result.put(SmithyBuildBridge.COLUMN, (long) location.getColumn());
+        }
+        if (projection != null) {
+            result.put(SmithyBuildBridge.PROJECTION, projection);
+        }
+        return result;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+    }
+}
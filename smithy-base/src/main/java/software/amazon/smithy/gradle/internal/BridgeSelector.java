@@ -0,0 +1,63 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.selector.Selector;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Selects shapes from the model of a {@link SmithyBuildBridge} request.
+ *
+ * <p>Selecting from a shared model or a snapshot skips parsing and validating the model, which the
+ * task that assembled it already did. Otherwise, the model is assembled from the sources of the request.
+ */
+@SmithyInternalApi
+public final class BridgeSelector {
+    private BridgeSelector() {}
+
+    static Map<String, Object> select(BridgeRequest request) {
+        BridgeResult result = new BridgeResult();
+        BridgeModelLoader loader = new BridgeModelLoader(request);
+        BridgeModelLoader.AssembledModel shared = loader.getSharedModel(result);
+        String snapshotFile = request.getModelSnapshotFile();
+        if (shared == null && snapshotFile != null && Files.isRegularFile(Paths.get(snapshotFile))) {
+            ClassLoader modelClassLoader = loader.createDiscoveryClassLoader();
+            try {
+                Model model = BinaryModelSnapshot.read(Paths.get(snapshotFile)).load(modelClassLoader);
+                result.recordPhase(SmithyBuildBridge.PHASE_LOAD_MODEL_SNAPSHOT);
+                return select(request, model, result);
+            } finally {
+                BridgeModelLoader.closeDiscoveryClassLoader(modelClassLoader);
+            }
+        }
+        try (BridgeModelLoader.AssembledModel assembled = shared != null ? shared : loader.assemble(result)) {
+            result.addEvents(assembled.getResult());
+            if (assembled.getResult().isBroken()) {
+                result.setBroken();
+                return result.finish();
+            }
+            return select(request, assembled.getResult().unwrap(), result);
+        }
+    }
+
+    private static Map<String, Object> select(BridgeRequest request, Model model, BridgeResult result) {
+        // Shape IDs are sorted, as they are by the select command of the Smithy CLI.
+        List<String> selected = Selector.parse(request.getSelector())
+                .select(model)
+                .stream()
+                .map(shape -> shape.getId().toString())
+                .sorted()
+                .collect(Collectors.toList());
+        result.recordPhase(SmithyBuildBridge.PHASE_SELECT);
+        result.put(SmithyBuildBridge.SELECTED_SHAPES, selected);
+        return result.finish();
+    }
+}
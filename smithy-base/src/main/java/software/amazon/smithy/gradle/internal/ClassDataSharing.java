@@ -0,0 +1,247 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.management.ObjectName;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.process.JavaForkOptions;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Manages application class data sharing (AppCDS) archives for forked Smithy CLI workers.
+ *
+ * <p>Archives are stored in a directory of the Gradle user home and keyed by the hash of the
+ * CLI classpath. When no archive exists for a classpath, workers are started with
+ * {@code -XX:+RecordDynamicDumpInfo} and the {@value #ARCHIVE_PROPERTY} system property. The
+ * first such worker dumps the classes it loaded to the archive once its first CLI invocation
+ * completes. Workers started once the archive exists map it with {@code -XX:SharedArchiveFile},
+ * which lets them skip parsing and verifying those classes.
+ *
+ * <p>Gradle keeps worker processes alive across builds, so the archive is dumped on demand
+ * through the {@code VM.cds} diagnostic command rather than with {@code -XX:ArchiveClassesAtExit}.
+ * This requires the workers to run on a HotSpot Java 17 runtime or newer, which is read from the
+ * {@code release} file of the Java home of their executable. Each archive records the Java runtime
+ * that created it, and is rebuilt when workers run with a different runtime.
+ */
+@SmithyInternalApi
+public final class ClassDataSharing {
+    /**
+     * System property set on workers that should dump an archive, containing the archive path.
+     */
+    public static final String ARCHIVE_PROPERTY = "smithy.cli.cdsArchive";
+
+    /**
+     * System property set on workers that should dump an archive, identifying the Java runtime of the worker.
+     */
+    public static final String RUNTIME_PROPERTY = "smithy.cli.cdsRuntime";
+
+    private static final Logger LOGGER = Logging.getLogger(ClassDataSharing.class);
+    private static final int MINIMUM_JAVA_VERSION = 17;
+    private static final String ARCHIVE_EXTENSION = ".jsa";
+    private static final String RUNTIME_EXTENSION = ".runtime";
+    private static final AtomicBoolean DUMPED = new AtomicBoolean();
+    private static final Set<String> REPORTED_MISSES = ConcurrentHashMap.newKeySet();
+
+    private ClassDataSharing() {}
+
+    /**
+     * Configures a worker process to use or create the archive of a CLI classpath.
+     *
+     * <p>Nothing is configured when the Java runtime of the worker cannot create archives on demand.
+     *
+     * @param options Fork options of the worker.
+     * @param directory Directory archives are stored in.
+     * @param classpathHash Hash of the CLI classpath of the worker.
+     */
+    public static void configureWorker(JavaForkOptions options, File directory, String classpathHash) {
+        File javaHome = javaHome(options.getExecutable());
+        Properties release = readRelease(javaHome);
+        if (!isSupported(release)) {
+            LOGGER.debug("Smithy CLI class data sharing requires a HotSpot Java {} runtime or newer, but workers "
+                    + "run on {}", MINIMUM_JAVA_VERSION, javaHome);
+            return;
+        }
+        String runtimeId = runtimeId(javaHome, release);
+
+        Path archive = directory.toPath().resolve(classpathHash + ARCHIVE_EXTENSION);
+        Path runtimeFile = runtimeFile(archive);
+        if (Files.isRegularFile(archive)) {
+            if (runtimeId.equals(readRuntime(runtimeFile))) {
+                LOGGER.info("Smithy CLI class data sharing archive hit for classpath {}: {}", classpathHash, archive);
+                options.jvmArgs("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+                return;
+            }
+            log(classpathHash, "Rebuilding Smithy CLI class data sharing archive for classpath {} because it was "
+                    + "created by a different Java runtime", classpathHash);
+            try {
+                // The JVM creates archives as read-only files, which cannot be deleted on Windows.
+                if (!archive.toFile().setWritable(true)) {
+                    LOGGER.debug("Unable to make {} writable", archive);
+                }
+                Files.deleteIfExists(archive);
+                Files.deleteIfExists(runtimeFile);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to delete stale Smithy CLI class data sharing archive {}: {}",
+                        archive, e.getMessage());
+                return;
+            }
+        } else {
+            log(classpathHash, "Smithy CLI class data sharing archive miss for classpath {}, creating {}",
+                    classpathHash, archive);
+        }
+
+        options.jvmArgs("-XX:+RecordDynamicDumpInfo");
+        options.systemProperty(ARCHIVE_PROPERTY, archive.toString());
+        options.systemProperty(RUNTIME_PROPERTY, runtimeId);
+    }
+
+    /**
+     * Dumps the classes loaded by this worker to its archive, if it was asked to create one.
+     *
+     * <p>Only the first call in a worker process dumps an archive. Failures are logged rather
+     * than thrown since the archive only speeds up later workers.
+     *
+     * @return Returns true if this call attempted to dump an archive.
+     */
+    public static boolean dumpIfRequested() {
+        String location = System.getProperty(ARCHIVE_PROPERTY);
+        if (location == null || !DUMPED.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Path archive = new File(location).getAbsoluteFile().toPath();
+        Path temp = archive.resolveSibling(archive.getFileName() + "." + ProcessIds.current() + ".tmp");
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(new File(location).getAbsoluteFile().getParentFile().toPath());
+            ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "vmCds",
+                    new Object[] {new String[] {"dynamic_dump", temp.toString()}},
+                    new String[] {String[].class.getName()});
+            if (!Files.isRegularFile(temp)) {
+                LOGGER.warn("Unable to create Smithy CLI class data sharing archive {}", archive);
+                return true;
+            }
+            // Record the runtime before publishing the archive so that readers never see an archive without it.
+            Path runtimeTemp = runtimeFile(temp);
+            Files.write(runtimeTemp, System.getProperty(RUNTIME_PROPERTY, "").getBytes(StandardCharsets.UTF_8));
+            move(runtimeTemp, runtimeFile(archive));
+            move(temp, archive);
+            LOGGER.info("Created Smithy CLI class data sharing archive {} in {} ms",
+                    archive,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            LOGGER.warn("Unable to create Smithy CLI class data sharing archive {}: {}", archive, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+                Files.deleteIfExists(runtimeFile(temp));
+            } catch (IOException e) {
+                LOGGER.debug("Unable to delete temporary class data sharing archive {}", temp, e);
+            }
+        }
+        return true;
+    }
+
+    // Workers run on the Java home of their executable, which is the Java home of the daemon by default.
+    static File javaHome(String executable) {
+        File bin = executable != null ? new File(executable).getAbsoluteFile().getParentFile() : null;
+        if (bin == null || bin.getParentFile() == null) {
+            return new File(System.getProperty("java.home"));
+        }
+        return bin.getParentFile();
+    }
+
+    static boolean isSupported(Properties release) {
+        // OpenJ9 runtimes have their own class sharing, and do not support the VM.cds command.
+        String vm = release.getProperty("JVM_VARIANT", "") + ' ' + release.getProperty("IMPLEMENTOR", "");
+        return featureVersion(release.getProperty("JAVA_VERSION", "")) >= MINIMUM_JAVA_VERSION
+                && !vm.toLowerCase(Locale.ROOT).contains("openj9");
+    }
+
+    static int featureVersion(String version) {
+        // Java 8 reports "1.8.0_402", later versions start with their feature version, such as "17.0.9" or "21-ea".
+        String feature = version.startsWith("1.") ? version.substring(2) : version;
+        int end = 0;
+        while (end < feature.length() && Character.isDigit(feature.charAt(end))) {
+            end++;
+        }
+        return end > 0 ? Integer.parseInt(feature.substring(0, end)) : 0;
+    }
+
+    // Archives can only be mapped by the exact JVM build that created them.
+    static String runtimeId(File javaHome, Properties release) {
+        return release.getProperty("IMPLEMENTOR", "") + ' '
+                + release.getProperty("JAVA_RUNTIME_VERSION", release.getProperty("JAVA_VERSION", "")) + ' '
+                + javaHome.getAbsolutePath();
+    }
+
+    // Values of the release file are quoted, such as JAVA_VERSION="17.0.9". A missing file is empty.
+    static Properties readRelease(File javaHome) {
+        Properties release = new Properties();
+        File file = new File(javaHome, "release");
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                release.load(in);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to read Java release file {}", file, e);
+            }
+        }
+        for (String name : release.stringPropertyNames()) {
+            String value = release.getProperty(name);
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                release.setProperty(name, value.substring(1, value.length() - 1));
+            }
+        }
+        return release;
+    }
+
+    // Until the first worker has written the archive, each worker of the classpath misses it, so only the
+    // first miss is logged at lifecycle level.
+    private static void log(String classpathHash, String message, Object... args) {
+        if (REPORTED_MISSES.add(classpathHash)) {
+            LOGGER.lifecycle(message, args);
+        } else {
+            LOGGER.info(message, args);
+        }
+    }
+
+    private static Path runtimeFile(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + RUNTIME_EXTENSION);
+    }
+
+    private static String readRuntime(Path runtimeFile) {
+        try {
+            return new String(Files.readAllBytes(runtimeFile), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * A least-recently-used cache of {@link URLClassLoader}s keyed by the content hash of their classpath.
+ *
+ * <p>Each key is guarded by its own lock, so creating a class loader for one classpath never
+ * blocks callers using a different classpath. Class loaders are leased for the duration of a
+ * callback; a class loader that is evicted while leased is closed once its last lease is released.
+ */
+@SmithyInternalApi
+public final class ClassLoaderCache implements AutoCloseable {
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries Maximum number of class loaders to keep open at once.
+     */
+    public ClassLoaderCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Class loader cache size must be at least 1, but found " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Leases a class loader for the given classpath and passes it to the consumer.
+     *
+     * @param classpath Ordered classpath of the class loader.
+     * @param consumer Consumer that uses the class loader.
+     * @return Returns true if the lease was served by an existing class loader.
+     */
+    public boolean withClassLoader(Collection<File> classpath, Consumer<ClassLoader> consumer) {
+        return withClassLoader(ClasspathHasher.hash(classpath), classpath, consumer);
+    }
+
+    /**
+     * Leases a class loader for the given classpath, using a precomputed key.
+     *
+     * @param key Content hash of the classpath.
+     * @param classpath Ordered classpath of the class loader.
+     * @param consumer Consumer that uses the class loader.
+     * @return Returns true if the lease was served by an existing class loader.
+     */
+    public boolean withClassLoader(String key, Collection<File> classpath, Consumer<ClassLoader> consumer) {
+        Entry entry;
+        Lease lease;
+        do {
+            // Retired entries lost a race with eviction, so try again with a fresh entry.
+            entry = entries.computeIfAbsent(key, Entry::new);
+            lease = entry.lease(classpath, clock.incrementAndGet());
+        } while (lease == Lease.RETIRED);
+        if (lease == Lease.CREATED) {
+            misses.incrementAndGet();
+            evictIfNeeded(entry);
+        } else {
+            hits.incrementAndGet();
+        }
+        try {
+            consumer.accept(entry.getLoader());
+        } finally {
+            entry.release();
+        }
+        return lease == Lease.REUSED;
+    }
+
+    /**
+     * @return Returns the number of leases served by an existing class loader.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Returns the number of leases that had to create a class loader.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Returns the number of class loaders currently cached.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            retire(entry);
+        }
+    }
+
+    private void evictIfNeeded(Entry keep) {
+        while (entries.size() > maxEntries) {
+            Entry eldest = null;
+            for (Entry candidate : entries.values()) {
+                if (candidate != keep && (eldest == null || candidate.lastUsed < eldest.lastUsed)) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            retire(eldest);
+        }
+    }
+
+    private void retire(Entry entry) {
+        entries.remove(entry.key, entry);
+        entry.retire();
+    }
+
+    private static URL[] toUrls(Collection<File> classpath) {
+        List<URL> urls = new ArrayList<>(classpath.size());
+        for (File file : classpath) {
+            try {
+                urls.add(file.toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    private enum Lease {
+        CREATED, REUSED, RETIRED
+    }
+
+    private static final class Entry {
+        private final String key;
+        private URLClassLoader loader;
+        private int leases;
+        private boolean retired;
+        private volatile long lastUsed;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        synchronized Lease lease(Collection<File> classpath, long now) {
+            if (retired) {
+                return Lease.RETIRED;
+            }
+            Lease result = Lease.REUSED;
+            if (loader == null) {
+                loader = new URLClassLoader(toUrls(classpath));
+                result = Lease.CREATED;
+            }
+            leases++;
+            lastUsed = now;
+            return result;
+        }
+
+        synchronized void retire() {
+            retired = true;
+            if (leases == 0) {
+                closeLoader();
+            }
+        }
+
+        synchronized URLClassLoader getLoader() {
+            return loader;
+        }
+
+        synchronized void release() {
+            leases--;
+            if (retired && leases == 0) {
+                closeLoader();
+            }
+        }
+
+        private void closeLoader() {
+            if (loader != null) {
+                try {
+                    loader.close();
+                } catch (IOException e) {
+                    // Closing only releases file handles, so a failure here is not fatal.
+                }
+                loader = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Computes content hashes of classpaths.
+ *
+ * <p>Hashes are computed over the contents of every entry, in order, so two
+ * classpaths that resolve to the same JARs produce the same hash regardless
+ * of where those JARs live on disk. File hashes are memoized by path, size, and
+ * modification time so repeated lookups of the same classpath stay cheap.
+ *
+ * <p>The SHA-256 digest and hex encoding are shared with the caches of the direct-build bridge,
+ * so this class is also defined inside the class loader of the Smithy CLI classpath by
+ * {@link DirectBuildEngine} and must not reference Gradle.
+ */
+@SmithyInternalApi
+public final class ClasspathHasher {
+    private static final Map<String, FileHash> FILE_HASHES = new ConcurrentHashMap<>();
+
+    private ClasspathHasher() {}
+
+    /**
+     * Computes the content hash of an ordered classpath.
+     *
+     * @param classpath Classpath entries to hash.
+     * @return Returns the hex encoded hash.
+     */
+    public static String hash(Iterable<File> classpath) {
+        MessageDigest digest = newDigest();
+        for (File entry : classpath) {
+            digest.update(hashEntry(entry).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the content hash of a single file.
+     *
+     * @param file File to hash.
+     * @return Returns the hex encoded hash.
+     */
+    public static String hashFile(Path file) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the content hash of a byte array.
+     *
+     * @param bytes Bytes to hash.
+     * @return Returns the hex encoded hash.
+     */
+    public static String hashBytes(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    private static String hashEntry(File entry) {
+        if (entry.isDirectory()) {
+            return hashDirectory(entry.toPath());
+        } else if (!entry.exists()) {
+            // Missing entries still contribute to the key so that adding one later changes the hash.
+            return "missing:" + entry.getName();
+        }
+
+        String path = entry.getAbsolutePath();
+        long size = entry.length();
+        long modified = entry.lastModified();
+        FileHash cached = FILE_HASHES.get(path);
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            return cached.hash;
+        }
+
+        String hash = hashFile(entry.toPath());
+        FILE_HASHES.put(path, new FileHash(size, modified, hash));
+        return hash;
+    }
+
+    private static String hashDirectory(Path dir) {
+        // Directories (such as compiled classes on a build classpath) change in place, so they are
+        // always re-hashed rather than memoized.
+        MessageDigest digest = newDigest();
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> sorted = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            for (Path file : sorted) {
+                digest.update(dir.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(hashFile(file).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return Returns a new SHA-256 digest.
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hex encodes a digest.
+     *
+     * @param bytes Bytes to encode.
+     * @return Returns the lowercase hex encoding of the bytes.
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    private static final class FileHash {
+        private final long size;
+        private final long modified;
+        private final String hash;
+
+        FileHash(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+}
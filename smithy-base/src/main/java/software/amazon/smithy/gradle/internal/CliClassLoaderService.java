@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Build-scoped service that shares Smithy CLI class loaders across tasks and projects.
+ *
+ * <p>Creating a class loader over the full CLI classpath and loading the CLI into it is a
+ * large part of the cost of short CLI invocations. This service keeps class loaders open for
+ * the duration of the build, keyed by the content hash of their classpath, so that every
+ * Smithy task running with the same classpath reuses the same warm class loader. All cached
+ * class loaders are closed when the build finishes.
+ *
+ * <p>The maximum number of cached class loaders can be set with the
+ * {@value #MAX_LOADERS_PROPERTY} Gradle property and defaults to {@value #DEFAULT_MAX_LOADERS}.
+ */
+@SmithyInternalApi
+public abstract class CliClassLoaderService implements BuildService<CliClassLoaderService.Params>, AutoCloseable {
+    /**
+     * Name used to register the service.
+     */
+    public static final String NAME = "smithyCliClassLoaders";
+
+    /**
+     * Gradle property used to configure the maximum number of cached class loaders.
+     */
+    public static final String MAX_LOADERS_PROPERTY = "smithy.cli.classLoaderCacheSize";
+
+    /**
+     * Default maximum number of cached class loaders.
+     */
+    public static final int DEFAULT_MAX_LOADERS = 8;
+
+    private static final Logger LOGGER = Logging.getLogger(CliClassLoaderService.class);
+
+    private final ClassLoaderCache cache;
+
+    public CliClassLoaderService() {
+        cache = new ClassLoaderCache(getParameters().getMaxLoaders().get());
+    }
+
+    /**
+     * Parameters of the class loader service.
+     */
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return Returns the maximum number of class loaders to keep open.
+         */
+        Property<Integer> getMaxLoaders();
+    }
+
+    /**
+     * Registers the service with the build if it is not already registered.
+     *
+     * @param project Project applying a Smithy plugin.
+     * @return Returns the provider of the shared service.
+     */
+    public static Provider<CliClassLoaderService> register(Project project) {
+        Provider<Integer> maxLoaders = project.getProviders()
+                .gradleProperty(MAX_LOADERS_PROPERTY)
+                .map(Integer::parseInt)
+                .orElse(DEFAULT_MAX_LOADERS);
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, CliClassLoaderService.class, spec -> {
+                    spec.getParameters().getMaxLoaders().set(maxLoaders);
+                });
+    }
+
+    /**
+     * Leases a cached class loader for the given classpath.
+     *
+     * @param classpath Ordered classpath of the class loader.
+     * @param consumer Consumer that uses the class loader.
+     */
+    public void withClassLoader(Set<File> classpath, Consumer<ClassLoader> consumer) {
+        cache.withClassLoader(classpath, consumer);
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Closing {} cached Smithy CLI class loader(s) ({} hits, {} misses)",
+                cache.size(),
+                cache.getHits(),
+                cache.getMisses());
+        cache.close();
+    }
+}
@@ -13,7 +13,13 @@ import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.JavaPlugin;
 import software.amazon.smithy.gradle.SmithyUtils;
 import software.amazon.smithy.utils.SmithyInternalApi;
@@ -32,22 +38,41 @@ public final class CliDependencyResolver {
         SMITHY_CLI_PROJECT_CONFIGURATION.put("configuration", "shadow");
     }
 
+    private static final Logger LOGGER = Logging.getLogger(CliDependencyResolver.class);
+
     private CliDependencyResolver() {}
 
     /**
-     * Add the CLI to the "smithyCli" dependencies.
+     * Add the CLI to the "smithyCli" dependencies when the configuration is resolved.
      *
      * <p>The Smithy CLI is invoked in various ways to perform a build. This
      * method ensures that the JARs needed to invoke the CLI with a custom
      * classpath include the JARs needed to run the CLI.
      *
-     * <p>The plugin will attempt to detect which version of the Smithy
-     * CLI to use when performing validation of the generated JAR. If a
-     * CLI version is explicitly defined in the "smithyCli" configuration,
-     * then that version is used. Otherwise, a CLI version is inferred by
-     * scanning the compileClasspath and runtimeClasspath for instances of
-     * the "smithy-model" dependency. If found, the version of smithy-model
-     * detected is used for the CLI.
+     * <p>The CLI version is only detected once something resolves the "smithyCli"
+     * configuration, which is typically a Smithy task of the task graph. Configuring
+     * a project therefore does not resolve any of its dependencies. See
+     * {@link #resolveVersion(Project)} for how the version is detected.
+     *
+     * @param project Project to add dependencies to.
+     */
+    public static void register(Project project) {
+        Configuration cli = SmithyUtils.getCliConfiguration(project);
+        cli.withDependencies(dependencies -> {
+            if (findExplicitCliDependency(cli).isPresent()) {
+                return;
+            }
+            checkIfRunningInMainSmithyRepo(project);
+            String cliVersion = getCliVersion(project);
+            dependencies.add(project.getDependencies().create(String.format(DEPENDENCY_NOTATION, cliVersion)));
+        });
+    }
+
+    /**
+     * Add the CLI to the "smithyCli" dependencies.
+     *
+     * <p>Unlike {@link #register(Project)}, this method detects the CLI version
+     * eagerly, and so may resolve the dependencies of the project.
      *
      * @param project Project to add dependencies to.
      *
@@ -55,16 +80,8 @@ public final class CliDependencyResolver {
      */
     public static String resolve(Project project) {
         Configuration cli = SmithyUtils.getCliConfiguration(project);
-
-        // Prefer explicitly set dependency first.
-        Optional<Dependency> explicitCliDepOptional = cli.getAllDependencies()
-                .stream()
-                .filter(d -> SmithyUtils.isMatchingDependency(d, SMITHY_CLI_DEP_NAME))
-                .findFirst();
+        Optional<Dependency> explicitCliDepOptional = findExplicitCliDependency(cli);
         if (explicitCliDepOptional.isPresent()) {
-            project.getLogger()
-                    .info(String.format("(using explicitly configured Smithy CLI: %s)",
-                            explicitCliDepOptional.get().getVersion()));
             return explicitCliDepOptional.get().getVersion();
         }
 
@@ -77,6 +94,39 @@ public final class CliDependencyResolver {
         return cliVersion;
     }
 
+    /**
+     * Detects the version of the Smithy CLI used by a project without adding any dependencies.
+     *
+     * <p>If a CLI version is explicitly defined in the "smithyCli" configuration,
+     * then that version is used. Otherwise, a CLI version is inferred by
+     * scanning the runtimeClasspath for instances of the "smithy-model"
+     * dependency. If found, the version of smithy-model detected is used for
+     * the CLI. Otherwise, the version of the CLI the plugin depends on is used.
+     *
+     * @param project Project to detect the CLI version of.
+     *
+     * @return Returns the detected CLI version
+     */
+    public static String resolveVersion(Project project) {
+        Optional<Dependency> explicitCliDepOptional = findExplicitCliDependency(
+                SmithyUtils.getCliConfiguration(project));
+        if (explicitCliDepOptional.isPresent()) {
+            return explicitCliDepOptional.get().getVersion();
+        }
+        return getCliVersion(project);
+    }
+
+    // Prefer explicitly set dependency first.
+    private static Optional<Dependency> findExplicitCliDependency(Configuration cli) {
+        Optional<Dependency> explicitCliDepOptional = cli.getAllDependencies()
+                .stream()
+                .filter(d -> SmithyUtils.isMatchingDependency(d, SMITHY_CLI_DEP_NAME))
+                .findFirst();
+        explicitCliDepOptional.ifPresent(dependency -> LOGGER.info(
+                "(using explicitly configured Smithy CLI: {})", dependency.getVersion()));
+        return explicitCliDepOptional;
+    }
+
     private static String getCliVersion(Project project) {
         String cliVersion = detectCliVersionInRuntimeDependencies(project.getConfigurations());
         if (cliVersion != null) {
@@ -92,6 +142,11 @@ public final class CliDependencyResolver {
     /**
      * Check if there's a dependency on smithy-model somewhere, and assume that version.
      *
+     * <p>The runtimeClasspath configuration is not resolved itself, since the "smithyCli"
+     * configuration extends it and this is called while "smithyCli" is resolved. Instead, the
+     * declared dependencies and constraints of runtimeClasspath are resolved in a detached
+     * configuration with the same attributes.
+     *
      * @param configurations Configuration contain to use to search for configurations
      *
      * @return version of cli available in configuration
@@ -103,15 +158,29 @@ public final class CliDependencyResolver {
         }
         Configuration runtimeClasspath = configurations.getByName(
                 JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME);
-        return runtimeClasspath.getResolvedConfiguration()
-                .getResolvedArtifacts()
+        Configuration detached = configurations.detachedConfiguration(
+                runtimeClasspath.getAllDependencies().toArray(new Dependency[0]));
+        detached.getDependencyConstraints().addAll(runtimeClasspath.getAllDependencyConstraints());
+        AttributeContainer attributes = runtimeClasspath.getAttributes();
+        for (Attribute<?> attribute : attributes.keySet()) {
+            copyAttribute(attributes, detached.getAttributes(), attribute);
+        }
+        return detached.getIncoming()
+                .getResolutionResult()
+                .getAllComponents()
                 .stream()
-                .filter(ra -> ra.getName().equals("smithy-model"))
-                .map(ra -> ra.getModuleVersion().getId().getVersion())
+                .map(ResolvedComponentResult::getModuleVersion)
+                .filter(id -> id != null && id.getGroup().equals("software.amazon.smithy")
+                        && id.getName().equals("smithy-model"))
+                .map(ModuleVersionIdentifier::getVersion)
                 .findFirst()
                 .orElse(null);
     }
 
+    private static <T> void copyAttribute(AttributeContainer from, AttributeContainer to, Attribute<T> attribute) {
+        to.attribute(attribute, from.getAttribute(attribute));
+    }
+
     private static String scanForSmithyCliVersion(Project project) {
         // Finally, scan the buildScript dependencies for a smithy-model dependency. This
         // should be found because the Gradle plugin has a dependency on it.
@@ -0,0 +1,394 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * A long-lived process that runs Smithy CLI commands on behalf of Gradle builds.
+ *
+ * <p>The server loads the Smithy CLI once and then accepts requests on a loopback socket
+ * until it has been idle for longer than its idle timeout. Each request carries the
+ * arguments of a single CLI invocation, and the server streams the CLI's standard output
+ * and standard error back to the client, followed by the result of the invocation.
+ *
+ * <p>Connection details are published in a state file that only the current user can read,
+ * and every request must start with the random token written to that file. The token has a
+ * fixed length and is compared in constant time before anything else is read from the
+ * connection, and the number and length of the arguments that follow are bounded. Requests
+ * must also present the key the server was started with, so a server is never reused after
+ * its classpath or launch environment changes.
+ *
+ * <p>This class intentionally only depends on the JDK, since it is launched with the plugin
+ * JAR as its only classpath entry. Connections are handled on a bounded pool of threads, and
+ * a client that does not send its request within {@link #REQUEST_TIMEOUT_MILLIS} is dropped.
+ * CLI invocations still run one at a time, since the CLI writes to the process-wide standard
+ * output and error streams. The time a request waits for other invocations to finish is
+ * returned to the client with the result, so that the cost of this serialization is visible
+ * in build logs. While a request waits or runs, the server sends a heartbeat frame every
+ * {@link #HEARTBEAT_INTERVAL_MILLIS}, so that clients can time out on a server that stopped
+ * responding without limiting how long the CLI may run.
+ *
+ * @see CliServerClient
+ */
+@SmithyInternalApi
+public final class CliServer {
+    static final int PROTOCOL_VERSION = 5;
+    static final int TOKEN_LENGTH = 64;
+    static final int MAX_ARGUMENTS = 10_000;
+    static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+    static final byte FRAME_STDOUT = 1;
+    static final byte FRAME_STDERR = 2;
+    static final byte FRAME_RESULT = 3;
+    static final byte FRAME_HEARTBEAT = 4;
+    static final int HEARTBEAT_INTERVAL_MILLIS = 10_000;
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_FAILED = 1;
+    static final byte STATUS_REJECTED = 2;
+
+    private static final String SMITHY_CLI_CLASS = "software.amazon.smithy.cli.SmithyCli";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+    private static final int REQUEST_TIMEOUT_MILLIS = 30_000;
+    private static final int MAX_CONNECTIONS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final Path stateFile;
+    private final String serverKey;
+    private final int idleTimeoutMillis;
+    private final URLClassLoader classLoader;
+    private final String token;
+    private final byte[] tokenBytes;
+    private final ReentrantLock cliLock = new ReentrantLock(true);
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "smithy-cli-server-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CliServer(Path stateFile, String serverKey, int idleTimeoutMillis, List<File> classpath) {
+        this.stateFile = stateFile;
+        this.serverKey = serverKey;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.classLoader = new URLClassLoader(toUrls(classpath));
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        this.token = ClasspathHasher.hashBytes(random);
+        this.tokenBytes = token.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * <p>Arguments are the state file to publish, the server key, the idle timeout in
+     * milliseconds, and a file listing the CLI classpath entries, one per line.
+     *
+     * @param args Server arguments.
+     * @throws Exception if the server cannot be started.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            throw new IllegalArgumentException("Expected <state-file> <server-key> <idle-millis> <classpath-file>");
+        }
+        List<File> classpath = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[3]), StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                classpath.add(new File(line));
+            }
+        }
+        new CliServer(Paths.get(args[0]), args[1], Integer.parseInt(args[2]), classpath).serve();
+    }
+
+    private void serve() throws IOException {
+        // The CLI is run with this class loader for the life of the server, so URL caching
+        // can stay disabled instead of being toggled around every invocation.
+        URLConnection cacheBuster = new File(".").toURI().toURL().openConnection();
+        cacheBuster.setDefaultUseCaches(false);
+
+        // Connections beyond the pool size wait in the backlog of the server socket.
+        ExecutorService pool = new ThreadPoolExecutor(MAX_CONNECTIONS, MAX_CONNECTIONS, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(idleTimeoutMillis);
+            publishState(server.getLocalPort());
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    if (activeConnections.get() == 0) {
+                        // Idle for longer than the timeout, so shut down.
+                        return;
+                    }
+                    continue;
+                }
+                activeConnections.incrementAndGet();
+                pool.execute(() -> serveConnection(socket));
+            }
+        } finally {
+            Files.deleteIfExists(stateFile);
+            heartbeats.shutdownNow();
+            pool.shutdown();
+            try {
+                pool.awaitTermination(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            classLoader.close();
+        }
+    }
+
+    private void serveConnection(Socket socket) {
+        try (Socket s = socket) {
+            handle(s);
+        } catch (IOException e) {
+            // A broken or idle connection only affects that client.
+        } finally {
+            activeConnections.decrementAndGet();
+        }
+    }
+
+    private void publishState(int port) throws IOException {
+        String pid = ManagementFactory.getRuntimeMXBean().getName();
+        String contents = port + "\n" + token + "\n" + serverKey + "\n" + pid + "\n";
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        // Only the owner may read the token, so the file is created without access for anyone else
+        // before the token is written to it.
+        if (temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(temp, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } else {
+            // Best effort on file systems without POSIX permissions.
+            Files.createFile(temp);
+            File tempFile = temp.toFile();
+            tempFile.setReadable(false, false);
+            tempFile.setReadable(true, true);
+        }
+        Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void handle(Socket socket) throws IOException {
+        // Without a read timeout, a client that connects but never sends a request holds a thread forever.
+        socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        // Nothing sized by the client is allocated until it has presented the token.
+        int version = in.readInt();
+        if (version != PROTOCOL_VERSION) {
+            writeResult(out, STATUS_REJECTED, 0, "Smithy CLI server does not support protocol version " + version);
+            return;
+        }
+        byte[] requestToken = new byte[TOKEN_LENGTH];
+        in.readFully(requestToken);
+        if (!MessageDigest.isEqual(tokenBytes, requestToken)) {
+            writeResult(out, STATUS_REJECTED, 0, "Smithy CLI server rejected the request token");
+            return;
+        }
+
+        String requestKey = readString(in, TOKEN_LENGTH);
+        if (!serverKey.equals(requestKey)) {
+            writeResult(out, STATUS_REJECTED, 0, "Smithy CLI server does not match the requested classpath");
+            return;
+        }
+        int argc = readLength(in, MAX_ARGUMENTS);
+        List<String> args = new ArrayList<>(argc);
+        for (int i = 0; i < argc; i++) {
+            args.add(readString(in, MAX_STRING_BYTES));
+        }
+
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> writeHeartbeat(out),
+                HEARTBEAT_INTERVAL_MILLIS, HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        long queuedAt = System.nanoTime();
+        cliLock.lock();
+        try {
+            long queuedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt);
+            runLocked(args, out, queuedMillis);
+        } finally {
+            cliLock.unlock();
+            heartbeat.cancel(false);
+        }
+    }
+
+    private static void writeHeartbeat(DataOutputStream out) {
+        synchronized (out) {
+            try {
+                out.writeByte(FRAME_HEARTBEAT);
+                out.flush();
+            } catch (IOException e) {
+                // The client is gone, and the invocation fails when it writes its result.
+            }
+        }
+    }
+
+    private void runLocked(List<String> args, DataOutputStream out, long queuedMillis) throws IOException {
+        PrintStream previousOut = System.out;
+        PrintStream previousErr = System.err;
+        Thread thread = Thread.currentThread();
+        ClassLoader previousContext = thread.getContextClassLoader();
+        try (PrintStream stdout = new PrintStream(new FrameOutputStream(out, FRAME_STDOUT), true, "UTF-8");
+                PrintStream stderr = new PrintStream(new FrameOutputStream(out, FRAME_STDERR), true, "UTF-8")) {
+            System.setOut(stdout);
+            System.setErr(stderr);
+            thread.setContextClassLoader(classLoader);
+            String failure = runCli(args);
+            stdout.flush();
+            stderr.flush();
+            if (failure == null) {
+                writeResult(out, STATUS_OK, queuedMillis, "");
+            } else {
+                writeResult(out, STATUS_FAILED, queuedMillis, failure);
+            }
+        } finally {
+            thread.setContextClassLoader(previousContext);
+            System.setOut(previousOut);
+            System.setErr(previousErr);
+        }
+    }
+
+    private String runCli(List<String> args) {
+        try {
+            Class<?> smithyCliClass = classLoader.loadClass(SMITHY_CLI_CLASS);
+            Object cli = smithyCliClass.getDeclaredMethod("create").invoke(null);
+            Method run = smithyCliClass.getDeclaredMethod("run", List.class);
+            run.invoke(cli, args);
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        }
+    }
+
+    private static void writeResult(DataOutputStream out, byte status, long queuedMillis, String message)
+            throws IOException {
+        synchronized (out) {
+            out.writeByte(FRAME_RESULT);
+            out.writeByte(status);
+            out.writeLong(queuedMillis);
+            writeString(out, message);
+            out.flush();
+        }
+    }
+
+    // DataOutputStream#writeUTF is limited to 64KB, which long classpath arguments can exceed.
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in, int maxBytes) throws IOException {
+        byte[] bytes = new byte[readLength(in, maxBytes)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Lengths are checked before they are used to size anything, so a malformed stream fails
+    // the connection instead of exhausting the heap.
+    static int readLength(DataInputStream in, int max) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > max) {
+            throw new IOException("Invalid length " + length + " in Smithy CLI server stream, expected at most " + max);
+        }
+        return length;
+    }
+
+    private static URL[] toUrls(List<File> classpath) {
+        URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < urls.length; i++) {
+            try {
+                urls[i] = classpath.get(i).toURI().toURL();
+            } catch (MalformedURLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Writes everything it receives to the client as frames of a single type.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
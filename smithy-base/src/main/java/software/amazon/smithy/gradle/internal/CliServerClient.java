@@ -0,0 +1,387 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import software.amazon.smithy.cli.EnvironmentVariable;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Runs Smithy CLI commands on a {@link CliServer}, starting the server if needed.
+ *
+ * <p>Servers are shared by every Gradle daemon run by the current user. Each server is
+ * identified by a key that combines the content hash of its CLI classpath and of the plugin
+ * JAR with the Java installation and working directory of the daemon, and with the values of
+ * the {@code SMITHY_*} environment variables and of the variables referenced by the smithy-build
+ * configs. Changing any of them starts a new server that is launched with the current values,
+ * and servers for old keys exit once they are idle.
+ *
+ * <p>A server is launched with exactly the variables of its key, plus the few variables that
+ * the JVM and the file system need, such as {@code PATH}, {@code HOME}, and {@code TMPDIR},
+ * which are also part of the key. Other variables of the daemon, such as those that CI systems
+ * change for every step or secrets, are neither part of the key nor passed to the server, and
+ * the environment of a server never changes after it is launched.
+ */
+@SmithyInternalApi
+public final class CliServerClient {
+    private static final Logger LOGGER = Logging.getLogger(CliServerClient.class);
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final String SMITHY_GRADLE_CLI_DEP_MODE = "forbid";
+    private static final String SMITHY_VARIABLE_PREFIX = "SMITHY_";
+    // Compared in upper case, since variable names are not case-sensitive on Windows.
+    private static final Set<String> PLATFORM_VARIABLES = new HashSet<>(Arrays.asList(
+            "PATH", "HOME", "USER", "USERNAME", "LANG", "LC_ALL", "TMPDIR", "TMP", "TEMP",
+            "SYSTEMROOT", "WINDIR", "USERPROFILE", "APPDATA", "LOCALAPPDATA"));
+    // The server sends a heartbeat while a request waits or runs, so several missed heartbeats mean it hung.
+    private static final int READ_TIMEOUT_MILLIS = CliServer.HEARTBEAT_INTERVAL_MILLIS * 6;
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final Path stateDirectory;
+    private final List<File> classpath;
+    private final Duration idleTimeout;
+    private final File pluginJar;
+    private final File workingDirectory;
+    private final Map<String, String> environment;
+    private final String serverKey;
+
+    /**
+     * @param stateDirectory Directory used to store server state files and logs.
+     * @param classpath CLI classpath the server runs with.
+     * @param idleTimeout How long the server stays alive without receiving requests.
+     * @param configVariables Environment variables referenced by the smithy-build configs of the invocation.
+     */
+    public CliServerClient(
+            File stateDirectory,
+            Collection<File> classpath,
+            Duration idleTimeout,
+            Collection<String> configVariables
+    ) {
+        this.stateDirectory = stateDirectory.toPath();
+        this.classpath = new ArrayList<>(classpath);
+        this.idleTimeout = idleTimeout;
+        this.pluginJar = findPluginJar();
+        this.workingDirectory = new File(System.getProperty("user.dir"));
+        this.environment = serverEnvironment(System.getenv(), configVariables);
+        List<File> keyFiles = new ArrayList<>(this.classpath);
+        keyFiles.add(pluginJar);
+        this.serverKey = serverKey(ClasspathHasher.hash(keyFiles),
+                System.getProperty("java.home"),
+                workingDirectory,
+                environment);
+    }
+
+    /**
+     * Selects the environment variables that a server is launched with.
+     *
+     * @param environment Environment variables of the daemon.
+     * @param configVariables Environment variables referenced by the smithy-build configs.
+     * @return Returns the sorted variables of the server.
+     */
+    static Map<String, String> serverEnvironment(Map<String, String> environment, Collection<String> configVariables) {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<String, String> variable : environment.entrySet()) {
+            String name = variable.getKey();
+            if (name.startsWith(SMITHY_VARIABLE_PREFIX)
+                    || configVariables.contains(name)
+                    || PLATFORM_VARIABLES.contains(name.toUpperCase(Locale.ROOT))) {
+                result.put(name, variable.getValue());
+            }
+        }
+        // Explicitly forbid the use of maven dependency resolution using an environment variable
+        result.put(EnvironmentVariable.SMITHY_DEPENDENCY_MODE.toString(), SMITHY_GRADLE_CLI_DEP_MODE);
+        return result;
+    }
+
+    /**
+     * Computes the key of the server that runs an invocation.
+     *
+     * @param classpathHash Content hash of the CLI classpath and of the plugin JAR.
+     * @param javaHome Java installation the server runs with.
+     * @param workingDirectory Working directory of the server.
+     * @param environment Environment variables the server is launched with.
+     * @return Returns the server key.
+     */
+    static String serverKey(
+            String classpathHash,
+            String javaHome,
+            File workingDirectory,
+            Map<String, String> environment
+    ) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(classpathHash).append('\n');
+        builder.append(javaHome).append('\n');
+        builder.append(workingDirectory.getAbsolutePath()).append('\n');
+        for (Map.Entry<String, String> variable : new TreeMap<>(environment).entrySet()) {
+            builder.append(variable.getKey()).append('=').append(variable.getValue()).append('\0');
+        }
+        return ClasspathHasher.hashBytes(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs the CLI with the given arguments, forwarding its output to the given streams.
+     *
+     * @param arguments CLI arguments.
+     * @param stdout Stream that receives the standard output of the CLI.
+     * @param stderr Stream that receives the standard error of the CLI.
+     * @throws GradleException if the CLI fails or the server cannot be reached.
+     */
+    public void run(List<String> arguments, PrintStream stdout, PrintStream stderr) {
+        try {
+            Files.createDirectories(stateDirectory);
+            // A server can exit or be replaced between reading its state and connecting, so try twice.
+            for (int attempt = 0; attempt < 2; attempt++) {
+                ServerState state = ServerState.read(stateFile());
+                if (state == null || !state.matches(serverKey)) {
+                    state = startServer();
+                }
+                if (send(state, arguments, stdout, stderr)) {
+                    return;
+                }
+                LOGGER.info("Smithy CLI server {} is no longer available", serverKey);
+            }
+            throw new GradleException("Unable to connect to the Smithy CLI server. See "
+                    + logFile() + " for details.");
+        } catch (IOException e) {
+            throw new GradleException("Unable to run the Smithy CLI server: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean send(ServerState state, List<String> arguments, PrintStream stdout, PrintStream stderr)
+            throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), state.port),
+                    CONNECT_TIMEOUT_MILLIS);
+        } catch (ConnectException | SocketTimeoutException e) {
+            socket.close();
+            Files.deleteIfExists(stateFile());
+            return false;
+        }
+        socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+
+        try (Socket s = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            out.writeInt(CliServer.PROTOCOL_VERSION);
+            out.write(state.token.getBytes(StandardCharsets.US_ASCII));
+            CliServer.writeString(out, serverKey);
+            out.writeInt(arguments.size());
+            for (String argument : arguments) {
+                CliServer.writeString(out, argument);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    throw new GradleException("Smithy CLI server closed the connection before completing");
+                } catch (SocketTimeoutException e) {
+                    Files.deleteIfExists(stateFile());
+                    throw new GradleException("Smithy CLI server stopped responding for " + READ_TIMEOUT_MILLIS
+                            + " ms. See " + logFile() + " for details", e);
+                }
+                if (type == CliServer.FRAME_HEARTBEAT) {
+                    continue;
+                }
+                if (type == CliServer.FRAME_RESULT) {
+                    byte status = in.readByte();
+                    long queuedMillis = in.readLong();
+                    String message = CliServer.readString(in, CliServer.MAX_STRING_BYTES);
+                    if (queuedMillis > 0) {
+                        LOGGER.info("Waited {} ms for other Smithy CLI invocations on the server to finish",
+                                queuedMillis);
+                    }
+                    stdout.flush();
+                    stderr.flush();
+                    if (status == CliServer.STATUS_OK) {
+                        return true;
+                    } else if (status == CliServer.STATUS_REJECTED) {
+                        Files.deleteIfExists(stateFile());
+                        return false;
+                    }
+                    throw new GradleException(message);
+                }
+                byte[] bytes = new byte[CliServer.readLength(in, CliServer.MAX_STRING_BYTES)];
+                in.readFully(bytes);
+                (type == CliServer.FRAME_STDERR ? stderr : stdout).write(bytes);
+            }
+        }
+    }
+
+    private ServerState startServer() throws IOException {
+        // File locks are held per JVM, so tasks running in parallel in this daemon must also be serialized.
+        synchronized (CliServerClient.class) {
+            return startServerLocked();
+        }
+    }
+
+    private ServerState startServerLocked() throws IOException {
+        // Serialize startup across daemons so that only one server is started per key.
+        Path lockFile = stateDirectory.resolve(serverKey + ".lock");
+        try (RandomAccessFile raf = new RandomAccessFile(lockFile.toFile(), "rw");
+                FileChannel channel = raf.getChannel()) {
+            FileLock lock = channel.lock();
+            try {
+                return startServerUnderFileLock();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private ServerState startServerUnderFileLock() throws IOException {
+        ServerState existing = ServerState.read(stateFile());
+        if (existing != null && existing.matches(serverKey)) {
+            return existing;
+        }
+        Files.deleteIfExists(stateFile());
+
+        Path classpathFile = stateDirectory.resolve(serverKey + ".classpath");
+        List<String> lines = new ArrayList<>();
+        for (File file : classpath) {
+            lines.add(file.getAbsolutePath());
+        }
+        Files.write(classpathFile, lines, StandardCharsets.UTF_8);
+
+        List<String> command = new ArrayList<>();
+        command.add(javaExecutable());
+        command.add("-cp");
+        command.add(pluginJar.getAbsolutePath());
+        command.add(CliServer.class.getName());
+        command.add(stateFile().toString());
+        command.add(serverKey);
+        command.add(Long.toString(Math.min(idleTimeout.toMillis(), Integer.MAX_VALUE)));
+        command.add(classpathFile.toString());
+
+        LOGGER.lifecycle("Starting Smithy CLI server {}", serverKey);
+        // The server only sees the variables that are part of its key.
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workingDirectory)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile().toFile()));
+        builder.environment().clear();
+        builder.environment().putAll(environment);
+        Process process = builder.start();
+        return awaitStartup(process);
+    }
+
+    private ServerState awaitStartup(Process process) throws IOException {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            ServerState state = ServerState.read(stateFile());
+            if (state != null && state.matches(serverKey)) {
+                return state;
+            }
+            if (!process.isAlive()) {
+                throw new GradleException("Smithy CLI server exited with code " + process.exitValue()
+                        + " during startup. See " + logFile() + " for details.");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("Interrupted while waiting for the Smithy CLI server to start", e);
+            }
+        }
+        process.destroy();
+        throw new GradleException("Timed out waiting for the Smithy CLI server to start. See "
+                + logFile() + " for details.");
+    }
+
+    private Path stateFile() {
+        return stateDirectory.resolve(serverKey + ".server");
+    }
+
+    private Path logFile() {
+        return stateDirectory.resolve(serverKey + ".log");
+    }
+
+    private static String javaExecutable() {
+        return new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath();
+    }
+
+    private static File findPluginJar() {
+        try {
+            return new File(CliServer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new GradleException("Unable to locate the Smithy Gradle plugin JAR", e);
+        }
+    }
+
+    /**
+     * Connection details published by a running server.
+     */
+    private static final class ServerState {
+        private final int port;
+        private final String token;
+        private final String serverKey;
+
+        private ServerState(int port, String token, String serverKey) {
+            this.port = port;
+            this.token = token;
+            this.serverKey = serverKey;
+        }
+
+        static ServerState read(Path stateFile) {
+            if (!Files.exists(stateFile)) {
+                return null;
+            }
+            List<String> lines;
+            try {
+                lines = Files.readAllLines(stateFile, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // The server may have deleted the file while it was being read.
+                return null;
+            }
+            if (lines.size() < 3 || lines.get(1).length() != CliServer.TOKEN_LENGTH) {
+                return null;
+            }
+            try {
+                return new ServerState(Integer.parseInt(lines.get(0)), lines.get(1), lines.get(2));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean matches(String key) {
+            return serverKey.equals(key);
+        }
+    }
+}
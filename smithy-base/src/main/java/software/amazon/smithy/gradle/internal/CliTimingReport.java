@@ -0,0 +1,157 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Timings of every Smithy CLI invocation run by a task.
+ */
+@SmithyInternalApi
+public final class CliTimingReport {
+    /**
+     * Time a task waited for the memory budget of the build before running the CLI.
+     */
+    public static final String MEMORY_BUDGET = "memoryBudget";
+
+    private final String taskPath;
+    private final List<CliTimings> invocations = new ArrayList<>();
+    private long memoryBudgetMillis;
+
+    /**
+     * @param taskPath Path of the task.
+     */
+    public CliTimingReport(String taskPath) {
+        this.taskPath = taskPath;
+    }
+
+    /**
+     * @return Returns the path of the task.
+     */
+    public String getTaskPath() {
+        return taskPath;
+    }
+
+    /**
+     * Adds the timings of a completed invocation.
+     *
+     * @param timings Timings to add.
+     */
+    public synchronized void add(CliTimings timings) {
+        invocations.add(timings);
+    }
+
+    /**
+     * Adds time the task waited for the memory budget.
+     *
+     * @param millis Wait time in milliseconds.
+     */
+    public synchronized void addMemoryBudgetWait(long millis) {
+        memoryBudgetMillis += millis;
+    }
+
+    /**
+     * @return Returns true if no invocation was recorded.
+     */
+    public synchronized boolean isEmpty() {
+        return invocations.isEmpty();
+    }
+
+    /**
+     * Sums the phases of every invocation.
+     *
+     * <p>Invocations of a task can run concurrently, so the sum can exceed the duration of the task.
+     *
+     * @return Returns the total duration of each phase in milliseconds.
+     */
+    public synchronized Map<String, Long> getPhases() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (memoryBudgetMillis > 0) {
+            result.put(MEMORY_BUDGET, memoryBudgetMillis);
+        }
+        for (CliTimings invocation : invocations) {
+            invocation.getPhases().forEach((phase, millis) -> result.merge(phase, millis, Long::sum));
+        }
+        return result;
+    }
+
+    /**
+     * @return Returns the sum of every phase in milliseconds.
+     */
+    public long getTotalMillis() {
+        return sum(getPhases());
+    }
+
+    /**
+     * @return Returns a one line summary of the report.
+     */
+    public synchronized String summary() {
+        return String.format("%d Smithy CLI invocation(s) of %s took %d ms (%s)",
+                invocations.size(), taskPath, getTotalMillis(), describe(getPhases()));
+    }
+
+    /**
+     * Writes the report to a JSON file, creating its directory if needed.
+     *
+     * @param file File to write.
+     */
+    public synchronized void write(Path file) {
+        ArrayNode.Builder invocationNodes = ArrayNode.builder();
+        for (CliTimings invocation : invocations) {
+            invocationNodes.withValue(invocation.toNode());
+        }
+        ObjectNode node = ObjectNode.builder()
+                .withMember("task", taskPath)
+                .withMember("totalMillis", getTotalMillis())
+                .withMember("phases", toNode(getPhases()))
+                .withMember("invocations", invocationNodes.build())
+                .build();
+        write(file, node);
+    }
+
+    static ObjectNode toNode(Map<String, Long> phases) {
+        ObjectNode.Builder builder = ObjectNode.builder();
+        phases.forEach((phase, millis) -> builder.withMember(phase, millis));
+        return builder.build();
+    }
+
+    static long sum(Map<String, Long> phases) {
+        long total = 0;
+        for (long millis : phases.values()) {
+            total += millis;
+        }
+        return total;
+    }
+
+    static String describe(Map<String, Long> phases) {
+        List<String> parts = new ArrayList<>();
+        phases.forEach((phase, millis) -> parts.add(phase + " " + millis + " ms"));
+        return String.join(", ", parts);
+    }
+
+    static void write(Path file, Node node) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, Node.prettyPrintJson(node).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
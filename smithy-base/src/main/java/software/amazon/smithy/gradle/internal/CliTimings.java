@@ -0,0 +1,218 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Timing breakdown of a single Smithy CLI invocation.
+ *
+ * <p>The worker that runs the invocation records the phases it performs and writes them to a
+ * file, which the task reads back once the invocation completes and adds the phases it observed
+ * itself, such as the time the invocation waited for a worker. Phases are kept in the order they
+ * ran and do not overlap, so their sum is the time the invocation took.
+ */
+@SmithyInternalApi
+public final class CliTimings {
+    /**
+     * Time between submitting the invocation and a worker starting to run it.
+     */
+    public static final String QUEUE = "queue";
+
+    /**
+     * Time to create or lease the class loader of the CLI classpath.
+     */
+    public static final String CLASS_LOADER = "classLoader";
+
+    /**
+     * Time spent running the CLI command or smithy-build.
+     */
+    public static final String RUN = "run";
+
+    /**
+     * Time spent creating a class data sharing archive after the run.
+     */
+    public static final String CLASS_DATA_SHARING_DUMP = "classDataSharingDump";
+
+    /**
+     * Time spent sending the invocation to a CLI server and waiting for its response.
+     */
+    public static final String CLI_SERVER = "cliServer";
+
+    private static final String COMMAND = "command";
+    private static final String STARTED_AT = "startedAtEpochMillis";
+    private static final String PHASES = "phases";
+    private static final String SMITHY_BUILD_PHASES = "smithyBuildPhases";
+    private static final String PLUGINS = "pluginMillis";
+
+    private final String command;
+    private final long startedAtEpochMillis;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Long> smithyBuildPhases = new LinkedHashMap<>();
+    private final Map<String, Map<String, Long>> pluginMillis = new TreeMap<>();
+
+    /**
+     * @param command Name of the CLI command, such as {@code build}.
+     * @param startedAtEpochMillis Wall-clock time the worker started the invocation.
+     */
+    public CliTimings(String command, long startedAtEpochMillis) {
+        this.command = command;
+        this.startedAtEpochMillis = startedAtEpochMillis;
+    }
+
+    /**
+     * Records a phase that started at the given {@link System#nanoTime()} and ends now.
+     *
+     * @param phase Name of the phase.
+     * @param startNanos Start of the phase.
+     * @return Returns the current {@link System#nanoTime()}, to be used as the start of the next phase.
+     */
+    public long record(String phase, long startNanos) {
+        long now = System.nanoTime();
+        put(phase, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+        return now;
+    }
+
+    /**
+     * Sets the duration of a phase, adding to any duration already recorded for it.
+     *
+     * @param phase Name of the phase.
+     * @param millis Duration in milliseconds.
+     */
+    public void put(String phase, long millis) {
+        phases.merge(phase, Math.max(0, millis), Long::sum);
+    }
+
+    /**
+     * Creates a copy of the timings with the given phases recorded before the existing ones.
+     *
+     * @param earlierPhases Phases that ran before the phases recorded so far.
+     * @return Returns the combined timings.
+     */
+    public CliTimings withEarlierPhases(Map<String, Long> earlierPhases) {
+        CliTimings result = new CliTimings(command, startedAtEpochMillis);
+        earlierPhases.forEach(result::put);
+        phases.forEach(result::put);
+        result.smithyBuildPhases.putAll(smithyBuildPhases);
+        result.pluginMillis.putAll(pluginMillis);
+        return result;
+    }
+
+    /**
+     * Adds the breakdown of a smithy-build run, which is part of the {@link #RUN} phase.
+     *
+     * @param result Result of the run.
+     */
+    public void addSmithyBuild(DirectBuildResult result) {
+        smithyBuildPhases.putAll(result.getPhases());
+        for (DirectBuildResult.Projection projection : result.getProjections()) {
+            Map<String, Long> plugins = projection.getPluginMillis();
+            if (!plugins.isEmpty()) {
+                pluginMillis.put(projection.getName(), plugins);
+            }
+        }
+    }
+
+    /**
+     * @return Returns the name of the CLI command.
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * @return Returns the wall-clock time the worker started the invocation.
+     */
+    public long getStartedAtEpochMillis() {
+        return startedAtEpochMillis;
+    }
+
+    /**
+     * @return Returns the duration of each phase in milliseconds, in the order the phases ran.
+     */
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * @return Returns the total duration of every phase in milliseconds.
+     */
+    public long getTotalMillis() {
+        return CliTimingReport.sum(phases);
+    }
+
+    ObjectNode toNode() {
+        ObjectNode.Builder phaseNodes = ObjectNode.builder();
+        phases.forEach((phase, millis) -> phaseNodes.withMember(phase, millis));
+        ObjectNode.Builder builder = ObjectNode.builder()
+                .withMember(COMMAND, command)
+                .withMember(STARTED_AT, startedAtEpochMillis)
+                .withMember(PHASES, phaseNodes.build());
+        if (!smithyBuildPhases.isEmpty()) {
+            ObjectNode.Builder buildPhaseNodes = ObjectNode.builder();
+            smithyBuildPhases.forEach((phase, millis) -> buildPhaseNodes.withMember(phase, millis));
+            builder.withMember(SMITHY_BUILD_PHASES, buildPhaseNodes.build());
+        }
+        if (!pluginMillis.isEmpty()) {
+            ObjectNode.Builder projectionNodes = ObjectNode.builder();
+            pluginMillis.forEach((projection, plugins) -> {
+                ObjectNode.Builder pluginNodes = ObjectNode.builder();
+                plugins.forEach((plugin, millis) -> pluginNodes.withMember(plugin, millis));
+                projectionNodes.withMember(projection, pluginNodes.build());
+            });
+            builder.withMember(PLUGINS, projectionNodes.build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes the timings to a JSON file.
+     *
+     * @param file File to write.
+     */
+    public void write(File file) {
+        try {
+            Files.write(file.toPath(), Node.printJson(toNode()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads timings written by {@link #write(File)}.
+     *
+     * @param file File to read.
+     * @return Returns the timings, or null if the file was not written.
+     */
+    public static CliTimings read(File file) {
+        if (!file.isFile() || file.length() == 0) {
+            return null;
+        }
+        try {
+            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            ObjectNode node = Node.parse(json, file.toString()).expectObjectNode();
+            CliTimings timings = new CliTimings(node.expectStringMember(COMMAND).getValue(),
+                    node.expectNumberMember(STARTED_AT).getValue().longValue());
+            node.getObjectMember(PHASES).ifPresent(phaseNodes -> phaseNodes.getStringMap()
+                    .forEach((phase, millis) -> timings.put(phase,
+                            millis.expectNumberNode().getValue().longValue())));
+            return timings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Runs smithy-build through its Java API inside the class loader of a Smithy CLI classpath.
+ *
+ * <p>Unlike the {@code build} command of the Smithy CLI, which only reports a pass or fail
+ * exit code and prints its results, this returns the validation events, projection timings,
+ * and produced files of the build as a {@link DirectBuildResult}.
+ *
+ * <p>Builds and selections are run through the public smithy-build API by {@link ReflectiveSmithyBuild}.
+ * Only requests that use incremental builds, the plugin artifact or parse caches, model snapshots, or
+ * shared models are run by {@link SmithyBuildBridge}, which is compiled against Smithy and defined in a
+ * class loader on top of the CLI class loader. That class loader is kept for each CLI classpath. If the
+ * bridge does not link against the version of Smithy of the CLI classpath, the request is run through the
+ * public API without those features instead.
+ */
+@SmithyInternalApi
+public final class DirectBuildEngine {
+    private static final Logger LOGGER = Logging.getLogger(DirectBuildEngine.class);
+    private static final String BRIDGE_CLASS = SmithyBuildBridge.class.getName();
+    private static final Set<String> BRIDGE_CLASSES = new HashSet<>(Arrays.asList(
+            BRIDGE_CLASS, BridgeRequest.class.getName(), BridgeResult.class.getName(),
+            BridgeModelLoader.class.getName(), BridgeSelector.class.getName(),
+            BridgePlugins.class.getName(), BridgeIncrementalBuild.class.getName(), ProjectionIndex.class.getName(),
+            PluginArtifactCache.class.getName(), BinaryModelSnapshot.class.getName(),
+            ParsedFileCache.class.getName(), ClasspathHasher.class.getName()));
+    // Bridge class loaders by the content hash of their CLI classpath. They are held softly, like shared models,
+    // and replaced when the CLI class loader of the classpath was recreated.
+    private static final Map<String, SoftReference<BridgeClassLoader>> BRIDGE_LOADERS = new ConcurrentHashMap<>();
+
+    private DirectBuildEngine() {}
+
+    /**
+     * Builds the request using the Smithy libraries loaded by the given class loader.
+     *
+     * @param cliClassLoader Class loader of the Smithy CLI classpath.
+     * @param request Build to perform.
+     * @return Returns the result of the build.
+     * @throws GradleException if the build could not be run.
+     */
+    public static DirectBuildResult build(ClassLoader cliClassLoader, DirectBuildRequest request) {
+        return build(cliClassLoader, null, request, null);
+    }
+
+    /**
+     * Builds the request, reusing the model from the cache if it was already assembled from the same inputs.
+     *
+     * <p>Cached models are keyed by the content hash of the CLI classpath, so builds only share models
+     * assembled with the same version of Smithy. Cached models are instances of the Smithy classes of the
+     * class loader that assembled them, so they are only reused by builds that use the same class loader.
+     *
+     * @param cliClassLoader Class loader of the Smithy CLI classpath.
+     * @param cliClasspathHash Content hash of the CLI classpath, computed by {@link ClasspathHasher}.
+     * @param request Build to perform.
+     * @param models Cache of assembled models, or null to always assemble the model.
+     * @return Returns the result of the build.
+     * @throws GradleException if the build could not be run.
+     */
+    public static DirectBuildResult build(
+            ClassLoader cliClassLoader,
+            String cliClasspathHash,
+            DirectBuildRequest request,
+            ModelCache models
+    ) {
+        Map<String, Object> result;
+        try {
+            if (models == null && !request.requiresBridge()) {
+                result = ReflectiveSmithyBuild.build(cliClassLoader, request.toMap());
+            } else {
+                result = buildWithBridge(cliClassLoader, cliClasspathHash, request, models);
+            }
+        } catch (InvocationTargetException e) {
+            // As with the CLI, only the root cause message is kept since the cause chain can reference
+            // classes that are only visible to the CLI class loader.
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw new GradleException(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName());
+        } catch (ReflectiveOperationException e) {
+            throw new GradleException("Unable to run smithy-build: " + e.getMessage());
+        }
+        return DirectBuildResult.fromMap(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> buildWithBridge(
+            ClassLoader cliClassLoader,
+            String cliClasspathHash,
+            DirectBuildRequest request,
+            ModelCache models
+    ) throws ReflectiveOperationException {
+        Map<String, Object> bridgeRequest = request.toMap();
+        if (models != null) {
+            // The bridge cannot see plugin classes, so it is given the cache as JDK functions.
+            bridgeRequest.put(BridgeRequest.CLI_CLASSPATH_HASH, cliClasspathHash);
+            bridgeRequest.put(BridgeRequest.MODEL_CACHE_GET, (Function<String, Object>) models::get);
+            bridgeRequest.put(BridgeRequest.MODEL_CACHE_PUT, (BiConsumer<String, Object>) (key, value) -> {
+                Object[] entry = (Object[]) value;
+                models.put(key, entry[0], (AutoCloseable) entry[1]);
+            });
+        }
+        LinkageError linkageError;
+        try {
+            Class<?> bridge = bridgeClassLoader(cliClassLoader, cliClasspathHash).loadClass(BRIDGE_CLASS);
+            return (Map<String, Object>) bridge.getMethod("build", Map.class).invoke(null, bridgeRequest);
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof LinkageError)) {
+                throw e;
+            }
+            linkageError = (LinkageError) e.getCause();
+        } catch (LinkageError e) {
+            linkageError = e;
+        }
+        LOGGER.warn("The Smithy version of the CLI classpath does not support incremental builds, plugin "
+                + "artifact and parse caches, model snapshots, or shared models ({}). Building without them.",
+                linkageError.toString());
+        // The index and snapshot of an earlier build would no longer describe the outputs.
+        for (String file : Arrays.asList(BridgeRequest.INDEX_FILE, BridgeRequest.MODEL_SNAPSHOT_FILE)) {
+            Object path = bridgeRequest.get(file);
+            if (path != null) {
+                deleteIfExists(Paths.get((String) path));
+            }
+        }
+        return ReflectiveSmithyBuild.build(cliClassLoader, request.toMap());
+    }
+
+    /**
+     * Gets the class loader that defines the bridge classes on top of a CLI class loader.
+     *
+     * @param cliClassLoader Class loader of the Smithy CLI classpath.
+     * @param cliClasspathHash Content hash of the CLI classpath, or null to not keep the class loader.
+     * @return Returns the bridge class loader.
+     */
+    static ClassLoader bridgeClassLoader(ClassLoader cliClassLoader, String cliClasspathHash) {
+        if (cliClasspathHash == null) {
+            return new BridgeClassLoader(cliClassLoader);
+        }
+        BridgeClassLoader[] loader = new BridgeClassLoader[1];
+        BRIDGE_LOADERS.compute(cliClasspathHash, (key, existing) -> {
+            loader[0] = existing != null ? existing.get() : null;
+            if (loader[0] != null && loader[0].getParent() == cliClassLoader) {
+                return existing;
+            }
+            loader[0] = new BridgeClassLoader(cliClassLoader);
+            return new SoftReference<>(loader[0]);
+        });
+        return loader[0];
+    }
+
+    private static void deleteIfExists(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new GradleException("Unable to delete " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Defines {@link SmithyBuildBridge} and the classes it uses from the plugin JAR so that they link
+     * against the Smithy classes of the parent CLI class loader, and delegates every other class to the parent.
+     */
+    private static final class BridgeClassLoader extends ClassLoader {
+        static {
+            registerAsParallelCapable();
+        }
+
+        BridgeClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            // Nested classes of the bridge classes also refer to Smithy, so they are defined here too.
+            if (!BRIDGE_CLASSES.contains(name) && !isNestedBridgeClass(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    byte[] bytes = readClass(name);
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+
+        private static boolean isNestedBridgeClass(String name) {
+            int nested = name.indexOf('$');
+            return nested > 0 && BRIDGE_CLASSES.contains(name.substring(0, nested));
+        }
+
+        private static byte[] readClass(String name) throws ClassNotFoundException {
+            String resource = name.replace('.', '/') + ".class";
+            try (InputStream in = DirectBuildEngine.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Describes a smithy-build run performed by {@link DirectBuildEngine}.
+ *
+ * <p>The options mirror the arguments of the Smithy CLI {@code build} command. Requests are
+ * serializable so that they can be passed to Gradle workers.
+ */
+@SmithyInternalApi
+public final class DirectBuildRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<String> configs = new ArrayList<>();
+    private final ArrayList<String> sources = new ArrayList<>();
+    private boolean discover;
+    private String discoveryClasspath;
+    private String output;
+    private String projection;
+    private boolean allowUnknownTraits;
+    private String dependencyMode;
+    private String indexFile;
+    private ArrayList<String> changedFiles;
+    private String baseDirectory;
+    private String pluginCacheDirectory;
+    private String pluginCacheSalt;
+    private String parseCacheDirectory;
+    private boolean semanticFingerprint;
+    private String modelSnapshotFile;
+    private String selector;
+
+    /**
+     * @param configs Absolute paths of the smithy-build configs to load.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest configs(Collection<String> configs) {
+        this.configs.clear();
+        this.configs.addAll(configs);
+        return this;
+    }
+
+    /**
+     * @param sources Absolute paths of the source models and JARs to build.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest sources(Collection<String> sources) {
+        this.sources.clear();
+        this.sources.addAll(sources);
+        return this;
+    }
+
+    /**
+     * @param discover Whether to discover models on the classpath.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest discover(boolean discover) {
+        this.discover = discover;
+        return this;
+    }
+
+    /**
+     * @param discoveryClasspath Classpath used to discover models, or null to discover models
+     *                           on the CLI classpath.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest discoveryClasspath(String discoveryClasspath) {
+        this.discoveryClasspath = discoveryClasspath;
+        return this;
+    }
+
+    /**
+     * @param output Absolute path of the directory projections are written to.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest output(String output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * @param projection Name of the only projection to build, or null to build every projection.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest projection(String projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    /**
+     * @param allowUnknownTraits Whether to ignore unknown traits.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest allowUnknownTraits(boolean allowUnknownTraits) {
+        this.allowUnknownTraits = allowUnknownTraits;
+        return this;
+    }
+
+    /**
+     * @param dependencyMode Value of {@code SMITHY_DEPENDENCY_MODE} to apply to the build.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest dependencyMode(String dependencyMode) {
+        this.dependencyMode = dependencyMode;
+        return this;
+    }
+
+    /**
+     * Sets the file that the {@link ProjectionIndex} of the build is kept in.
+     *
+     * <p>The index is written after every successful build and deleted after a failed one.
+     *
+     * @param indexFile Absolute path of the index file, or null to not keep an index.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest indexFile(String indexFile) {
+        this.indexFile = indexFile;
+        return this;
+    }
+
+    /**
+     * Makes the build incremental, so that only the projections affected by the changed files
+     * are rebuilt. The build is not incremental if the index file has not been written yet.
+     *
+     * @param changedFiles Absolute paths of the files that changed since the previous build,
+     *                     or null to rebuild every projection.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest changedFiles(Collection<String> changedFiles) {
+        this.changedFiles = changedFiles == null ? null : new ArrayList<>(changedFiles);
+        return this;
+    }
+
+    /**
+     * @param baseDirectory Absolute path of the directory that the index records files relative to.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest baseDirectory(String baseDirectory) {
+        this.baseDirectory = baseDirectory;
+        return this;
+    }
+
+    /**
+     * Restores the artifacts of plugins that run with the same inputs as an earlier build from a
+     * {@link PluginArtifactCache}, and stores the artifacts of other plugins in it.
+     *
+     * @param directory Absolute path of the cache directory, or null to not cache artifacts.
+     * @param salt Hash of every classpath that plugins and models are loaded from.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest pluginCache(String directory, String salt) {
+        this.pluginCacheDirectory = directory;
+        this.pluginCacheSalt = salt;
+        return this;
+    }
+
+    /**
+     * Loads the IDL files of the sources that did not change since an earlier build from a
+     * {@link ParsedFileCache} instead of parsing them, and stores the parsed form of the others in it.
+     *
+     * @param directory Absolute path of the cache directory, or null to parse every file.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest parseCache(String directory) {
+        this.parseCacheDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Skips every projection of an incremental build if the changed files still define the same
+     * model, comparing a fingerprint of the model's shapes, traits, and metadata with the one
+     * recorded in the index file.
+     *
+     * @param semanticFingerprint Whether to compare model fingerprints.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest semanticFingerprint(boolean semanticFingerprint) {
+        this.semanticFingerprint = semanticFingerprint;
+        return this;
+    }
+
+    /**
+     * Sets the file that a {@link BinaryModelSnapshot} of the assembled model is kept in.
+     *
+     * <p>The snapshot is written after the model is assembled without errors and deleted otherwise.
+     * Requests with a selector load the model from the snapshot instead.
+     *
+     * @param modelSnapshotFile Absolute path of the snapshot file, or null to not write a snapshot.
+     * @return Returns the request.
+     */
+    public DirectBuildRequest modelSnapshot(String modelSnapshotFile) {
+        this.modelSnapshotFile = modelSnapshotFile;
+        return this;
+    }
+
+    /**
+     * Queries the model of the snapshot file with a selector rather than building it.
+     *
+     * <p>The snapshot is loaded without validation, and no projection is built.
+     *
+     * @param selector Selector to match shapes with, or null to build the model.
+     * @return Returns the request.
+     * @see #modelSnapshot(String)
+     */
+    public DirectBuildRequest selector(String selector) {
+        this.selector = selector;
+        return this;
+    }
+
+    /**
+     * Checks if the request uses features that are only implemented by {@link SmithyBuildBridge}
+     * rather than the public smithy-build API.
+     *
+     * @return Returns true if the request keeps an index, snapshot, or cache.
+     */
+    boolean requiresBridge() {
+        return indexFile != null || pluginCacheDirectory != null || parseCacheDirectory != null
+                || modelSnapshotFile != null;
+    }
+
+    /**
+     * Converts the request to the class loader neutral form read by {@link SmithyBuildBridge}.
+     *
+     * @return Returns the request as a map of JDK types.
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(BridgeRequest.CONFIGS, new ArrayList<>(configs));
+        result.put(BridgeRequest.SOURCES, new ArrayList<>(sources));
+        result.put(BridgeRequest.DISCOVER, discover);
+        result.put(BridgeRequest.DISCOVERY_CLASSPATH, discoveryClasspath);
+        result.put(BridgeRequest.OUTPUT, output);
+        result.put(BridgeRequest.PROJECTION, projection);
+        result.put(BridgeRequest.ALLOW_UNKNOWN_TRAITS, allowUnknownTraits);
+        result.put(BridgeRequest.DEPENDENCY_MODE, dependencyMode);
+        result.put(BridgeRequest.INDEX_FILE, indexFile);
+        result.put(BridgeRequest.BASE_DIRECTORY, baseDirectory);
+        result.put(BridgeRequest.PLUGIN_CACHE_DIRECTORY, pluginCacheDirectory);
+        result.put(BridgeRequest.PLUGIN_CACHE_SALT, pluginCacheSalt);
+        result.put(BridgeRequest.PARSE_CACHE_DIRECTORY, parseCacheDirectory);
+        result.put(BridgeRequest.SEMANTIC_FINGERPRINT, semanticFingerprint);
+        result.put(BridgeRequest.CHANGED_FILES, changedFiles == null ? null : new ArrayList<>(changedFiles));
+        result.put(BridgeRequest.MODEL_SNAPSHOT_FILE, modelSnapshotFile);
+        result.put(BridgeRequest.SELECTOR, selector);
+        return result;
+    }
+}
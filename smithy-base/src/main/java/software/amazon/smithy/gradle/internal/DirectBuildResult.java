@@ -0,0 +1,427 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.model.validation.Severity;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Result of a smithy-build run performed by {@link DirectBuildEngine}.
+ *
+ * <p>Results only hold plain values, so they can be returned from any class loader and
+ * written to a file to be read back by the task that requested the build.
+ */
+@SmithyInternalApi
+public final class DirectBuildResult {
+    private final boolean broken;
+    private final long durationMillis;
+    private final List<Event> events;
+    private final List<Projection> projections;
+    private final List<String> failures;
+    private final Map<String, Long> phases;
+    private final boolean incremental;
+    private final List<String> upToDateProjections;
+    private final boolean modelUnchanged;
+    private final List<String> selectedShapes;
+    private final boolean sharedModel;
+    private final int parseCacheHits;
+    private final int parseCacheMisses;
+
+    private DirectBuildResult(ObjectNode node) {
+        broken = node.getBooleanMemberOrDefault(SmithyBuildBridge.BROKEN);
+        durationMillis = node.getNumberMemberOrDefault(SmithyBuildBridge.DURATION_MILLIS, 0).longValue();
+        events = new ArrayList<>();
+        for (ObjectNode event : objects(node, SmithyBuildBridge.EVENTS)) {
+            events.add(new Event(event));
+        }
+        projections = new ArrayList<>();
+        for (ObjectNode projection : objects(node, SmithyBuildBridge.PROJECTIONS)) {
+            projections.add(new Projection(projection));
+        }
+        failures = strings(node, SmithyBuildBridge.FAILURES);
+        phases = millis(node, SmithyBuildBridge.PHASES);
+        incremental = node.getBooleanMemberOrDefault(SmithyBuildBridge.INCREMENTAL);
+        upToDateProjections = strings(node, SmithyBuildBridge.UP_TO_DATE_PROJECTIONS);
+        modelUnchanged = node.getBooleanMemberOrDefault(SmithyBuildBridge.MODEL_UNCHANGED);
+        selectedShapes = strings(node, SmithyBuildBridge.SELECTED_SHAPES);
+        sharedModel = node.getBooleanMemberOrDefault(SmithyBuildBridge.SHARED_MODEL);
+        parseCacheHits = node.getNumberMemberOrDefault(SmithyBuildBridge.PARSE_CACHE_HITS, 0).intValue();
+        parseCacheMisses = node.getNumberMemberOrDefault(SmithyBuildBridge.PARSE_CACHE_MISSES, 0).intValue();
+    }
+
+    static DirectBuildResult fromMap(Map<String, Object> result) {
+        return new DirectBuildResult(toNode(result).expectObjectNode());
+    }
+
+    /**
+     * Reads a result written by {@link #write(Path)}.
+     *
+     * @param file File to read.
+     * @return Returns the result.
+     */
+    public static DirectBuildResult read(Path file) {
+        try {
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            return new DirectBuildResult(Node.parse(json, file.toString()).expectObjectNode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the result to a JSON file.
+     *
+     * @param file File to write.
+     */
+    public void write(Path file) {
+        try {
+            Files.write(file, Node.prettyPrintJson(toNode()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return Returns true if the model or any projection failed validation.
+     */
+    public boolean isBroken() {
+        if (broken) {
+            return true;
+        }
+        for (Projection projection : projections) {
+            if (projection.isBroken()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Returns the time taken to assemble the model and build every projection.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Gets the validation events of the source model, followed by the DANGER and ERROR
+     * events of each projection.
+     *
+     * @return Returns the validation events.
+     */
+    public List<Event> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return Returns the projections that were built, in the order they completed.
+     */
+    public List<Projection> getProjections() {
+        return Collections.unmodifiableList(projections);
+    }
+
+    /**
+     * @return Returns the error messages of projections that failed with an exception.
+     */
+    public List<String> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Gets how long each phase of the build took, such as assembling the model or building
+     * the projections, in the order the phases ran.
+     *
+     * @return Returns the duration of each phase in milliseconds.
+     */
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    /**
+     * @return Returns true if only the projections affected by changed files were rebuilt.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return Returns the projections that an incremental build did not need to rebuild.
+     */
+    public List<String> getUpToDateProjections() {
+        return Collections.unmodifiableList(upToDateProjections);
+    }
+
+    /**
+     * @return Returns true if no projection was built because the changed files define the same model as before.
+     */
+    public boolean isModelUnchanged() {
+        return modelUnchanged;
+    }
+
+    /**
+     * @return Returns the sorted IDs of the shapes matched by the selector of the request.
+     */
+    public List<String> getSelectedShapes() {
+        return Collections.unmodifiableList(selectedShapes);
+    }
+
+    /**
+     * @return Returns true if the model was assembled by an earlier task of the build and reused.
+     */
+    public boolean isSharedModel() {
+        return sharedModel;
+    }
+
+    /**
+     * @return Returns the number of model files loaded from the parse cache rather than parsed.
+     */
+    public int getParseCacheHits() {
+        return parseCacheHits;
+    }
+
+    /**
+     * @return Returns the number of model files that were parsed because the parse cache had no entry for them.
+     */
+    public int getParseCacheMisses() {
+        return parseCacheMisses;
+    }
+
+    private Node toNode() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(SmithyBuildBridge.BROKEN, broken);
+        map.put(SmithyBuildBridge.DURATION_MILLIS, durationMillis);
+        List<Object> eventNodes = new ArrayList<>();
+        for (Event event : events) {
+            eventNodes.add(event.node);
+        }
+        map.put(SmithyBuildBridge.EVENTS, eventNodes);
+        List<Object> projectionNodes = new ArrayList<>();
+        for (Projection projection : projections) {
+            projectionNodes.add(projection.node);
+        }
+        map.put(SmithyBuildBridge.PROJECTIONS, projectionNodes);
+        map.put(SmithyBuildBridge.FAILURES, failures);
+        map.put(SmithyBuildBridge.PHASES, phases);
+        map.put(SmithyBuildBridge.INCREMENTAL, incremental);
+        map.put(SmithyBuildBridge.UP_TO_DATE_PROJECTIONS, upToDateProjections);
+        map.put(SmithyBuildBridge.MODEL_UNCHANGED, modelUnchanged);
+        map.put(SmithyBuildBridge.SELECTED_SHAPES, selectedShapes);
+        map.put(SmithyBuildBridge.SHARED_MODEL, sharedModel);
+        map.put(SmithyBuildBridge.PARSE_CACHE_HITS, parseCacheHits);
+        map.put(SmithyBuildBridge.PARSE_CACHE_MISSES, parseCacheMisses);
+        return toNode(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node toNode(Object value) {
+        if (value == null) {
+            return Node.nullNode();
+        } else if (value instanceof Node) {
+            return (Node) value;
+        } else if (value instanceof String) {
+            return Node.from((String) value);
+        } else if (value instanceof Boolean) {
+            return Node.from((Boolean) value);
+        } else if (value instanceof Number) {
+            return Node.from((Number) value);
+        } else if (value instanceof List) {
+            ArrayNode.Builder builder = ArrayNode.builder();
+            for (Object element : (List<Object>) value) {
+                builder.withValue(toNode(element));
+            }
+            return builder.build();
+        } else if (value instanceof Map) {
+            ObjectNode.Builder builder = ObjectNode.builder();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    builder.withMember(entry.getKey(), toNode(entry.getValue()));
+                }
+            }
+            return builder.build();
+        }
+        throw new IllegalArgumentException("Unsupported smithy-build result value: " + value.getClass().getName());
+    }
+
+    private static List<ObjectNode> objects(ObjectNode node, String member) {
+        List<ObjectNode> result = new ArrayList<>();
+        node.getArrayMember(member).ifPresent(array -> array.forEach(e -> result.add(e.expectObjectNode())));
+        return result;
+    }
+
+    private static Map<String, Long> millis(ObjectNode node, String member) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        node.getObjectMember(member).ifPresent(object -> {
+            for (Map.Entry<String, Node> entry : object.getStringMap().entrySet()) {
+                result.put(entry.getKey(), entry.getValue().expectNumberNode().getValue().longValue());
+            }
+        });
+        return result;
+    }
+
+    private static List<String> strings(ObjectNode node, String member) {
+        List<String> result = new ArrayList<>();
+        node.getArrayMember(member).ifPresent(array -> array.forEach(e -> result.add(e.expectStringNode()
+                .getValue())));
+        return result;
+    }
+
+    /**
+     * A validation event emitted while building.
+     */
+    public static final class Event {
+        private final ObjectNode node;
+
+        private Event(ObjectNode node) {
+            this.node = node;
+        }
+
+        /**
+         * @return Returns the validation event ID.
+         */
+        public String getId() {
+            return node.expectStringMember(SmithyBuildBridge.ID).getValue();
+        }
+
+        /**
+         * @return Returns the severity of the event.
+         */
+        public Severity getSeverity() {
+            return Severity.fromString(node.expectStringMember(SmithyBuildBridge.SEVERITY).getValue())
+                    .orElse(Severity.ERROR);
+        }
+
+        /**
+         * @return Returns the event message.
+         */
+        public String getMessage() {
+            return node.getStringMemberOrDefault(SmithyBuildBridge.MESSAGE, "");
+        }
+
+        /**
+         * @return Returns the shape the event is about, if any.
+         */
+        public Optional<String> getShapeId() {
+            return node.getStringMember(SmithyBuildBridge.SHAPE_ID).map(StringNode::getValue);
+        }
+
+        /**
+         * @return Returns the projection that emitted the event, or empty for events of the source model.
+         */
+        public Optional<String> getProjection() {
+            return node.getStringMember(SmithyBuildBridge.PROJECTION).map(StringNode::getValue);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append('[').append(getSeverity()).append("] ");
+            getShapeId().ifPresent(id -> builder.append(id).append(": "));
+            builder.append(getMessage()).append(" | ").append(getId());
+            node.getStringMember(SmithyBuildBridge.FILE).ifPresent(file -> {
+                builder.append(' ').append(file.getValue());
+                builder.append(':').append(node.getNumberMemberOrDefault(SmithyBuildBridge.LINE, 0));
+                builder.append(':').append(node.getNumberMemberOrDefault(SmithyBuildBridge.COLUMN, 0));
+            });
+            getProjection().ifPresent(projection -> builder.append(" (projection ").append(projection).append(')'));
+            return builder.toString();
+        }
+    }
+
+    /**
+     * A projection that was built.
+     */
+    public static final class Projection {
+        private final ObjectNode node;
+
+        private Projection(ObjectNode node) {
+            this.node = node;
+        }
+
+        /**
+         * @return Returns the projection name.
+         */
+        public String getName() {
+            return node.expectStringMember(SmithyBuildBridge.NAME).getValue();
+        }
+
+        /**
+         * @return Returns true if the projected model failed validation.
+         */
+        public boolean isBroken() {
+            return node.getBooleanMemberOrDefault(SmithyBuildBridge.BROKEN);
+        }
+
+        /**
+         * Gets how long after the start of the build the projection completed.
+         *
+         * <p>Projections are built in parallel, so this is not the time spent building only
+         * this projection.
+         *
+         * @return Returns the completion time in milliseconds.
+         */
+        public long getCompletedAfterMillis() {
+            return node.getNumberMemberOrDefault(SmithyBuildBridge.COMPLETED_AFTER_MILLIS, 0).longValue();
+        }
+
+        /**
+         * Gets the absolute paths of the files written by each plugin of the projection.
+         *
+         * @return Returns the files keyed by plugin name.
+         */
+        public Map<String, List<String>> getPluginFiles() {
+            Map<String, List<String>> result = new LinkedHashMap<>();
+            node.getObjectMember(SmithyBuildBridge.PLUGINS).ifPresent(plugins -> {
+                for (Map.Entry<String, Node> entry : plugins.getStringMap().entrySet()) {
+                    List<String> files = new ArrayList<>();
+                    entry.getValue().expectArrayNode().forEach(file -> files.add(file.expectStringNode().getValue()));
+                    result.put(entry.getKey(), files);
+                }
+            });
+            return result;
+        }
+
+        /**
+         * Gets how long each plugin of the projection took to run.
+         *
+         * @return Returns the duration of each plugin in milliseconds, keyed by plugin name.
+         */
+        public Map<String, Long> getPluginMillis() {
+            return millis(node, SmithyBuildBridge.PLUGIN_MILLIS);
+        }
+
+        /**
+         * @return Returns the artifact names of the plugins whose artifacts were restored from the cache.
+         */
+        public List<String> getCachedPlugins() {
+            return strings(node, SmithyBuildBridge.CACHED_PLUGINS);
+        }
+
+        /**
+         * @return Returns the number of files written by every plugin of the projection.
+         */
+        public int getFileCount() {
+            int count = 0;
+            for (List<String> files : getPluginFiles().values()) {
+                count += files.size();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Picks the maximum heap size of forked Smithy CLI workers for a task.
+ *
+ * <p>Workers record the peak live heap of each invocation, measured as the largest heap usage
+ * left after a garbage collection. The task keeps the peaks of its last {@value #HISTORY_SIZE}
+ * runs in a history file, and sizes the heap of later runs to twice the largest of them. Until
+ * a peak has been recorded, the heap is estimated from the size of the models. Invocations that
+ * run out of memory double the heap of the next runs, until {@value #HISTORY_SIZE} later runs have
+ * succeeded and recorded peaks that size the heap again.
+ *
+ * <p>Heap sizes are rounded up to {@value #ROUNDING_MIB} MiB so that small changes in usage
+ * keep reusing the same worker processes, never go below Gradle's default worker heap of
+ * {@value #MINIMUM_HEAP_MIB} MiB, and never exceed half of the physical memory of the machine.
+ */
+@SmithyInternalApi
+public final class ForkHeapSizing {
+    private static final Logger LOGGER = Logging.getLogger(ForkHeapSizing.class);
+    private static final long MIB = 1024 * 1024;
+    private static final long MINIMUM_HEAP_MIB = 512;
+    private static final long ROUNDING_MIB = 256;
+    private static final int HISTORY_SIZE = 5;
+    // Parsed models take up far more memory than their source files.
+    private static final long BYTES_PER_MODEL_BYTE = 64;
+    private static final String PEAKS = "peaks";
+    private static final String MINIMUM_HEAP = "minimumHeap";
+    private static final String MINIMUM_HEAP_RUNS = "minimumHeapRuns";
+    private static final String OUT_OF_MEMORY = "outOfMemory";
+
+    private final File historyFile;
+
+    /**
+     * @param historyFile File the heap usage history of the task is stored in.
+     */
+    public ForkHeapSizing(File historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    /**
+     * Picks the maximum heap size of the workers of the next run.
+     *
+     * @param modelBytes Total size of the models of the task.
+     * @return Returns the heap size in bytes.
+     */
+    public synchronized long pickHeapSize(long modelBytes) {
+        Properties history = readHistory();
+        List<Long> peaks = parsePeaks(history);
+        long heap;
+        if (peaks.isEmpty()) {
+            heap = MINIMUM_HEAP_MIB * MIB + modelBytes * BYTES_PER_MODEL_BYTE;
+            LOGGER.info("Sizing Smithy CLI worker heap from {} bytes of models", modelBytes);
+        } else {
+            heap = Collections.max(peaks) * 2;
+            LOGGER.info("Sizing Smithy CLI worker heap from peak live heap of {} MiB on earlier runs",
+                    Collections.max(peaks) / MIB);
+        }
+        heap = Math.max(heap, Long.parseLong(history.getProperty(MINIMUM_HEAP, "0")));
+        return clamp(heap, physicalMemory());
+    }
+
+    /**
+     * Records the peak live heap of an invocation.
+     *
+     * @param liveBytes Peak live heap in bytes.
+     */
+    public synchronized void recordPeak(long liveBytes) {
+        Properties history = readHistory();
+        List<Long> peaks = parsePeaks(history);
+        peaks.add(liveBytes);
+        while (peaks.size() > HISTORY_SIZE) {
+            peaks.remove(0);
+        }
+        List<String> values = new ArrayList<>();
+        for (Long peak : peaks) {
+            values.add(Long.toString(peak));
+        }
+        history.setProperty(PEAKS, String.join(",", values));
+        // The heap picked after running out of memory expires once enough runs succeeded to size the heap.
+        int minimumHeapRuns = Integer.parseInt(history.getProperty(MINIMUM_HEAP_RUNS, "0")) - 1;
+        if (minimumHeapRuns > 0) {
+            history.setProperty(MINIMUM_HEAP_RUNS, Integer.toString(minimumHeapRuns));
+        } else {
+            history.remove(MINIMUM_HEAP);
+            history.remove(MINIMUM_HEAP_RUNS);
+        }
+        writeHistory(history);
+    }
+
+    /**
+     * Records that an invocation ran out of memory, so that the next {@value #HISTORY_SIZE} runs
+     * that succeed use at least twice the heap.
+     *
+     * @param maxHeapSize Heap size the invocation ran with, as formatted by {@link #format(long)}.
+     */
+    public synchronized void recordOutOfMemory(String maxHeapSize) {
+        Properties history = readHistory();
+        history.setProperty(MINIMUM_HEAP, Long.toString(parse(maxHeapSize) * 2));
+        history.setProperty(MINIMUM_HEAP_RUNS, Integer.toString(HISTORY_SIZE));
+        writeHistory(history);
+    }
+
+    /**
+     * Formats a heap size in bytes as a JVM heap size.
+     *
+     * @param bytes Heap size in bytes.
+     * @return Returns the heap size, such as {@code 1024m}.
+     */
+    public static String format(long bytes) {
+        return (bytes / MIB) + "m";
+    }
+
+    static long parse(String heapSize) {
+        return Long.parseLong(heapSize.substring(0, heapSize.length() - 1)) * MIB;
+    }
+
+    /**
+     * Runs an action and writes its peak live heap to a file.
+     *
+     * <p>This is called inside the worker process. The file is only written if the action completes,
+     * or marked if the action runs out of memory. See {@link #ranOutOfMemory(File)}.
+     *
+     * @param usageFile File to write the peak live heap to, in bytes.
+     * @param action Action to measure.
+     */
+    public static void measure(File usageFile, Runnable action) {
+        Set<String> heapPools = new HashSet<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+                pool.resetPeakUsage();
+            }
+        }
+
+        AtomicLong afterGc = new AtomicLong(-1);
+        NotificationListener listener = (notification, handback) -> recordGc(notification, heapPools, afterGc);
+        List<NotificationEmitter> emitters = new ArrayList<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+
+        try {
+            action.run();
+        } catch (OutOfMemoryError e) {
+            // The worker may not be able to send the error back, so the task is also told through the file.
+            try {
+                writeUsage(usageFile, OUT_OF_MEMORY);
+            } catch (UncheckedIOException writeError) {
+                e.addSuppressed(writeError);
+            }
+            throw e;
+        } finally {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(listener);
+                } catch (Exception e) {
+                    LOGGER.debug("Unable to remove garbage collection listener", e);
+                }
+            }
+        }
+
+        long live = afterGc.get();
+        if (live < 0) {
+            // Without a collection nothing was freed, so the peak usage is an upper bound of the live heap.
+            live = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    live += pool.getPeakUsage().getUsed();
+                }
+            }
+        }
+        writeUsage(usageFile, Long.toString(live));
+    }
+
+    /**
+     * Checks if an invocation measured by {@link #measure(File, Runnable)} ran out of memory.
+     *
+     * @param usageFile File the invocation was measured to.
+     * @return Returns true if the invocation ran out of memory.
+     */
+    public static boolean ranOutOfMemory(File usageFile) {
+        try {
+            return OUT_OF_MEMORY.equals(new String(Files.readAllBytes(usageFile.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a peak live heap written by {@link #measure(File, Runnable)}.
+     *
+     * @param usageFile File to read.
+     * @return Returns the peak live heap in bytes, or -1 if it was not recorded.
+     */
+    public static long readUsage(File usageFile) {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(usageFile.toPath()), StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void writeUsage(File usageFile, String usage) {
+        try {
+            Files.write(usageFile.toPath(), usage.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long clamp(long heap, long physicalMemory) {
+        long rounding = ROUNDING_MIB * MIB;
+        long rounded = (heap + rounding - 1) / rounding * rounding;
+        long result = Math.max(rounded, MINIMUM_HEAP_MIB * MIB);
+        if (physicalMemory > 0) {
+            result = Math.min(result, Math.max(physicalMemory / 2 / MIB * MIB, MINIMUM_HEAP_MIB * MIB));
+        }
+        return result;
+    }
+
+    private static void recordGc(Notification notification, Set<String> heapPools, AtomicLong afterGc) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> entry : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+            }
+        }
+        afterGc.accumulateAndGet(used, Math::max);
+    }
+
+    private static long physicalMemory() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize();
+        }
+        return -1;
+    }
+
+    private List<Long> parsePeaks(Properties history) {
+        List<Long> peaks = new ArrayList<>();
+        for (String value : history.getProperty(PEAKS, "").split(",")) {
+            if (!value.isEmpty()) {
+                try {
+                    peaks.add(Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    LOGGER.debug("Ignoring invalid Smithy CLI heap usage {} in {}", value, historyFile);
+                }
+            }
+        }
+        return peaks;
+    }
+
+    private Properties readHistory() {
+        Properties properties = new Properties();
+        if (historyFile.isFile()) {
+            try (InputStream in = Files.newInputStream(historyFile.toPath())) {
+                properties.load(in);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to read Smithy CLI heap usage history {}", historyFile, e);
+            }
+        }
+        return properties;
+    }
+
+    private void writeHistory(Properties history) {
+        Path target = historyFile.toPath();
+        try {
+            Files.createDirectories(historyFile.getAbsoluteFile().getParentFile().toPath());
+            Path temp = Files.createTempFile(historyFile.getAbsoluteFile().getParentFile().toPath(),
+                    historyFile.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                history.store(out, "Smithy CLI worker heap usage");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write Smithy CLI heap usage history {}: {}", historyFile, e.getMessage());
+        }
+    }
+}
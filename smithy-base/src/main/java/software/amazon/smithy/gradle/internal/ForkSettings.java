@@ -0,0 +1,87 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.gradle.process.JavaForkOptions;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * JVM settings of the worker processes that forked Smithy CLI invocations run in.
+ */
+@SmithyInternalApi
+public final class ForkSettings {
+    private final List<String> jvmArgs;
+    private final String maxHeapSize;
+    private final File classDataSharingDirectory;
+    private final File heapUsageFile;
+
+    /**
+     * @param jvmArgs Additional JVM arguments of the workers.
+     * @param maxHeapSize Maximum heap size of the workers, such as {@code 2g}, or null to use Gradle's default.
+     * @param classDataSharingDirectory Directory of class data sharing archives, or null to not use them.
+     * @param heapUsageFile File the worker writes its peak heap usage to, or null to not record it.
+     */
+    public ForkSettings(List<String> jvmArgs, String maxHeapSize, File classDataSharingDirectory, File heapUsageFile) {
+        this.jvmArgs = Collections.unmodifiableList(new ArrayList<>(jvmArgs));
+        this.maxHeapSize = maxHeapSize;
+        this.classDataSharingDirectory = classDataSharingDirectory;
+        this.heapUsageFile = heapUsageFile;
+    }
+
+    /**
+     * @return Returns settings that leave the worker JVM configuration to Gradle.
+     */
+    public static ForkSettings defaults() {
+        return new ForkSettings(Collections.emptyList(), null, null, null);
+    }
+
+    /**
+     * @return Returns the additional JVM arguments of the workers.
+     */
+    public List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+
+    /**
+     * @return Returns the maximum heap size of the workers, or null to use Gradle's default.
+     */
+    public String getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    /**
+     * @return Returns the directory of class data sharing archives, or null to not use them.
+     */
+    public File getClassDataSharingDirectory() {
+        return classDataSharingDirectory;
+    }
+
+    /**
+     * @return Returns the file the worker writes its peak heap usage to, or null to not record it.
+     */
+    public File getHeapUsageFile() {
+        return heapUsageFile;
+    }
+
+    /**
+     * Applies the settings to the fork options of a worker.
+     *
+     * @param options Fork options to configure.
+     * @param classpathHash Hash of the CLI classpath of the worker.
+     */
+    public void configure(JavaForkOptions options, String classpathHash) {
+        if (maxHeapSize != null) {
+            options.setMaxHeapSize(maxHeapSize);
+        }
+        options.jvmArgs(jvmArgs);
+        if (classDataSharingDirectory != null) {
+            ClassDataSharing.configureWorker(options, classDataSharingDirectory, classpathHash);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Objects;
+import org.gradle.api.GradleException;
+import software.amazon.smithy.cli.EnvironmentVariable;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Applies the JVM-wide settings required to run the Smithy CLI inside the Gradle process.
+ *
+ * <p>The Smithy CLI reads its dependency mode from a system property, and URL caching must be
+ * disabled through the JVM-wide {@link URLConnection#setDefaultUseCaches(boolean)} flag while it
+ * runs. Toggling either setting around each invocation races when several tasks run the CLI at
+ * the same time, since one invocation can restore a setting while another is still running.
+ *
+ * <p>This guard counts the invocations that are running. The settings are applied when the first
+ * invocation starts and the previous values are restored when the last one completes, so
+ * overlapping invocations always see the same settings. Invocations that need a different
+ * dependency mode than the one currently applied are rejected.
+ */
+@SmithyInternalApi
+public final class InProcessCliGuard {
+    private static final String DEPENDENCY_MODE_PROPERTY = EnvironmentVariable.SMITHY_DEPENDENCY_MODE.toString();
+    private static final Object LOCK = new Object();
+
+    private static int active;
+    private static String appliedDependencyMode;
+    private static String previousDependencyMode;
+    private static boolean previousUseCaches;
+
+    private InProcessCliGuard() {}
+
+    /**
+     * Runs the given action with the in-process CLI settings applied.
+     *
+     * @param dependencyMode Value of {@code SMITHY_DEPENDENCY_MODE} the CLI must run with.
+     * @param action Action that runs the CLI.
+     */
+    public static void run(String dependencyMode, Runnable action) {
+        acquire(dependencyMode);
+        try {
+            action.run();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return Returns the number of in-process CLI invocations currently running.
+     */
+    public static int getActiveCount() {
+        synchronized (LOCK) {
+            return active;
+        }
+    }
+
+    private static void acquire(String dependencyMode) {
+        synchronized (LOCK) {
+            if (active == 0) {
+                previousDependencyMode = System.getProperty(DEPENDENCY_MODE_PROPERTY);
+                System.setProperty(DEPENDENCY_MODE_PROPERTY, dependencyMode);
+                URLConnection cacheBuster = cacheBuster();
+                previousUseCaches = cacheBuster.getDefaultUseCaches();
+                cacheBuster.setDefaultUseCaches(false);
+                appliedDependencyMode = dependencyMode;
+            } else if (!appliedDependencyMode.equals(dependencyMode)) {
+                throw new GradleException("Cannot run the Smithy CLI with dependency mode '" + dependencyMode
+                        + "' while other in-process invocations are running with '" + appliedDependencyMode + "'");
+            }
+            active++;
+        }
+    }
+
+    private static void release() {
+        synchronized (LOCK) {
+            active--;
+            if (active == 0) {
+                if (previousDependencyMode == null) {
+                    System.clearProperty(DEPENDENCY_MODE_PROPERTY);
+                } else {
+                    System.setProperty(DEPENDENCY_MODE_PROPERTY, previousDependencyMode);
+                }
+                cacheBuster().setDefaultUseCaches(previousUseCaches);
+                appliedDependencyMode = null;
+                previousDependencyMode = null;
+            }
+        }
+    }
+
+    // An "empty" resource was added to the Gradle plugin to provide access to the
+    // global URL-wide caching behavior provided by URLConnection#setDefaultUseCaches.
+    // Setting that to false on any URLConnection disables caching on all URLConnections.
+    // Not doing this will lead to consistent errors like
+    // java.util.zip.ZipException: ZipFile invalid LOC header (bad signature)
+    private static URLConnection cacheBuster() {
+        URL empty = Objects.requireNonNull(InProcessCliGuard.class.getResource("/software/amazon/smithy/gradle/empty"));
+        try {
+            return empty.openConnection();
+        } catch (IOException e) {
+            throw new GradleException("Unable to access URL caching settings", e);
+        }
+    }
+}
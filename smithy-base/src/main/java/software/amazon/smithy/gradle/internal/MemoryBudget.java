@@ -0,0 +1,186 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * A budget of heap memory shared by concurrent Smithy CLI invocations.
+ *
+ * <p>Each invocation leases an estimate of the memory it needs before it runs, and waits
+ * while the budget does not have enough memory left. Waiting invocations are admitted in
+ * the order they arrived, so large invocations are not starved by a stream of small ones.
+ * An invocation estimated to need more than the whole budget leases the whole budget and
+ * runs alone.
+ */
+@SmithyInternalApi
+public final class MemoryBudget {
+    private static final Logger LOGGER = Logging.getLogger(MemoryBudget.class);
+    private static final long MIB = 1024 * 1024;
+    private static final long BASE_BYTES = 32 * MIB;
+    // Parsed models take up far more memory than their source files.
+    private static final long BYTES_PER_MODEL_BYTE = 64;
+    private static final String MODEL_DIRECTORY = "META-INF/smithy/";
+
+    private final int budgetMib;
+    private final Semaphore permits;
+
+    /**
+     * @param budgetBytes Total memory that concurrent invocations may lease.
+     */
+    public MemoryBudget(long budgetBytes) {
+        if (budgetBytes < MIB) {
+            throw new IllegalArgumentException("Smithy memory budget must be at least 1 MiB, but found "
+                    + budgetBytes + " bytes");
+        }
+        this.budgetMib = (int) Math.min(Integer.MAX_VALUE, budgetBytes / MIB);
+        // A fair semaphore hands out permits in arrival order, including multi-permit acquisitions.
+        this.permits = new Semaphore(budgetMib, true);
+    }
+
+    /**
+     * Estimates the memory an invocation needs from the size of its models.
+     *
+     * @param modelBytes Total size of the model files of the invocation.
+     * @return Returns the estimated memory in bytes.
+     */
+    public static long estimate(long modelBytes) {
+        return BASE_BYTES + modelBytes * BYTES_PER_MODEL_BYTE;
+    }
+
+    /**
+     * Measures the models that model discovery loads from a classpath entry.
+     *
+     * <p>Only the files under {@code META-INF/smithy} count, so that JARs of classes do not inflate the
+     * estimate. The uncompressed size of JAR entries is used, since that is what gets parsed.
+     *
+     * @param classpathEntry JAR or directory of the model discovery classpath.
+     * @return Returns the total size of its model files in bytes.
+     */
+    public static long modelBytes(File classpathEntry) {
+        if (classpathEntry.isDirectory()) {
+            Path models = classpathEntry.toPath().resolve(MODEL_DIRECTORY);
+            if (!Files.isDirectory(models)) {
+                return 0;
+            }
+            try (Stream<Path> files = Files.walk(models)) {
+                return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.debug("Unable to measure the Smithy models of {}", classpathEntry, e);
+                return 0;
+            }
+        }
+        if (!classpathEntry.isFile()) {
+            return 0;
+        }
+        long bytes = 0;
+        try (ZipFile jar = new ZipFile(classpathEntry)) {
+            Enumeration<? extends ZipEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().startsWith(MODEL_DIRECTORY)) {
+                    bytes += Math.max(0, entry.getSize() >= 0 ? entry.getSize() : entry.getCompressedSize());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Unable to measure the Smithy models of {}", classpathEntry, e);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Returns the total memory of the budget in bytes.
+     */
+    public long getBudgetBytes() {
+        return budgetMib * MIB;
+    }
+
+    /**
+     * @return Returns the memory currently leased in bytes.
+     */
+    public long getLeasedBytes() {
+        return (budgetMib - permits.availablePermits()) * MIB;
+    }
+
+    /**
+     * Leases memory from the budget, waiting until enough memory is available.
+     *
+     * @param owner Name of the leaseholder, used in log messages.
+     * @param bytes Memory to lease.
+     * @return Returns the lease, which must be closed once the invocation completes.
+     */
+    public Lease acquire(String owner, long bytes) {
+        int mib = (int) Math.max(1, Math.min(budgetMib, (bytes + MIB - 1) / MIB));
+        if (permits.tryAcquire(mib)) {
+            return new Lease(mib, 0);
+        }
+
+        LOGGER.info("{} is waiting for {} MiB of the Smithy memory budget ({} of {} MiB leased)",
+                owner, mib, getLeasedBytes() / MIB, budgetMib);
+        long start = System.nanoTime();
+        try {
+            permits.acquire(mib);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException(owner + " was interrupted while waiting for the Smithy memory budget", e);
+        }
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOGGER.info("{} waited {} ms for the Smithy memory budget", owner, waitMillis);
+        return new Lease(mib, waitMillis);
+    }
+
+    /**
+     * Memory leased from the budget.
+     */
+    public final class Lease implements AutoCloseable {
+        private final int mib;
+        private final long waitMillis;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(int mib, long waitMillis) {
+            this.mib = mib;
+            this.waitMillis = waitMillis;
+        }
+
+        /**
+         * @return Returns how long the leaseholder waited for the memory, in milliseconds.
+         */
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        /**
+         * @return Returns the leased memory in bytes.
+         */
+        public long getBytes() {
+            return mib * MIB;
+        }
+
+        /**
+         * Returns the leased memory to the budget. Closing a lease more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                permits.release(mib);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * A cache of assembled models keyed by the hash of the inputs they were assembled from.
+ *
+ * <p>Models are held by soft references, so the garbage collector evicts them when the heap runs
+ * low rather than failing the build. Evicted entries are removed the next time the cache is used.
+ *
+ * <p>Models are stored as plain objects, since their classes are loaded by the class loader of
+ * the Smithy CLI rather than the class loader of the plugin.
+ *
+ * <p>A model can be stored with a resource that it depends on, like the class loader its traits were
+ * loaded from. The cache owns the resource, and closes it once the model is evicted by the garbage
+ * collector or the cache is cleared. Replacing a model does not close its resource, since builds
+ * may still be using the model, so the resource is closed once the replaced model is collected.
+ */
+@SmithyInternalApi
+public final class ModelCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Entry> replaced = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object> cleared = new ReferenceQueue<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Gets the model assembled from the inputs with the given hash.
+     *
+     * @param key Hash of the inputs of the model.
+     * @return Returns the model, or null if it was never stored or has been evicted.
+     */
+    public Object get(String key) {
+        removeCleared();
+        Entry entry = entries.get(key);
+        Object model = entry != null ? entry.get() : null;
+        if (model != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return model;
+    }
+
+    /**
+     * Stores the model assembled from the inputs with the given hash.
+     *
+     * @param key Hash of the inputs of the model.
+     * @param model Model to store.
+     */
+    public void put(String key, Object model) {
+        put(key, model, null);
+    }
+
+    /**
+     * Stores the model assembled from the inputs with the given hash, and takes ownership of a resource
+     * that the model depends on.
+     *
+     * @param key Hash of the inputs of the model.
+     * @param model Model to store.
+     * @param resource Resource to close once the model is evicted, or null.
+     */
+    public void put(String key, Object model, AutoCloseable resource) {
+        removeCleared();
+        Entry previous = entries.put(key, new Entry(key, model, resource, cleared));
+        if (previous != null && previous.hasResource()) {
+            replaced.add(previous);
+        }
+    }
+
+    /**
+     * @return Returns the number of models that have not been evicted.
+     */
+    public int size() {
+        removeCleared();
+        return entries.size();
+    }
+
+    /**
+     * @return Returns the number of lookups that found a model.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Returns the number of lookups that did not find a model.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Returns the number of models evicted by the garbage collector.
+     */
+    public long getEvictions() {
+        removeCleared();
+        return evictions.get();
+    }
+
+    /**
+     * Removes every model from the cache and closes their resources.
+     */
+    public void clear() {
+        removeCleared();
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            entries.remove(entry.key, entry);
+            entry.closeResource();
+        }
+        for (Entry entry : new ArrayList<>(replaced)) {
+            replaced.remove(entry);
+            entry.closeResource();
+        }
+    }
+
+    private void removeCleared() {
+        Reference<?> reference;
+        while ((reference = cleared.poll()) != null) {
+            Entry entry = (Entry) reference;
+            // A newer model may have been stored under the same key since this one was evicted.
+            if (entries.remove(entry.key, entry)) {
+                evictions.incrementAndGet();
+            }
+            replaced.remove(entry);
+            // The model can no longer be used, so neither can its resource.
+            entry.closeResource();
+        }
+    }
+
+    private static final class Entry extends SoftReference<Object> {
+        private final String key;
+        private AutoCloseable resource;
+
+        Entry(String key, Object model, AutoCloseable resource, ReferenceQueue<Object> queue) {
+            super(model, queue);
+            this.key = key;
+            this.resource = resource;
+        }
+
+        synchronized boolean hasResource() {
+            return resource != null;
+        }
+
+        synchronized void closeResource() {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    // Resources like class loaders only release file handles, so a failure here is not fatal.
+                }
+                resource = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Classpath;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Artifact transform that replaces the Smithy IDL models of dependency JARs with JSON AST snapshots.
+ *
+ * <p>Gradle caches the output of the transform for each JAR, so the models of a dependency are
+ * only parsed once per version of the dependency on each machine. JARs that cannot be
+ * snapshotted, see {@link ModelSnapshots}, are used as they are.
+ */
+@SmithyInternalApi
+@CacheableTransform
+public abstract class ModelSnapshotTransform implements TransformAction<TransformParameters.None> {
+    /**
+     * Attribute that marks JARs whose models are snapshots.
+     */
+    public static final Attribute<Boolean> MODEL_SNAPSHOT = Attribute.of(
+            "software.amazon.smithy.gradle.model-snapshot", Boolean.class);
+
+    private static final String SNAPSHOT_SUFFIX = "-smithy-snapshot.jar";
+
+    /**
+     * @return Returns the JAR to transform.
+     */
+    @InputArtifact
+    @Classpath
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(TransformOutputs outputs) {
+        File jar = getInputArtifact().get().getAsFile();
+        if (!jar.isFile() || !jar.getName().endsWith(".jar")) {
+            outputs.file(getInputArtifact());
+            return;
+        }
+        String snapshot = ModelSnapshots.snapshot(jar);
+        if (snapshot == null) {
+            outputs.file(getInputArtifact());
+            return;
+        }
+        String name = jar.getName().substring(0, jar.getName().length() - ".jar".length()) + SNAPSHOT_SUFFIX;
+        ModelSnapshots.write(jar, snapshot, outputs.file(name));
+    }
+
+    /**
+     * Registers the transform with a project.
+     *
+     * @param project Project applying a Smithy plugin.
+     */
+    public static void register(Project project) {
+        project.getDependencies().getAttributesSchema().attribute(MODEL_SNAPSHOT);
+        project.getDependencies()
+                .getArtifactTypes()
+                .maybeCreate(ArtifactTypeDefinition.JAR_TYPE)
+                .getAttributes()
+                .attribute(MODEL_SNAPSHOT, false);
+        project.getDependencies().registerTransform(ModelSnapshotTransform.class, spec -> {
+            spec.getFrom()
+                    .attribute(MODEL_SNAPSHOT, false)
+                    .attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.JAR_TYPE);
+            spec.getTo()
+                    .attribute(MODEL_SNAPSHOT, true)
+                    .attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE, ArtifactTypeDefinition.JAR_TYPE);
+        });
+    }
+
+    /**
+     * Gets the files of a configuration with the models of its JARs replaced by snapshots.
+     *
+     * @param configuration Configuration to view.
+     * @return Returns the transformed files.
+     */
+    public static FileCollection view(Configuration configuration) {
+        return configuration.getIncoming()
+                .artifactView(view -> view.attributes(attributes -> attributes.attribute(MODEL_SNAPSHOT, true)))
+                .getFiles();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.loader.ModelAssembler;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.shapes.ModelSerializer;
+import software.amazon.smithy.model.validation.Severity;
+import software.amazon.smithy.model.validation.ValidatedResult;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Replaces the Smithy IDL models of a JAR with a single JSON AST snapshot of the same model.
+ *
+ * <p>The JSON AST is much faster to load than the IDL, so every build that discovers models in
+ * the JAR parses it faster. Every other entry of the JAR, such as the classes of traits and
+ * validators, is copied as is.
+ *
+ * <p>The models of a JAR are assembled on their own, without the models of its dependencies, so a
+ * snapshot is only created if they can be: JARs whose models apply traits to, mix in, or otherwise
+ * need shapes of other JARs to be loaded are left unchanged, as are JARs with Smithy IDL 1.0 models,
+ * since upgrading them depends on the shapes they target.
+ */
+@SmithyInternalApi
+public final class ModelSnapshots {
+    /**
+     * Name of the snapshot written to the {@code META-INF/smithy} directory of a JAR.
+     */
+    public static final String SNAPSHOT_FILE = "model-snapshot.json";
+
+    private static final String MODEL_DIR = "META-INF/smithy/";
+    private static final String MANIFEST = MODEL_DIR + "manifest";
+    private static final Pattern IDL_2 = Pattern.compile("^\\s*\\$version\\s*:\\s*\"2", Pattern.MULTILINE);
+
+    private ModelSnapshots() {}
+
+    /**
+     * Creates the snapshot of the models of a JAR.
+     *
+     * @param jar JAR to read.
+     * @return Returns the JSON AST of the models, or null if the JAR contains no IDL models or its
+     *         models cannot be assembled on their own.
+     */
+    public static String snapshot(File jar) {
+        try (ZipFile zip = new ZipFile(jar)) {
+            ZipEntry manifest = zip.getEntry(MANIFEST);
+            if (manifest == null) {
+                return null;
+            }
+            ModelAssembler assembler = Model.assembler()
+                    .disableValidation()
+                    .putProperty(ModelAssembler.ALLOW_UNKNOWN_TRAITS, true);
+            boolean hasIdl = false;
+            for (String path : readManifest(zip, manifest)) {
+                ZipEntry entry = zip.getEntry(MODEL_DIR + path);
+                if (entry == null) {
+                    return null;
+                }
+                String contents = new String(read(zip, entry), StandardCharsets.UTF_8);
+                if (path.endsWith(".smithy")) {
+                    if (!IDL_2.matcher(contents).find()) {
+                        return null;
+                    }
+                    hasIdl = true;
+                }
+                assembler.addUnparsedModel(jar.getName() + "!/" + entry.getName(), contents);
+            }
+            if (!hasIdl) {
+                return null;
+            }
+
+            ValidatedResult<Model> result = assembler.assemble();
+            if (!result.getValidationEvents(Severity.ERROR).isEmpty()
+                    || !result.getValidationEvents(Severity.DANGER).isEmpty()
+                    || !result.getResult().isPresent()) {
+                return null;
+            }
+            return Node.printJson(ModelSerializer.builder().build().serialize(result.getResult().get()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a copy of a JAR whose models are replaced by a snapshot.
+     *
+     * @param jar JAR to copy.
+     * @param snapshot Snapshot created by {@link #snapshot(File)}.
+     * @param output File to write the copy to.
+     */
+    public static void write(File jar, String snapshot, File output) {
+        try (ZipFile zip = new ZipFile(jar)) {
+            Set<String> modelEntries = new HashSet<>();
+            modelEntries.add(MANIFEST);
+            for (String path : readManifest(zip, zip.getEntry(MANIFEST))) {
+                modelEntries.add(MODEL_DIR + path);
+            }
+            writeJar(zip, modelEntries, snapshot, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> readManifest(ZipFile zip, ZipEntry manifest) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (String line : new String(read(zip, manifest), StandardCharsets.UTF_8).split("\\r?\\n")) {
+            String path = line.trim();
+            if (!path.isEmpty()) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private static void writeJar(ZipFile zip, Set<String> modelEntries, String snapshot, File output)
+            throws IOException {
+        try (OutputStream out = Files.newOutputStream(output.toPath());
+                ZipOutputStream jar = new ZipOutputStream(out)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (modelEntries.contains(entry.getName())) {
+                    continue;
+                }
+                jar.putNextEntry(new ZipEntry(entry.getName()));
+                if (!entry.isDirectory()) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        copy(in, jar);
+                    }
+                }
+                jar.closeEntry();
+            }
+            jar.putNextEntry(new ZipEntry(MODEL_DIR + SNAPSHOT_FILE));
+            jar.write(snapshot.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+            jar.putNextEntry(new ZipEntry(MANIFEST));
+            jar.write((SNAPSHOT_FILE + "\n").getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+        }
+    }
+
+    private static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = zip.getInputStream(entry)) {
+            copy(in, bytes);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Moves the outputs of a build from a staging directory into an output directory, without
+ * touching the files of the output directory whose content has not changed.
+ *
+ * <p>smithy-build rewrites every file of a projection, even when its content is the same as
+ * in the previous build. Writing to a staging directory and synchronizing it keeps the
+ * modification times of unchanged files, so that file watchers and downstream tasks only
+ * see the files that actually changed. Files of the output directory that the build no
+ * longer produces are deleted, along with directories that become empty.
+ */
+@SmithyInternalApi
+public final class OutputSynchronizer {
+    private int written;
+    private int unchanged;
+    private int deleted;
+
+    /**
+     * Synchronizes an output directory with a staging directory.
+     *
+     * <p>Files are moved out of the staging directory, which is deleted afterwards.
+     *
+     * @param stagingDir Directory the build wrote its outputs to.
+     * @param outputDir Directory to update.
+     */
+    public void sync(Path stagingDir, Path outputDir) {
+        try {
+            Set<Path> staged = listFiles(stagingDir).stream()
+                    .map(stagingDir::relativize)
+                    .collect(Collectors.toSet());
+            for (Path existing : listFiles(outputDir)) {
+                if (!staged.contains(outputDir.relativize(existing))) {
+                    Files.delete(existing);
+                    deleted++;
+                }
+            }
+            for (Path relative : staged) {
+                syncFile(stagingDir.resolve(relative), outputDir.resolve(relative));
+            }
+            deleteEmptyDirectories(outputDir);
+            deleteDirectory(stagingDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a staging directory and its contents.
+     *
+     * @param stagingDir Directory to delete.
+     */
+    public static void clean(Path stagingDir) {
+        try {
+            deleteDirectory(stagingDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void syncFile(Path source, Path target) throws IOException {
+        if (Files.isDirectory(target)) {
+            // A directory was replaced by a file of the same name.
+            deleteDirectory(target);
+        } else if (Files.isRegularFile(target)
+                && Files.size(target) == Files.size(source)
+                && ClasspathHasher.hashFile(target).equals(ClasspathHasher.hashFile(source))) {
+            unchanged++;
+            return;
+        }
+        Files.createDirectories(target.toAbsolutePath().toFile().getParentFile().toPath());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        written++;
+    }
+
+    /**
+     * @return Returns the number of files that were added or changed.
+     */
+    public int getWrittenFiles() {
+        return written;
+    }
+
+    /**
+     * @return Returns the number of files that were left untouched because their content did not change.
+     */
+    public int getUnchangedFiles() {
+        return unchanged;
+    }
+
+    /**
+     * @return Returns the number of files that were deleted because they are no longer produced.
+     */
+    public int getDeletedFiles() {
+        return deleted;
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteEmptyDirectories(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> directories;
+        try (Stream<Path> files = Files.walk(dir)) {
+            directories = files.filter(Files::isDirectory)
+                    .filter(path -> !path.equals(dir))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (Path directory : directories) {
+            try (Stream<Path> children = Files.list(directory)) {
+                if (!children.findAny().isPresent()) {
+                    Files.delete(directory);
+                }
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,660 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.model.FromSourceLocation;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.SourceLocation;
+import software.amazon.smithy.model.loader.Prelude;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.BooleanNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.NullNode;
+import software.amazon.smithy.model.node.NumberNode;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.model.shapes.MemberShape;
+import software.amazon.smithy.model.shapes.ModelSerializer;
+import software.amazon.smithy.model.shapes.Shape;
+import software.amazon.smithy.model.shapes.ShapeId;
+import software.amazon.smithy.model.traits.EnumValueTrait;
+import software.amazon.smithy.model.traits.Trait;
+import software.amazon.smithy.model.validation.ValidationEvent;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Stores the parsed form of Smithy IDL files, so that only the files that changed since an earlier
+ * build are tokenized and parsed again.
+ *
+ * <p>Each entry is keyed by the hash of the contents of a file and the Smithy version, and holds the
+ * JSON AST of the shapes, traits, and metadata that the file defines in an assembled model, along
+ * with their source locations. Loading an entry gives the same shapes, traits, and source locations
+ * as parsing the file, and the model is still validated as a whole.
+ *
+ * <p>The JSON AST refers to shapes by absolute shape IDs, which are resolved when the file is parsed.
+ * A file only resolves to other shapes if another file starts to define a shape with the name of a
+ * prelude shape, or changes the type of a trait shape that the file applies without a value, so
+ * {@link #isValid(Model, Collection)} checks for both after loading entries. Files that use IDL 1.0,
+ * that report parser events, or that apply list traits also applied by other files are never stored.
+ * Neither are files whose shapes have traits without a source location, such as traits that the
+ * loader synthesized from other files, since such traits cannot be attributed to the file. The only
+ * exception are the implicit values of enum members, which are left out of the entry and derived
+ * again from the member names when the entry is loaded.
+ *
+ * <p>Entries that have not been used for {@value #MAX_UNUSED_DAYS} days are removed at most once a
+ * day, along with the least recently used entries beyond the maximum size of the cache.
+ *
+ * <p>Like {@link SmithyBuildBridge}, this class is defined inside the class loader of the Smithy CLI
+ * classpath by {@link DirectBuildEngine} and must not reference Gradle.
+ */
+@SmithyInternalApi
+public final class ParsedFileCache {
+    /**
+     * Default maximum size of the cache in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_UNUSED_DAYS = 7;
+    private static final String CLEANUP_MARKER = "last-cleanup";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String DOCUMENT = "document";
+    private static final String LOCATIONS = "locations";
+    private static final String TRAIT_TYPES = "traitTypes";
+    private static final String SHAPES = "shapes";
+    private static final String MEMBERS = "members";
+    private static final String TRAITS = "traits";
+    private static final String METADATA = "metadata";
+    private static final Pattern VERSION = Pattern.compile("^\\s*\\$version\\s*:\\s*\"(\\d)", Pattern.MULTILINE);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final String salt;
+    // The shapes of the last model that files were stored from, grouped by the files that define them or apply
+    // traits to them, so that storing every file of a model only walks the model once.
+    private Model indexedModel;
+    private Map<String, List<Shape>> shapesByFile;
+
+    /**
+     * @param directory Directory to store entries in.
+     * @param maxBytes Size that entries are removed beyond when the cache is cleaned up.
+     */
+    public ParsedFileCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        CodeSource smithy = Model.class.getProtectionDomain().getCodeSource();
+        this.salt = FORMAT_VERSION + ":" + (smithy == null ? "" : smithy.getLocation());
+    }
+
+    /**
+     * Creates the key of the entry of a file.
+     *
+     * @param contents Contents of the file.
+     * @return Returns the hex encoded key.
+     */
+    public String key(byte[] contents) {
+        MessageDigest digest = ClasspathHasher.newDigest();
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(contents);
+        return ClasspathHasher.toHex(digest.digest());
+    }
+
+    /**
+     * Loads the entry of a file.
+     *
+     * @param key Key of the entry, see {@link #key(byte[])}.
+     * @param filename Name of the file, which the source locations of the entry refer to.
+     * @return Returns the entry, or null if it does not exist or cannot be read.
+     */
+    public Entry load(String key, String filename) {
+        Path file = entryFile(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        ObjectNode node;
+        try {
+            node = Node.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).expectObjectNode();
+            touch(file);
+        } catch (IOException | RuntimeException e) {
+            // The entry was removed by a cleanup or is damaged, so the file is parsed again.
+            return null;
+        }
+        Map<String, SourceLocation> locations = new HashMap<>();
+        for (Map.Entry<String, Node> location : node.expectObjectMember(LOCATIONS).getStringMap().entrySet()) {
+            List<NumberNode> position = location.getValue().expectArrayNode().getElementsAs(NumberNode.class);
+            locations.put(location.getKey(), new SourceLocation(filename,
+                    position.get(0).getValue().intValue(), position.get(1).getValue().intValue()));
+        }
+        ObjectNode document = node.expectObjectMember(DOCUMENT);
+        ObjectNode.Builder shapes = ObjectNode.builder();
+        for (Map.Entry<String, Node> shape : document.getObjectMember(SHAPES)
+                .map(ObjectNode::getStringMap)
+                .orElse(new HashMap<>())
+                .entrySet()) {
+            shapes.withMember(shape.getKey(), withShapeLocations(shape.getKey(), shape.getValue(), locations));
+        }
+        ObjectNode.Builder metadata = ObjectNode.builder();
+        for (Map.Entry<String, Node> value : document.getObjectMember(METADATA)
+                .map(ObjectNode::getStringMap)
+                .orElse(new HashMap<>())
+                .entrySet()) {
+            String prefix = METADATA + "|" + value.getKey();
+            Node located = value.getValue();
+            if (located.isArrayNode()) {
+                List<Node> elements = new ArrayList<>();
+                List<Node> values = located.expectArrayNode().getElements();
+                for (int i = 0; i < values.size(); i++) {
+                    elements.add(withLocation(values.get(i), locations.get(prefix + "|" + i)));
+                }
+                located = new ArrayNode(elements, SourceLocation.NONE);
+            }
+            metadata.withMember(value.getKey(), withLocation(located, locations.get(prefix)));
+        }
+        Map<String, String> traitTypes = new HashMap<>();
+        node.expectObjectMember(TRAIT_TYPES)
+                .getStringMap()
+                .forEach((trait, type) -> traitTypes.put(trait, type.expectStringNode().getValue()));
+        return new Entry(document.toBuilder()
+                .withMember(SHAPES, shapes.build())
+                .withMember(METADATA, metadata.build())
+                .build(), traitTypes);
+    }
+
+    /**
+     * Stores the entry of a file, if the file can be loaded from one.
+     *
+     * @param key Key of the entry, see {@link #key(byte[])}.
+     * @param filename Name of the file, as used by the source locations of the model.
+     * @param contents Contents of the file.
+     * @param model Model assembled from the file, without errors.
+     * @param events Validation events of the model.
+     * @param uncacheable Files that cannot be stored, see {@link #findUncacheableFiles(Model)}.
+     * @return Returns true if the entry was stored.
+     */
+    public boolean store(
+            String key,
+            String filename,
+            String contents,
+            Model model,
+            List<ValidationEvent> events,
+            Set<String> uncacheable
+    ) {
+        Matcher version = VERSION.matcher(contents);
+        // IDL 1.0 files are upgraded using the shapes of other files, so they are always parsed.
+        if (!version.find() || !version.group(1).equals("2") || uncacheable.contains(filename)) {
+            return false;
+        }
+        for (ValidationEvent event : events) {
+            if (event.getId().startsWith("Model") && filename.equals(event.getSourceLocation().getFilename())) {
+                return false;
+            }
+        }
+
+        Map<String, Node> locations = new LinkedHashMap<>();
+        Map<String, Node> traitTypes = new LinkedHashMap<>();
+        ObjectNode ast = ModelSerializer.builder()
+                .shapeFilter(shape -> shape.isMemberShape() || filename.equals(fileOf(shape)))
+                .traitFilter(trait -> isFrom(trait, filename))
+                .metadataFilter(name -> false)
+                .build()
+                .serialize(model);
+        Map<String, Node> shapes = new LinkedHashMap<>(ast.getObjectMember(SHAPES)
+                .map(ObjectNode::getStringMap)
+                .orElse(new HashMap<>()));
+
+        List<Shape> fileShapes = shapesOf(model, filename);
+        for (Shape shape : fileShapes) {
+            if (filename.equals(fileOf(model.getShape(shape.getId().withoutMember()).orElse(shape)))
+                    && hasUnlocatedTraits(model, shape)) {
+                return false;
+            }
+        }
+
+        for (Shape shape : fileShapes) {
+            String id = shape.getId().toString();
+            boolean own = filename.equals(fileOf(model.getShape(shape.getId().withoutMember()).orElse(shape)));
+            if (own) {
+                addLocation(locations, id, shape);
+            }
+            Map<String, Node> applied = new LinkedHashMap<>();
+            for (Trait trait : shape.getIntroducedTraits().values()) {
+                if (trait.isSynthetic() || !isFrom(trait, filename)) {
+                    continue;
+                }
+                String traitId = trait.toShapeId().toString();
+                addLocation(locations, id + "|" + traitId, trait);
+                model.getShape(trait.toShapeId())
+                        .filter(definition -> !Prelude.isPreludeShape(definition))
+                        .ifPresent(definition -> traitTypes.put(traitId, Node.from(definition.getType().toString())));
+                if (!own) {
+                    applied.put(traitId, trait.toNode());
+                }
+            }
+            if (!applied.isEmpty()) {
+                // Traits that the file applies to shapes of other files.
+                shapes.put(id, Node.objectNodeBuilder()
+                        .withMember("type", "apply")
+                        .withMember(TRAITS, toObject(applied))
+                        .build());
+                Node location = locations.get(id + "|" + applied.keySet().iterator().next());
+                if (location != null) {
+                    locations.put(id, location);
+                }
+            }
+        }
+
+        Map<String, Node> metadata = new LinkedHashMap<>();
+        for (Map.Entry<String, Node> value : model.getMetadata().entrySet()) {
+            String prefix = METADATA + "|" + value.getKey();
+            Node node = value.getValue();
+            if (node.isArrayNode()) {
+                // Metadata lists of several files are concatenated, so each file only stores its own elements.
+                List<Node> elements = new ArrayList<>();
+                for (Node element : node.expectArrayNode().getElements()) {
+                    if (filename.equals(element.getSourceLocation().getFilename())) {
+                        addLocation(locations, prefix + "|" + elements.size(), element);
+                        elements.add(element);
+                    }
+                }
+                if (!elements.isEmpty() || filename.equals(node.getSourceLocation().getFilename())) {
+                    addLocation(locations, prefix, node);
+                    metadata.put(value.getKey(), Node.fromNodes(elements));
+                }
+            } else if (filename.equals(node.getSourceLocation().getFilename())) {
+                addLocation(locations, prefix, node);
+                metadata.put(value.getKey(), node);
+            }
+        }
+
+        ObjectNode document = ast.toBuilder()
+                .withMember(SHAPES, toObject(shapes))
+                .withMember(METADATA, toObject(metadata))
+                .build();
+        ObjectNode entry = Node.objectNodeBuilder()
+                .withMember(DOCUMENT, document)
+                .withMember(LOCATIONS, toObject(locations))
+                .withMember(TRAIT_TYPES, toObject(traitTypes))
+                .build();
+        write(entryFile(key), Node.printJson(entry));
+        return true;
+    }
+
+    /**
+     * Finds the files that apply to the same shape a list trait that others also apply.
+     *
+     * <p>Smithy concatenates the values of such traits, and the concatenated trait only has the
+     * source location of one file, so the values cannot be attributed to each file.
+     *
+     * @param model Model to check.
+     * @return Returns the names of the files.
+     */
+    public static Set<String> findUncacheableFiles(Model model) {
+        Set<String> files = new HashSet<>();
+        for (Shape shape : model.toSet()) {
+            for (Trait trait : shape.getIntroducedTraits().values()) {
+                Node value = trait.toNode();
+                if (!value.isArrayNode()) {
+                    continue;
+                }
+                Set<String> sources = value.expectArrayNode()
+                        .getElements()
+                        .stream()
+                        .map(element -> element.getSourceLocation().getFilename())
+                        .filter(name -> !name.equals(SourceLocation.NONE.getFilename()))
+                        .collect(Collectors.toSet());
+                sources.add(trait.getSourceLocation().getFilename());
+                if (sources.size() > 1) {
+                    files.addAll(sources);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Checks that a model assembled from entries is the same as if their files had been parsed.
+     *
+     * @param model Model assembled from the entries and the other files of the build.
+     * @param entries Entries the model was assembled from.
+     * @return Returns true if the model is valid, or false if the files must be parsed again.
+     */
+    public static boolean isValid(Model model, Collection<Entry> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        for (Shape shape : model.toSet()) {
+            if (!shape.isMemberShape() && !Prelude.isPreludeShape(shape)
+                    && model.getShape(ShapeId.fromParts(Prelude.NAMESPACE, shape.getId().getName())).isPresent()) {
+                // The shape changes what relative shape IDs with its name resolve to in its namespace.
+                return false;
+            }
+        }
+        for (Entry entry : entries) {
+            for (Map.Entry<String, String> traitType : entry.traitTypes.entrySet()) {
+                Optional<Shape> definition = model.getShape(ShapeId.from(traitType.getKey()));
+                if (!definition.isPresent() || !definition.get().getType().toString().equals(traitType.getValue())) {
+                    return false;
+                }
+            }
+        }
+        // The values of list traits that entries and parsed files apply to the same shape are concatenated in
+        // a different order than if every file was parsed. Values loaded from entries have no source location.
+        for (Shape shape : model.toSet()) {
+            for (Trait trait : shape.getIntroducedTraits().values()) {
+                if (trait.toNode().isArrayNode()) {
+                    Set<String> sources = trait.toNode()
+                            .expectArrayNode()
+                            .getElements()
+                            .stream()
+                            .map(element -> element.getSourceLocation().getFilename())
+                            .collect(Collectors.toSet());
+                    if (sources.size() > 1 && sources.contains(SourceLocation.NONE.getFilename())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Orders the values of metadata lists as if every file had been parsed.
+     *
+     * <p>Smithy loads entries before it parses files, so the values that several files add to a
+     * metadata list are concatenated in a different order when some of the files are loaded from entries.
+     *
+     * @param model Model assembled from entries and parsed files.
+     * @param files Names of the model files in the order they were added to the assembler.
+     * @return Returns the model with its metadata lists ordered by file.
+     */
+    public static Model orderMetadata(Model model, List<String> files) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            positions.putIfAbsent(files.get(i), i);
+        }
+        Model.Builder builder = null;
+        for (Map.Entry<String, Node> value : model.getMetadata().entrySet()) {
+            if (!value.getValue().isArrayNode()) {
+                continue;
+            }
+            ArrayNode array = value.getValue().expectArrayNode();
+            List<Node> ordered = new ArrayList<>(array.getElements());
+            // Values of files that are not in the list, such as discovered models, are added before the files.
+            ordered.sort(Comparator.comparingInt(element -> positions.getOrDefault(
+                    element.getSourceLocation().getFilename(), -1)));
+            if (!ordered.equals(array.getElements())) {
+                if (builder == null) {
+                    builder = model.toBuilder();
+                }
+                builder.putMetadataProperty(value.getKey(), new ArrayNode(ordered, array.getSourceLocation()));
+            }
+        }
+        return builder == null ? model : builder.build();
+    }
+
+    /**
+     * Removes entries that have not been used recently and the least recently used entries beyond the
+     * maximum size, if no other build has done so today.
+     *
+     * @return Returns the number of removed entries.
+     */
+    public int removeUnusedEntries() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        Path marker = directory.resolve(CLEANUP_MARKER);
+        try {
+            if (Files.exists(marker)
+                    && now - Files.getLastModifiedTime(marker).toMillis() < TimeUnit.DAYS.toMillis(1)) {
+                return 0;
+            }
+            Files.write(marker, new byte[0]);
+
+            List<StoredEntry> entries = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.filter(f -> f.toString().endsWith(ENTRY_SUFFIX))
+                        .collect(Collectors.toList())) {
+                    entries.add(new StoredEntry(file, Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+                }
+            }
+            // Most recently used first.
+            entries.sort(Comparator.comparingLong((StoredEntry entry) -> entry.lastUsed).reversed());
+            long cutoff = now - TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+            long size = 0;
+            int removed = 0;
+            for (StoredEntry entry : entries) {
+                size += entry.bytes;
+                if (entry.lastUsed < cutoff || size > maxBytes) {
+                    Files.deleteIfExists(entry.file);
+                    removed++;
+                }
+            }
+            return removed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Shape> shapesOf(Model model, String filename) {
+        if (model != indexedModel) {
+            shapesByFile = new HashMap<>();
+            for (Shape shape : model.toSet()) {
+                if (Prelude.isPreludeShape(shape)) {
+                    continue;
+                }
+                Set<String> files = new HashSet<>();
+                files.add(fileOf(model.getShape(shape.getId().withoutMember()).orElse(shape)));
+                for (Trait trait : shape.getIntroducedTraits().values()) {
+                    files.add(trait.getSourceLocation().getFilename());
+                }
+                for (String file : files) {
+                    shapesByFile.computeIfAbsent(file, f -> new ArrayList<>()).add(shape);
+                }
+            }
+            indexedModel = model;
+        }
+        return shapesByFile.getOrDefault(filename, Collections.emptyList());
+    }
+
+    private Path entryFile(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    // Entries are only touched once a day, so that loading thousands of them does not rewrite their metadata.
+    private static void touch(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - Files.getLastModifiedTime(file).toMillis() > TimeUnit.DAYS.toMillis(1)) {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+        }
+    }
+
+    // Entries are written to a temporary file and moved into place, so concurrent builds never see partial entries.
+    private void write(Path file, String contents) {
+        try {
+            Path parent = file.toAbsolutePath().toFile().getParentFile().toPath();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, TEMP_PREFIX, ENTRY_SUFFIX + ".tmp");
+            try {
+                Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileOf(Shape shape) {
+        return shape.getSourceLocation().getFilename();
+    }
+
+    private static boolean isFrom(Trait trait, String filename) {
+        return filename.equals(trait.getSourceLocation().getFilename());
+    }
+
+    // Traits without a source location may have been synthesized from other files, so they cannot be stored.
+    private static boolean hasUnlocatedTraits(Model model, Shape shape) {
+        for (Trait trait : shape.getIntroducedTraits().values()) {
+            if (!trait.isSynthetic()
+                    && trait.getSourceLocation().getFilename().equals(SourceLocation.NONE.getFilename())
+                    && !isImplicitEnumValue(model, shape, trait)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The loader gives enum members without a value their name as value, whether they are parsed or loaded.
+    private static boolean isImplicitEnumValue(Model model, Shape shape, Trait trait) {
+        if (!trait.toShapeId().equals(EnumValueTrait.ID) || !shape.isMemberShape()) {
+            return false;
+        }
+        MemberShape member = shape.asMemberShape().get();
+        return model.getShape(member.getContainer()).filter(Shape::isEnumShape).isPresent()
+                && trait.toNode().asStringNode().map(StringNode::getValue)
+                        .filter(member.getMemberName()::equals)
+                        .isPresent();
+    }
+
+    private static void addLocation(Map<String, Node> locations, String key, FromSourceLocation value) {
+        SourceLocation location = value.getSourceLocation();
+        if (location == SourceLocation.NONE) {
+            return;
+        }
+        locations.put(key, Node.fromNodes(Node.from(location.getLine()), Node.from(location.getColumn())));
+    }
+
+    private static ObjectNode toObject(Map<String, Node> map) {
+        Map<StringNode, Node> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(Node.from(key), value));
+        return Node.objectNode(result);
+    }
+
+    // The JSON AST loader takes the source locations of shapes, members, and traits from their nodes.
+    private static Node withShapeLocations(String id, Node shape, Map<String, SourceLocation> locations) {
+        ObjectNode.Builder builder = ObjectNode.builder().sourceLocation(locate(locations, id));
+        for (Map.Entry<String, Node> property : shape.expectObjectNode().getStringMap().entrySet()) {
+            Node value = property.getValue();
+            if (property.getKey().equals(TRAITS)) {
+                value = withTraitLocations(id, value, locations);
+            } else if (property.getKey().equals(MEMBERS)) {
+                ObjectNode.Builder members = ObjectNode.builder();
+                for (Map.Entry<String, Node> member : value.expectObjectNode().getStringMap().entrySet()) {
+                    String memberId = id + "$" + member.getKey();
+                    ObjectNode.Builder located = ObjectNode.builder().sourceLocation(locate(locations, memberId));
+                    member.getValue().expectObjectNode().getStringMap().forEach((name, memberValue) ->
+                            located.withMember(name, name.equals(TRAITS)
+                                    ? withTraitLocations(memberId, memberValue, locations)
+                                    : memberValue));
+                    members.withMember(member.getKey(), located.build());
+                }
+                value = members.build();
+            }
+            builder.withMember(property.getKey(), value);
+        }
+        return builder.build();
+    }
+
+    private static Node withTraitLocations(String id, Node traits, Map<String, SourceLocation> locations) {
+        ObjectNode.Builder builder = ObjectNode.builder();
+        for (Map.Entry<String, Node> trait : traits.expectObjectNode().getStringMap().entrySet()) {
+            builder.withMember(trait.getKey(),
+                    withLocation(trait.getValue(), locate(locations, id + "|" + trait.getKey())));
+        }
+        return builder.build();
+    }
+
+    private static SourceLocation locate(Map<String, SourceLocation> locations, String key) {
+        SourceLocation location = locations.get(key);
+        return location == null ? SourceLocation.NONE : location;
+    }
+
+    private static Node withLocation(Node node, SourceLocation location) {
+        if (location == null) {
+            return node;
+        }
+        switch (node.getType()) {
+            case OBJECT:
+                return new ObjectNode(node.expectObjectNode().getMembers(), location);
+            case ARRAY:
+                return new ArrayNode(node.expectArrayNode().getElements(), location);
+            case STRING:
+                return new StringNode(node.expectStringNode().getValue(), location);
+            case NUMBER:
+                return new NumberNode(node.expectNumberNode().getValue(), location);
+            case BOOLEAN:
+                return new BooleanNode(node.expectBooleanNode().getValue(), location);
+            default:
+                return new NullNode(location);
+        }
+    }
+
+    // An entry file found when the cache is cleaned up.
+    private static final class StoredEntry {
+        private final Path file;
+        private final long lastUsed;
+        private final long bytes;
+
+        private StoredEntry(Path file, long lastUsed, long bytes) {
+            this.file = file;
+            this.lastUsed = lastUsed;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * The parsed form of a file.
+     */
+    public static final class Entry {
+        private final ObjectNode document;
+        private final Map<String, String> traitTypes;
+
+        private Entry(ObjectNode document, Map<String, String> traitTypes) {
+            this.document = document;
+            this.traitTypes = traitTypes;
+        }
+
+        /**
+         * @return Returns the JSON AST document of the file, to be added to a model assembler.
+         */
+        public ObjectNode getDocument() {
+            return document;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.build.FileManifest;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Stores the artifacts that smithy-build plugins write to their file manifests, so that a
+ * plugin that runs again with the same inputs can restore them instead.
+ *
+ * <p>Each entry is a directory named after the hash of its key, holding the files of the
+ * manifest at their paths relative to the base directory of the manifest. Entries are
+ * written to a temporary directory and moved into place, so concurrent builds never see
+ * partial entries. Entries that have not been used for {@value #MAX_UNUSED_DAYS} days are
+ * removed at most once a day.
+ *
+ * <p>Like {@link SmithyBuildBridge}, this class is defined inside the class loader of the
+ * Smithy CLI classpath by {@link DirectBuildEngine} and must not reference Gradle.
+ */
+@SmithyInternalApi
+public final class PluginArtifactCache {
+    private static final int MAX_UNUSED_DAYS = 7;
+    private static final String CLEANUP_MARKER = "last-cleanup";
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    private final Path directory;
+    private final String salt;
+
+    /**
+     * @param directory Directory to store entries in.
+     * @param salt Value added to every key, such as a hash of the classpath that plugins are loaded from.
+     */
+    public PluginArtifactCache(Path directory, String salt) {
+        this.directory = directory;
+        this.salt = salt == null ? "" : salt;
+    }
+
+    /**
+     * Creates the key of an entry.
+     *
+     * @param parts Values that the artifacts of the plugin depend on.
+     * @return Returns the hex encoded key.
+     */
+    public String key(String... parts) {
+        MessageDigest digest = ClasspathHasher.newDigest();
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        for (String part : parts) {
+            digest.update((byte) 0);
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        return ClasspathHasher.toHex(digest.digest());
+    }
+
+    /**
+     * Computes the hash of a value that is too large to be part of a key.
+     *
+     * @param value Value to hash.
+     * @return Returns the hex encoded hash.
+     */
+    public static String hash(String value) {
+        return ClasspathHasher.hashBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the artifacts of an entry to a file manifest.
+     *
+     * @param key Key of the entry.
+     * @param manifest Manifest to write the artifacts to.
+     * @return Returns true if the entry existed and was restored.
+     */
+    public boolean restore(String key, FileManifest manifest) {
+        Path entry = directory.resolve(key);
+        if (!Files.isDirectory(entry)) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            for (Path file : listFiles(entry)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    manifest.writeFile(entry.relativize(file).toString(), in);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores the artifacts of a file manifest as an entry.
+     *
+     * <p>Nothing is stored if the base directory of the manifest contains files that are not part of
+     * the manifest, since the plugin may have written artifacts that the cache cannot know about.
+     *
+     * @param key Key of the entry.
+     * @param manifest Manifest of the artifacts to store.
+     * @return Returns true if the artifacts were stored.
+     */
+    public boolean store(String key, FileManifest manifest) {
+        Path baseDir = manifest.getBaseDir().toAbsolutePath().normalize();
+        Set<Path> files = manifest.getFiles()
+                .stream()
+                .map(file -> file.toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
+        try {
+            if (Files.isDirectory(baseDir) && !files.containsAll(listFiles(baseDir))) {
+                return false;
+            }
+            for (Path file : files) {
+                if (!file.startsWith(baseDir) || !Files.isRegularFile(file)) {
+                    return false;
+                }
+            }
+
+            Files.createDirectories(directory);
+            Path temp = Files.createTempDirectory(directory, TEMP_PREFIX);
+            try {
+                for (Path file : files) {
+                    Path target = temp.resolve(baseDir.relativize(file).toString());
+                    Files.createDirectories(target.toAbsolutePath().toFile().getParentFile().toPath());
+                    Files.copy(file, target);
+                }
+                moveIntoPlace(temp, directory.resolve(key));
+            } finally {
+                deleteDirectory(temp);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path entry) throws IOException {
+        try {
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Another build stored the same artifacts first.
+        } catch (AtomicMoveNotSupportedException e) {
+            if (!Files.exists(entry)) {
+                Files.move(temp, entry);
+            }
+        } catch (IOException e) {
+            // Some file systems report an existing, non-empty target as a generic error.
+            if (!Files.isDirectory(entry)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Removes entries that have not been used recently, if no other build has done so today.
+     *
+     * @return Returns the number of removed entries.
+     */
+    public int removeUnusedEntries() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        Path marker = directory.resolve(CLEANUP_MARKER);
+        try {
+            if (Files.exists(marker)
+                    && now - Files.getLastModifiedTime(marker).toMillis() < TimeUnit.DAYS.toMillis(1)) {
+                return 0;
+            }
+            Files.write(marker, new byte[0]);
+
+            long cutoff = now - TimeUnit.DAYS.toMillis(MAX_UNUSED_DAYS);
+            List<Path> unused = new ArrayList<>();
+            try (Stream<Path> entries = Files.list(directory)) {
+                entries.filter(Files::isDirectory).forEach(entry -> {
+                    try {
+                        if (Files.getLastModifiedTime(entry).toMillis() < cutoff) {
+                            unused.add(entry);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            for (Path entry : unused) {
+                deleteDirectory(entry);
+            }
+            return unused.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Identifies the current process in file names and log messages.
+ */
+final class ProcessIds {
+    private ProcessIds() {}
+
+    /**
+     * Gets the ID of the current process.
+     *
+     * <p>ProcessHandle is not available on Java 8, so the ID is derived from the runtime name.
+     *
+     * @return Returns the ID of the current process.
+     */
+    static String current() {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int at = name.indexOf('@');
+        return at > 0 ? name.substring(0, at) : name;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.SourceLocation;
+import software.amazon.smithy.model.loader.Prelude;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.model.shapes.ModelSerializer;
+import software.amazon.smithy.model.shapes.Shape;
+import software.amazon.smithy.model.traits.Trait;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Records which shapes each model file defines and which shapes each projection contains,
+ * so that an incremental build only rebuilds the projections affected by changed files.
+ *
+ * <p>A shape belongs to the file that defines it and to every file that applies a trait to it.
+ * A projection is affected by a changed file if it contains a shape that the file defined
+ * before or after the change, so shapes that are added to, changed in, or removed from a
+ * projection are all detected. Changing a file that defines metadata affects every projection.
+ *
+ * <p>The index can also record a fingerprint of the assembled model, which only depends on its
+ * shapes, traits, and metadata. Edits that do not change the model, such as reformatting a file
+ * or reordering its {@code use} statements, leave the fingerprint unchanged.
+ *
+ * <p>Files inside the base directory are recorded relative to it, so that an index restored
+ * from the build cache along with the outputs of the build matches files in any checkout.
+ *
+ * <p>Like {@link SmithyBuildBridge}, this class is defined inside the class loader of the
+ * Smithy CLI classpath by {@link DirectBuildEngine} and must not reference Gradle.
+ */
+@SmithyInternalApi
+public final class ProjectionIndex {
+    private static final int VERSION = 1;
+    private static final String VERSION_KEY = "version";
+    private static final String FILES = "files";
+    private static final String PROJECTIONS = "projections";
+    private static final String METADATA_FILES = "metadataFiles";
+    private static final String FINGERPRINT = "fingerprint";
+
+    private final Map<String, Set<String>> fileShapes = new TreeMap<>();
+    private final Map<String, Set<String>> projectionShapes = new TreeMap<>();
+    private final Set<String> metadataFiles = new TreeSet<>();
+    private final Path baseDirectory;
+    private String fingerprint;
+
+    private ProjectionIndex(Path baseDirectory) {
+        this.baseDirectory = baseDirectory == null ? null : baseDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Indexes the files that define the shapes and metadata of a model.
+     *
+     * @param model Assembled model of the build.
+     * @param baseDirectory Directory that files are recorded relative to, or null to record absolute paths.
+     * @return Returns the index, without any projections.
+     */
+    public static ProjectionIndex of(Model model, Path baseDirectory) {
+        ProjectionIndex index = new ProjectionIndex(baseDirectory);
+        for (Shape shape : model.toSet()) {
+            if (Prelude.isPreludeShape(shape)) {
+                continue;
+            }
+            String id = shape.getId().toString();
+            index.addFile(shape.getSourceLocation(), id);
+            for (Trait trait : shape.getAllTraits().values()) {
+                index.addFile(trait.getSourceLocation(), id);
+            }
+        }
+        for (Node value : model.getMetadata().values()) {
+            if (value.getSourceLocation() != SourceLocation.NONE) {
+                index.metadataFiles.add(index.normalize(value.getSourceLocation().getFilename()));
+            }
+        }
+        return index;
+    }
+
+    private void addFile(SourceLocation location, String shapeId) {
+        if (location != SourceLocation.NONE) {
+            fileShapes.computeIfAbsent(normalize(location.getFilename()), f -> new TreeSet<>()).add(shapeId);
+        }
+    }
+
+    /**
+     * Computes the fingerprint of a model.
+     *
+     * <p>The model is serialized without source locations and without the prelude, so the
+     * fingerprint does not depend on how the model is split into files or formatted.
+     *
+     * @param model Model to fingerprint.
+     * @return Returns the hex encoded fingerprint.
+     */
+    public static String fingerprint(Model model) {
+        return PluginArtifactCache.hash(Node.printJson(ModelSerializer.builder().build().serialize(model)));
+    }
+
+    /**
+     * @return Returns the fingerprint of the indexed model, or null if none was recorded.
+     */
+    public synchronized String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @param fingerprint Fingerprint of the indexed model, as computed by {@link #fingerprint(Model)}.
+     */
+    public synchronized void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Records the same projections as another index, for a model that has not changed since.
+     *
+     * @param other Index to copy the projections of.
+     */
+    public synchronized void copyProjections(ProjectionIndex other) {
+        projectionShapes.clear();
+        projectionShapes.putAll(other.projectionShapes);
+    }
+
+    /**
+     * Records the shapes contained in the model of a projection.
+     *
+     * @param projection Name of the projection.
+     * @param model Model of the projection, after its transforms have been applied.
+     */
+    public synchronized void addProjection(String projection, Model model) {
+        Set<String> shapes = new TreeSet<>();
+        for (Shape shape : model.toSet()) {
+            if (!Prelude.isPreludeShape(shape)) {
+                shapes.add(shape.getId().toString());
+            }
+        }
+        projectionShapes.put(projection, shapes);
+    }
+
+    /**
+     * @return Returns the names of the indexed projections.
+     */
+    public synchronized Set<String> getProjections() {
+        return new TreeSet<>(projectionShapes.keySet());
+    }
+
+    /**
+     * Finds the projections of this index that are affected by changes made since a previous build.
+     *
+     * @param previous Index of the previous build.
+     * @param changedFiles Paths of the files that were added, modified, or removed since the previous build.
+     * @return Returns the names of the affected projections.
+     */
+    public synchronized Set<String> findAffectedProjections(
+            ProjectionIndex previous,
+            Collection<String> changedFiles
+    ) {
+        Set<String> changedShapes = new TreeSet<>();
+        for (String file : changedFiles) {
+            String path = normalize(file);
+            if (metadataFiles.contains(path) || previous.metadataFiles.contains(path)) {
+                return getProjections();
+            }
+            changedShapes.addAll(fileShapes.getOrDefault(path, new TreeSet<>()));
+            changedShapes.addAll(previous.fileShapes.getOrDefault(path, new TreeSet<>()));
+        }
+
+        Set<String> result = new TreeSet<>();
+        for (Map.Entry<String, Set<String>> entry : projectionShapes.entrySet()) {
+            Set<String> before = previous.projectionShapes.get(entry.getKey());
+            if (before == null
+                    || containsAny(entry.getValue(), changedShapes)
+                    || containsAny(before, changedShapes)) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsAny(Set<String> shapes, Set<String> candidates) {
+        for (String candidate : candidates) {
+            if (shapes.contains(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads an index written by {@link #write(Path)}.
+     *
+     * @param file File to read.
+     * @param baseDirectory Directory that files are recorded relative to, or null if paths are absolute.
+     * @return Returns the index, or null if the file does not exist or cannot be read.
+     */
+    public static ProjectionIndex read(Path file, Path baseDirectory) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            ObjectNode node = Node.parse(json, file.toString()).expectObjectNode();
+            if (node.getNumberMemberOrDefault(VERSION_KEY, 0).intValue() != VERSION) {
+                return null;
+            }
+            ProjectionIndex index = new ProjectionIndex(baseDirectory);
+            readSets(node.expectObjectMember(FILES), index.fileShapes);
+            readSets(node.expectObjectMember(PROJECTIONS), index.projectionShapes);
+            for (StringNode value : node.expectArrayMember(METADATA_FILES).getElementsAs(StringNode.class)) {
+                index.metadataFiles.add(value.getValue());
+            }
+            index.setFingerprint(node.getStringMemberOrDefault(FINGERPRINT, null));
+            return index;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void readSets(ObjectNode node, Map<String, Set<String>> result) {
+        for (Map.Entry<String, Node> entry : node.getStringMap().entrySet()) {
+            Set<String> values = new TreeSet<>();
+            for (StringNode value : entry.getValue().expectArrayNode().getElementsAs(StringNode.class)) {
+                values.add(value.getValue());
+            }
+            result.put(entry.getKey(), values);
+        }
+    }
+
+    /**
+     * Writes the index to a JSON file.
+     *
+     * @param file File to write.
+     */
+    public synchronized void write(Path file) {
+        ObjectNode node = Node.objectNodeBuilder()
+                .withMember(VERSION_KEY, VERSION)
+                .withMember(FILES, writeSets(fileShapes))
+                .withMember(PROJECTIONS, writeSets(projectionShapes))
+                .withMember(METADATA_FILES, toArray(metadataFiles))
+                .withOptionalMember(FINGERPRINT, Optional.ofNullable(fingerprint).map(Node::from))
+                .build();
+        try {
+            Files.createDirectories(file.toAbsolutePath().toFile().getParentFile().toPath());
+            Files.write(file, Node.printJson(node).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ObjectNode writeSets(Map<String, Set<String>> sets) {
+        ObjectNode.Builder builder = Node.objectNodeBuilder();
+        for (Map.Entry<String, Set<String>> entry : sets.entrySet()) {
+            builder.withMember(entry.getKey(), toArray(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private static ArrayNode toArray(Set<String> values) {
+        ArrayNode.Builder builder = ArrayNode.builder();
+        for (String value : values) {
+            builder.withValue(value);
+        }
+        return builder.build();
+    }
+
+    // Source locations of models in JARs are URLs rather than paths, and are kept as they are.
+    private String normalize(String filename) {
+        if (filename.startsWith("jar:")) {
+            return filename;
+        }
+        try {
+            Path path = Paths.get(filename).toAbsolutePath().normalize();
+            if (baseDirectory != null && path.startsWith(baseDirectory)) {
+                // Separators are normalized so that the index can be shared between operating systems.
+                return baseDirectory.relativize(path).toString().replace('\\', '/');
+            }
+            return path.toString();
+        } catch (InvalidPathException e) {
+            return filename;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs smithy-build, or selects shapes, through the public Java API of the Smithy libraries of a CLI
+ * class loader, calling it reflectively like {@code SmithyUtils.RunCli} calls the Smithy CLI.
+ *
+ * <p>Only methods that every supported version of Smithy provides are called, so this works with
+ * whichever version of Smithy the project chose. Results use the result keys of {@link SmithyBuildBridge},
+ * to be read by {@link DirectBuildResult#fromMap(Map)}. Requests that use the optional features that
+ * {@link SmithyBuildBridge} implements, such as incremental builds and the plugin artifact cache, are
+ * run by the bridge instead.
+ */
+final class ReflectiveSmithyBuild {
+    private static final String SMITHY_BUILD = "software.amazon.smithy.build.SmithyBuild";
+    private static final String SMITHY_BUILD_PLUGIN = "software.amazon.smithy.build.SmithyBuildPlugin";
+    private static final String PLUGIN_CONTEXT = "software.amazon.smithy.build.PluginContext";
+    private static final String PROJECTION_RESULT = "software.amazon.smithy.build.ProjectionResult";
+    private static final String FILE_MANIFEST = "software.amazon.smithy.build.FileManifest";
+    private static final String BUILD_CONFIG = "software.amazon.smithy.build.model.SmithyBuildConfig";
+    private static final String BUILD_CONFIG_BUILDER = BUILD_CONFIG + "$Builder";
+    private static final String MAVEN_CONFIG = "software.amazon.smithy.build.model.MavenConfig";
+    private static final String MODEL = "software.amazon.smithy.model.Model";
+    private static final String MODEL_ASSEMBLER = "software.amazon.smithy.model.loader.ModelAssembler";
+    private static final String VALIDATED_RESULT = "software.amazon.smithy.model.validation.ValidatedResult";
+    private static final String VALIDATION_EVENT = "software.amazon.smithy.model.validation.ValidationEvent";
+    private static final String SOURCE_LOCATION = "software.amazon.smithy.model.SourceLocation";
+    private static final String SELECTOR = "software.amazon.smithy.model.selector.Selector";
+    private static final String SHAPE = "software.amazon.smithy.model.shapes.Shape";
+    private static final String DEPENDENCY_MODE_FORBID = "forbid";
+    private static final String DANGER = "DANGER";
+    private static final String ERROR = "ERROR";
+
+    private final ClassLoader classLoader;
+    private final BridgeRequest request;
+    private final long start = System.nanoTime();
+    private final Map<String, Object> result = new LinkedHashMap<>();
+    private final Map<String, Object> phases = new LinkedHashMap<>();
+    private final List<Map<String, Object>> events = Collections.synchronizedList(new ArrayList<>());
+    private long phaseStart = start;
+
+    private ReflectiveSmithyBuild(ClassLoader classLoader, BridgeRequest request) {
+        this.classLoader = classLoader;
+        this.request = request;
+        result.put(SmithyBuildBridge.BROKEN, false);
+        result.put(SmithyBuildBridge.EVENTS, events);
+        result.put(SmithyBuildBridge.PHASES, phases);
+    }
+
+    /**
+     * Runs smithy-build, or selects shapes from the model if the request has a selector.
+     *
+     * @param classLoader Class loader of the Smithy CLI classpath.
+     * @param request Request created by {@link DirectBuildRequest#toMap()}.
+     * @return Returns the result, to be read by {@link DirectBuildResult#fromMap(Map)}.
+     * @throws ReflectiveOperationException if Smithy could not be called.
+     */
+    static Map<String, Object> build(ClassLoader classLoader, Map<String, Object> request)
+            throws ReflectiveOperationException {
+        return new ReflectiveSmithyBuild(classLoader, BridgeRequest.fromMap(request)).run();
+    }
+
+    private Map<String, Object> run() throws ReflectiveOperationException {
+        Object config = loadConfig();
+        checkDependencyMode(config);
+        recordPhase(SmithyBuildBridge.PHASE_LOAD_CONFIG);
+
+        // Plugins load classes from the class loader of the model, so it is closed after the projections are built.
+        ClassLoader modelClassLoader = createDiscoveryClassLoader();
+        try {
+            Object assembler = createAssembler(modelClassLoader);
+            if (request.isDiscover()) {
+                call(MODEL_ASSEMBLER, "discoverModels", assembler, ClassLoader.class, modelClassLoader);
+            }
+            recordPhase(SmithyBuildBridge.PHASE_DISCOVER_MODELS);
+            for (String path : modelPaths(config)) {
+                call(MODEL_ASSEMBLER, "addImport", assembler, String.class, path);
+            }
+            Object validated = call(MODEL_ASSEMBLER, "assemble", assembler);
+            recordPhase(SmithyBuildBridge.PHASE_ASSEMBLE_MODEL);
+
+            for (Object event : (List<?>) call(VALIDATED_RESULT, "getValidationEvents", validated)) {
+                events.add(toMap(null, event));
+            }
+            if ((Boolean) call(VALIDATED_RESULT, "isBroken", validated)) {
+                result.put(SmithyBuildBridge.BROKEN, true);
+                return finish();
+            }
+            Object model = call(VALIDATED_RESULT, "unwrap", validated);
+            if (request.getSelector() != null) {
+                select(model);
+            } else {
+                buildProjections(config, model, modelClassLoader);
+            }
+            return finish();
+        } finally {
+            if (modelClassLoader != classLoader) {
+                try {
+                    ((URLClassLoader) modelClassLoader).close();
+                } catch (IOException e) {
+                    // Closing only releases file handles, so a failure here is not fatal.
+                }
+            }
+        }
+    }
+
+    private void buildProjections(Object config, Object model, ClassLoader modelClassLoader)
+            throws ReflectiveOperationException {
+        Supplier<Object> assemblers = () -> {
+            try {
+                return createAssembler(modelClassLoader);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        Object smithyBuild = load(SMITHY_BUILD)
+                .getMethod("create", ClassLoader.class, Supplier.class)
+                .invoke(null, modelClassLoader, assemblers);
+        call(SMITHY_BUILD, "config", smithyBuild, load(BUILD_CONFIG), config);
+        call(SMITHY_BUILD, "model", smithyBuild, load(MODEL), model);
+        if (request.getOutput() != null) {
+            call(SMITHY_BUILD, "outputDirectory", smithyBuild, String.class, request.getOutput());
+        }
+        if (request.getProjection() != null) {
+            Predicate<String> filter = request.getProjection()::equals;
+            call(SMITHY_BUILD, "projectionFilter", smithyBuild, Predicate.class, filter);
+        }
+        List<String> sources = new ArrayList<>(strings(call(BUILD_CONFIG, "getSources", config)));
+        sources.addAll(request.getSources());
+        Path[] sourcePaths = sources.stream().map(Paths::get).toArray(Path[]::new);
+        call(SMITHY_BUILD, "registerSources", smithyBuild, Path[].class, sourcePaths);
+        Map<String, Map<String, Long>> pluginMillis = new ConcurrentHashMap<>();
+        call(SMITHY_BUILD, "pluginFactory", smithyBuild, Function.class, timedPlugins(modelClassLoader, pluginMillis));
+
+        List<Map<String, Object>> projections = Collections.synchronizedList(new ArrayList<>());
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        result.put(SmithyBuildBridge.PROJECTIONS, projections);
+        result.put(SmithyBuildBridge.FAILURES, failures);
+        long projectionsStart = System.nanoTime();
+        Consumer<Object> resultCallback = projection -> {
+            try {
+                projections.add(toProjection(projection, projectionsStart, pluginMillis));
+                for (Object event : (List<?>) call(PROJECTION_RESULT, "getEvents", projection)) {
+                    if (isDangerOrError(event)) {
+                        events.add(toMap((String) call(PROJECTION_RESULT, "getProjectionName", projection), event));
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        BiConsumer<String, Throwable> exceptionCallback = (projection, error) ->
+                failures.add(projection + ": " + rootMessage(error));
+        load(SMITHY_BUILD).getMethod("build", Consumer.class, BiConsumer.class)
+                .invoke(smithyBuild, resultCallback, exceptionCallback);
+        recordPhase(SmithyBuildBridge.PHASE_PROJECTIONS);
+    }
+
+    private void select(Object model) throws ReflectiveOperationException {
+        Object selector = load(SELECTOR).getMethod("parse", String.class).invoke(null, request.getSelector());
+        List<String> selected = new ArrayList<>();
+        for (Object shape : (Collection<?>) call(SELECTOR, "select", selector, load(MODEL), model)) {
+            selected.add(call(SHAPE, "getId", shape).toString());
+        }
+        // Shape IDs are sorted, as they are by the select command of the Smithy CLI.
+        Collections.sort(selected);
+        recordPhase(SmithyBuildBridge.PHASE_SELECT);
+        result.put(SmithyBuildBridge.SELECTED_SHAPES, selected);
+    }
+
+    // Plugins are wrapped in proxies of the plugin interface of the CLI classpath, so that every method the
+    // version of Smithy defines is delegated, and only their execution is timed.
+    private Function<String, Optional<Object>> timedPlugins(
+            ClassLoader modelClassLoader,
+            Map<String, Map<String, Long>> pluginMillis
+    ) throws ReflectiveOperationException {
+        Class<?> pluginInterface = load(SMITHY_BUILD_PLUGIN);
+        @SuppressWarnings("unchecked")
+        Function<String, Optional<?>> plugins = (Function<String, Optional<?>>) pluginInterface
+                .getMethod("createServiceFactory", ClassLoader.class)
+                .invoke(null, modelClassLoader);
+        Method getProjectionName = load(PLUGIN_CONTEXT).getMethod("getProjectionName");
+        Method getArtifactName = load(PLUGIN_CONTEXT).getMethod("getArtifactName");
+        Method getName = pluginInterface.getMethod("getName");
+        return name -> plugins.apply(name).map(plugin -> Proxy.newProxyInstance(pluginInterface.getClassLoader(),
+                new Class<?>[] {pluginInterface}, (proxy, method, args) -> {
+                    if (!method.getName().equals("execute") || args == null || args.length != 1) {
+                        return invoke(method, plugin, args);
+                    }
+                    long executeStart = System.nanoTime();
+                    try {
+                        return invoke(method, plugin, args);
+                    } finally {
+                        String projection = (String) getProjectionName.invoke(args[0]);
+                        String artifact = ((Optional<?>) getArtifactName.invoke(args[0]))
+                                .map(Object::toString)
+                                .orElse((String) getName.invoke(plugin));
+                        pluginMillis.computeIfAbsent(projection, p -> new ConcurrentHashMap<>())
+                                .put(artifact, elapsedMillis(executeStart));
+                    }
+                }));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, Object> toProjection(
+            Object projectionResult,
+            long projectionsStart,
+            Map<String, Map<String, Long>> pluginMillis
+    ) throws ReflectiveOperationException {
+        String name = (String) call(PROJECTION_RESULT, "getProjectionName", projectionResult);
+        Map<String, Object> projection = new LinkedHashMap<>();
+        projection.put(SmithyBuildBridge.NAME, name);
+        projection.put(SmithyBuildBridge.BROKEN, call(PROJECTION_RESULT, "isBroken", projectionResult));
+        // Projections are built in parallel, so this is when the projection finished relative
+        // to the start of the build rather than how long the projection itself took.
+        projection.put(SmithyBuildBridge.COMPLETED_AFTER_MILLIS, elapsedMillis(projectionsStart));
+        Map<String, Object> manifests = new LinkedHashMap<>();
+        Map<?, ?> pluginManifests = (Map<?, ?>) call(PROJECTION_RESULT, "getPluginManifests", projectionResult);
+        for (Map.Entry<?, ?> entry : pluginManifests.entrySet()) {
+            Set<String> files = new TreeSet<>();
+            for (Object file : (Collection<?>) call(FILE_MANIFEST, "getFiles", entry.getValue())) {
+                files.add(((Path) file).toAbsolutePath().toString());
+            }
+            manifests.put((String) entry.getKey(), new ArrayList<>(files));
+        }
+        projection.put(SmithyBuildBridge.PLUGINS, manifests);
+        Map<String, Long> timings = pluginMillis.get(name);
+        if (timings != null) {
+            projection.put(SmithyBuildBridge.PLUGIN_MILLIS, new TreeMap<>(timings));
+        }
+        return projection;
+    }
+
+    private Object loadConfig() throws ReflectiveOperationException {
+        Object builder = load(BUILD_CONFIG).getMethod("builder").invoke(null);
+        if (request.getConfigs().isEmpty()) {
+            String version = (String) load(SMITHY_BUILD).getField("VERSION").get(null);
+            call(BUILD_CONFIG_BUILDER, "version", builder, String.class, version);
+        } else {
+            for (String config : request.getConfigs()) {
+                call(BUILD_CONFIG_BUILDER, "load", builder, Path.class, Paths.get(config));
+            }
+        }
+        return call(BUILD_CONFIG_BUILDER, "build", builder);
+    }
+
+    // Mirror the error the Smithy CLI raises when SMITHY_DEPENDENCY_MODE is set to "forbid".
+    private void checkDependencyMode(Object config) throws ReflectiveOperationException {
+        if (!DEPENDENCY_MODE_FORBID.equals(request.getDependencyMode())) {
+            return;
+        }
+        Optional<?> maven = (Optional<?>) call(BUILD_CONFIG, "getMaven", config);
+        if (!maven.isPresent()) {
+            return;
+        }
+        Set<String> dependencies = new TreeSet<>(strings(call(MAVEN_CONFIG, "getDependencies", maven.get())));
+        if (!dependencies.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "SMITHY_DEPENDENCY_MODE is set to 'forbid', but the following Maven dependencies are defined "
+                            + "in smithy-build.json: %s. Dependencies are forbidden in this configuration.",
+                    dependencies));
+        }
+    }
+
+    private List<String> modelPaths(Object config) throws ReflectiveOperationException {
+        List<String> paths = new ArrayList<>(strings(call(BUILD_CONFIG, "getImports", config)));
+        paths.addAll(strings(call(BUILD_CONFIG, "getSources", config)));
+        paths.addAll(request.getSources());
+        return paths;
+    }
+
+    private Object createAssembler(ClassLoader modelClassLoader) throws ReflectiveOperationException {
+        Object assembler = load(MODEL).getMethod("assembler", ClassLoader.class).invoke(null, modelClassLoader);
+        if (request.isAllowUnknownTraits()) {
+            String property = (String) load(MODEL_ASSEMBLER).getField("ALLOW_UNKNOWN_TRAITS").get(null);
+            call(MODEL_ASSEMBLER, "putProperty", assembler, new Class<?>[] {String.class, Object.class},
+                    property, true);
+        }
+        return assembler;
+    }
+
+    // Models are discovered on a class loader that includes the discovery classpath, so that
+    // traits and validators defined alongside discovered models are also available.
+    private ClassLoader createDiscoveryClassLoader() {
+        String classpath = request.getDiscoveryClasspath();
+        if (classpath == null || classpath.isEmpty()) {
+            return classLoader;
+        }
+        List<URL> urls = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                try {
+                    urls.add(Paths.get(entry).toUri().toURL());
+                } catch (MalformedURLException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+        }
+        return new URLClassLoader(urls.toArray(new URL[0]), classLoader);
+    }
+
+    private Map<String, Object> toMap(String projection, Object event) throws ReflectiveOperationException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(SmithyBuildBridge.ID, call(VALIDATION_EVENT, "getId", event));
+        map.put(SmithyBuildBridge.SEVERITY, call(VALIDATION_EVENT, "getSeverity", event).toString());
+        map.put(SmithyBuildBridge.MESSAGE, call(VALIDATION_EVENT, "getMessage", event));
+        ((Optional<?>) call(VALIDATION_EVENT, "getShapeId", event))
+                .ifPresent(id -> map.put(SmithyBuildBridge.SHAPE_ID, id.toString()));
+        Object location = call(VALIDATION_EVENT, "getSourceLocation", event);
+        if (!location.equals(load(SOURCE_LOCATION).getField("NONE").get(null))) {
+            map.put(SmithyBuildBridge.FILE, call(SOURCE_LOCATION, "getFilename", location));
+            map.put(SmithyBuildBridge.LINE, ((Number) call(SOURCE_LOCATION, "getLine", location)).longValue());
+            map.put(SmithyBuildBridge.COLUMN, ((Number) call(SOURCE_LOCATION, "getColumn", location)).longValue());
+        }
+        if (projection != null) {
+            map.put(SmithyBuildBridge.PROJECTION, projection);
+        }
+        return map;
+    }
+
+    private boolean isDangerOrError(Object event) throws ReflectiveOperationException {
+        String severity = call(VALIDATION_EVENT, "getSeverity", event).toString();
+        return severity.equals(DANGER) || severity.equals(ERROR);
+    }
+
+    private void recordPhase(String phase) {
+        phases.put(phase, elapsedMillis(phaseStart));
+        phaseStart = System.nanoTime();
+    }
+
+    private Map<String, Object> finish() {
+        result.put(SmithyBuildBridge.DURATION_MILLIS, elapsedMillis(start));
+        return result;
+    }
+
+    private Class<?> load(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, classLoader);
+    }
+
+    // Methods are looked up on the public API types rather than the classes of the targets, which may not be public.
+    private Object call(String type, String name, Object target) throws ReflectiveOperationException {
+        return call(type, name, target, new Class<?>[0]);
+    }
+
+    private Object call(String type, String name, Object target, Class<?> parameterType, Object argument)
+            throws ReflectiveOperationException {
+        return call(type, name, target, new Class<?>[] {parameterType}, argument);
+    }
+
+    private Object call(String type, String name, Object target, Class<?>[] parameterTypes, Object... arguments)
+            throws ReflectiveOperationException {
+        return load(type).getMethod(name, parameterTypes).invoke(target, arguments);
+    }
+
+    private static List<String> strings(Object values) {
+        return ((Collection<?>) values).stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    // The bridge classes link against Smithy, so their helpers are not shared with this class.
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+    }
+}
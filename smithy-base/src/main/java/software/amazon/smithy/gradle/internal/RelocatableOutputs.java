@@ -0,0 +1,139 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Rewrites the machine-specific paths that smithy-build writes to its outputs.
+ *
+ * <p>The {@value #BUILD_INFO_FILE} file of each projection records the validation events of
+ * the build, and each event records the absolute path of the file it was found in. This makes
+ * the outputs differ between checkouts of the same project, so they cannot be shared through
+ * the build cache. This class rewrites paths inside the project directory to paths relative
+ * to it, and paths inside the Gradle user home, such as models discovered in cached JARs, to
+ * start with {@value #GRADLE_USER_HOME}.
+ */
+@SmithyInternalApi
+public final class RelocatableOutputs {
+    /**
+     * Name of the build info file written by smithy-build for each projection.
+     */
+    public static final String BUILD_INFO_FILE = "smithy-build-info.json";
+
+    /**
+     * Placeholder that replaces the Gradle user home in rewritten paths.
+     */
+    public static final String GRADLE_USER_HOME = "${GRADLE_USER_HOME}";
+
+    private final Map<String, String> replacements = new LinkedHashMap<>();
+
+    /**
+     * @param projectDir Directory that paths are made relative to.
+     * @param gradleUserHome Gradle user home directory.
+     */
+    public RelocatableOutputs(File projectDir, File gradleUserHome) {
+        // Longer prefixes are replaced first, since the Gradle user home can be inside the project.
+        Map<String, String> unordered = new LinkedHashMap<>();
+        addRoot(unordered, projectDir, "");
+        addRoot(unordered, gradleUserHome, GRADLE_USER_HOME + "/");
+        unordered.entrySet()
+                .stream()
+                .sorted((a, b) -> Integer.compare(b.getKey().length(), a.getKey().length()))
+                .forEach(entry -> replacements.put(entry.getKey(), entry.getValue()));
+    }
+
+    private static void addRoot(Map<String, String> result, File root, String replacement) {
+        File absolute = root.getAbsoluteFile();
+        result.put(absolute.getPath() + File.separator, replacement);
+        // Models discovered in JARs are referenced by URL, such as jar:file:/home/...!/META-INF/smithy/a.smithy.
+        String uriPath = absolute.toURI().getRawPath();
+        result.put(uriPath.endsWith("/") ? uriPath : uriPath + "/", replacement);
+    }
+
+    /**
+     * Rewrites the paths in every build info file of an output directory.
+     *
+     * @param outputDir Output directory of smithy-build.
+     * @return Returns the number of files that were rewritten.
+     */
+    public int rewrite(Path outputDir) {
+        if (!Files.isDirectory(outputDir)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(outputDir)) {
+            files = stream.filter(file -> file.getFileName().toString().equals(BUILD_INFO_FILE))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int rewritten = 0;
+        for (Path file : files) {
+            if (rewriteFile(file)) {
+                rewritten++;
+            }
+        }
+        return rewritten;
+    }
+
+    private boolean rewriteFile(Path file) {
+        try {
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Node original = Node.parse(json, file.toString());
+            Node updated = rewrite(original);
+            if (updated.equals(original)) {
+                return false;
+            }
+            Files.write(file, Node.prettyPrintJson(updated).getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Node rewrite(Node node) {
+        if (node.isStringNode()) {
+            return Node.from(rewrite(node.expectStringNode().getValue()));
+        } else if (node.isArrayNode()) {
+            List<Node> elements = new ArrayList<>();
+            for (Node element : node.expectArrayNode()) {
+                elements.add(rewrite(element));
+            }
+            return ArrayNode.fromNodes(elements);
+        } else if (node.isObjectNode()) {
+            Map<StringNode, Node> members = new LinkedHashMap<>();
+            for (Map.Entry<StringNode, Node> entry : node.expectObjectNode().getMembers().entrySet()) {
+                members.put(entry.getKey(), rewrite(entry.getValue()));
+            }
+            return ObjectNode.objectNode(members);
+        }
+        return node;
+    }
+
+    String rewrite(String value) {
+        String result = value;
+        for (Map.Entry<String, String> replacement : replacements.entrySet()) {
+            result = result.replace(replacement.getKey(), replacement.getValue());
+        }
+        return result;
+    }
+}
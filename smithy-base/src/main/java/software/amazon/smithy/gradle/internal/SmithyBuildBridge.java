@@ -0,0 +1,199 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import software.amazon.smithy.build.SmithyBuild;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Builds Smithy models by calling the smithy-build and model assembly APIs directly.
+ *
+ * <p>This class is defined inside the class loader of the Smithy CLI classpath by
+ * {@link DirectBuildEngine}, so it links against the versions of Smithy chosen by the project
+ * rather than the versions the plugin was compiled with. It must not reference Gradle or other
+ * plugin classes. Requests and results only use JDK types ({@link Map}, {@link java.util.List},
+ * {@link String}, {@link Boolean}, and {@link Long}) so that they can cross class loaders.
+ *
+ * <p>Requests are read into a {@link BridgeRequest}. Loading the model, selecting shapes, creating
+ * plugins, and finding the projections affected by changed files are each done by a collaborator that
+ * {@link DirectBuildEngine} defines in the same class loader.
+ *
+ * @see DirectBuildRequest
+ * @see DirectBuildResult
+ */
+@SmithyInternalApi
+public final class SmithyBuildBridge {
+    // Result keys.
+    static final String BROKEN = "broken";
+    static final String DURATION_MILLIS = "durationMillis";
+    static final String EVENTS = "events";
+    static final String FAILURES = "failures";
+    static final String PROJECTIONS = "projections";
+    static final String NAME = "name";
+    static final String PROJECTION = "projection";
+    static final String COMPLETED_AFTER_MILLIS = "completedAfterMillis";
+    static final String PHASES = "phases";
+    static final String PLUGIN_MILLIS = "pluginMillis";
+    static final String PHASE_LOAD_CONFIG = "loadConfig";
+    static final String PHASE_DISCOVER_MODELS = "discoverModels";
+    static final String PHASE_ASSEMBLE_MODEL = "assembleModel";
+    static final String PHASE_PROJECTIONS = "projections";
+    static final String PHASE_WRITE_MODEL_SNAPSHOT = "writeModelSnapshot";
+    static final String PHASE_LOAD_MODEL_SNAPSHOT = "loadModelSnapshot";
+    static final String PHASE_SELECT = "select";
+    static final String PHASE_HASH_MODEL_INPUTS = "hashModelInputs";
+    static final String PHASE_STORE_PARSED_FILES = "storeParsedFiles";
+    static final String PLUGINS = "plugins";
+    static final String INCREMENTAL = "incremental";
+    static final String UP_TO_DATE_PROJECTIONS = "upToDateProjections";
+    static final String CACHED_PLUGINS = "cachedPlugins";
+    static final String MODEL_UNCHANGED = "modelUnchanged";
+    static final String SELECTED_SHAPES = "selectedShapes";
+    static final String SHARED_MODEL = "sharedModel";
+    static final String PARSE_CACHE_HITS = "parseCacheHits";
+    static final String PARSE_CACHE_MISSES = "parseCacheMisses";
+    static final String ID = "id";
+    static final String SEVERITY = "severity";
+    static final String MESSAGE = "message";
+    static final String SHAPE_ID = "shapeId";
+    static final String FILE = "file";
+    static final String LINE = "line";
+    static final String COLUMN = "column";
+
+    private SmithyBuildBridge() {}
+
+    /**
+     * Runs smithy-build, or selects shapes from the model if the request has a selector.
+     *
+     * @param request Request created by {@link DirectBuildRequest#toMap()}.
+     * @return Returns the result, to be read by {@link DirectBuildResult#fromMap(Map)}.
+     */
+    public static Map<String, Object> build(Map<String, Object> request) {
+        BridgeRequest typed = BridgeRequest.fromMap(request);
+        if (typed.getSelector() != null) {
+            return BridgeSelector.select(typed);
+        } else {
+            return build(typed);
+        }
+    }
+
+    private static Map<String, Object> build(BridgeRequest request) {
+        BridgeResult result = new BridgeResult();
+        BridgeModelLoader loader = new BridgeModelLoader(request);
+        loader.checkDependencyMode();
+        result.recordPhase(PHASE_LOAD_CONFIG);
+
+        BridgeModelLoader.AssembledModel shared = loader.getSharedModel(result);
+        // Plugins load classes from the class loader of the model, so it is closed after the projections are built.
+        try (BridgeModelLoader.AssembledModel assembled = shared != null ? shared : loader.assemble(result)) {
+            return build(request, loader, assembled, result);
+        }
+    }
+
+    private static Map<String, Object> build(
+            BridgeRequest request,
+            BridgeModelLoader loader,
+            BridgeModelLoader.AssembledModel assembled,
+            BridgeResult result
+    ) {
+        result.addEvents(assembled.getResult());
+        if (assembled.getResult().isBroken()) {
+            result.setBroken();
+            BridgeIncrementalBuild.discard(request);
+            deleteFile(request.getModelSnapshotFile());
+            return result.finish();
+        }
+
+        Model model = assembled.getResult().unwrap();
+        if (request.getModelSnapshotFile() != null) {
+            writeModelSnapshot(model, request, result);
+        }
+        BridgeIncrementalBuild incremental = BridgeIncrementalBuild.of(request, model);
+        if (incremental != null && incremental.reuseUnchangedModel(result)) {
+            return result.finish();
+        }
+        Set<String> rebuild = incremental != null
+                ? incremental.findAffectedProjections(() -> createSmithyBuild(request, loader, assembled), result)
+                : null;
+
+        SmithyBuild smithyBuild = createSmithyBuild(request, loader, assembled);
+        BridgePlugins plugins = new BridgePlugins(request, assembled.getClassLoader());
+        smithyBuild.pluginFactory(plugins.getFactory());
+        if (rebuild != null) {
+            String projection = request.getProjection();
+            smithyBuild.projectionFilter(name -> rebuild.contains(name)
+                    && (projection == null || projection.equals(name)));
+        }
+
+        result.startProjections();
+        AtomicBoolean projectionBroken = new AtomicBoolean();
+        smithyBuild.build(projectionResult -> {
+            result.addProjection(projectionResult, plugins);
+            if (incremental != null) {
+                incremental.addProjection(projectionResult);
+            }
+            if (projectionResult.isBroken()) {
+                projectionBroken.set(true);
+            }
+        }, result::addFailure);
+        result.recordPhase(PHASE_PROJECTIONS);
+
+        if (incremental != null) {
+            incremental.finish(!result.hasFailures() && !projectionBroken.get());
+        }
+        return result.finish();
+    }
+
+    static void deleteFile(String file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(Paths.get(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Snapshots read shape properties through accessors that Smithy versions older than the one the plugin is
+    // built against may lack. No snapshot is written then, so later tasks parse the model files as usual.
+    private static void writeModelSnapshot(Model model, BridgeRequest request, BridgeResult result) {
+        try {
+            BinaryModelSnapshot.write(model, Paths.get(request.getModelSnapshotFile()));
+            result.recordPhase(PHASE_WRITE_MODEL_SNAPSHOT);
+        } catch (LinkageError e) {
+            deleteFile(request.getModelSnapshotFile());
+        }
+    }
+
+    private static SmithyBuild createSmithyBuild(
+            BridgeRequest request,
+            BridgeModelLoader loader,
+            BridgeModelLoader.AssembledModel assembled
+    ) {
+        ClassLoader modelClassLoader = assembled.getClassLoader();
+        SmithyBuild smithyBuild = SmithyBuild.create(modelClassLoader,
+                () -> BridgeModelLoader.createAssembler(modelClassLoader, request.isAllowUnknownTraits()))
+                .config(loader.getConfig())
+                .model(assembled.getResult().unwrap());
+        if (request.getOutput() != null) {
+            smithyBuild.outputDirectory(request.getOutput());
+        }
+        if (request.getProjection() != null) {
+            smithyBuild.projectionFilter(request.getProjection()::equals);
+        }
+        for (String source : loader.getSourcePaths()) {
+            smithyBuild.registerSources(Paths.get(source));
+        }
+        return smithyBuild;
+    }
+}
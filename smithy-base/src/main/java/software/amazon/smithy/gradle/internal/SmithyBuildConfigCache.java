@@ -0,0 +1,72 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Cache of parsed smithy-build configs, keyed by the content hash of each config file.
+ *
+ * <p>Configs that change are parsed again, because their content hash changes. The output
+ * directory and projections of a set of configs are aggregated by
+ * {@link SmithyBuildConfigFile} and {@link SmithyBuildProjections}. Configs are read by
+ * {@link SmithyBuildConfigService}.
+ */
+@SmithyInternalApi
+public final class SmithyBuildConfigCache {
+    private final Map<String, SmithyBuildConfigFile> configs = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Gets the parsed contents of a smithy-build config that was already read.
+     *
+     * @param location Location of the config, used in error messages.
+     * @param contents Contents of the config.
+     * @return Returns the parsed config.
+     */
+    public SmithyBuildConfigFile parse(String location, String contents) {
+        String hash = ClasspathHasher.hashBytes(contents.getBytes(StandardCharsets.UTF_8));
+        SmithyBuildConfigFile parsed = configs.get(hash);
+        if (parsed != null) {
+            hits.incrementAndGet();
+            return parsed;
+        }
+        misses.incrementAndGet();
+        return configs.computeIfAbsent(hash, h -> SmithyBuildConfigFile.parse(location, contents));
+    }
+
+    /**
+     * @return Returns the number of parsed configs.
+     */
+    public int size() {
+        return configs.size();
+    }
+
+    /**
+     * @return Returns the number of reads of a config that was already parsed.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Returns the number of reads that parsed a config.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Releases every parsed config.
+     */
+    public void clear() {
+        configs.clear();
+    }
+}
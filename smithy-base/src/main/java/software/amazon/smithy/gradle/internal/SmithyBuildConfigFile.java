@@ -0,0 +1,226 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.api.GradleException;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.model.node.StringNode;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * The parts of a single smithy-build config that the Gradle plugins read.
+ *
+ * <p>Only the config file itself is read. Environment variables are resolved by smithy-build
+ * when the config is loaded by the Smithy CLI. The paths of the model files imported by the
+ * config and its projections are recorded as written, and are resolved by
+ * {@link SmithyBuildConfigService#findImportedConfigs}.
+ */
+@SmithyInternalApi
+public final class SmithyBuildConfigFile {
+    private static final String OUTPUT_DIRECTORY = "outputDirectory";
+    private static final String PROJECTIONS = "projections";
+    private static final String PLUGINS = "plugins";
+    private static final String ABSTRACT = "abstract";
+    private static final String IMPORTS = "imports";
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)}");
+
+    private final String outputDirectory;
+    private final Set<String> plugins;
+    private final Map<String, Set<String>> projectionPlugins;
+    private final List<String> projections;
+    private final List<String> imports;
+    private final Set<String> environmentVariables;
+
+    private SmithyBuildConfigFile(ObjectNode node) {
+        outputDirectory = node.getMember(OUTPUT_DIRECTORY)
+                .map(Node::expectStringNode)
+                .map(StringNode::getValue)
+                .orElse(null);
+        plugins = pluginNames(node);
+        projectionPlugins = new TreeMap<>();
+        List<String> concrete = new ArrayList<>();
+        List<String> importPaths = new ArrayList<>();
+        addImports(node, importPaths);
+        ObjectNode projectionNodes = node.getObjectMember(PROJECTIONS).orElse(Node.objectNode());
+        for (Map.Entry<StringNode, Node> entry : projectionNodes.getMembers().entrySet()) {
+            ObjectNode projection = entry.getValue().expectObjectNode();
+            projectionPlugins.put(entry.getKey().getValue(), pluginNames(projection));
+            if (!projection.getBooleanMemberOrDefault(ABSTRACT, false)) {
+                concrete.add(entry.getKey().getValue());
+            }
+            addImports(projection, importPaths);
+        }
+        projections = Collections.unmodifiableList(concrete);
+        imports = Collections.unmodifiableList(importPaths);
+        Set<String> variables = new TreeSet<>();
+        addVariables(node, variables);
+        environmentVariables = Collections.unmodifiableSet(variables);
+    }
+
+    private static void addVariables(Node node, Set<String> variables) {
+        if (node.isStringNode()) {
+            Matcher matcher = VARIABLE.matcher(node.expectStringNode().getValue());
+            while (matcher.find()) {
+                variables.add(matcher.group(1));
+            }
+        } else if (node.isArrayNode()) {
+            node.expectArrayNode().forEach(element -> addVariables(element, variables));
+        } else if (node.isObjectNode()) {
+            for (Map.Entry<StringNode, Node> member : node.expectObjectNode().getMembers().entrySet()) {
+                addVariables(member.getKey(), variables);
+                addVariables(member.getValue(), variables);
+            }
+        }
+    }
+
+    private static Set<String> pluginNames(ObjectNode node) {
+        Set<String> result = new TreeSet<>();
+        node.getObjectMember(PLUGINS)
+                .ifPresent(members -> members.getMembers().keySet().forEach(name -> result.add(name.getValue())));
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static void addImports(ObjectNode node, List<String> importPaths) {
+        node.getArrayMember(IMPORTS).ifPresent(paths -> {
+            for (Node path : paths) {
+                importPaths.add(path.expectStringNode().getValue());
+            }
+        });
+    }
+
+    /**
+     * Parses the contents of a smithy-build config.
+     *
+     * @param location Location of the config, used in error messages.
+     * @param contents Contents of the config.
+     * @return Returns the parsed config.
+     */
+    public static SmithyBuildConfigFile parse(String location, String contents) {
+        return new SmithyBuildConfigFile(Node.parseJsonWithComments(contents, location).expectObjectNode());
+    }
+
+    /**
+     * Gets the output directory set by a set of smithy-build configs.
+     *
+     * @param configs Parsed configs.
+     * @return Returns the output directory, or an empty optional if no config sets one.
+     * @throws GradleException if configs set different output directories.
+     */
+    public static Optional<String> getOutputDirectory(Iterable<SmithyBuildConfigFile> configs) {
+        String result = null;
+        for (SmithyBuildConfigFile config : configs) {
+            String outputDirectory = config.outputDirectory;
+            if (outputDirectory == null) {
+                continue;
+            } else if (result != null) {
+                throw new GradleException("Conflicting output directories defined in provided smithy build configs: "
+                        + result + ", " + outputDirectory);
+            }
+            result = outputDirectory;
+        }
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Gets the plugins that a set of smithy-build configs apply to a projection.
+     *
+     * <p>The configs are merged like smithy-build merges them: the top-level plugins of every config
+     * apply to every projection, and a projection defined by several configs is replaced by the
+     * definition of the last one. Imports only add model files, so they do not change the plugins.
+     *
+     * @param configs Parsed configs, in the order they are given to smithy-build.
+     * @param projection Name of the projection.
+     * @return Returns the sorted names of the plugins.
+     */
+    public static Set<String> getPlugins(Iterable<SmithyBuildConfigFile> configs, String projection) {
+        Set<String> result = new TreeSet<>();
+        Set<String> projectionResult = Collections.emptySet();
+        for (SmithyBuildConfigFile config : configs) {
+            result.addAll(config.plugins);
+            projectionResult = config.projectionPlugins.getOrDefault(projection, projectionResult);
+        }
+        result.addAll(projectionResult);
+        return result;
+    }
+
+    /**
+     * Gets the environment variables referenced by a set of smithy-build configs.
+     *
+     * @param configs Parsed configs.
+     * @return Returns the sorted names of the variables.
+     * @see #getEnvironmentVariables()
+     */
+    public static Set<String> getEnvironmentVariables(Iterable<SmithyBuildConfigFile> configs) {
+        Set<String> result = new TreeSet<>();
+        for (SmithyBuildConfigFile config : configs) {
+            result.addAll(config.environmentVariables);
+        }
+        return result;
+    }
+
+    /**
+     * @return Returns the output directory set by the config, if any.
+     */
+    public Optional<String> getOutputDirectory() {
+        return Optional.ofNullable(outputDirectory);
+    }
+
+    /**
+     * Gets the projections defined by the config that are built on their own.
+     *
+     * <p>Abstract projections are only used as the base of other projections, so they are not returned.
+     *
+     * @return Returns the names of the concrete projections, in the order of the config.
+     */
+    public List<String> getProjections() {
+        return projections;
+    }
+
+    /**
+     * Gets the plugins that the config applies to a projection.
+     *
+     * <p>Plugins defined at the top level of the config are applied to every projection.
+     *
+     * @param projection Name of the projection.
+     * @return Returns the sorted names of the plugins.
+     */
+    public Set<String> getPlugins(String projection) {
+        return getPlugins(Collections.singletonList(this), projection);
+    }
+
+    /**
+     * Gets the paths of the model files imported by the config and by each of its projections.
+     *
+     * <p>Relative paths are relative to the directory of the config.
+     *
+     * @return Returns the imported paths, as written in the config.
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+
+    /**
+     * Gets the environment variables that the config references with the {@code ${NAME}} syntax.
+     *
+     * <p>smithy-build replaces these references with the values of the variables when it loads
+     * the config.
+     *
+     * @return Returns the sorted names of the variables.
+     */
+    public Set<String> getEnvironmentVariables() {
+        return environmentVariables;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.Project;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import software.amazon.smithy.model.loader.ModelSyntaxException;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Build-scoped service that parses smithy-build configs once per build.
+ *
+ * <p>The output directory of the extension and the projection tasks of each source set are
+ * derived from the same smithy-build configs, which are queried many times while a build is
+ * configured. Build tasks that build one projection read the plugins of the projection from the
+ * same configs when they run. This service parses each config once per content hash and shares the parsed
+ * {@link SmithyBuildConfigFile} between every project of the build. All parsed configs are released
+ * when the build finishes. See {@link SmithyBuildConfigCache}.
+ */
+@SmithyInternalApi
+public abstract class SmithyBuildConfigService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+    /**
+     * Name used to register the service.
+     */
+    public static final String NAME = "smithyBuildConfigs";
+
+    private static final String VERSION = "version";
+    private static final String SMITHY = "smithy";
+    private static final Logger LOGGER = Logging.getLogger(SmithyBuildConfigService.class);
+
+    private final SmithyBuildConfigCache cache = new SmithyBuildConfigCache();
+
+    /**
+     * Registers the service with the build if it is not already registered.
+     *
+     * @param project Project applying a Smithy plugin.
+     * @return Returns the provider of the shared service.
+     */
+    public static Provider<SmithyBuildConfigService> register(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, SmithyBuildConfigService.class, spec -> {});
+    }
+
+    /**
+     * @return Returns the cache of parsed configs.
+     */
+    public SmithyBuildConfigCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Reads and parses a set of smithy-build configs while a project is configured.
+     *
+     * <p>Configs are read through {@link ProviderFactory#fileContents}, so their contents are inputs
+     * of the configuration cache: editing a config, for example to add a projection, invalidates
+     * the cached configuration.
+     *
+     * @param configs Config files to read. Files that do not exist are ignored.
+     * @param providers Provider factory of the project being configured.
+     * @param layout Layout of the project being configured.
+     * @return Returns the parsed configs, in the given order.
+     */
+    public List<SmithyBuildConfigFile> read(Iterable<File> configs, ProviderFactory providers, ProjectLayout layout) {
+        List<SmithyBuildConfigFile> result = new ArrayList<>();
+        for (File config : configs) {
+            String contents = readContents(config, providers, layout);
+            // The smithy-build.json file does not necessarily exist.
+            if (contents != null) {
+                result.add(cache.parse(config.getPath(), contents));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the smithy-build configs that are imported by a set of smithy-build configs.
+     *
+     * <p>smithy-build loads the {@code imports} of a config and of its projections as model files,
+     * so the projections of an imported smithy-build config are never built. Imports are resolved
+     * relative to the directory of the importing config, and imported JSON files are read through
+     * {@link ProviderFactory#fileContents} like the configs themselves. A JSON file is a smithy-build
+     * config if it has a {@code version} member and no {@code smithy} member. Imported directories
+     * and paths that use environment variables are not inspected.
+     *
+     * @param configs Config files to inspect. Files that do not exist are ignored.
+     * @param providers Provider factory of the project being configured.
+     * @param layout Layout of the project being configured.
+     * @return Returns the imported smithy-build configs, in the order they are imported.
+     */
+    public List<File> findImportedConfigs(Iterable<File> configs, ProviderFactory providers, ProjectLayout layout) {
+        List<File> result = new ArrayList<>();
+        for (File config : configs) {
+            String contents = readContents(config, providers, layout);
+            if (contents == null) {
+                continue;
+            }
+            File baseDir = config.getAbsoluteFile().getParentFile();
+            for (String path : cache.parse(config.getPath(), contents).getImports()) {
+                File imported = new File(path).isAbsolute() ? new File(path) : new File(baseDir, path);
+                if (imported.getName().endsWith(".json") && isBuildConfig(imported, providers, layout)) {
+                    result.add(imported);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isBuildConfig(File file, ProviderFactory providers, ProjectLayout layout) {
+        String contents = readContents(file, providers, layout);
+        if (contents == null) {
+            return false;
+        }
+        try {
+            Node node = Node.parseJsonWithComments(contents, file.getPath());
+            return node.asObjectNode()
+                    .filter(object -> object.containsMember(VERSION) && !object.containsMember(SMITHY))
+                    .isPresent();
+        } catch (ModelSyntaxException e) {
+            // Invalid model files are reported by smithy-build.
+            return false;
+        }
+    }
+
+    private static String readContents(File file, ProviderFactory providers, ProjectLayout layout) {
+        return providers.fileContents(layout.getProjectDirectory().file(file.getAbsolutePath()))
+                .getAsText()
+                .getOrNull();
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Releasing {} parsed smithy-build config(s) ({} hits, {} misses)",
+                cache.size(),
+                cache.getHits(),
+                cache.getMisses());
+        cache.clear();
+    }
+}
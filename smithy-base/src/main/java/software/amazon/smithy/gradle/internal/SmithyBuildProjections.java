@@ -0,0 +1,103 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.gradle.api.GradleException;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Reads the names of the projections that smithy-build builds from smithy-build configs.
+ *
+ * <p>The {@value #SOURCE} projection is always built, even if no config defines it.
+ * Abstract projections are only used as the base of other projections, so they are
+ * not built on their own.
+ */
+@SmithyInternalApi
+public final class SmithyBuildProjections {
+    /**
+     * Name of the projection that smithy-build always builds.
+     */
+    public static final String SOURCE = "source";
+
+    private SmithyBuildProjections() {}
+
+    /**
+     * Gets the projections built by a set of parsed smithy-build configs.
+     *
+     * @param configs Parsed configs.
+     * @return Returns the sorted names of the projections.
+     */
+    public static List<String> of(Iterable<SmithyBuildConfigFile> configs) {
+        Set<String> result = new TreeSet<>();
+        result.add(SOURCE);
+        for (SmithyBuildConfigFile config : configs) {
+            result.addAll(config.getProjections());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Creates the suffixes of the names of the tasks that build a set of projections.
+     *
+     * <p>Since {@link #taskNameSuffix} drops separators, different projections such as
+     * {@code foo-bar} and {@code fooBar} can have the same suffix. Their tasks would have the same
+     * name, so such projections are rejected rather than silently building only one of them.
+     *
+     * @param projections Names of the projections.
+     * @return Returns the suffix of each projection, in the given order.
+     * @throws GradleException if two projections have the same suffix, or a projection has no suffix.
+     */
+    public static Map<String, String> taskNameSuffixes(Iterable<String> projections) {
+        Map<String, String> result = new LinkedHashMap<>();
+        Map<String, String> projectionsBySuffix = new HashMap<>();
+        for (String projection : projections) {
+            String suffix = taskNameSuffix(projection);
+            if (suffix.isEmpty()) {
+                throw new GradleException("Unable to create a task for the Smithy projection `" + projection
+                        + "`, since its name has no letters or digits");
+            }
+            String existing = projectionsBySuffix.putIfAbsent(suffix, projection);
+            if (existing != null) {
+                throw new GradleException("Smithy projections `" + existing + "` and `" + projection
+                        + "` would both be built by tasks ending in `" + suffix + "`. Rename one of the "
+                        + "projections or disable projection tasks.");
+            }
+            result.put(projection, suffix);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the suffix of the name of the task that builds a projection.
+     *
+     * <p>Characters that are not letters or digits separate words, and each word is
+     * capitalized, so that {@code openapi-conversion} becomes {@code OpenapiConversion}.
+     *
+     * @param projection Name of the projection.
+     * @return Returns the task name suffix.
+     */
+    public static String taskNameSuffix(String projection) {
+        StringBuilder result = new StringBuilder();
+        boolean capitalize = true;
+        for (char c : projection.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) {
+                capitalize = true;
+            } else if (capitalize) {
+                result.append(Character.toUpperCase(c));
+                capitalize = false;
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Build-scoped service that limits concurrent in-process Smithy CLI invocations by a memory budget.
+ *
+ * <p>In a parallel build, many Smithy tasks can start at once, and each one loads its full model
+ * into the Gradle daemon. Limiting them by count alone either wastes parallelism on small models or
+ * runs the daemon out of memory on large ones. Instead, each invocation leases an estimate of its
+ * memory from a budget shared by every project of the build, based on the size of its models, and
+ * waits while the budget is exhausted. See {@link MemoryBudget}.
+ *
+ * <p>Tasks refer to the service with {@code @ServiceReference}, but it does not set a maximum number of
+ * parallel usages. Gradle would limit tasks by count, while a small model and a large one lease very
+ * different amounts of the budget. Gradle would also count every Smithy task against the limit, including
+ * tasks that fork the CLI, send it to the CLI server, or run no CLI at all, and it would hold the usage
+ * for the whole task rather than for each in-process invocation. Only in-process invocations lease memory.
+ *
+ * <p>The budget is opt-in, and is set in MiB with the {@value #BUDGET_PROPERTY} Gradle property.
+ * Without it, invocations are neither estimated nor limited.
+ */
+@SmithyInternalApi
+public abstract class SmithyMemoryBudgetService implements BuildService<SmithyMemoryBudgetService.Params> {
+    /**
+     * Name used to register the service.
+     */
+    public static final String NAME = "smithyMemoryBudget";
+
+    /**
+     * Gradle property used to configure the budget, in MiB.
+     */
+    public static final String BUDGET_PROPERTY = "smithy.cli.memoryBudget";
+
+    private static final Logger LOGGER = Logging.getLogger(SmithyMemoryBudgetService.class);
+
+    private static final long MIB = 1024 * 1024;
+
+    private final MemoryBudget budget;
+
+    public SmithyMemoryBudgetService() {
+        if (!getParameters().getBudgetMegabytes().isPresent()) {
+            budget = null;
+            return;
+        }
+        budget = new MemoryBudget(getParameters().getBudgetMegabytes().get() * MIB);
+        LOGGER.info("Limiting concurrent in-process Smithy CLI invocations to {} MiB of estimated memory",
+                budget.getBudgetBytes() / MIB);
+    }
+
+    /**
+     * Parameters of the memory budget service.
+     */
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return Returns the budget in MiB, or nothing to not limit invocations.
+         */
+        Property<Long> getBudgetMegabytes();
+    }
+
+    /**
+     * Registers the service with the build if it is not already registered.
+     *
+     * @param project Project applying a Smithy plugin.
+     * @return Returns the provider of the shared service.
+     */
+    public static Provider<SmithyMemoryBudgetService> register(Project project) {
+        Provider<Long> budget = project.getProviders()
+                .gradleProperty(BUDGET_PROPERTY)
+                .map(Long::parseLong);
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, SmithyMemoryBudgetService.class, spec -> {
+                    spec.getParameters().getBudgetMegabytes().set(budget);
+                });
+    }
+
+    /**
+     * @return Returns true if a budget was configured, so that invocations have to lease memory.
+     */
+    public boolean isEnabled() {
+        return budget != null;
+    }
+
+    /**
+     * Leases memory for an invocation, waiting until enough memory is available.
+     *
+     * @param owner Name of the leaseholder, used in log messages.
+     * @param modelBytes Total size of the model files of the invocation, see {@link MemoryBudget#modelBytes}.
+     * @return Returns the lease, which must be closed once the invocation completes.
+     * @throws IllegalStateException if no budget was configured.
+     */
+    public MemoryBudget.Lease acquire(String owner, long modelBytes) {
+        if (budget == null) {
+            throw new IllegalStateException("No Smithy memory budget is configured");
+        }
+        return budget.acquire(owner, MemoryBudget.estimate(modelBytes));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Build-scoped service that shares assembled models across Smithy tasks.
+ *
+ * <p>The build task, each projection task, and the select task of a source set assemble the
+ * same model from the same sources. When models are shared, the first task to run in-process
+ * stores its validated model in this service, keyed by the hash of its model files, smithy-build
+ * configs, model discovery classpath, and Smithy CLI version, and later tasks of the build with
+ * the same inputs reuse it rather than parsing and validating the models again.
+ *
+ * <p>Models are held by soft references, so they are evicted under memory pressure, and are all
+ * released when the build finishes. See {@link ModelCache}.
+ */
+@SmithyInternalApi
+public abstract class SmithyModelService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+    /**
+     * Name used to register the service.
+     */
+    public static final String NAME = "smithyModels";
+
+    private static final Logger LOGGER = Logging.getLogger(SmithyModelService.class);
+
+    private final ModelCache cache = new ModelCache();
+
+    /**
+     * Registers the service with the build if it is not already registered.
+     *
+     * @param project Project applying a Smithy plugin.
+     * @return Returns the provider of the shared service.
+     */
+    public static Provider<SmithyModelService> register(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, SmithyModelService.class, spec -> {});
+    }
+
+    /**
+     * @return Returns the cache of assembled models.
+     */
+    public ModelCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Releasing {} shared Smithy model(s) ({} hits, {} misses, {} evicted under memory pressure)",
+                cache.size(),
+                cache.getHits(),
+                cache.getMisses(),
+                cache.getEvictions());
+        cache.clear();
+    }
+}
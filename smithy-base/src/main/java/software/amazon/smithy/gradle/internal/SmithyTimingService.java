@@ -0,0 +1,111 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import software.amazon.smithy.model.node.ArrayNode;
+import software.amazon.smithy.model.node.ObjectNode;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Build-scoped service that aggregates the Smithy CLI timings of every task in the build.
+ *
+ * <p>When the build finishes, the service writes the time spent in each phase across the
+ * build, and the timings of each task ordered from slowest to fastest, to a JSON report in
+ * the build directory of the root project.
+ */
+@SmithyInternalApi
+public abstract class SmithyTimingService implements BuildService<SmithyTimingService.Params>, AutoCloseable {
+    /**
+     * Name used to register the service.
+     */
+    public static final String NAME = "smithyCliTimings";
+
+    /**
+     * Path of the report, relative to the build directory of the root project.
+     */
+    public static final String REPORT_PATH = "reports/smithy-timings/build.json";
+
+    private static final Logger LOGGER = Logging.getLogger(SmithyTimingService.class);
+
+    private final List<CliTimingReport> reports = new ArrayList<>();
+
+    /**
+     * Parameters of the timing service.
+     */
+    public interface Params extends BuildServiceParameters {
+        /**
+         * @return Returns the file to write the report of the build to.
+         */
+        RegularFileProperty getReportFile();
+    }
+
+    /**
+     * Registers the service with the build if it is not already registered.
+     *
+     * @param project Project applying a Smithy plugin.
+     * @return Returns the provider of the shared service.
+     */
+    public static Provider<SmithyTimingService> register(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, SmithyTimingService.class, spec -> {
+                    spec.getParameters()
+                            .getReportFile()
+                            .set(project.getRootProject().getLayout().getBuildDirectory().file(REPORT_PATH));
+                });
+    }
+
+    /**
+     * Adds the timings of a task to the report of the build.
+     *
+     * @param report Timings of the task.
+     */
+    public synchronized void record(CliTimingReport report) {
+        reports.add(report);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        List<CliTimingReport> sorted = new ArrayList<>(reports);
+        sorted.sort(Comparator.comparingLong(CliTimingReport::getTotalMillis).reversed());
+        Map<String, Long> phases = new LinkedHashMap<>();
+        ArrayNode.Builder taskNodes = ArrayNode.builder();
+        for (CliTimingReport report : sorted) {
+            Map<String, Long> taskPhases = report.getPhases();
+            taskPhases.forEach((phase, millis) -> phases.merge(phase, millis, Long::sum));
+            taskNodes.withValue(ObjectNode.builder()
+                    .withMember("task", report.getTaskPath())
+                    .withMember("totalMillis", report.getTotalMillis())
+                    .withMember("phases", CliTimingReport.toNode(taskPhases))
+                    .build());
+        }
+
+        File reportFile = getParameters().getReportFile().get().getAsFile();
+        CliTimingReport.write(reportFile.toPath(), ObjectNode.builder()
+                .withMember("totalMillis", CliTimingReport.sum(phases))
+                .withMember("phases", CliTimingReport.toNode(phases))
+                .withMember("tasks", taskNodes.build())
+                .build());
+        LOGGER.info("Smithy CLI invocations of {} task(s) took {} ms ({}). Timing report: {}",
+                sorted.size(), CliTimingReport.sum(phases), CliTimingReport.describe(phases), reportFile);
+    }
+}
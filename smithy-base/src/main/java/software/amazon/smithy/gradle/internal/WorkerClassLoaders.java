@@ -0,0 +1,72 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import java.io.File;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import software.amazon.smithy.utils.SmithyInternalApi;
+
+/**
+ * Process-wide cache of Smithy CLI class loaders used inside forked worker processes.
+ *
+ * <p>Gradle keeps forked worker processes alive and reuses them for later work items with
+ * compatible fork options. Build services cannot reach into those processes, so this cache is
+ * held statically and lives as long as the worker does. Forked work is submitted with a
+ * {@value #AFFINITY_PROPERTY} system property set to the hash of the CLI classpath, which
+ * keeps invocations with the same classpath landing on workers that are already warm for it.
+ *
+ * <p>The maximum number of class loaders kept per worker can be set with the
+ * {@value #MAX_LOADERS_PROPERTY} system property and defaults to {@value #DEFAULT_MAX_LOADERS}.
+ */
+@SmithyInternalApi
+public final class WorkerClassLoaders {
+    /**
+     * System property set on forked workers to pin them to a CLI classpath.
+     */
+    public static final String AFFINITY_PROPERTY = "smithy.cli.classpathHash";
+
+    /**
+     * System property used to configure the number of class loaders cached in each worker.
+     */
+    public static final String MAX_LOADERS_PROPERTY = "smithy.cli.workerClassLoaderCacheSize";
+
+    /**
+     * Default maximum number of class loaders cached in each worker.
+     */
+    public static final int DEFAULT_MAX_LOADERS = 2;
+
+    private static final Logger LOGGER = Logging.getLogger(WorkerClassLoaders.class);
+    private static final ClassLoaderCache CACHE = new ClassLoaderCache(
+            Integer.getInteger(MAX_LOADERS_PROPERTY, DEFAULT_MAX_LOADERS));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CACHE::close, "smithy-worker-class-loaders"));
+    }
+
+    private WorkerClassLoaders() {}
+
+    /**
+     * Leases a class loader cached in this worker process.
+     *
+     * @param classpath Ordered classpath of the class loader.
+     * @param consumer Consumer that uses the class loader.
+     */
+    public static void withClassLoader(Set<File> classpath, Consumer<ClassLoader> consumer) {
+        // The affinity key is the classpath hash, so reuse it rather than hashing the JARs again.
+        String key = System.getProperty(AFFINITY_PROPERTY);
+        if (key == null) {
+            key = ClasspathHasher.hash(classpath);
+        }
+        boolean hit = CACHE.withClassLoader(key, classpath, consumer);
+        LOGGER.info("Smithy CLI worker class loader cache {} ({} hits, {} misses in worker {})",
+                hit ? "hit" : "miss",
+                CACHE.getHits(),
+                CACHE.getMisses(),
+                ProcessIds.current());
+    }
+}
@@ -4,16 +4,36 @@
  */
 package software.amazon.smithy.gradle.tasks;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import javax.inject.Inject;
 import org.gradle.StartParameter;
+import org.gradle.api.Action;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.logging.configuration.ShowStacktrace;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
@@ -25,7 +45,19 @@ import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
 import org.gradle.work.DisableCachingByDefault;
 import org.gradle.workers.WorkerExecutor;
+import software.amazon.smithy.gradle.DirectBuildSettings;
 import software.amazon.smithy.gradle.SmithyUtils;
+import software.amazon.smithy.gradle.internal.CliClassLoaderService;
+import software.amazon.smithy.gradle.internal.CliDependencyResolver;
+import software.amazon.smithy.gradle.internal.CliServerClient;
+import software.amazon.smithy.gradle.internal.CliTimingReport;
+import software.amazon.smithy.gradle.internal.CliTimings;
+import software.amazon.smithy.gradle.internal.ForkHeapSizing;
+import software.amazon.smithy.gradle.internal.ForkSettings;
+import software.amazon.smithy.gradle.internal.MemoryBudget;
+import software.amazon.smithy.gradle.internal.SmithyMemoryBudgetService;
+import software.amazon.smithy.gradle.internal.SmithyModelService;
+import software.amazon.smithy.gradle.internal.SmithyTimingService;
 
 /**
  * Abstract class used to share functionality across Smithy CLI tasks
@@ -33,32 +65,82 @@ import software.amazon.smithy.gradle.SmithyUtils;
  */
 @DisableCachingByDefault(because = "Abstract super-class, not to be instantiated directly")
 abstract class AbstractSmithyCliTask extends DefaultTask {
+    private static final String CLI_SERVER_DIRECTORY = "smithy" + File.separator + "cli-server";
+    private static final String CLASS_DATA_SHARING_DIRECTORY = "smithy" + File.separator + "cds";
+    private static final String CLASS_DATA_SHARING_PROPERTY = "smithy.cli.classDataSharing";
+    private static final String TIMING_REPORT_DIRECTORY = "reports/smithy-timings";
+    private static final String TIMING_FILE_PREFIX = "cli-timings-";
 
     /**
      * Object factory used to create new gradle domain objects such as {@code FileCollection}s.
      */
     protected final ObjectFactory objectFactory;
     private final StartParameter startParameter;
+    private final String heapHistoryFileName;
+    private final Provider<Directory> timingReportDirectory;
+    private transient MemoryBudget.Lease memoryLease;
+    private transient int memoryLeaseUsers;
+    private transient CliTimingReport timingReport;
+    private transient int timingFiles;
 
     AbstractSmithyCliTask(ObjectFactory objectFactory, StartParameter startParameter) {
         this.objectFactory = objectFactory;
         this.startParameter = startParameter;
+        // The task never reads the project, so that it can be stored in the configuration cache. Defaults
+        // that come from the project, such as the CLI classpath, are set by the Smithy base plugin.
+        this.heapHistoryFileName = getPath().replace(':', '_') + ".properties";
+        this.timingReportDirectory = getLayout().getBuildDirectory().dir(TIMING_REPORT_DIRECTORY);
+        doLast(new WriteTimingReport());
 
         getFork().convention(false);
+        getCliServer().convention(false);
+        getCliServerIdleTimeout().convention(Duration.ofMinutes(30));
+        getForkJvmArgs().convention(Collections.emptyList());
+        getForkHeapAutoSizing().convention(false);
+        getClassDataSharing().convention(getProviders()
+                .gradleProperty(CLASS_DATA_SHARING_PROPERTY)
+                .map(Boolean::parseBoolean)
+                .orElse(false));
         getShowStackTrace().convention(ShowStacktrace.INTERNAL_EXCEPTIONS);
         getAllowUnknownTraits().convention(false);
 
         // By default, the build classpath and model discovery classpaths are empty file collections.
-        getBuildClasspath().set(getProject().files());
-        getModelDiscoveryClasspath().set(getProject().files());
-
-        // if the smithyCli configuration exists use it by default
-        if (getProject().getConfigurations().findByName(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME) != null) {
-            getCliClasspath().convention(getProject().getConfigurations()
-                    .getByName(SmithyUtils.SMITHY_CLI_CONFIGURATION_NAME));
-        }
+        getBuildClasspath().set(objectFactory.fileCollection());
+        getModelDiscoveryClasspath().set(objectFactory.fileCollection());
     }
 
+    /**
+     * Provides lazy values, such as Gradle properties, without reading the project.
+     *
+     * @return Returns the provider factory.
+     */
+    @Inject
+    protected abstract ProviderFactory getProviders();
+
+    /**
+     * Provides the directories of the project without reading the project.
+     *
+     * @return Returns the layout of the project.
+     */
+    @Inject
+    protected abstract ProjectLayout getLayout();
+
+    /**
+     * Worker executor used to execute CLI commands.
+     *
+     * @return Returns the worker executor.
+     */
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Factory of the styled output that headings are written to.
+     *
+     * @return Returns the styled text output factory.
+     */
+    @Inject
+    protected abstract StyledTextOutputFactory getStyledTextOutputFactory();
+
     /**
      * Base classpath used for executing the smithy cli.
      *
@@ -125,6 +207,102 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
     @Optional
     public abstract Property<Boolean> getFork();
 
+    /**
+     * Additional JVM arguments of the worker processes the smithy cli is forked into, such as
+     * garbage collector or JIT compiler flags.
+     *
+     * <p>Only used when {@link #getFork()} is true. The setting does not affect the outputs of the task.
+     *
+     * <p> Defaults to an empty list
+     *
+     * @return JVM arguments of forked workers.
+     */
+    @Internal
+    public abstract ListProperty<String> getForkJvmArgs();
+
+    /**
+     * Maximum heap size of the worker processes the smithy cli is forked into, such as {@code 2g}.
+     *
+     * <p>Only used when {@link #getFork()} is true. When set, this takes precedence over
+     * {@link #getForkHeapAutoSizing()}. The setting does not affect the outputs of the task.
+     *
+     * @return maximum heap size of forked workers.
+     */
+    @Internal
+    @Optional
+    public abstract Property<String> getForkMaxHeapSize();
+
+    /**
+     * Whether to pick the maximum heap size of forked workers automatically.
+     *
+     * <p>The heap is sized from the peak live heap recorded on earlier runs of the task, or from the
+     * size of the models of the task if no runs have been recorded. Only used when {@link #getFork()}
+     * is true and {@link #getForkMaxHeapSize()} is not set. The setting does not affect the outputs of
+     * the task.
+     *
+     * <p> Defaults to {@code false}
+     *
+     * @return flag indicating heap auto sizing setting.
+     */
+    @Internal
+    public abstract Property<Boolean> getForkHeapAutoSizing();
+
+    /**
+     * Directory that the peak live heap of forked workers is recorded in when
+     * {@link #getForkHeapAutoSizing()} is enabled, so that later runs of the task can size their heap.
+     *
+     * <p>Defaults to {@code smithy/fork-heap} in the project cache directory of the build when the
+     * Smithy base plugin is applied, or to the temporary directory of the task otherwise.
+     *
+     * @return directory of recorded heap usage.
+     */
+    @Internal
+    public abstract DirectoryProperty getForkHeapHistoryDirectory();
+
+    /**
+     * Whether to run the smithy cli in a persistent server process shared across Gradle builds.
+     *
+     * <p>The server is started on first use and exits once it has been idle for longer than
+     * {@link #getCliServerIdleTimeout()}. When enabled, this setting takes precedence over
+     * {@link #getFork()}. The setting does not affect the outputs of the task.
+     *
+     * <p> Defaults to {@code false}
+     *
+     * @return flag indicating cli server setting.
+     */
+    @Internal
+    public abstract Property<Boolean> getCliServer();
+
+    /**
+     * How long the smithy cli server stays alive without receiving requests.
+     *
+     * <p> Defaults to 30 minutes
+     *
+     * @return cli server idle timeout.
+     */
+    @Internal
+    public abstract Property<Duration> getCliServerIdleTimeout();
+
+    /**
+     * Whether forked smithy cli workers use a class data sharing archive of the cli classpath.
+     *
+     * <p>The archive is created by the first forked worker that runs with a given classpath and
+     * stored in the Gradle user home. Later workers map it at startup rather than loading the
+     * cli classes from scratch. This requires Java 17 or newer and has no effect when
+     * {@link #getFork()} is false. The setting does not affect the outputs of the task.
+     *
+     * <p>The worker that creates the archive runs with {@code -XX:+RecordDynamicDumpInfo} and dumps it after
+     * its first invocation, and workers that map the archive are started with other JVM arguments than
+     * the workers before them, so the setting is opt-in.
+     *
+     * <p> Defaults to the value of the {@code smithy.cli.classDataSharing} Gradle property, or
+     * {@code false} if it is not set.
+     *
+     * @return flag indicating class data sharing setting.
+     */
+    @Internal
+    public abstract Property<Boolean> getClassDataSharing();
+
     /**
      * Sets the detail to include in stack traces.
      *
@@ -136,6 +314,42 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
     @Optional
     public abstract Property<ShowStacktrace> getShowStackTrace();
 
+    /**
+     * Build service that shares Smithy CLI class loaders across tasks.
+     *
+     * <p>This is wired automatically when the Smithy base plugin is applied. When it is not
+     * present, each CLI invocation creates and closes its own class loader.
+     */
+    @ServiceReference(CliClassLoaderService.NAME)
+    abstract Property<CliClassLoaderService> getClassLoaderService();
+
+    /**
+     * Build service that limits concurrent in-process CLI invocations by a memory budget.
+     *
+     * <p>This is wired automatically when the Smithy base plugin is applied. When it is not
+     * present, in-process invocations are not limited.
+     */
+    @ServiceReference(SmithyMemoryBudgetService.NAME)
+    abstract Property<SmithyMemoryBudgetService> getMemoryBudgetService();
+
+    /**
+     * Build service that aggregates the CLI timings of every task in the build.
+     *
+     * <p>This is wired automatically when the Smithy base plugin is applied. When it is not
+     * present, timings are only reported for each task.
+     */
+    @ServiceReference(SmithyTimingService.NAME)
+    abstract Property<SmithyTimingService> getTimingService();
+
+    /**
+     * Build service that shares assembled models across tasks.
+     *
+     * <p>This is wired automatically when the Smithy base plugin is applied. Tasks only use it when
+     * models are shared, see {@link DirectBuildSettings#getShareModels()}.
+     */
+    @ServiceReference(SmithyModelService.NAME)
+    abstract Property<SmithyModelService> getModelService();
+
     /**
      * Read-only property that returns the classpath used to determine the
      * classpath used when executing the cli.
@@ -155,7 +369,93 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
      */
     @Internal
     WorkerExecutor getExecutor() {
-        return getServices().get(WorkerExecutor.class);
+        return getWorkerExecutor();
+    }
+
+    /**
+     * Read-only property that returns the JVM settings of forked workers.
+     *
+     * <p>When heap auto sizing is enabled, each call picks a heap size and creates a new file
+     * that the worker records its heap usage to. Pass the returned settings to
+     * {@link #recordHeapUsage(SmithyUtils.CliExecution, ForkSettings)} once submitted.
+     *
+     * @return settings of forked workers.
+     */
+    @Internal
+    ForkSettings getForkSettings() {
+        if (!getFork().get()) {
+            return ForkSettings.defaults();
+        }
+        File classDataSharingDirectory = getClassDataSharing().get()
+                ? new File(startParameter.getGradleUserHomeDir(), CLASS_DATA_SHARING_DIRECTORY)
+                : null;
+        String maxHeapSize = getForkMaxHeapSize().getOrNull();
+        File heapUsageFile = null;
+        if (maxHeapSize == null && getForkHeapAutoSizing().get()) {
+            maxHeapSize = ForkHeapSizing.format(getHeapSizing().pickHeapSize(getModelBytes()));
+            getLogger().info("Running forked Smithy CLI workers of {} with a maximum heap of {}",
+                    getPath(), maxHeapSize);
+            heapUsageFile = createTemporaryFile("heap-usage", ".txt");
+        }
+        return new ForkSettings(getForkJvmArgs().get(), maxHeapSize, classDataSharingDirectory, heapUsageFile);
+    }
+
+    private ForkHeapSizing getHeapSizing() {
+        File directory = getForkHeapHistoryDirectory().map(Directory::getAsFile).getOrElse(getTemporaryDir());
+        return new ForkHeapSizing(new File(directory, heapHistoryFileName));
+    }
+
+    /**
+     * Records the heap usage of a forked invocation once it completes, if heap auto sizing is enabled.
+     *
+     * @param execution Submitted invocation.
+     * @param settings Settings the invocation was submitted with.
+     * @return Returns a handle that waits for the invocation and records its heap usage.
+     */
+    SmithyUtils.CliExecution recordHeapUsage(SmithyUtils.CliExecution execution, ForkSettings settings) {
+        File heapUsageFile = settings.getHeapUsageFile();
+        if (heapUsageFile == null) {
+            return execution;
+        }
+        return () -> {
+            try {
+                execution.await();
+            } catch (RuntimeException e) {
+                if (isOutOfMemory(e, heapUsageFile)) {
+                    getLogger().warn("Forked Smithy CLI worker ran out of memory with a maximum heap of {}. "
+                            + "The next run of {} will use a larger heap.", settings.getMaxHeapSize(), getPath());
+                    getHeapSizing().recordOutOfMemory(settings.getMaxHeapSize());
+                }
+                throw e;
+            }
+            long peak = ForkHeapSizing.readUsage(heapUsageFile);
+            if (peak >= 0) {
+                getLogger().info("Forked Smithy CLI worker peak live heap was {} MiB", peak / (1024 * 1024));
+                getHeapSizing().recordPeak(peak);
+            }
+        };
+    }
+
+    private long getModelBytes() {
+        if (!getModels().isPresent()) {
+            return 0;
+        }
+        long bytes = 0;
+        for (File file : getModels().get().getAsFileTree().getFiles()) {
+            bytes += file.length();
+        }
+        return bytes;
+    }
+
+    // The worker marks the heap usage file when it runs out of memory, since the error itself is only
+    // part of the failure if the worker managed to send it back.
+    private static boolean isOutOfMemory(Throwable error, File heapUsageFile) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof OutOfMemoryError) {
+                return true;
+            }
+        }
+        return ForkHeapSizing.ranOutOfMemory(heapUsageFile);
     }
 
     /**
@@ -173,6 +473,26 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
             List<String> additionalArgs,
             FileCollection sources,
             boolean disableModelDiscovery
+    ) {
+        submitCliProcess(command, additionalArgs, sources, disableModelDiscovery).await();
+    }
+
+    /**
+     * Submits the given CLI command without waiting for it to complete.
+     *
+     * <p>This method takes care of the same shared arguments as
+     * {@link #executeCliProcess(String, List, FileCollection, boolean)}.
+     *
+     * @param command The command to execute.
+     * @param additionalArgs Custom arguments that aren't one of the shared args.
+     * @param sources Source files to execute the command on
+     * @return Returns a handle used to wait for the command to complete.
+     */
+    protected SmithyUtils.CliExecution submitCliProcess(
+            String command,
+            List<String> additionalArgs,
+            FileCollection sources,
+            boolean disableModelDiscovery
     ) {
         List<String> args = new ArrayList<>();
         args.add(command);
@@ -196,7 +516,207 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
             }
         });
 
-        SmithyUtils.executeCli(getExecutor(), args, getCliExecutionClasspath().get(), getFork().get());
+        return submitCli(args);
+    }
+
+    /**
+     * Runs the Smithy CLI with the given arguments using the execution mode configured on
+     * the task.
+     *
+     * @param args CLI arguments.
+     */
+    void runCli(List<String> args) {
+        submitCli(args).await();
+    }
+
+    /**
+     * Submits the Smithy CLI with the given arguments using the execution mode configured on
+     * the task, without waiting for it to complete.
+     *
+     * <p>The CLI server handles one request at a time, so invocations sent to it complete
+     * before this method returns.
+     *
+     * @param args CLI arguments.
+     * @return Returns a handle used to wait for the CLI to complete.
+     */
+    SmithyUtils.CliExecution submitCli(List<String> args) {
+        FileCollection classpath = getCliExecutionClasspath().get();
+        if (getCliServer().get()) {
+            CliDependencyResolver.validateCliClasspath(classpath);
+            File stateDirectory = new File(startParameter.getGradleUserHomeDir(), CLI_SERVER_DIRECTORY);
+            CliTimings timings = new CliTimings(args.isEmpty() ? "" : args.get(0), System.currentTimeMillis());
+            long start = System.nanoTime();
+            new CliServerClient(stateDirectory,
+                    classpath.getFiles(),
+                    getCliServerIdleTimeout().get(),
+                    configEnvironmentVariables())
+                    .run(args, System.out, System.err);
+            timings.record(CliTimings.CLI_SERVER, start);
+            getTimingReport().add(timings);
+            return () -> {};
+        }
+        ForkSettings forkSettings = getForkSettings();
+        return withMemoryBudget(() -> recordTimings(timingFile -> recordHeapUsage(SmithyUtils.submitCli(
+                getExecutor(), args, classpath, getFork().get(), getClassLoaderService(), forkSettings, timingFile),
+                forkSettings), null));
+    }
+
+    /**
+     * Gets the environment variables referenced by the smithy-build configs that the CLI loads.
+     *
+     * <p>These variables are part of the key of the CLI server, see {@link #getCliServer()}.
+     *
+     * @return Returns the names of the variables.
+     */
+    Set<String> configEnvironmentVariables() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Submits an invocation that records its timings to a file, and adds them to the timing
+     * report of the task once the invocation completes.
+     *
+     * @param submit Submits the invocation, given the file to record timings to.
+     * @param onComplete Called with the timings of the completed invocation before they are reported,
+     *                   or null.
+     * @return Returns a handle that waits for the invocation and then records its timings.
+     */
+    SmithyUtils.CliExecution recordTimings(
+            Function<File, SmithyUtils.CliExecution> submit,
+            Consumer<CliTimings> onComplete
+    ) {
+        File timingFile = nextTimingFile();
+        long submittedAt = System.currentTimeMillis();
+        SmithyUtils.CliExecution execution;
+        try {
+            execution = submit.apply(timingFile);
+        } catch (RuntimeException e) {
+            deleteTimingFile(timingFile);
+            throw e;
+        }
+        return () -> {
+            CliTimings timings;
+            try {
+                execution.await();
+                timings = CliTimings.read(timingFile);
+            } finally {
+                deleteTimingFile(timingFile);
+            }
+            if (timings != null) {
+                // The worker may be another process, so the queue time is measured by wall clock.
+                timings = timings.withEarlierPhases(Collections.singletonMap(CliTimings.QUEUE,
+                        timings.getStartedAtEpochMillis() - submittedAt));
+                if (onComplete != null) {
+                    onComplete.accept(timings);
+                }
+                getTimingReport().add(timings);
+            }
+        };
+    }
+
+    // Each invocation of a task run records its timings to its own file, named by the order it was submitted
+    // in, so that the files do not pile up in the temporary directory across builds.
+    private synchronized File nextTimingFile() {
+        File timingFile = new File(getTemporaryDir(), TIMING_FILE_PREFIX + timingFiles++ + ".json");
+        // A file left by a run that was killed must not be read as the timings of this invocation.
+        deleteTimingFile(timingFile);
+        return timingFile;
+    }
+
+    private static void deleteTimingFile(File timingFile) {
+        try {
+            Files.deleteIfExists(timingFile.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized CliTimingReport getTimingReport() {
+        // Transient fields are not restored from the configuration cache, so the report is created lazily.
+        if (timingReport == null) {
+            timingReport = new CliTimingReport(getPath());
+        }
+        return timingReport;
+    }
+
+    private void writeTimingReport() {
+        CliTimingReport report = getTimingReport();
+        if (report.isEmpty()) {
+            return;
+        }
+        File reportFile = timingReportDirectory.get().file(getName() + ".json").getAsFile();
+        report.write(reportFile.toPath());
+        getLogger().info("{}. Timing report: {}", report.summary(), reportFile);
+        if (getTimingService().isPresent()) {
+            getTimingService().get().record(report);
+        }
+    }
+
+    // A named class rather than a lambda, so that the action does not prevent the task from being cached.
+    private static final class WriteTimingReport implements Action<Task> {
+        @Override
+        public void execute(Task task) {
+            ((AbstractSmithyCliTask) task).writeTimingReport();
+        }
+    }
+
+    private File createTemporaryFile(String prefix, String suffix) {
+        try {
+            return File.createTempFile(prefix, suffix, getTemporaryDir());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Submits an in-process invocation once the memory budget of the build has room for it.
+     *
+     * <p>Every invocation of the task shares a single lease, estimated from the size of all the
+     * models of the task, which is held until the last of them completes. Forked invocations do
+     * not use the memory of the Gradle daemon, and are submitted right away, as are all invocations
+     * when no budget is configured.
+     *
+     * @param submit Submits the invocation.
+     * @return Returns a handle that waits for the invocation and then releases its memory.
+     */
+    SmithyUtils.CliExecution withMemoryBudget(Supplier<SmithyUtils.CliExecution> submit) {
+        if (getFork().get() || !getMemoryBudgetService().isPresent() || !getMemoryBudgetService().get().isEnabled()) {
+            return submit.get();
+        }
+        acquireMemoryBudget();
+        AtomicBoolean released = new AtomicBoolean();
+        SmithyUtils.CliExecution execution;
+        try {
+            execution = submit.get();
+        } catch (RuntimeException e) {
+            releaseMemoryBudget(released);
+            throw e;
+        }
+        return () -> {
+            try {
+                execution.await();
+            } finally {
+                releaseMemoryBudget(released);
+            }
+        };
+    }
+
+    private synchronized void acquireMemoryBudget() {
+        if (memoryLeaseUsers++ == 0) {
+            long modelBytes = getModelBytes();
+            for (File file : getModelDiscoveryClasspath().get()) {
+                modelBytes += MemoryBudget.modelBytes(file);
+            }
+            memoryLease = getMemoryBudgetService().get().acquire(getPath(), modelBytes);
+            getTimingReport().addMemoryBudgetWait(memoryLease.getWaitMillis());
+        }
+    }
+
+    private synchronized void releaseMemoryBudget(AtomicBoolean released) {
+        if (released.compareAndSet(false, true) && --memoryLeaseUsers == 0) {
+            memoryLease.close();
+            memoryLease = null;
+        }
     }
 
     /**
@@ -205,7 +725,7 @@ abstract class AbstractSmithyCliTask extends DefaultTask {
      * @param text text to write as a header.
      */
     protected void writeHeading(String text) {
-        StyledTextOutput output = getServices().get(StyledTextOutputFactory.class)
+        StyledTextOutput output = getStyledTextOutputFactory()
                 .create("smithy")
                 .style(StyledTextOutput.Style.Header);
         output.println(text);
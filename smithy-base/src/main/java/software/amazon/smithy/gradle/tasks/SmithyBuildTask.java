@@ -6,49 +6,95 @@ package software.amazon.smithy.gradle.tasks;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.gradle.StartParameter;
 import org.gradle.api.GradleException;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.api.services.ServiceReference;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.DisableCachingByDefault;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
 import software.amazon.smithy.cli.BuildParameterBuilder;
+import software.amazon.smithy.gradle.DirectBuildSettings;
 import software.amazon.smithy.gradle.SmithyUtils;
+import software.amazon.smithy.gradle.internal.ClasspathHasher;
+import software.amazon.smithy.gradle.internal.DirectBuildRequest;
+import software.amazon.smithy.gradle.internal.DirectBuildResult;
+import software.amazon.smithy.gradle.internal.ForkSettings;
+import software.amazon.smithy.gradle.internal.OutputSynchronizer;
+import software.amazon.smithy.gradle.internal.RelocatableOutputs;
+import software.amazon.smithy.gradle.internal.SmithyBuildConfigFile;
+import software.amazon.smithy.gradle.internal.SmithyBuildConfigService;
+import software.amazon.smithy.gradle.internal.SmithyBuildProjections;
 import software.amazon.smithy.model.validation.Severity;
 
 /**
  * Executes the Smithy CLI {@code build} command.
  *
  * <p>This task will build all projections specified in the smithy-build configs provided
- * as task inputs.
+ * as task inputs, or only the projection set by {@link #getProjection()}.
  *
  */
 // Validation events written to smithy-build-info.json embed absolute source paths, so the
-// outputs are not relocatable across machines and cannot be safely cached.
+// outputs are not relocatable across machines and cannot be safely cached unless they are
+// rewritten by enabling relocatable outputs.
 @DisableCachingByDefault(because = "Build outputs embed absolute source paths and are not relocatable")
 public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
+    private static final String DIRECT_BUILD_RESULT_FILE = "smithy-build-result.json";
+    private static final String PROJECTION_INDEX_DIR = "smithy-projection-index";
+    private static final String PLUGIN_ARTIFACT_CACHE_DIR = "caches/smithy-plugin-artifacts";
+    private static final String PARSE_CACHE_DIR = "caches/smithy-parsed-files";
+    private static final String STAGING_DIR = "staging";
+
+    private final File projectDir;
+    private final File gradleUserHome;
+    private transient List<SmithyBuildConfigFile> parsedConfigs;
+
     @Inject
     public SmithyBuildTask(ObjectFactory objectFactory, StartParameter startParameter) {
         super(objectFactory, startParameter);
+        this.projectDir = getLayout().getProjectDirectory().getAsFile();
+        this.gradleUserHome = startParameter.getGradleUserHomeDir();
 
+        getModelFiles().from(getModels().orElse(objectFactory.fileCollection()));
+        getModelFiles().disallowChanges();
         getSourceProjection().convention("source");
         getSeverity().convention(Severity.WARNING.toString());
-        getOutputDir().convention(SmithyUtils.getProjectionOutputDirProperty(getProject()));
+        getRelocatableOutputs().convention(false);
+        getPreserveUnchangedOutputs().convention(false);
+        getProjectionIndexFile().convention(getLayout()
+                .getBuildDirectory()
+                .file(PROJECTION_INDEX_DIR + "/" + getName() + ".json"));
+        getOutputs().cacheIf("relocatable outputs are enabled", new RelocatableOutputsEnabled());
+        getOutputs().doNotCacheIf("semantic fingerprints may keep outputs built from earlier model files",
+                new SemanticFingerprintEnabled());
     }
 
     /**
@@ -67,6 +113,29 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
     @Optional
     public abstract SetProperty<String> getProjectionSourceTags();
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The models are tracked as inputs through {@link #getModelFiles()}.
+     */
+    @Override
+    @Internal
+    public abstract Property<FileCollection> getModels();
+
+    /**
+     * Read-only property.
+     *
+     * <p>The files of {@link #getModels()}, tracked file by file so that a direct build only rebuilds
+     * the projections that contain shapes of the changed files. Builds run by the Smithy CLI do not
+     * handle changes incrementally, and always start from an empty output directory.
+     *
+     * @return Returns the model files.
+     */
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getModelFiles();
+
     /**
      * Smithy build configs to use for building models.
      *
@@ -83,6 +152,16 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
     @Optional
     public abstract Property<String> getSourceProjection();
 
+    /**
+     * Name of the only projection to build.
+     *
+     * <p>When set, the output directory of the task is the directory of the projection, and
+     * smithy-build writes to its parent directory. When not set, every projection is built.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getProjection();
+
     /**
      * Output directory for Smithy build artifacts.
      */
@@ -101,6 +180,95 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
     @Optional
     public abstract Property<String> getSeverity();
 
+    /**
+     * Settings of builds that call the smithy-build API directly instead of running the {@code build}
+     * command of the Smithy CLI.
+     *
+     * <p>When direct builds are enabled, they take precedence over {@link #getCliServer()}.
+     *
+     * @return the direct build settings.
+     */
+    @Nested
+    public abstract DirectBuildSettings getDirectBuild();
+
+    /**
+     * Whether to leave the files of the output directory untouched when a build produces them with
+     * the same content again.
+     *
+     * <p>When enabled, smithy-build writes to a staging directory inside the temporary directory of
+     * the task. Each staged file is then compared with the file already in the output directory by
+     * content hash, and only moved into place if it differs. Files that are no longer produced are
+     * deleted.
+     *
+     * <p>Unchanged files are only preserved when Gradle runs the task incrementally, which it does when
+     * only model files changed since the previous run. Before any other run, such as after a change to a
+     * smithy-build config or to the classpath, after a clean, or with {@code --rerun-tasks}, Gradle empties
+     * the output directory, so every staged file is written again.
+     *
+     * <p> Defaults to {@code false}
+     *
+     * @return flag indicating whether unchanged outputs are preserved.
+     */
+    @Internal
+    public abstract Property<Boolean> getPreserveUnchangedOutputs();
+
+    /**
+     * Whether to rewrite the absolute paths that smithy-build writes to its outputs so that the
+     * outputs are the same in every checkout of the project.
+     *
+     * <p>Paths inside the project directory are made relative to it, and paths inside the Gradle
+     * user home are made to start with {@value RelocatableOutputs#GRADLE_USER_HOME}. When enabled,
+     * the outputs of the task can be stored in and loaded from the build cache.
+     *
+     * <p>Only the {@value RelocatableOutputs#BUILD_INFO_FILE} files of smithy-build are rewritten.
+     * Build plugins that write absolute paths to their own outputs keep them.
+     *
+     * <p> Defaults to {@code false}
+     *
+     * @return flag indicating relocatable outputs setting.
+     */
+    @Input
+    public abstract Property<Boolean> getRelocatableOutputs();
+
+    /**
+     * File that builds run through the smithy-build API record the shapes of each model file and
+     * projection in.
+     *
+     * <p>When only model files have changed since the previous build, the index is used to rebuild
+     * only the projections that contained or now contain shapes of the changed files. The outputs of
+     * the other projections are left in place. The index is not used when direct builds are disabled,
+     * see {@link #getDirectBuild()}, in which case every projection is rebuilt.
+     *
+     * @return the projection index file.
+     */
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getProjectionIndexFile();
+
+    /**
+     * File that builds run through the smithy-build API write a binary snapshot of the assembled model to.
+     *
+     * <p>The snapshot is written whenever the model is assembled without errors, and is loaded by
+     * later tasks, such as {@link SmithySelectTask}, in a fraction of the time it takes to parse
+     * and validate the model again. No snapshot is written when direct builds are disabled, see
+     * {@link #getDirectBuild()}.
+     *
+     * @return the model snapshot file.
+     * @see software.amazon.smithy.gradle.internal.BinaryModelSnapshot
+     */
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getModelSnapshotFile();
+
+    /**
+     * Build service that shares the parsed smithy-build configs of the build.
+     *
+     * <p>This is wired automatically when the Smithy base plugin is applied. When it is not
+     * present, the projection set by {@link #getProjection()} is only checked by smithy-build.
+     */
+    @ServiceReference(SmithyBuildConfigService.NAME)
+    abstract Property<SmithyBuildConfigService> getBuildConfigService();
+
     /**
      * Read-only property.
      *
@@ -128,7 +296,7 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
     }
 
     @TaskAction
-    public void execute() {
+    public void execute(InputChanges inputChanges) {
         writeHeading("Running smithy build");
 
         if (getSmithyBuildConfigsMissing().get()) {
@@ -136,6 +304,10 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
                     + "If this was intentional, set the `smithyBuildConfigs` property to an empty list.");
         }
 
+        if (getProjection().isPresent() && getBuildConfigService().isPresent()) {
+            checkProjection(getProjection().get());
+        }
+
         BuildParameterBuilder builder = new BuildParameterBuilder();
 
         // Model discovery classpath
@@ -143,7 +315,7 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
         builder.buildClasspath(getCliExecutionClasspath().get().getAsPath());
         builder.projectionSourceTags(getProjectionSourceTags().get());
         builder.allowUnknownTraits(getAllowUnknownTraits().get());
-        builder.output(getOutputDir().getAsFile().get().getAbsolutePath());
+        builder.output(getSmithyBuildOutputDir().getAbsolutePath());
         builder.projectionSource(getSourceProjection().get());
 
         getSmithyBuildConfigs().get().forEach(config -> builder.addConfigIfExists(config.getAbsolutePath()));
@@ -162,14 +334,268 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
         extraArgs.add("--severity");
         extraArgs.add(getSeverity().get());
 
+        if (getProjection().isPresent()) {
+            extraArgs.add("--projection");
+            extraArgs.add(getProjection().get());
+        }
+
         builder.addExtraArgs(extraArgs.toArray(new String[0]));
 
         BuildParameterBuilder.Result result = builder.build();
-        getLogger().debug("Executing smithy build with arguments: " + result.args);
-        SmithyUtils.executeCli(getExecutor(),
-                result.args,
-                getCliExecutionClasspath().get(),
-                getFork().get());
+        if (getPreserveUnchangedOutputs().get()) {
+            // Files left behind by a failed build must not be synchronized by the next one.
+            OutputSynchronizer.clean(getSmithyBuildOutputDir().toPath());
+        }
+        DirectBuildResult directResult = null;
+        if (getDirectBuild().getEnabled().get()) {
+            directResult = runDirectBuild(result, inputChanges);
+        } else {
+            List<String> ignored = getDirectBuild().findIgnoredSettings();
+            if (!ignored.isEmpty()) {
+                getLogger().warn("Smithy directBuild settings {} are only used when directBuild is enabled",
+                        ignored);
+            }
+            // The CLI does not record an index, so a later direct build has to rebuild every projection.
+            deleteProjectionIndex();
+            deleteModelSnapshot();
+            if (inputChanges.isIncremental() && !getPreserveUnchangedOutputs().get()) {
+                // Gradle keeps the outputs of incremental runs, but the CLI rebuilds every projection, so
+                // outputs that are no longer produced are removed as they are on other runs.
+                OutputSynchronizer.clean(getOutputDir().getAsFile().get().toPath());
+            }
+            getLogger().debug("Executing smithy build with arguments: " + result.args);
+            runCli(result.args);
+        }
+
+        if (getRelocatableOutputs().get()) {
+            int rewritten = new RelocatableOutputs(projectDir, gradleUserHome)
+                    .rewrite(getSmithyBuildOutputDir().toPath());
+            getLogger().info("Made paths relocatable in {} Smithy build info file(s)", rewritten);
+        }
+
+        if (getPreserveUnchangedOutputs().get()) {
+            syncOutputs(directResult);
+        }
+    }
+
+    @Override
+    Set<String> configEnvironmentVariables() {
+        if (!getBuildConfigService().isPresent()) {
+            return Collections.emptySet();
+        }
+        return SmithyBuildConfigFile.getEnvironmentVariables(getParsedConfigs());
+    }
+
+    // Fails before the CLI is loaded if the configs do not define the projection, and reports the
+    // plugins that the merged configs apply to it.
+    private void checkProjection(String projection) {
+        List<SmithyBuildConfigFile> configs = getParsedConfigs();
+        if (!SmithyBuildProjections.of(configs).contains(projection)) {
+            throw new GradleException("Smithy projection `" + projection + "` is not defined by the smithy-build "
+                    + "configs " + getSmithyBuildConfigs().get().getFiles() + ", or is abstract.");
+        }
+        getLogger().info("Building Smithy projection {} with configured plugins {}",
+                projection, SmithyBuildConfigFile.getPlugins(configs, projection));
+    }
+
+    private synchronized List<SmithyBuildConfigFile> getParsedConfigs() {
+        // The configs are read once per run of the task, and shared by the projection check and the key of the
+        // CLI server. Transient fields are not restored from the configuration cache, so they are read lazily.
+        if (parsedConfigs == null) {
+            parsedConfigs = getBuildConfigService().get()
+                    .read(getSmithyBuildConfigs().get(), getProviders(), getLayout());
+        }
+        return parsedConfigs;
+    }
+
+    // Only the projections that were built are synchronized, so that an incremental build or a
+    // projection task leaves the outputs of the other projections in place.
+    private void syncOutputs(DirectBuildResult directResult) {
+        File stagingDir = getSmithyBuildOutputDir();
+        File outputDir = getOutputDir().getAsFile().get();
+        OutputSynchronizer synchronizer = new OutputSynchronizer();
+        if (directResult != null && directResult.isIncremental()) {
+            File buildOutputDir = getBuildOutputDir(outputDir);
+            for (DirectBuildResult.Projection projection : directResult.getProjections()) {
+                synchronizer.sync(new File(stagingDir, projection.getName()).toPath(),
+                        new File(buildOutputDir, projection.getName()).toPath());
+            }
+        } else if (getProjection().isPresent()) {
+            synchronizer.sync(new File(stagingDir, getProjection().get()).toPath(), outputDir.toPath());
+        } else {
+            synchronizer.sync(stagingDir.toPath(), outputDir.toPath());
+        }
+        getLogger().info("Synchronized Smithy build outputs: {} written, {} unchanged, {} deleted",
+                synchronizer.getWrittenFiles(), synchronizer.getUnchangedFiles(), synchronizer.getDeletedFiles());
+    }
+
+    // smithy-build writes to a staging directory when unchanged outputs are preserved.
+    private File getSmithyBuildOutputDir() {
+        if (getPreserveUnchangedOutputs().get()) {
+            return new File(getTemporaryDir(), STAGING_DIR);
+        }
+        return getBuildOutputDir(getOutputDir().getAsFile().get());
+    }
+
+    // A task that builds one projection writes to the directory of the projection inside the
+    // output directory of smithy-build.
+    private File getBuildOutputDir(File outputDir) {
+        return getProjection().isPresent() ? outputDir.getAbsoluteFile().getParentFile() : outputDir;
+    }
+
+    // A named class rather than a lambda, so that the predicate can be stored in the configuration cache.
+    private static final class RelocatableOutputsEnabled implements Spec<Task> {
+        @Override
+        public boolean isSatisfiedBy(Task task) {
+            return ((SmithyBuildTask) task).getRelocatableOutputs().get();
+        }
+    }
+
+    // Outputs are only kept across model changes by direct builds.
+    private static final class SemanticFingerprintEnabled implements Spec<Task> {
+        @Override
+        public boolean isSatisfiedBy(Task task) {
+            SmithyBuildTask build = (SmithyBuildTask) task;
+            DirectBuildSettings directBuild = build.getDirectBuild();
+            return directBuild.getEnabled().get() && directBuild.getSemanticFingerprint().get();
+        }
+    }
+
+    private void deleteProjectionIndex() {
+        if (getProjectionIndexFile().isPresent()) {
+            File indexFile = getProjectionIndexFile().getAsFile().get();
+            if (indexFile.exists() && !indexFile.delete()) {
+                throw new GradleException("Unable to delete Smithy projection index " + indexFile);
+            }
+        }
+    }
+
+    // A snapshot left by an earlier direct build no longer matches the models.
+    private void deleteModelSnapshot() {
+        if (getModelSnapshotFile().isPresent()) {
+            File snapshotFile = getModelSnapshotFile().getAsFile().get();
+            if (snapshotFile.exists() && !snapshotFile.delete()) {
+                throw new GradleException("Unable to delete Smithy model snapshot " + snapshotFile);
+            }
+        }
+    }
+
+    // Returns null to rebuild every projection.
+    private List<String> getChangedModelFiles(InputChanges inputChanges) {
+        if (!inputChanges.isIncremental() || !getModels().isPresent()) {
+            return null;
+        }
+        List<String> changedFiles = new ArrayList<>();
+        for (FileChange change : inputChanges.getFileChanges(getModelFiles())) {
+            if (change.getFileType() != FileType.DIRECTORY) {
+                changedFiles.add(change.getFile().getAbsolutePath());
+            }
+        }
+        getLogger().info("Smithy model files changed since the previous build: {}", changedFiles);
+        return changedFiles;
+    }
+
+    private DirectBuildResult runDirectBuild(BuildParameterBuilder.Result parameters, InputChanges inputChanges) {
+        DirectBuildSettings directBuild = getDirectBuild();
+        List<String> configs = getSmithyBuildConfigs().get()
+                .filter(File::exists)
+                .getFiles()
+                .stream()
+                .map(File::getAbsolutePath)
+                .collect(Collectors.toList());
+        DirectBuildRequest request = new DirectBuildRequest()
+                .configs(configs)
+                .sources(parameters.sources)
+                .discover(true)
+                .discoveryClasspath(parameters.discoveryClasspath)
+                .output(getSmithyBuildOutputDir().getAbsolutePath())
+                .projection(getProjection().getOrNull())
+                .allowUnknownTraits(getAllowUnknownTraits().get());
+        if (getProjectionIndexFile().isPresent()) {
+            request.indexFile(getProjectionIndexFile().getAsFile().get().getAbsolutePath())
+                    .baseDirectory(projectDir.getAbsolutePath())
+                    .changedFiles(getChangedModelFiles(inputChanges))
+                    .semanticFingerprint(directBuild.getSemanticFingerprint().get());
+        }
+        if (getModelSnapshotFile().isPresent()) {
+            request.modelSnapshot(getModelSnapshotFile().getAsFile().get().getAbsolutePath());
+        }
+        if (directBuild.getPluginArtifactCache().get()) {
+            List<File> classpath = new ArrayList<>(getCliExecutionClasspath().get().getFiles());
+            classpath.addAll(getModelDiscoveryClasspath().get().getFiles());
+            request.pluginCache(new File(gradleUserHome, PLUGIN_ARTIFACT_CACHE_DIR).getAbsolutePath(),
+                    ClasspathHasher.hash(classpath));
+        }
+        ForkSettings forkSettings = getForkSettings();
+        File parseCacheDir = directBuild.getParseCache().get() ? new File(gradleUserHome, PARSE_CACHE_DIR) : null;
+        if (parseCacheDir != null) {
+            request.parseCache(parseCacheDir.getAbsolutePath());
+        }
+        File resultFile = new File(getTemporaryDir(), DIRECT_BUILD_RESULT_FILE);
+        getLogger().debug("Executing smithy build with configs {} and sources {}", configs, parameters.sources);
+
+        AtomicReference<DirectBuildResult> result = new AtomicReference<>();
+        withMemoryBudget(() -> recordTimings(timingFile -> recordHeapUsage(SmithyUtils.submitSmithyBuild(
+                getExecutor(), request, resultFile, getCliExecutionClasspath().get(), getFork().get(),
+                getClassLoaderService(), directBuild.getShareModels().get() ? getModelService() : null, forkSettings,
+                timingFile), forkSettings), timings -> {
+                    result.set(DirectBuildResult.read(resultFile.toPath()));
+                    timings.addSmithyBuild(result.get());
+                })).await();
+        DirectBuildResult directResult = result.get() != null
+                ? result.get()
+                : DirectBuildResult.read(resultFile.toPath());
+        reportDirectBuild(directResult);
+        return directResult;
+    }
+
+    private void reportDirectBuild(DirectBuildResult result) {
+        Severity minimumSeverity = Severity.fromString(getSeverity().get()).orElse(Severity.WARNING);
+        for (DirectBuildResult.Event event : result.getEvents()) {
+            Severity severity = event.getSeverity();
+            if (severity.compareTo(minimumSeverity) < 0) {
+                continue;
+            }
+            if (severity.compareTo(Severity.DANGER) >= 0) {
+                getLogger().error(event.toString());
+            } else if (severity == Severity.WARNING) {
+                getLogger().warn(event.toString());
+            } else {
+                getLogger().lifecycle(event.toString());
+            }
+        }
+
+        for (DirectBuildResult.Projection projection : result.getProjections()) {
+            getLogger().info("Smithy projection {} completed after {} ms and produced {} files",
+                    projection.getName(), projection.getCompletedAfterMillis(), projection.getFileCount());
+            if (!projection.getCachedPlugins().isEmpty()) {
+                getLogger().info("Smithy projection {} restored artifacts of plugins from cache: {}",
+                        projection.getName(), projection.getCachedPlugins());
+            }
+        }
+        if (result.isModelUnchanged()) {
+            getLogger().info("Smithy models are unchanged apart from formatting; every projection is up to date");
+        } else if (result.isIncremental()) {
+            getLogger().info("Smithy build rebuilt {} projection(s) affected by changed models; up to date: {}",
+                    result.getProjections().size(), result.getUpToDateProjections());
+        }
+        if (result.isSharedModel()) {
+            getLogger().info("Reused the Smithy model assembled by an earlier task of the build");
+        }
+        DirectBuildSettings directBuild = getDirectBuild();
+        if (directBuild.getParseCache().get() && !result.isSharedModel()) {
+            getLogger().info("Loaded {} Smithy model file(s) from the parse cache and parsed {}",
+                    result.getParseCacheHits(), result.getParseCacheMisses());
+        }
+        getLogger().info("Smithy build completed in {} ms", result.getDurationMillis());
+
+        if (result.isBroken()) {
+            throw new GradleException("Smithy build failed: the model contains DANGER or ERROR validation events");
+        }
+        if (!result.getFailures().isEmpty()) {
+            throw new GradleException("Smithy build failed: " + String.join(System.lineSeparator(),
+                    result.getFailures()));
+        }
     }
 
     /**
@@ -181,10 +607,11 @@ public abstract class SmithyBuildTask extends AbstractSmithyCliTask {
      * @return provider for the plugin artifact directory
      */
     public Provider<Directory> getPluginProjectionDirectory(String projection, String plugin) {
-        return getProject().getLayout()
+        return getLayout()
                 .dir(
-                        getOutputDir().getAsFile()
-                                .map(file -> SmithyUtils.getProjectionPluginPath(file, projection, plugin).toFile()));
+                        getOutputDir().map(Directory::getAsFile)
+                                .map(file -> SmithyUtils.getProjectionPluginPath(
+                                        getBuildOutputDir(file), projection, plugin).toFile()));
     }
 
 }
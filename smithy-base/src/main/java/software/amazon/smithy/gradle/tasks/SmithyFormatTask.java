@@ -5,12 +5,14 @@
 package software.amazon.smithy.gradle.tasks;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
 import org.gradle.StartParameter;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.DisableCachingByDefault;
+import software.amazon.smithy.gradle.SmithyUtils;
 import software.amazon.smithy.utils.ListUtils;
 
 /**
@@ -44,13 +46,16 @@ public abstract class SmithyFormatTask extends AbstractSmithyCliTask {
     }
 
     protected void formatModels(List<String> additionalArgs) {
+        // Submit every directory before waiting so that directories are formatted in parallel
+        List<SmithyUtils.CliExecution> executions = new ArrayList<>();
         for (final File file : getModels().get()) {
             if (file.exists() && file.isDirectory()) {
-                executeCliProcess("format",
+                executions.add(submitCliProcess("format",
                         additionalArgs,
                         objectFactory.fileCollection().from(file),
-                        true);
+                        true));
             }
         }
+        SmithyUtils.CliExecution.awaitAll(executions);
     }
 }
@@ -4,18 +4,30 @@
  */
 package software.amazon.smithy.gradle.tasks;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
 import org.gradle.StartParameter;
 import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.options.Option;
 import org.gradle.work.DisableCachingByDefault;
+import software.amazon.smithy.gradle.DirectBuildSettings;
+import software.amazon.smithy.gradle.SmithyUtils;
+import software.amazon.smithy.gradle.internal.DirectBuildRequest;
+import software.amazon.smithy.gradle.internal.DirectBuildResult;
+import software.amazon.smithy.model.validation.Severity;
 
 /**
  * Executes the Smithy CLI {@code select} command on a set of source files.
@@ -24,15 +36,21 @@ import org.gradle.work.DisableCachingByDefault;
  *
  * <p>NOTE: this task must be executed with the command line option `--selector` set.
  *
+ * <p>When models are shared between tasks, shape IDs are selected from the model assembled by the
+ * build task without running the Smithy CLI. Otherwise, when a model snapshot written by
+ * {@link SmithyBuildTask} is available, shape IDs are selected from the snapshot.
+ *
  * @see <a href="https://smithy.io/2.0/spec/selectors.html#selectors">Smithy Selectors</a>
  */
 @DisableCachingByDefault(because = "Select task should only be called manually.")
 public abstract class SmithySelectTask extends AbstractSmithyCliTask {
     private static final String DESCRIPTION = "Queries Smithy models with a selector.";
+    private static final String SELECT_RESULT_FILE = "smithy-select-result.json";
 
     @Inject
     public SmithySelectTask(ObjectFactory objectFactory, StartParameter startParameter) {
         super(objectFactory, startParameter);
+        getShareModels().convention(false);
         setDescription(DESCRIPTION);
     }
 
@@ -50,11 +68,60 @@ public abstract class SmithySelectTask extends AbstractSmithyCliTask {
     @Option(option = "show-traits", description = "The Smithy selector to execute")
     abstract Property<String> getShowTraits();
 
+    /**
+     * Binary snapshot of the assembled model to select shapes from.
+     *
+     * <p>The snapshot is only used when neither {@code --show} nor {@code --show-traits} is set,
+     * and if the file exists. Otherwise, the models are loaded by the Smithy CLI.
+     *
+     * @return the model snapshot file.
+     * @see SmithyBuildTask#getModelSnapshotFile()
+     */
+    @InputFiles
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public abstract RegularFileProperty getModelSnapshot();
+
+    /**
+     * Smithy build configs that add sources and imports to the selected model.
+     *
+     * <p>These are only used when models are shared, so that the model is assembled from the same
+     * inputs as the model of the build task.
+     *
+     * @return smithy-build config files.
+     */
+    @InputFiles
+    @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract Property<FileCollection> getSmithyBuildConfigs();
+
+    /**
+     * Whether to select shapes from a model shared by an earlier task of the build.
+     *
+     * <p>When enabled, and neither {@code --show} nor {@code --show-traits} is set, shapes are selected
+     * from the model that the build task assembled from the same inputs, if it is still available.
+     * Otherwise, the model is loaded from the model snapshot, if there is one, or assembled and shared
+     * with later tasks.
+     *
+     * @return flag indicating whether to share models.
+     * @see DirectBuildSettings#getShareModels()
+     */
+    @Internal
+    public abstract Property<Boolean> getShareModels();
+
     @TaskAction
     public void execute() {
         if (!getSelector().isPresent()) {
             throw new GradleException("Select task requires that the command line option `--select` be set.");
         }
+
+        File snapshot = getModelSnapshot().isPresent() ? getModelSnapshot().getAsFile().get() : null;
+        boolean hasSnapshot = snapshot != null && snapshot.isFile();
+        if (!getShow().isPresent() && !getShowTraits().isPresent() && (getShareModels().get() || hasSnapshot)) {
+            selectDirect(hasSnapshot ? snapshot : null);
+            return;
+        }
+
         List<String> extraArgs = new ArrayList<>();
         extraArgs.add("--selector");
         extraArgs.add(getSelector().get());
@@ -74,4 +141,54 @@ public abstract class SmithySelectTask extends AbstractSmithyCliTask {
                 getModels().get(),
                 true);
     }
+
+    // Prints each matching shape ID on its own line, like the select command of the Smithy CLI.
+    private void selectDirect(File snapshot) {
+        DirectBuildRequest request = new DirectBuildRequest()
+                .discoveryClasspath(getModelDiscoveryClasspath().get().getAsPath())
+                .selector(getSelector().get());
+        if (snapshot != null) {
+            getLogger().info("Selecting Smithy shapes from model snapshot {}", snapshot);
+            request.modelSnapshot(snapshot.getAbsolutePath());
+        }
+        if (getShareModels().get()) {
+            // The request matches the one of the build task, so that both share the same model.
+            request.configs(existingPaths(getSmithyBuildConfigs().getOrNull()))
+                    .sources(existingPaths(getModels().getOrNull()))
+                    .discover(true)
+                    .allowUnknownTraits(getAllowUnknownTraits().get());
+        }
+        File resultFile = new File(getTemporaryDir(), SELECT_RESULT_FILE);
+        SmithyUtils.submitSmithyBuild(getExecutor(), request, resultFile, getCliExecutionClasspath().get(),
+                getFork().get(), getClassLoaderService(), getShareModels().get() ? getModelService() : null,
+                getForkSettings(), null).await();
+        DirectBuildResult result = DirectBuildResult.read(resultFile.toPath());
+        if (result.isSharedModel()) {
+            getLogger().info("Selecting Smithy shapes from the model shared by an earlier task of the build");
+        }
+        getLogger().info("Selected Smithy shapes in {}", result.getPhases());
+        if (result.isBroken()) {
+            for (DirectBuildResult.Event event : result.getEvents()) {
+                if (event.getSeverity().compareTo(Severity.DANGER) >= 0) {
+                    getLogger().error(event.toString());
+                }
+            }
+            throw new GradleException("Smithy select failed: the model contains DANGER or ERROR validation events");
+        }
+        for (String shapeId : result.getSelectedShapes()) {
+            getLogger().quiet(shapeId);
+        }
+    }
+
+    private static List<String> existingPaths(FileCollection files) {
+        List<String> paths = new ArrayList<>();
+        if (files != null) {
+            for (File file : files.getFiles()) {
+                if (file.exists()) {
+                    paths.add(file.getAbsolutePath());
+                }
+            }
+        }
+        return paths;
+    }
 }
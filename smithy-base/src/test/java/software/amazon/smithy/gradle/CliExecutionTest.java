@@ -0,0 +1,39 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class CliExecutionTest {
+    @Test
+    public void awaitsEveryExecutionBeforeRethrowingFirstFailure() {
+        AtomicInteger awaited = new AtomicInteger();
+        RuntimeException first = new RuntimeException("first");
+        RuntimeException second = new RuntimeException("second");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> SmithyUtils.CliExecution.awaitAll(Arrays.asList(
+                        () -> {
+                            awaited.incrementAndGet();
+                            throw first;
+                        },
+                        awaited::incrementAndGet,
+                        () -> {
+                            awaited.incrementAndGet();
+                            throw second;
+                        })));
+
+        assertSame(first, thrown);
+        assertEquals(1, thrown.getSuppressed().length);
+        assertSame(second, thrown.getSuppressed()[0]);
+        assertEquals(3, awaited.get());
+    }
+}
@@ -39,4 +39,27 @@ public class SmithyExtensionTest {
         extension.getSourceProjection().set("foo");
         assertThat(extension.getSourceProjection().get(), equalTo("foo"));
     }
+
+    @Test
+    public void disablesDirectBuildsByDefault() {
+        SmithyExtension extension = testProject.getExtensions().create("smithyTest", SmithyExtension.class);
+
+        assertFalse(extension.getDirectBuild().getEnabled().get());
+        assertFalse(extension.getDirectBuild().getParseCache().get());
+        assertThat(extension.getDirectBuild().findIgnoredSettings(), emptyIterable());
+    }
+
+    @Test
+    public void findsDirectBuildSettingsIgnoredWithoutDirectBuilds() {
+        SmithyExtension extension = testProject.getExtensions().create("smithyTest", SmithyExtension.class);
+        extension.directBuild(directBuild -> {
+            directBuild.getParseCache().set(true);
+            directBuild.getShareModels().set(true);
+        });
+
+        assertThat(extension.getDirectBuild().findIgnoredSettings(), contains("shareModels", "parseCache"));
+
+        extension.getDirectBuild().getEnabled().set(true);
+        assertThat(extension.getDirectBuild().findIgnoredSettings(), emptyIterable());
+    }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.node.Node;
+import software.amazon.smithy.model.shapes.ModelSerializer;
+import software.amazon.smithy.model.shapes.ShapeId;
+import software.amazon.smithy.model.shapes.ShapeType;
+import software.amazon.smithy.model.traits.ReadonlyTrait;
+
+public class BinaryModelSnapshotTest {
+    private static final String MODEL = "$version: \"2.0\"\n"
+            + "metadata list = [1, -2, 3.5, null, true, \"text\", {nested: false}]\n"
+            + "metadata big = 123456789012345678901234567890\n"
+            + "namespace smithy.example\n\n"
+            + "/// A service.\n"
+            + "service Example {\n    version: \"2024-01-01\"\n    operations: [GetFoo]\n}\n\n"
+            + "@readonly\n@http(method: \"GET\", uri: \"/foo/{id}\")\n"
+            + "operation GetFoo {\n    input := {\n        @required\n        @httpLabel\n        id: String\n    }\n"
+            + "    output := with [Timestamps] {\n        @range(min: -1, max: 1.5)\n        score: Float\n    }\n}\n\n"
+            + "@mixin\nstructure Timestamps {\n    @timestampFormat(\"epoch-seconds\")\n    created: Timestamp\n}\n\n"
+            + "enum Color {\n    RED = \"red\"\n    BLUE\n}\n\n"
+            + "@length(min: 1)\nlist Colors {\n    member: Color\n}\n\n"
+            + "@trait(selector: \"structure\")\nstructure custom {\n    tags: Colors\n}\n\n"
+            + "@custom(tags: [\"red\"])\nstructure Tagged {}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void roundTripsModels() {
+        Model model = assemble(MODEL);
+        Path file = tempDir.resolve("model.bin");
+
+        BinaryModelSnapshot.write(model, file);
+        Model loaded = BinaryModelSnapshot.read(file).load(getClass().getClassLoader());
+
+        assertThat(loaded, equalTo(model));
+        assertThat(serialize(loaded), equalTo(serialize(model)));
+    }
+
+    @Test
+    public void loadsTypedTraitsAndDecodesOtherTraitsWhenRead() {
+        Model model = assemble(MODEL);
+        Path file = tempDir.resolve("model.bin");
+        ShapeId custom = ShapeId.from("smithy.example#custom");
+        ShapeId tagged = ShapeId.from("smithy.example#Tagged");
+
+        BinaryModelSnapshot.write(model, file);
+        Model loaded = BinaryModelSnapshot.read(file).load(getClass().getClassLoader());
+
+        assertTrue(loaded.expectShape(ShapeId.from("smithy.example#GetFoo")).hasTrait(ReadonlyTrait.class));
+        assertThat(loaded.expectShape(tagged).findTrait(custom).get().toNode(),
+                equalTo(model.expectShape(tagged).findTrait(custom).get().toNode()));
+    }
+
+    @Test
+    public void listsShapesWithoutLoadingThem() {
+        Path file = tempDir.resolve("model.bin");
+        BinaryModelSnapshot.write(assemble(MODEL), file);
+
+        BinaryModelSnapshot snapshot = BinaryModelSnapshot.read(file);
+
+        assertThat(snapshot.getShapeTypes(), hasEntry(ShapeId.from("smithy.example#Example"), ShapeType.SERVICE));
+        assertThat(snapshot.getShapeTypes(), hasEntry(ShapeId.from("smithy.example#Color"), ShapeType.ENUM));
+    }
+
+    @Test
+    public void isSmallerThanJsonAst() throws IOException {
+        Model model = assemble(MODEL);
+        Path file = tempDir.resolve("model.bin");
+
+        BinaryModelSnapshot.write(model, file);
+
+        assertThat(Files.size(file), lessThan((long) serialize(model).getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("model.json");
+        Files.write(file, serialize(assemble(MODEL)).getBytes(StandardCharsets.UTF_8));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BinaryModelSnapshot.read(file));
+
+        assertThat(e.getMessage(), containsString("Not a Smithy model snapshot"));
+    }
+
+    private static Model assemble(String idl) {
+        return Model.assembler().addUnparsedModel("model.smithy", idl).assemble().unwrap();
+    }
+
+    private static String serialize(Model model) {
+        return Node.printJson(ModelSerializer.builder().build().serialize(model));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClassDataSharingTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void parsesFeatureVersions() {
+        assertThat(ClassDataSharing.featureVersion("1.8.0_402"), equalTo(8));
+        assertThat(ClassDataSharing.featureVersion("11.0.22"), equalTo(11));
+        assertThat(ClassDataSharing.featureVersion("17.0.9"), equalTo(17));
+        assertThat(ClassDataSharing.featureVersion("21-ea"), equalTo(21));
+        assertThat(ClassDataSharing.featureVersion(""), equalTo(0));
+    }
+
+    @Test
+    public void requiresHotSpotJava17OrNewer() throws IOException {
+        assertTrue(ClassDataSharing.isSupported(release("JAVA_VERSION=\"17.0.9\"\nJVM_VARIANT=\"Hotspot\"\n")));
+        assertTrue(ClassDataSharing.isSupported(release("JAVA_VERSION=\"21.0.1\"\n")));
+        assertFalse(ClassDataSharing.isSupported(release("JAVA_VERSION=\"11.0.22\"\nJVM_VARIANT=\"Hotspot\"\n")));
+        assertFalse(ClassDataSharing.isSupported(release("JAVA_VERSION=\"1.8.0_402\"\n")));
+        assertFalse(ClassDataSharing.isSupported(release("JAVA_VERSION=\"17.0.9\"\nJVM_VARIANT=\"Openj9\"\n")));
+        assertFalse(ClassDataSharing.isSupported(release("")));
+    }
+
+    @Test
+    public void readsRuntimeOfWorkerExecutable() throws IOException {
+        release("JAVA_VERSION=\"17.0.9\"\nJAVA_RUNTIME_VERSION=\"17.0.9+9\"\nIMPLEMENTOR=\"Vendor\"\n");
+        File javaHome = ClassDataSharing.javaHome(tempDir.resolve("bin").resolve("java").toString());
+        Properties release = ClassDataSharing.readRelease(javaHome);
+
+        assertThat(javaHome, equalTo(tempDir.toFile().getAbsoluteFile()));
+        assertThat(ClassDataSharing.runtimeId(javaHome, release),
+                equalTo("Vendor 17.0.9+9 " + tempDir.toFile().getAbsolutePath()));
+    }
+
+    private Properties release(String contents) throws IOException {
+        Files.write(tempDir.resolve("release"), contents.getBytes(StandardCharsets.UTF_8));
+        return ClassDataSharing.readRelease(tempDir.toFile());
+    }
+}
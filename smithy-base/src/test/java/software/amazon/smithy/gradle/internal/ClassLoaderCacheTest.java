@@ -0,0 +1,77 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClassLoaderCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void reusesClassLoaderForSameClasspathContents() throws IOException {
+        List<File> first = classpath("a", "same");
+        List<File> second = classpath("b", "same");
+        AtomicReference<ClassLoader> firstLoader = new AtomicReference<>();
+        AtomicReference<ClassLoader> secondLoader = new AtomicReference<>();
+
+        try (ClassLoaderCache cache = new ClassLoaderCache(2)) {
+            assertFalse(cache.withClassLoader(first, firstLoader::set));
+            assertTrue(cache.withClassLoader(second, secondLoader::set));
+
+            assertSame(firstLoader.get(), secondLoader.get());
+            assertThat(cache.getHits(), equalTo(1L));
+            assertThat(cache.getMisses(), equalTo(1L));
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedClassLoader() throws IOException {
+        List<File> a = classpath("a", "a");
+        List<File> b = classpath("b", "b");
+        List<File> c = classpath("c", "c");
+        AtomicReference<ClassLoader> original = new AtomicReference<>();
+        AtomicReference<ClassLoader> reloaded = new AtomicReference<>();
+
+        try (ClassLoaderCache cache = new ClassLoaderCache(2)) {
+            cache.withClassLoader(a, original::set);
+            cache.withClassLoader(b, loader -> {});
+            cache.withClassLoader(c, loader -> {});
+            assertThat(cache.size(), equalTo(2));
+
+            assertFalse(cache.withClassLoader(a, reloaded::set));
+            assertThat(reloaded.get(), not(original.get()));
+            assertThat(cache.getMisses(), equalTo(4L));
+        }
+    }
+
+    @Test
+    public void rejectsInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ClassLoaderCache(0));
+    }
+
+    private List<File> classpath(String name, String contents) throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve(name));
+        Files.write(dir.resolve("marker.txt"), contents.getBytes(StandardCharsets.UTF_8));
+        return Collections.singletonList(dir.toFile());
+    }
+}
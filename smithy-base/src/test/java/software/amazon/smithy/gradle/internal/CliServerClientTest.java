@@ -0,0 +1,99 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CliServerClientTest {
+    private static final File WORKING_DIRECTORY = new File("project");
+    private static final Set<String> CONFIG_VARIABLES = Collections.singleton("MODEL_VERSION");
+
+    @Test
+    public void ignoresUnrelatedEnvironmentVariables() {
+        Map<String, String> first = environment("GITHUB_ACTION", "build");
+        Map<String, String> second = environment("GITHUB_ACTION", "test");
+
+        assertThat(key(first), equalTo(key(second)));
+    }
+
+    @Test
+    public void includesSmithyEnvironmentVariables() {
+        Map<String, String> first = environment("SMITHY_DEPENDENCY_MODE", "standard");
+        Map<String, String> second = environment("SMITHY_DEPENDENCY_MODE", "forbid");
+
+        assertThat(key(first), not(equalTo(key(second))));
+    }
+
+    @Test
+    public void includesEnvironmentVariablesReferencedByConfigs() {
+        Map<String, String> first = environment("MODEL_VERSION", "1");
+        Map<String, String> second = environment("MODEL_VERSION", "2");
+
+        assertThat(key(first), not(equalTo(key(second))));
+        assertThat(key(first), not(equalTo(key(environment("OTHER", "1")))));
+    }
+
+    @Test
+    public void includesJavaInstallationAndWorkingDirectory() {
+        Map<String, String> environment = CliServerClient.serverEnvironment(environment("PATH", "/bin"),
+                CONFIG_VARIABLES);
+        String key = CliServerClient.serverKey("hash", "/java", WORKING_DIRECTORY, environment);
+
+        assertThat(CliServerClient.serverKey("hash", "/other-java", WORKING_DIRECTORY, environment),
+                not(equalTo(key)));
+        assertThat(CliServerClient.serverKey("hash", "/java", new File("other"), environment),
+                not(equalTo(key)));
+        assertThat(CliServerClient.serverKey("other-hash", "/java", WORKING_DIRECTORY, environment),
+                not(equalTo(key)));
+    }
+
+    @Test
+    public void launchesServerWithKeyedAndPlatformVariablesOnly() {
+        Map<String, String> daemon = environment("MODEL_VERSION", "1");
+        daemon.put("SMITHY_LOG_LEVEL", "debug");
+        daemon.put("GITHUB_TOKEN", "secret");
+        daemon.put("GITHUB_ACTION", "build");
+
+        Map<String, String> server = CliServerClient.serverEnvironment(daemon, CONFIG_VARIABLES);
+
+        assertThat(server, hasEntry("PATH", "/bin"));
+        assertThat(server, hasEntry("MODEL_VERSION", "1"));
+        assertThat(server, hasEntry("SMITHY_LOG_LEVEL", "debug"));
+        assertThat(server, hasEntry("SMITHY_DEPENDENCY_MODE", "forbid"));
+        assertThat(server, not(hasKey("GITHUB_TOKEN")));
+        assertThat(server, not(hasKey("GITHUB_ACTION")));
+    }
+
+    @Test
+    public void matchesPlatformVariablesIgnoringCase() {
+        Map<String, String> server = CliServerClient.serverEnvironment(environment("SystemRoot", "C:\\Windows"),
+                CONFIG_VARIABLES);
+
+        assertThat(server, hasEntry("SystemRoot", "C:\\Windows"));
+    }
+
+    private static String key(Map<String, String> environment) {
+        return CliServerClient.serverKey("hash", "/java", WORKING_DIRECTORY,
+                CliServerClient.serverEnvironment(environment, CONFIG_VARIABLES));
+    }
+
+    private static Map<String, String> environment(String name, String value) {
+        Map<String, String> result = new HashMap<>();
+        result.put("PATH", "/bin");
+        result.put(name, value);
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+public class CliServerTest {
+    @Test
+    public void readsWrittenStrings() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CliServer.writeString(new DataOutputStream(bytes), "validate");
+
+        String value = CliServer.readString(input(bytes.toByteArray()), 8);
+
+        assertThat(value, equalTo("validate"));
+    }
+
+    @Test
+    public void rejectsNegativeLengths() throws IOException {
+        assertThrows(IOException.class, () -> CliServer.readString(input(length(-1)), 8));
+    }
+
+    @Test
+    public void rejectsLengthsAboveLimit() throws IOException {
+        assertThrows(IOException.class, () -> CliServer.readString(input(length(9)), 8));
+    }
+
+    private static byte[] length(int length) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(length);
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
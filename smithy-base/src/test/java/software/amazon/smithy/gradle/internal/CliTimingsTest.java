@@ -0,0 +1,71 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CliTimingsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void roundTripsThroughFiles() {
+        CliTimings timings = new CliTimings("build", 1000);
+        timings.put(CliTimings.CLASS_LOADER, 20);
+        timings.put(CliTimings.RUN, 300);
+        File file = tempDir.resolve("timings.json").toFile();
+
+        timings.write(file);
+        CliTimings read = CliTimings.read(file);
+
+        assertThat(read.getCommand(), equalTo("build"));
+        assertThat(read.getStartedAtEpochMillis(), equalTo(1000L));
+        assertThat(read.getPhases(), equalTo(timings.getPhases()));
+        assertThat(CliTimings.read(tempDir.resolve("missing.json").toFile()), nullValue());
+    }
+
+    @Test
+    public void earlierPhasesComeFirstAndNegativeDurationsAreClamped() {
+        CliTimings timings = new CliTimings("validate", 0);
+        timings.put(CliTimings.RUN, 50);
+
+        CliTimings combined = timings.withEarlierPhases(Collections.singletonMap(CliTimings.QUEUE, -5L));
+
+        assertThat(combined.getPhases().keySet(), contains(CliTimings.QUEUE, CliTimings.RUN));
+        assertThat(combined.getPhases().get(CliTimings.QUEUE), equalTo(0L));
+        assertThat(combined.getTotalMillis(), equalTo(50L));
+    }
+
+    @Test
+    public void reportSumsInvocationsOfTask() throws Exception {
+        CliTimingReport report = new CliTimingReport(":smithyFormat");
+        for (int i = 0; i < 2; i++) {
+            CliTimings timings = new CliTimings("format", 0);
+            timings.put(CliTimings.RUN, 100);
+            report.add(timings);
+        }
+        report.addMemoryBudgetWait(30);
+        Path file = tempDir.resolve("reports").resolve("smithyFormat.json");
+
+        report.write(file);
+
+        assertThat(report.getPhases().keySet(), contains(CliTimingReport.MEMORY_BUDGET, CliTimings.RUN));
+        assertThat(report.getTotalMillis(), equalTo(230L));
+        assertThat(report.summary(), containsString("2 Smithy CLI invocation(s) of :smithyFormat took 230 ms"));
+        assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), containsString("\"format\""));
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.model.validation.Severity;
+
+public class DirectBuildEngineTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void returnsProjectionsAndProducedFiles() throws IOException {
+        Path config = write("smithy-build.json", "{\"version\": \"1.0\", \"projections\": {\"other\": {}}}");
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        Path output = tempDir.resolve("output");
+
+        DirectBuildResult result = build(new DirectBuildRequest()
+                .configs(Collections.singletonList(config.toString()))
+                .sources(Collections.singletonList(model.toString()))
+                .output(output.toString()));
+
+        assertFalse(result.isBroken());
+        assertThat(result.getFailures(), empty());
+        List<String> names = result.getProjections()
+                .stream()
+                .map(DirectBuildResult.Projection::getName)
+                .collect(Collectors.toList());
+        assertThat(names, containsInAnyOrder("source", "other"));
+        for (DirectBuildResult.Projection projection : result.getProjections()) {
+            Path modelJson = output.resolve(projection.getName()).resolve("model").resolve("model.json");
+            assertThat(projection.getPluginFiles().get("model"), contains(modelJson.toString()));
+            assertTrue(Files.exists(modelJson));
+            assertThat(projection.getPluginMillis().keySet(), hasItem("model"));
+        }
+        assertThat(result.getPhases().keySet(), contains(SmithyBuildBridge.PHASE_LOAD_CONFIG,
+                SmithyBuildBridge.PHASE_DISCOVER_MODELS,
+                SmithyBuildBridge.PHASE_ASSEMBLE_MODEL,
+                SmithyBuildBridge.PHASE_PROJECTIONS));
+    }
+
+    @Test
+    public void returnsValidationEventsOfBrokenModels() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\n"
+                + "structure Foo {\n    bar: Missing\n}\n");
+
+        DirectBuildResult result = build(new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString()));
+
+        assertTrue(result.isBroken());
+        assertThat(result.getProjections(), empty());
+        DirectBuildResult.Event event = result.getEvents()
+                .stream()
+                .filter(e -> e.getSeverity() == Severity.ERROR)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertThat(event.getShapeId().orElse(null), equalTo("smithy.example#Foo$bar"));
+        assertThat(event.toString(), containsString(model.toString() + ":4:"));
+    }
+
+    @Test
+    public void forbidsMavenDependencies() throws IOException {
+        Path config = write("smithy-build.json", "{\"version\": \"1.0\", "
+                + "\"maven\": {\"dependencies\": [\"software.amazon.smithy:smithy-aws-traits:1.0.0\"]}}");
+
+        GradleException e = assertThrows(GradleException.class, () -> build(new DirectBuildRequest()
+                .configs(Collections.singletonList(config.toString()))
+                .dependencyMode("forbid")));
+
+        assertThat(e.getMessage(), containsString("SMITHY_DEPENDENCY_MODE is set to 'forbid'"));
+    }
+
+    @Test
+    public void resultsRoundTripThroughFiles() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\n"
+                + "@deprecated\nstructure Foo {}\nstructure Bar { foo: Foo }\n");
+        DirectBuildResult result = build(new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString()));
+        Path file = tempDir.resolve("result.json");
+
+        result.write(file);
+        DirectBuildResult read = DirectBuildResult.read(file);
+
+        assertThat(read.isBroken(), equalTo(result.isBroken()));
+        assertThat(read.getDurationMillis(), equalTo(result.getDurationMillis()));
+        assertThat(toStrings(read.getEvents()), equalTo(toStrings(result.getEvents())));
+        assertThat(toStrings(read.getEvents()), hasItem(containsString("DeprecatedShape")));
+        assertThat(read.getProjections().get(0).getPluginFiles(),
+                equalTo(result.getProjections().get(0).getPluginFiles()));
+        assertThat(read.getPhases(), equalTo(result.getPhases()));
+    }
+
+    @Test
+    public void rebuildsOnlyProjectionsAffectedByChangedFiles() throws IOException {
+        String projection = "{\"transforms\": [{\"name\": \"includeNamespaces\", "
+                + "\"args\": {\"namespaces\": [\"example.%s\"]}}]}";
+        Path config = write("smithy-build.json", "{\"version\": \"1.0\", \"projections\": {"
+                + "\"a\": " + String.format(projection, "a") + ", \"b\": " + String.format(projection, "b") + "}}");
+        Path a = write("a.smithy", "$version: \"2.0\"\nnamespace example.a\nstructure A {}\n");
+        Path b = write("b.smithy", "$version: \"2.0\"\nnamespace example.b\nstructure B {}\n");
+        Path output = tempDir.resolve("output");
+        Path index = tempDir.resolve("index.json");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .configs(Collections.singletonList(config.toString()))
+                .sources(Arrays.asList(a.toString(), b.toString()))
+                .output(output.toString())
+                .indexFile(index.toString())
+                .baseDirectory(tempDir.toString());
+
+        DirectBuildResult full = build(request.changedFiles(Collections.singletonList(a.toString())));
+        assertFalse(full.isIncremental());
+        assertThat(full.getProjections(), hasSize(3));
+        assertTrue(Files.exists(index));
+
+        Path stale = Files.createFile(output.resolve("a").resolve("stale.txt"));
+        write("a.smithy", "$version: \"2.0\"\nnamespace example.a\nstructure A {}\nstructure A2 {}\n");
+        DirectBuildResult incremental = build(request.changedFiles(Collections.singletonList(a.toString())));
+
+        assertTrue(incremental.isIncremental());
+        assertThat(incremental.getUpToDateProjections(), contains("b"));
+        assertThat(incremental.getProjections()
+                .stream()
+                .map(DirectBuildResult.Projection::getName)
+                .collect(Collectors.toList()), containsInAnyOrder("a", "source"));
+        assertFalse(Files.exists(stale));
+        assertThat(new String(Files.readAllBytes(output.resolve("a").resolve("model").resolve("model.json")),
+                StandardCharsets.UTF_8), containsString("example.a#A2"));
+        assertTrue(Files.exists(output.resolve("b").resolve("model").resolve("model.json")));
+    }
+
+    @Test
+    public void skipsProjectionsWhenModelIsSemanticallyUnchanged() throws IOException {
+        Path config = write("smithy-build.json", "{\"version\": \"1.0\", \"projections\": {\"other\": {}}}");
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        Path output = tempDir.resolve("output");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .configs(Collections.singletonList(config.toString()))
+                .sources(Collections.singletonList(model.toString()))
+                .output(output.toString())
+                .indexFile(tempDir.resolve("index.json").toString())
+                .baseDirectory(tempDir.toString())
+                .semanticFingerprint(true);
+        List<String> changed = Collections.singletonList(model.toString());
+        build(request.changedFiles(changed));
+
+        write("main.smithy", "$version: \"2.0\"\n\n// Reformatted\nnamespace smithy.example\n\nstructure Foo {\n}\n");
+        DirectBuildResult reformatted = build(request.changedFiles(changed));
+        assertTrue(reformatted.isModelUnchanged());
+        assertThat(reformatted.getProjections(), empty());
+        assertThat(reformatted.getUpToDateProjections(), contains("other", "source"));
+
+        write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Bar {}\n");
+        DirectBuildResult changedModel = build(request.changedFiles(changed));
+        assertFalse(changedModel.isModelUnchanged());
+        assertThat(changedModel.getProjections(), hasSize(2));
+    }
+
+    @Test
+    public void restoresPluginArtifactsFromCache() throws IOException {
+        Path config = write("smithy-build.json", "{\"version\": \"1.0\", \"plugins\": {\"nullabilityReport\": {}}}");
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        Path cache = tempDir.resolve("cache");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .configs(Collections.singletonList(config.toString()))
+                .sources(Collections.singletonList(model.toString()))
+                .pluginCache(cache.toString(), "salt");
+
+        DirectBuildResult first = build(request.output(tempDir.resolve("first").toString()));
+        assertThat(first.getProjections().get(0).getCachedPlugins(), empty());
+
+        DirectBuildResult second = build(request.output(tempDir.resolve("second").toString()));
+        DirectBuildResult.Projection projection = second.getProjections().get(0);
+        assertThat(projection.getCachedPlugins(), contains("nullabilityReport"));
+        Path report = tempDir.resolve("second/source/nullabilityReport/nullability-report.json");
+        assertTrue(Files.exists(report));
+        assertThat(projection.getPluginFiles().get("nullabilityReport"), contains(report.toString()));
+
+        write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Bar {}\n");
+        DirectBuildResult changed = build(request.output(tempDir.resolve("third").toString()));
+        assertThat(changed.getProjections().get(0).getCachedPlugins(), empty());
+    }
+
+    @Test
+    public void selectsShapesFromModelSnapshot() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\n"
+                + "@deprecated\nstructure Foo {}\nstructure Bar { foo: Foo }\n");
+        Path snapshot = tempDir.resolve("snapshot").resolve("model.bin");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString())
+                .modelSnapshot(snapshot.toString());
+
+        DirectBuildResult built = build(request);
+        assertTrue(Files.exists(snapshot));
+        assertThat(built.getPhases().keySet(), hasItem(SmithyBuildBridge.PHASE_WRITE_MODEL_SNAPSHOT));
+
+        DirectBuildResult selected = build(new DirectBuildRequest()
+                .modelSnapshot(snapshot.toString())
+                .selector("structure[id|namespace = 'smithy.example']"));
+        assertThat(selected.getSelectedShapes(), contains("smithy.example#Bar", "smithy.example#Foo"));
+        assertThat(selected.getProjections(), empty());
+        DirectBuildResult deprecated = build(new DirectBuildRequest()
+                .modelSnapshot(snapshot.toString())
+                .selector("[trait|deprecated][id|namespace = 'smithy.example']"));
+        assertThat(deprecated.getSelectedShapes(), contains("smithy.example#Foo"));
+
+        write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo { bar: Missing }\n");
+        assertTrue(build(request).isBroken());
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @Test
+    public void sharesModelsBetweenBuildsWithSameInputs() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        ModelCache cache = new ModelCache();
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString());
+
+        DirectBuildResult first = build(request, cache);
+        assertFalse(first.isSharedModel());
+        assertThat(first.getPhases().keySet(), hasItem(SmithyBuildBridge.PHASE_ASSEMBLE_MODEL));
+
+        DirectBuildResult second = build(request, cache);
+        assertTrue(second.isSharedModel());
+        assertThat(second.getPhases().keySet(), not(hasItem(SmithyBuildBridge.PHASE_ASSEMBLE_MODEL)));
+        assertThat(second.getProjections(), hasSize(1));
+
+        DirectBuildResult selected = build(new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .selector("structure[id|namespace = 'smithy.example']"), cache);
+        assertTrue(selected.isSharedModel());
+        assertThat(selected.getSelectedShapes(), contains("smithy.example#Foo"));
+
+        write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Bar {}\n");
+        DirectBuildResult changed = build(new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .selector("structure[id|namespace = 'smithy.example']"), cache);
+        assertFalse(changed.isSharedModel());
+        assertThat(changed.getSelectedShapes(), contains("smithy.example#Bar"));
+        assertThat(cache.getHits(), equalTo(2L));
+    }
+
+    @Test
+    public void onlySharesModelsAssembledWithSameCliClasspath() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        ModelCache cache = new ModelCache();
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .selector("structure");
+
+        assertFalse(build(request, "first", cache).isSharedModel());
+        assertFalse(build(request, "second", cache).isSharedModel());
+        assertTrue(build(request, "first", cache).isSharedModel());
+        assertThat(cache.size(), equalTo(2));
+    }
+
+    @Test
+    public void sharesValidationEventsOfBrokenModels() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\n"
+                + "structure Foo {\n    bar: Missing\n}\n");
+        ModelCache cache = new ModelCache();
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString());
+
+        DirectBuildResult first = build(request, cache);
+        DirectBuildResult second = build(request, cache);
+
+        assertTrue(second.isSharedModel());
+        assertTrue(second.isBroken());
+        assertThat(second.getEvents(), hasSize(first.getEvents().size()));
+    }
+
+    @Test
+    public void loadsUnchangedFilesFromParseCache() throws IOException {
+        Path models = tempDir.resolve("model");
+        Files.createDirectories(models);
+        write("model/a.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        write("model/b.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Bar { foo: Foo }\n");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(models.toString()))
+                .output(tempDir.resolve("output").toString())
+                .parseCache(tempDir.resolve("cache").toString());
+
+        DirectBuildResult first = build(request);
+        assertThat(first.getParseCacheHits(), equalTo(0));
+        assertThat(first.getParseCacheMisses(), equalTo(2));
+
+        write("model/b.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Bar { foo: Missing }\n");
+        DirectBuildResult broken = build(request);
+        assertTrue(broken.isBroken());
+        assertThat(toStrings(broken.getEvents()).toString(), containsString("b.smithy"));
+
+        write("model/b.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Baz { foo: Foo }\n");
+        DirectBuildResult changed = build(request);
+        assertFalse(changed.isBroken());
+        assertThat(changed.getParseCacheHits(), equalTo(1));
+        assertThat(changed.getParseCacheMisses(), equalTo(1));
+    }
+
+    @Test
+    public void runsPlainBuildsThroughPublicApi() throws IOException {
+        Path model = write("main.smithy", "$version: \"2.0\"\nnamespace smithy.example\nstructure Foo {}\n");
+        DirectBuildRequest request = new DirectBuildRequest()
+                .sources(Collections.singletonList(model.toString()))
+                .output(tempDir.resolve("output").toString());
+
+        assertFalse(request.requiresBridge());
+        assertTrue(request.modelSnapshot(tempDir.resolve("model.bin").toString()).requiresBridge());
+        Map<String, Object> result = ReflectiveSmithyBuild.build(DirectBuildEngineTest.class.getClassLoader(),
+                request.modelSnapshot(null).toMap());
+        DirectBuildResult built = DirectBuildResult.fromMap(result);
+
+        assertFalse(built.isBroken());
+        assertThat(built.getProjections(), hasSize(1));
+        assertTrue(Files.exists(tempDir.resolve("output").resolve("source").resolve("model").resolve("model.json")));
+    }
+
+    @Test
+    public void reusesBridgeClassLoaderOfSameCliClasspath() {
+        ClassLoader cli = DirectBuildEngineTest.class.getClassLoader();
+        ClassLoader other = new URLClassLoader(new URL[0], cli);
+
+        ClassLoader first = DirectBuildEngine.bridgeClassLoader(cli, "reused");
+        assertThat(DirectBuildEngine.bridgeClassLoader(cli, "reused"), sameInstance(first));
+        assertThat(DirectBuildEngine.bridgeClassLoader(cli, "other"), not(sameInstance(first)));
+        assertThat(DirectBuildEngine.bridgeClassLoader(other, "reused"), not(sameInstance(first)));
+        assertThat(DirectBuildEngine.bridgeClassLoader(cli, null), not(sameInstance(first)));
+    }
+
+    private DirectBuildResult build(DirectBuildRequest request) {
+        return build(request, null);
+    }
+
+    private DirectBuildResult build(DirectBuildRequest request, ModelCache cache) {
+        return build(request, "cli", cache);
+    }
+
+    private DirectBuildResult build(DirectBuildRequest request, String cliClasspathHash, ModelCache cache) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        ClassLoader classLoader = DirectBuildEngineTest.class.getClassLoader();
+        try {
+            thread.setContextClassLoader(classLoader);
+            return DirectBuildEngine.build(classLoader, cliClasspathHash, request, cache);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(tempDir.resolve(name)), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> toStrings(List<DirectBuildResult.Event> events) {
+        return events.stream().map(Object::toString).collect(Collectors.toList());
+    }
+}
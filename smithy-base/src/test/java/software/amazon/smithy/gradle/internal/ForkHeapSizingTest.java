@@ -0,0 +1,92 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ForkHeapSizingTest {
+    private static final long MIB = 1024 * 1024;
+    private static final long GIB = 1024 * MIB;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void clampsToRoundedBounds() {
+        assertThat(ForkHeapSizing.clamp(10 * MIB, 16 * GIB), equalTo(512 * MIB));
+        assertThat(ForkHeapSizing.clamp(600 * MIB, 16 * GIB), equalTo(768 * MIB));
+        assertThat(ForkHeapSizing.clamp(20 * GIB, 16 * GIB), equalTo(8 * GIB));
+        assertThat(ForkHeapSizing.clamp(20 * GIB, -1), equalTo(20 * GIB));
+    }
+
+    @Test
+    public void sizesFromLargestRecentPeak() {
+        ForkHeapSizing sizing = new ForkHeapSizing(tempDir.resolve("history.properties").toFile());
+        sizing.recordPeak(700 * MIB);
+        for (int i = 0; i < 5; i++) {
+            sizing.recordPeak(100 * MIB);
+        }
+        // The 700 MiB peak has fallen out of the history.
+        assertThat(sizing.pickHeapSize(0), equalTo(512 * MIB));
+
+        sizing.recordPeak(300 * MIB);
+        assertThat(sizing.pickHeapSize(0), equalTo(768 * MIB));
+    }
+
+    @Test
+    public void doublesHeapAfterOutOfMemory() {
+        File history = tempDir.resolve("nested").resolve("history.properties").toFile();
+        new ForkHeapSizing(history).recordOutOfMemory("512m");
+
+        long heap = new ForkHeapSizing(history).pickHeapSize(0);
+
+        assertThat(heap, equalTo(GIB));
+        assertThat(ForkHeapSizing.format(heap), equalTo("1024m"));
+    }
+
+    @Test
+    public void relaxesHeapAfterLaterRunsSucceed() {
+        ForkHeapSizing sizing = new ForkHeapSizing(tempDir.resolve("history.properties").toFile());
+        sizing.recordOutOfMemory("512m");
+        for (int i = 0; i < 4; i++) {
+            sizing.recordPeak(100 * MIB);
+        }
+        assertThat(sizing.pickHeapSize(0), equalTo(GIB));
+
+        sizing.recordPeak(100 * MIB);
+        assertThat(sizing.pickHeapSize(0), equalTo(512 * MIB));
+    }
+
+    @Test
+    public void marksUsageFileWhenOutOfMemory() {
+        File usage = tempDir.resolve("usage.txt").toFile();
+
+        assertThrows(OutOfMemoryError.class, () -> ForkHeapSizing.measure(usage, () -> {
+            throw new OutOfMemoryError("Java heap space");
+        }));
+
+        assertTrue(ForkHeapSizing.ranOutOfMemory(usage));
+        assertThat(ForkHeapSizing.readUsage(usage), equalTo(-1L));
+    }
+
+    @Test
+    public void doesNotMarkUsageFileWhenActionCompletes() {
+        File usage = tempDir.resolve("usage.txt").toFile();
+
+        ForkHeapSizing.measure(usage, () -> {});
+
+        assertFalse(ForkHeapSizing.ranOutOfMemory(usage));
+        assertTrue(ForkHeapSizing.readUsage(usage) >= 0);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.GradleException;
+import org.junit.jupiter.api.Test;
+
+public class InProcessCliGuardTest {
+    private static final String PROPERTY = "SMITHY_DEPENDENCY_MODE";
+
+    @Test
+    public void keepsSettingsAppliedUntilLastInvocationCompletes() throws Exception {
+        int threads = 16;
+        CountDownLatch started = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    boolean[] consistent = {true};
+                    InProcessCliGuard.run("forbid", () -> {
+                        started.countDown();
+                        try {
+                            // Wait until every invocation overlaps before checking the settings.
+                            started.await(10, TimeUnit.SECONDS);
+                            for (int j = 0; j < 100; j++) {
+                                consistent[0] &= "forbid".equals(System.getProperty(PROPERTY));
+                                consistent[0] &= !useCaches();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    return consistent[0];
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS), equalTo(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(InProcessCliGuard.getActiveCount(), equalTo(0));
+        assertThat(System.getProperty(PROPERTY), nullValue());
+        assertThat(useCaches(), equalTo(true));
+    }
+
+    @Test
+    public void rejectsConflictingDependencyMode() {
+        InProcessCliGuard.run("forbid", () -> {
+            assertThrows(GradleException.class, () -> InProcessCliGuard.run("standard", () -> {}));
+        });
+
+        assertThat(InProcessCliGuard.getActiveCount(), equalTo(0));
+    }
+
+    private static boolean useCaches() {
+        try {
+            URLConnection connection = InProcessCliGuardTest.class
+                    .getResource("/software/amazon/smithy/gradle/empty")
+                    .openConnection();
+            return connection.getDefaultUseCaches();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MemoryBudgetTest {
+    private static final long MIB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void waitsUntilEnoughMemoryIsReleased() throws Exception {
+        MemoryBudget budget = new MemoryBudget(100 * MIB);
+        MemoryBudget.Lease first = budget.acquire("first", 60 * MIB);
+        CountDownLatch admitted = new CountDownLatch(1);
+
+        Thread second = new Thread(() -> {
+            try (MemoryBudget.Lease lease = budget.acquire("second", 60 * MIB)) {
+                admitted.countDown();
+            }
+        });
+        second.start();
+
+        assertFalse(admitted.await(200, TimeUnit.MILLISECONDS));
+        assertThat(budget.getLeasedBytes(), equalTo(60 * MIB));
+        first.close();
+        assertTrue(admitted.await(10, TimeUnit.SECONDS));
+        second.join();
+        assertThat(budget.getLeasedBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void oversizedLeasesTakeTheWholeBudget() {
+        MemoryBudget budget = new MemoryBudget(100 * MIB);
+
+        try (MemoryBudget.Lease lease = budget.acquire("large", 10_000 * MIB)) {
+            assertThat(lease.getBytes(), equalTo(100 * MIB));
+            assertThat(budget.getLeasedBytes(), equalTo(budget.getBudgetBytes()));
+        }
+        assertThat(budget.getLeasedBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void closingLeaseTwiceReleasesOnce() {
+        MemoryBudget budget = new MemoryBudget(100 * MIB);
+        MemoryBudget.Lease other = budget.acquire("other", 30 * MIB);
+        MemoryBudget.Lease lease = budget.acquire("lease", 30 * MIB);
+
+        lease.close();
+        lease.close();
+
+        assertThat(budget.getLeasedBytes(), equalTo(30 * MIB));
+        other.close();
+    }
+
+    @Test
+    public void estimatesGrowWithInputSize() {
+        assertTrue(MemoryBudget.estimate(MIB) > MemoryBudget.estimate(0));
+        assertThrows(IllegalArgumentException.class, () -> new MemoryBudget(0));
+    }
+
+    @Test
+    public void measuresOnlyModelsOfClasspathEntries() throws IOException {
+        File jar = tempDir.resolve("models.jar").toFile();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            out.putNextEntry(new JarEntry("META-INF/smithy/main.smithy"));
+            out.write(new byte[1000]);
+            out.putNextEntry(new JarEntry("com/example/Generated.class"));
+            out.write(new byte[50_000]);
+        }
+        Path dir = Files.createDirectories(tempDir.resolve("classes").resolve("META-INF").resolve("smithy"));
+        Files.write(dir.resolve("main.smithy"), new byte[300]);
+        Files.write(tempDir.resolve("classes").resolve("Other.class"), new byte[5000]);
+
+        assertThat(MemoryBudget.modelBytes(jar), equalTo(1000L));
+        assertThat(MemoryBudget.modelBytes(tempDir.resolve("classes").toFile()), equalTo(300L));
+        assertThat(MemoryBudget.modelBytes(tempDir.resolve("missing.jar").toFile()), equalTo(0L));
+    }
+}
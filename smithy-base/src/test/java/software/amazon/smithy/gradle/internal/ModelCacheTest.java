@@ -0,0 +1,84 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class ModelCacheTest {
+    @Test
+    public void returnsModelsStoredUnderSameKey() {
+        ModelCache cache = new ModelCache();
+        Object model = new Object();
+
+        assertThat(cache.get("a"), nullValue());
+        cache.put("a", model);
+
+        assertSame(model, cache.get("a"));
+        assertThat(cache.get("b"), nullValue());
+        assertThat(cache.getHits(), equalTo(1L));
+        assertThat(cache.getMisses(), equalTo(2L));
+    }
+
+    @Test
+    public void replacesModelsStoredUnderSameKey() {
+        ModelCache cache = new ModelCache();
+        Object replacement = new Object();
+
+        cache.put("a", new Object());
+        cache.put("a", replacement);
+
+        assertSame(replacement, cache.get("a"));
+        assertThat(cache.size(), equalTo(1));
+        assertThat(cache.getEvictions(), equalTo(0L));
+    }
+
+    @Test
+    public void clearsModels() {
+        ModelCache cache = new ModelCache();
+        cache.put("a", new Object());
+
+        cache.clear();
+
+        assertThat(cache.size(), equalTo(0));
+        assertThat(cache.get("a"), nullValue());
+    }
+
+    @Test
+    public void closesResourcesWhenCleared() {
+        ModelCache cache = new ModelCache();
+        AtomicInteger closed = new AtomicInteger();
+        cache.put("a", new Object(), closed::incrementAndGet);
+
+        assertThat(closed.get(), equalTo(0));
+        cache.clear();
+
+        assertThat(closed.get(), equalTo(1));
+        cache.clear();
+        assertThat(closed.get(), equalTo(1));
+    }
+
+    @Test
+    public void keepsResourcesOfReplacedModelsOpenUntilCleared() {
+        ModelCache cache = new ModelCache();
+        AtomicInteger closedFirst = new AtomicInteger();
+        AtomicInteger closedSecond = new AtomicInteger();
+        Object first = new Object();
+        cache.put("a", first, closedFirst::incrementAndGet);
+        cache.put("a", new Object(), closedSecond::incrementAndGet);
+
+        // Builds that got the replaced model may still be using it.
+        assertThat(closedFirst.get(), equalTo(0));
+        cache.clear();
+
+        assertThat(closedFirst.get(), equalTo(1));
+        assertThat(closedSecond.get(), equalTo(1));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.model.Model;
+
+public class ModelSnapshotsTest {
+    private static final String A = "$version: \"2.0\"\nnamespace example.a\n\n/// Docs\nstructure A {\n"
+            + "    @required\n    name: String\n    other: example.other#Other\n}\n";
+    private static final String B = "$version: \"2.0\"\nmetadata foo = \"bar\"\nnamespace example.a\n"
+            + "@trait\nstructure custom {}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void replacesModelsWithEquivalentSnapshot() throws IOException {
+        File jar = jar("models.jar", "a.smithy\nb.smithy\n", A, B);
+        String snapshot = ModelSnapshots.snapshot(jar);
+        assertThat(snapshot, notNullValue());
+
+        File output = tempDir.resolve("snapshot.jar").toFile();
+        ModelSnapshots.write(jar, snapshot, output);
+
+        assertThat(entries(output), containsInAnyOrder("example/Trait.class",
+                "META-INF/smithy/" + ModelSnapshots.SNAPSHOT_FILE, "META-INF/smithy/manifest"));
+        assertThat(load(output), equalTo(load(jar)));
+    }
+
+    @Test
+    public void ignoresJarsWithoutIdlModels() throws IOException {
+        assertThat(ModelSnapshots.snapshot(jar("none.jar", null)), nullValue());
+        assertThat(ModelSnapshots.snapshot(jar("json.jar", "a.json\n", "{\"smithy\": \"2.0\"}")), nullValue());
+    }
+
+    @Test
+    public void ignoresModelsThatNeedOtherJars() throws IOException {
+        String apply = "$version: \"2.0\"\nnamespace example.a\napply example.other#Other @documentation(\"a\")\n";
+        String mixin = "$version: \"2.0\"\nnamespace example.a\nstructure A with [example.other#Mixin] {}\n";
+
+        assertThat(ModelSnapshots.snapshot(jar("apply.jar", "a.smithy\n", apply)), nullValue());
+        assertThat(ModelSnapshots.snapshot(jar("mixin.jar", "a.smithy\n", mixin)), nullValue());
+    }
+
+    @Test
+    public void ignoresIdlVersion1Models() throws IOException {
+        String v1 = "$version: \"1.0\"\nnamespace example.a\nstructure A {\n    size: Integer\n}\n";
+
+        assertThat(ModelSnapshots.snapshot(jar("v1.jar", "a.smithy\n", v1)), nullValue());
+    }
+
+    // Creates a JAR with a class file and the given models, named a.smithy, b.smithy, or a.json by the manifest.
+    private File jar(String name, String manifest, String... models) throws IOException {
+        File jar = tempDir.resolve(name).toFile();
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("example/Trait.class", "class");
+        if (manifest != null) {
+            entries.put("META-INF/smithy/manifest", manifest);
+            String[] paths = manifest.trim().split("\n");
+            for (int i = 0; i < models.length; i++) {
+                entries.put("META-INF/smithy/" + paths[i], models[i]);
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(jar.toPath()); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static List<String> entries(File jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar)) {
+            List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                names.add(entry.getName());
+            }
+            return names;
+        }
+    }
+
+    private static Model load(File jar) {
+        return Model.assembler().addImport(jar.toPath()).disableValidation().assemble().unwrap();
+    }
+}
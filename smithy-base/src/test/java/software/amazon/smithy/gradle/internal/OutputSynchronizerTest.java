@@ -0,0 +1,98 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OutputSynchronizerTest {
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000L);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void onlyWritesFilesWithChangedContent() throws IOException {
+        Path staging = tempDir.resolve("staging");
+        Path output = tempDir.resolve("output");
+        write(output.resolve("same.txt"), "same");
+        write(output.resolve("changed.txt"), "before");
+        write(staging.resolve("same.txt"), "same");
+        write(staging.resolve("changed.txt"), "after");
+        write(staging.resolve("nested/added.txt"), "added");
+        Files.setLastModifiedTime(output.resolve("same.txt"), OLD);
+
+        OutputSynchronizer synchronizer = new OutputSynchronizer();
+        synchronizer.sync(staging, output);
+
+        assertThat(synchronizer.getUnchangedFiles(), equalTo(1));
+        assertThat(synchronizer.getWrittenFiles(), equalTo(2));
+        assertThat(synchronizer.getDeletedFiles(), equalTo(0));
+        assertThat(Files.getLastModifiedTime(output.resolve("same.txt")), equalTo(OLD));
+        assertThat(read(output.resolve("changed.txt")), equalTo("after"));
+        assertThat(read(output.resolve("nested/added.txt")), equalTo("added"));
+        assertFalse(Files.exists(staging));
+    }
+
+    @Test
+    public void deletesFilesThatAreNoLongerProduced() throws IOException {
+        Path staging = tempDir.resolve("staging");
+        Path output = tempDir.resolve("output");
+        write(output.resolve("kept.txt"), "kept");
+        write(output.resolve("removed/stale.txt"), "stale");
+        write(staging.resolve("kept.txt"), "kept");
+
+        OutputSynchronizer synchronizer = new OutputSynchronizer();
+        synchronizer.sync(staging, output);
+
+        assertThat(synchronizer.getDeletedFiles(), equalTo(1));
+        assertTrue(Files.exists(output.resolve("kept.txt")));
+        assertFalse(Files.exists(output.resolve("removed")));
+    }
+
+    @Test
+    public void replacesDirectoriesAndFilesOfTheSameName() throws IOException {
+        Path staging = tempDir.resolve("staging");
+        Path output = tempDir.resolve("output");
+        write(output.resolve("a/file.txt"), "a");
+        write(output.resolve("b"), "b");
+        write(staging.resolve("a"), "a");
+        write(staging.resolve("b/file.txt"), "b");
+
+        new OutputSynchronizer().sync(staging, output);
+
+        assertThat(read(output.resolve("a")), equalTo("a"));
+        assertThat(read(output.resolve("b/file.txt")), equalTo("b"));
+    }
+
+    @Test
+    public void emptiesOutputWhenNothingIsStaged() throws IOException {
+        Path output = tempDir.resolve("output");
+        write(output.resolve("a.txt"), "a");
+
+        new OutputSynchronizer().sync(tempDir.resolve("missing"), output);
+
+        assertFalse(Files.exists(output.resolve("a.txt")));
+    }
+
+    private static void write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.loader.ModelAssembler;
+import software.amazon.smithy.model.shapes.Shape;
+import software.amazon.smithy.model.shapes.ShapeId;
+import software.amazon.smithy.model.traits.DocumentationTrait;
+import software.amazon.smithy.model.traits.Trait;
+import software.amazon.smithy.model.validation.ValidatedResult;
+
+public class ParsedFileCacheTest {
+    private static final String MAIN = "$version: \"2.0\"\n"
+            + "metadata suppressions = [{id: \"A\", namespace: \"*\"}]\n"
+            + "namespace smithy.example\n\n"
+            + "@mixin\nstructure Base {\n    /// The ID.\n    id: String\n}\n\n"
+            + "/// A widget.\nstructure Widget with [Base] {\n    @required\n    name: String\n\n"
+            + "    size: Size = \"SMALL\"\n}\n\n"
+            + "apply Widget$id @required\n\n"
+            + "@trait\nstructure marker {}\n";
+    private static final String OTHER = "$version: \"2.0\"\n"
+            + "metadata suppressions = [{id: \"B\", namespace: \"*\"}]\n"
+            + "namespace smithy.example\n\n"
+            + "enum Size {\n    SMALL\n    LARGE = \"large\"\n}\n\n"
+            + "apply Widget @marker\n"
+            + "apply Widget$name @documentation(\"The name.\")\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void loadsTheSameModelAsParsing() throws IOException {
+        Path main = write("main.smithy", MAIN);
+        Path other = write("other.smithy", OTHER);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler().addImport(main).addImport(other).assemble();
+        Model expected = parsed.unwrap();
+        Set<String> uncacheable = ParsedFileCache.findUncacheableFiles(expected);
+        for (Path file : Arrays.asList(main, other)) {
+            assertTrue(cache.store(cache.key(Files.readAllBytes(file)), file.toString(), read(file), expected,
+                    parsed.getValidationEvents(), uncacheable));
+        }
+
+        List<ParsedFileCache.Entry> entries = new ArrayList<>();
+        ModelAssembler assembler = Model.assembler();
+        for (Path file : Arrays.asList(main, other)) {
+            ParsedFileCache.Entry entry = cache.load(cache.key(Files.readAllBytes(file)), file.toString());
+            assertNotNull(entry);
+            entries.add(entry);
+            assembler.addDocumentNode(entry.getDocument());
+        }
+        ValidatedResult<Model> loaded = assembler.assemble();
+        Model actual = loaded.unwrap();
+
+        assertThat(actual, equalTo(expected));
+        assertTrue(ParsedFileCache.isValid(actual, entries));
+        assertThat(loaded.getValidationEvents(), equalTo(parsed.getValidationEvents()));
+        for (Shape shape : expected.toSet()) {
+            Shape loadedShape = actual.expectShape(shape.getId());
+            assertThat(loadedShape.getSourceLocation(), equalTo(shape.getSourceLocation()));
+            for (Trait trait : shape.getAllTraits().values()) {
+                assertThat(loadedShape.findTrait(trait.toShapeId()).get().getSourceLocation(),
+                        equalTo(trait.getSourceLocation()));
+            }
+        }
+    }
+
+    @Test
+    public void combinesEntriesWithParsedFiles() throws IOException {
+        Path main = write("main.smithy", MAIN);
+        Path other = write("other.smithy", OTHER);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler().addImport(main).addImport(other).assemble();
+        String key = cache.key(Files.readAllBytes(main));
+        cache.store(key, main.toString(), MAIN, parsed.unwrap(), parsed.getValidationEvents(),
+                Collections.emptySet());
+
+        write("other.smithy", OTHER.replace("The name.", "The new name."));
+        Model model = Model.assembler()
+                .addDocumentNode(cache.load(key, main.toString()).getDocument())
+                .addImport(other)
+                .assemble()
+                .unwrap();
+
+        assertThat(model.expectShape(ShapeId.from("smithy.example#Widget$name"))
+                .expectTrait(DocumentationTrait.class)
+                .getValue(), equalTo("The new name."));
+        assertThat(model, equalTo(Model.assembler().addImport(main).addImport(other).assemble().unwrap()));
+    }
+
+    @Test
+    public void detectsFilesThatResolveDifferently() throws IOException {
+        Path main = write("main.smithy", MAIN);
+        Path other = write("other.smithy", OTHER);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler().addImport(main).addImport(other).assemble();
+        String key = cache.key(Files.readAllBytes(other));
+        cache.store(key, other.toString(), OTHER, parsed.unwrap(), parsed.getValidationEvents(),
+                Collections.emptySet());
+        ParsedFileCache.Entry entry = cache.load(key, other.toString());
+
+        // A String shape in the namespace changes what the members of Widget target.
+        write("main.smithy", MAIN + "\nstring String\n");
+        Model shadowed = Model.assembler().addDocumentNode(entry.getDocument()).addImport(main).assemble().unwrap();
+        assertFalse(ParsedFileCache.isValid(shadowed, Collections.singletonList(entry)));
+
+        // The marker trait is applied as an empty object, which depends on it being a structure.
+        write("main.smithy", MAIN.replace("structure marker {}", "list marker { member: String }"));
+        Model retyped = Model.assembler()
+                .addDocumentNode(entry.getDocument())
+                .addImport(main)
+                .assemble()
+                .getResult()
+                .get();
+        assertFalse(ParsedFileCache.isValid(retyped, Collections.singletonList(entry)));
+    }
+
+    @Test
+    public void doesNotStoreFilesThatDependOnOtherFiles() throws IOException {
+        String v1 = "namespace smithy.example\n\nstructure Legacy {\n    count: Integer\n}\n";
+        String tags = "$version: \"2.0\"\nnamespace smithy.example\n\napply Legacy @tags([\"a\"])\n";
+        Path legacy = write("legacy.smithy", v1);
+        Path first = write("first.smithy", tags);
+        Path second = write("second.smithy", tags.replace("\"a\"", "\"b\""));
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler()
+                .addImport(legacy)
+                .addImport(first)
+                .addImport(second)
+                .assemble();
+        Set<String> uncacheable = ParsedFileCache.findUncacheableFiles(parsed.unwrap());
+
+        assertFalse(cache.store(cache.key(v1.getBytes(StandardCharsets.UTF_8)), legacy.toString(), v1,
+                parsed.unwrap(), parsed.getValidationEvents(), uncacheable));
+        assertFalse(cache.store(cache.key(tags.getBytes(StandardCharsets.UTF_8)), first.toString(), tags,
+                parsed.unwrap(), parsed.getValidationEvents(), uncacheable));
+        assertNull(cache.load(cache.key(tags.getBytes(StandardCharsets.UTF_8)), first.toString()));
+    }
+
+    @Test
+    public void matchesParsingWhenFilesApplyTraitsAcrossFiles() throws IOException {
+        Path shapes = write("shapes.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "structure Widget {\n    name: String\n}\n");
+        Path applies = write("applies.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "apply Widget @documentation(\"A widget.\")\n"
+                + "apply Widget$name @required\n");
+        List<Path> files = Arrays.asList(shapes, applies);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        assembleWithCache(cache, files);
+
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+        write("shapes.smithy", read(shapes).replace("name: String", "name: String\n    size: Integer"));
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+    }
+
+    @Test
+    public void matchesParsingWhenMixinsChange() throws IOException {
+        Path mixins = write("mixins.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "@mixin\n@documentation(\"Base.\")\nstructure Base {\n    @required\n    id: String\n}\n");
+        Path widget = write("widget.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "structure Widget with [Base] {\n    $id\n    name: String\n}\n\n"
+                + "apply Widget$id @documentation(\"The ID.\")\n");
+        List<Path> files = Arrays.asList(mixins, widget);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        assembleWithCache(cache, files);
+
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+        write("mixins.smithy", read(mixins).replace("@required\n", "@required\n    @length(min: 1)\n")
+                .replace("Base.", "The new base."));
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+    }
+
+    @Test
+    public void matchesParsingWhenTraitsWithoutValuesChangeType() throws IOException {
+        Path traits = write("traits.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "@trait\nstructure marker {}\n");
+        Path widget = write("widget.smithy", "$version: \"2.0\"\nnamespace smithy.example\n\n"
+                + "@marker\nstructure Widget {}\n");
+        List<Path> files = Arrays.asList(traits, widget);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        assembleWithCache(cache, files);
+
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+        write("traits.smithy", read(traits).replace("structure marker {}", "list marker { member: String }"));
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+        write("traits.smithy", read(traits).replace("list marker { member: String }", "boolean marker"));
+        assertMatchesParsing(assembleWithCache(cache, files), files);
+    }
+
+    @Test
+    public void doesNotStoreFilesWithTraitsWithoutSourceLocations() throws IOException {
+        Path main = write("main.smithy", MAIN);
+        Path other = write("other.smithy", OTHER);
+        ParsedFileCache cache = new ParsedFileCache(tempDir.resolve("cache"), ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler().addImport(main).addImport(other).assemble();
+        assertTrue(cache.store(cache.key(Files.readAllBytes(main)), main.toString(), MAIN, parsed.unwrap(),
+                parsed.getValidationEvents(), Collections.emptySet()));
+        Shape widget = parsed.unwrap().expectShape(ShapeId.from("smithy.example#Widget"));
+        Model model = parsed.unwrap().toBuilder()
+                .addShape(Shape.shapeToBuilder(widget).addTrait(new DocumentationTrait("Synthesized.")).build())
+                .build();
+
+        assertFalse(cache.store(cache.key(Files.readAllBytes(main)), main.toString(), MAIN, model,
+                parsed.getValidationEvents(), Collections.emptySet()));
+    }
+
+    @Test
+    public void keysDependOnContents() {
+        ParsedFileCache cache = new ParsedFileCache(tempDir, ParsedFileCache.DEFAULT_MAX_BYTES);
+
+        assertThat(cache.key(MAIN.getBytes(StandardCharsets.UTF_8)),
+                equalTo(cache.key(MAIN.getBytes(StandardCharsets.UTF_8))));
+        assertThat(cache.key(MAIN.getBytes(StandardCharsets.UTF_8)),
+                not(equalTo(cache.key(OTHER.getBytes(StandardCharsets.UTF_8)))));
+    }
+
+    @Test
+    public void removesOldEntriesAndEntriesBeyondMaximumSize() throws IOException {
+        Path main = write("main.smithy", MAIN);
+        Path other = write("other.smithy", OTHER);
+        Path directory = tempDir.resolve("cache");
+        ParsedFileCache cache = new ParsedFileCache(directory, ParsedFileCache.DEFAULT_MAX_BYTES);
+        ValidatedResult<Model> parsed = Model.assembler().addImport(main).addImport(other).assemble();
+        for (Path file : Arrays.asList(main, other)) {
+            cache.store(cache.key(Files.readAllBytes(file)), file.toString(), read(file), parsed.unwrap(),
+                    parsed.getValidationEvents(), Collections.emptySet());
+        }
+        List<Path> entries = entries(directory);
+        assertThat(entries.size(), equalTo(2));
+
+        Files.setLastModifiedTime(entries.get(0),
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30)));
+        assertThat(cache.removeUnusedEntries(), equalTo(1));
+        assertThat(entries(directory), equalTo(entries.subList(1, 2)));
+        // Cleanups run at most once a day.
+        assertThat(new ParsedFileCache(directory, 0).removeUnusedEntries(), equalTo(0));
+
+        Files.delete(directory.resolve("last-cleanup"));
+        assertThat(new ParsedFileCache(directory, 0).removeUnusedEntries(), equalTo(1));
+        assertThat(entries(directory).size(), equalTo(0));
+    }
+
+    // Assembles the files the way BridgeModelLoader does, storing the files that were parsed.
+    private static ValidatedResult<Model> assembleWithCache(ParsedFileCache cache, List<Path> files)
+            throws IOException {
+        ModelAssembler assembler = Model.assembler();
+        List<ParsedFileCache.Entry> hits = new ArrayList<>();
+        List<Path> misses = new ArrayList<>();
+        for (Path file : files) {
+            ParsedFileCache.Entry entry = cache.load(cache.key(Files.readAllBytes(file)), file.toString());
+            if (entry != null) {
+                hits.add(entry);
+                assembler.addDocumentNode(entry.getDocument());
+            } else {
+                misses.add(file);
+                assembler.addImport(file);
+            }
+        }
+        ValidatedResult<Model> result = assembler.assemble();
+        if (!hits.isEmpty() && (result.isBroken() || !ParsedFileCache.isValid(result.unwrap(), hits))) {
+            result = parse(files);
+            misses = files;
+        } else if (!hits.isEmpty()) {
+            List<String> names = files.stream().map(Path::toString).collect(Collectors.toList());
+            result = new ValidatedResult<>(ParsedFileCache.orderMetadata(result.unwrap(), names),
+                    result.getValidationEvents());
+        }
+        if (!result.isBroken()) {
+            Set<String> uncacheable = ParsedFileCache.findUncacheableFiles(result.unwrap());
+            for (Path file : misses) {
+                cache.store(cache.key(Files.readAllBytes(file)), file.toString(), read(file), result.unwrap(),
+                        result.getValidationEvents(), uncacheable);
+            }
+        }
+        return result;
+    }
+
+    private static ValidatedResult<Model> parse(List<Path> files) {
+        ModelAssembler assembler = Model.assembler();
+        files.forEach(assembler::addImport);
+        return assembler.assemble();
+    }
+
+    private static void assertMatchesParsing(ValidatedResult<Model> cached, List<Path> files) {
+        ValidatedResult<Model> parsed = parse(files);
+        assertThat(cached.getResult(), equalTo(parsed.getResult()));
+        assertThat(cached.getValidationEvents(), equalTo(parsed.getValidationEvents()));
+        if (!parsed.getResult().isPresent()) {
+            return;
+        }
+        for (Shape shape : parsed.getResult().get().toSet()) {
+            Shape cachedShape = cached.getResult().get().expectShape(shape.getId());
+            assertThat(cachedShape.getSourceLocation(), equalTo(shape.getSourceLocation()));
+            for (Trait trait : shape.getAllTraits().values()) {
+                assertThat(cachedShape.findTrait(trait.toShapeId()).get().getSourceLocation(),
+                        equalTo(trait.getSourceLocation()));
+            }
+        }
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        return Files.write(tempDir.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> entries(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+    }
+}
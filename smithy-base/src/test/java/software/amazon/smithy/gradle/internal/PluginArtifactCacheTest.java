@@ -0,0 +1,90 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.build.FileManifest;
+
+public class PluginArtifactCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void restoresStoredArtifacts() throws IOException {
+        PluginArtifactCache cache = new PluginArtifactCache(tempDir.resolve("cache"), "salt");
+        FileManifest original = FileManifest.create(tempDir.resolve("original"));
+        original.writeFile("a.txt", "a");
+        original.writeFile("nested/b.txt", "b");
+        String key = cache.key("plugin", "model");
+
+        assertFalse(cache.restore(key, FileManifest.create(tempDir.resolve("missing"))));
+        assertTrue(cache.store(key, original));
+
+        FileManifest restored = FileManifest.create(tempDir.resolve("restored"));
+        assertTrue(cache.restore(key, restored));
+        assertThat(restored.getFiles().size(), equalTo(2));
+        assertThat(read(tempDir.resolve("restored/a.txt")), equalTo("a"));
+        assertThat(read(tempDir.resolve("restored/nested/b.txt")), equalTo("b"));
+    }
+
+    @Test
+    public void doesNotStoreFilesWrittenOutsideOfManifest() throws IOException {
+        PluginArtifactCache cache = new PluginArtifactCache(tempDir.resolve("cache"), "salt");
+        FileManifest manifest = FileManifest.create(tempDir.resolve("plugin"));
+        manifest.writeFile("a.txt", "a");
+        Files.write(tempDir.resolve("plugin/untracked.txt"), "b".getBytes(StandardCharsets.UTF_8));
+        String key = cache.key("plugin");
+
+        assertFalse(cache.store(key, manifest));
+        assertFalse(cache.restore(key, FileManifest.create(tempDir.resolve("restored"))));
+    }
+
+    @Test
+    public void keysDependOnSaltAndParts() {
+        PluginArtifactCache cache = new PluginArtifactCache(tempDir, "salt");
+
+        assertThat(cache.key("a", "b"), equalTo(cache.key("a", "b")));
+        assertThat(cache.key("a", "b"), not(equalTo(cache.key("ab"))));
+        assertThat(cache.key("a"), not(equalTo(new PluginArtifactCache(tempDir, "other").key("a"))));
+    }
+
+    @Test
+    public void removesEntriesThatWereNotUsedRecently() throws IOException {
+        Path directory = tempDir.resolve("cache");
+        PluginArtifactCache cache = new PluginArtifactCache(directory, "salt");
+        FileManifest manifest = FileManifest.create(tempDir.resolve("plugin"));
+        manifest.writeFile("a.txt", "a");
+        String unused = cache.key("unused");
+        String used = cache.key("used");
+        cache.store(unused, manifest);
+        cache.store(used, manifest);
+        long old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30);
+        Files.setLastModifiedTime(directory.resolve(unused), FileTime.fromMillis(old));
+
+        assertThat(cache.removeUnusedEntries(), equalTo(1));
+        assertFalse(Files.exists(directory.resolve(unused)));
+        assertTrue(Files.exists(directory.resolve(used)));
+        // Cleanup runs at most once a day.
+        Files.setLastModifiedTime(directory.resolve(used), FileTime.fromMillis(old));
+        assertThat(cache.removeUnusedEntries(), equalTo(0));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
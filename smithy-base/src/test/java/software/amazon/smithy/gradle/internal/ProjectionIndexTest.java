@@ -0,0 +1,176 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.smithy.model.Model;
+import software.amazon.smithy.model.loader.ModelAssembler;
+import software.amazon.smithy.model.shapes.ShapeId;
+import software.amazon.smithy.model.transform.ModelTransformer;
+
+public class ProjectionIndexTest {
+    private static final String A = "$version: \"2.0\"\nnamespace example.a\nstructure A {}\n";
+    private static final String B = "$version: \"2.0\"\nnamespace example.b\nstructure B {}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void findsProjectionsContainingShapesOfChangedFiles() {
+        ProjectionIndex previous = index(A, B);
+        ProjectionIndex current = index(A + "structure A2 {}\n", B);
+
+        assertThat(current.findAffectedProjections(previous, changed("a.smithy")), contains("a", "source"));
+        assertThat(current.findAffectedProjections(previous, changed("b.smithy")), contains("b", "source"));
+        assertThat(current.findAffectedProjections(previous, changed("c.smithy")), empty());
+    }
+
+    @Test
+    public void findsProjectionsThatShapesWereRemovedFrom() {
+        ProjectionIndex previous = index(A, B);
+        ProjectionIndex current = index("$version: \"2.0\"\nnamespace example.a\n", B);
+
+        assertThat(current.findAffectedProjections(previous, changed("a.smithy")), contains("a", "source"));
+    }
+
+    @Test
+    public void findsShapesMovedIntoOtherNamespaces() {
+        ProjectionIndex previous = index(A, B);
+        ProjectionIndex current = index(A, B.replace("example.b", "example.a"));
+
+        assertThat(current.findAffectedProjections(previous, changed("b.smithy")), contains("a", "b", "source"));
+    }
+
+    @Test
+    public void findsShapesWithTraitsAppliedFromChangedFiles() {
+        String apply = "$version: \"2.0\"\nnamespace example.c\napply example.b#B @documentation(\"b\")\n";
+        ProjectionIndex previous = index(A, B, apply);
+        ProjectionIndex current = index(A, B, apply.replace("\"b\"", "\"c\""));
+
+        assertThat(current.findAffectedProjections(previous, changed("c.smithy")), contains("b", "source"));
+    }
+
+    @Test
+    public void metadataChangesAffectEveryProjection() {
+        String metadata = "$version: \"2.0\"\nmetadata foo = \"bar\"\n";
+        ProjectionIndex previous = index(A, B, metadata);
+        ProjectionIndex current = index(A, B, metadata.replace("bar", "baz"));
+
+        assertThat(current.findAffectedProjections(previous, changed("c.smithy")), contains("a", "b", "source"));
+    }
+
+    @Test
+    public void newProjectionsAreAffected() {
+        ProjectionIndex previous = index(A, B);
+        ProjectionIndex current = index(A, B);
+        current.addProjection("new", Model.builder().build());
+
+        assertThat(current.findAffectedProjections(previous, Collections.emptyList()), contains("new"));
+    }
+
+    @Test
+    public void writesRelativePaths() throws IOException {
+        ProjectionIndex index = index(A, B);
+        Path file = tempDir.resolve("index").resolve("index.json");
+        index.write(file);
+
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(json, containsString("\"model/a.smithy\""));
+        assertThat(json, not(containsString(tempDir.toString())));
+
+        ProjectionIndex read = ProjectionIndex.read(file, tempDir);
+        assertThat(read.getProjections(), contains("a", "b", "source"));
+        assertThat(index(A + "structure A2 {}\n", B).findAffectedProjections(read, changed("a.smithy")),
+                contains("a", "source"));
+    }
+
+    @Test
+    public void ignoresMissingAndInvalidFiles() throws IOException {
+        Path file = tempDir.resolve("index.json");
+        assertThat(ProjectionIndex.read(file, tempDir), nullValue());
+
+        Files.write(file, "{\"version\": 0}".getBytes(StandardCharsets.UTF_8));
+        assertThat(ProjectionIndex.read(file, tempDir), nullValue());
+    }
+
+    @Test
+    public void fingerprintsIgnoreFormattingAndFileLayout() {
+        String reformatted = "$version: \"2.0\"\n\n// Comments are not part of the model.\nnamespace example.a\n"
+                + "use smithy.api#String\n\nstructure A {\n}\n";
+        String withTrait = "$version: \"2.0\"\nnamespace example.a\n@documentation(\"a\")\nstructure A {}\n";
+
+        String fingerprint = fingerprint(A, B);
+        assertThat(fingerprint(reformatted, B), equalTo(fingerprint));
+        assertThat(fingerprint(B, A), equalTo(fingerprint));
+        assertThat(fingerprint(A + "structure A2 {}\n", B),
+                equalTo(fingerprint(A, B, "$version: \"2.0\"\nnamespace example.a\nstructure A2 {}\n")));
+        assertThat(fingerprint(withTrait, B), not(equalTo(fingerprint)));
+        assertThat(fingerprint(A, B, "$version: \"2.0\"\nmetadata foo = \"bar\"\n"), not(equalTo(fingerprint)));
+    }
+
+    @Test
+    public void writesFingerprints() throws IOException {
+        ProjectionIndex index = index(A, B);
+        Path file = tempDir.resolve("index.json");
+        index.write(file);
+        assertThat(ProjectionIndex.read(file, tempDir).getFingerprint(), nullValue());
+
+        index.setFingerprint("abc");
+        index.write(file);
+        assertThat(ProjectionIndex.read(file, tempDir).getFingerprint(), equalTo("abc"));
+    }
+
+    private String fingerprint(String... models) {
+        ModelAssembler assembler = Model.assembler();
+        for (int i = 0; i < models.length; i++) {
+            assembler.addUnparsedModel(path((char) ('a' + i) + ".smithy"), models[i]);
+        }
+        return ProjectionIndex.fingerprint(assembler.assemble().unwrap());
+    }
+
+    // Indexes models named a.smithy, b.smithy, and c.smithy, with a projection of each namespace.
+    private ProjectionIndex index(String... models) {
+        ModelAssembler assembler = Model.assembler();
+        for (int i = 0; i < models.length; i++) {
+            assembler.addUnparsedModel(path((char) ('a' + i) + ".smithy"), models[i]);
+        }
+        Model model = assembler.assemble().unwrap();
+        ProjectionIndex index = ProjectionIndex.of(model, tempDir);
+        index.addProjection("source", model);
+        index.addProjection("a", namespace(model, "example.a"));
+        index.addProjection("b", namespace(model, "example.b"));
+        return index;
+    }
+
+    private static Model namespace(Model model, String namespace) {
+        return ModelTransformer.create().filterShapes(model, shape -> {
+            ShapeId id = shape.getId();
+            return id.getNamespace().equals(namespace) || id.getNamespace().equals("smithy.api");
+        });
+    }
+
+    private String path(String name) {
+        return tempDir.resolve("model").resolve(name).toString();
+    }
+
+    private List<String> changed(String name) {
+        return Collections.singletonList(path(name));
+    }
+}
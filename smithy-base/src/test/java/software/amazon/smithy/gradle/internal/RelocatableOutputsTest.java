@@ -0,0 +1,70 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RelocatableOutputsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void rewritesProjectAndGradleUserHomePaths() {
+        File project = tempDir.resolve("project").toFile();
+        File gradleHome = tempDir.resolve("project").resolve(".gradle-home").toFile();
+        RelocatableOutputs outputs = new RelocatableOutputs(project, gradleHome);
+        String model = project.getAbsolutePath() + File.separator + "model" + File.separator + "main.smithy";
+        String jar = "jar:file:" + gradleHome.toURI().getRawPath() + "/caches/a.jar!/META-INF/smithy/a.smithy";
+
+        assertThat(outputs.rewrite(model), equalTo("model" + File.separator + "main.smithy"));
+        assertThat(outputs.rewrite(jar),
+                equalTo("jar:file:" + RelocatableOutputs.GRADLE_USER_HOME + "/caches/a.jar!/META-INF/smithy/a.smithy"));
+        assertThat(outputs.rewrite("/somewhere/else.smithy"), equalTo("/somewhere/else.smithy"));
+    }
+
+    @Test
+    public void rewritesBuildInfoFilesOfEveryProjection() throws IOException {
+        File project = tempDir.resolve("project").toFile();
+        Path output = tempDir.resolve("output");
+        String path = project.getAbsolutePath() + File.separator + "main.smithy";
+        Path source = write(output.resolve("source/build-info/smithy-build-info.json"),
+                "{\"validationEvents\": [{\"sourceLocation\": {\"filename\": " + quote(path) + "}}]}");
+        Path other = write(output.resolve("other/build-info/smithy-build-info.json"), "{\"version\": \"1.0\"}");
+        Path unrelated = write(output.resolve("source/model/model.json"), "{\"path\": " + quote(path) + "}");
+
+        int rewritten = new RelocatableOutputs(project, tempDir.resolve("home").toFile()).rewrite(output);
+
+        assertThat(rewritten, equalTo(1));
+        assertThat(read(source), not(containsString(project.getAbsolutePath())));
+        assertThat(read(source), containsString("\"main.smithy\""));
+        assertThat(read(other), equalTo("{\"version\": \"1.0\"}"));
+        assertThat(read(unrelated), containsString(project.getAbsolutePath().replace("\\", "\\\\")));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\") + "\"";
+    }
+
+    private static Path write(Path file, String contents) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
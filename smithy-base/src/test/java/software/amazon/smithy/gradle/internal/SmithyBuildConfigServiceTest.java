@@ -0,0 +1,136 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SmithyBuildConfigServiceTest {
+    @TempDir
+    Path tempDir;
+
+    private Project project;
+    private SmithyBuildConfigService service;
+
+    @BeforeEach
+    public void init() {
+        project = ProjectBuilder.builder().withProjectDir(tempDir.toFile()).build();
+        service = SmithyBuildConfigService.register(project).get();
+    }
+
+    @Test
+    public void parsesEachConfigOnce() throws IOException {
+        File config = write("smithy-build.json", "{\"version\": \"1.0\", \"outputDirectory\": \"out\"}");
+        File copy = write("copy.json", "{\"version\": \"1.0\", \"outputDirectory\": \"out\"}");
+
+        SmithyBuildConfigFile parsed = read(config).get(0);
+
+        assertSame(parsed, read(config).get(0));
+        assertSame(parsed, read(copy).get(0));
+        assertThat(service.getCache().size(), equalTo(1));
+        assertThat(service.getCache().getHits(), equalTo(2L));
+        assertThat(service.getCache().getMisses(), equalTo(1L));
+    }
+
+    @Test
+    public void parsesChangedConfigsAgain() throws IOException {
+        File config = write("smithy-build.json", "{\"version\": \"1.0\", \"outputDirectory\": \"out\"}");
+        assertThat(read(config).get(0).getOutputDirectory(), equalTo(Optional.of("out")));
+
+        write("smithy-build.json", "{\"version\": \"1.0\", \"outputDirectory\": \"changed\"}");
+
+        assertThat(read(config).get(0).getOutputDirectory(), equalTo(Optional.of("changed")));
+        assertThat(service.getCache().getMisses(), equalTo(2L));
+    }
+
+    @Test
+    public void ignoresMissingConfigs() {
+        File missing = tempDir.resolve("missing.json").toFile();
+
+        assertThat(read(missing), empty());
+        assertThat(service.getCache().size(), equalTo(0));
+    }
+
+    @Test
+    public void failsOnConflictingOutputDirectories() throws IOException {
+        File first = write("first.json", "{\"version\": \"1.0\", \"outputDirectory\": \"a\"}");
+        File second = write("second.json", "{\"version\": \"1.0\", \"outputDirectory\": \"b\"}");
+        File none = write("none.json", "{\"version\": \"1.0\"}");
+
+        assertThat(SmithyBuildConfigFile.getOutputDirectory(read(first, none)), equalTo(Optional.of("a")));
+        assertThat(SmithyBuildConfigFile.getOutputDirectory(read(none)), equalTo(Optional.empty()));
+        assertThrows(GradleException.class, () -> SmithyBuildConfigFile.getOutputDirectory(read(first, second)));
+    }
+
+    @Test
+    public void mergesPluginsLikeSmithyBuild() throws IOException {
+        File first = write("first.json", "{\n"
+                + "  \"version\": \"1.0\",\n"
+                + "  \"imports\": [\"model\"],\n"
+                + "  \"plugins\": {\"model\": {}},\n"
+                + "  \"projections\": {\n"
+                + "    \"openapi\": {\"imports\": [\"openapi\"], \"plugins\": {\"openapi\": {}}},\n"
+                + "    \"codegen\": {\"plugins\": {\"codegen\": {}}}\n"
+                + "  }\n"
+                + "}");
+        File second = write("second.json", "{\"version\": \"1.0\", \"plugins\": {\"build-info\": {}}, "
+                + "\"projections\": {\"openapi\": {\"plugins\": {\"openapi-v2\": {}}}}}");
+        List<SmithyBuildConfigFile> configs = read(first, second);
+
+        assertThat(configs.get(0).getPlugins("openapi"), contains("model", "openapi"));
+        // The openapi projection of the second config replaces the one of the first config.
+        assertThat(SmithyBuildConfigFile.getPlugins(configs, "openapi"), contains("build-info", "model", "openapi-v2"));
+        assertThat(SmithyBuildConfigFile.getPlugins(configs, "codegen"), contains("build-info", "codegen", "model"));
+        assertThat(SmithyBuildConfigFile.getPlugins(configs, "source"), contains("build-info", "model"));
+    }
+
+    @Test
+    public void readsReferencedEnvironmentVariables() throws IOException {
+        File first = write("first.json", "{\"version\": \"1.0\", \"imports\": [\"${MODEL_DIR}/main.smithy\"]}");
+        File second = write("second.json", "{\"version\": \"1.0\", \"plugins\": "
+                + "{\"codegen\": {\"package\": \"${PACKAGE}.${VERSION}\"}}}");
+
+        assertThat(SmithyBuildConfigFile.getEnvironmentVariables(read(first, second)),
+                contains("MODEL_DIR", "PACKAGE", "VERSION"));
+    }
+
+    @Test
+    public void releasesConfigsWhenClosed() throws IOException {
+        read(write("smithy-build.json", "{\"version\": \"1.0\"}"));
+
+        service.close();
+
+        assertThat(service.getCache().size(), equalTo(0));
+    }
+
+    private List<SmithyBuildConfigFile> read(File... configs) {
+        return service.read(Arrays.asList(configs), project.getProviders(), project.getLayout());
+    }
+
+    private File write(String name, String contents) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+}
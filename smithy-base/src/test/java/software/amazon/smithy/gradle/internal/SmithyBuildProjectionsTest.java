@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SmithyBuildProjectionsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void readsConcreteProjectionsOfEveryConfig() throws IOException {
+        File first = write("first.json", "{\n"
+                + "  // Comments are allowed.\n"
+                + "  \"version\": \"1.0\",\n"
+                + "  \"projections\": {\n"
+                + "    \"openapi\": {},\n"
+                + "    \"base\": {\"abstract\": true}\n"
+                + "  }\n"
+                + "}");
+        File second = write("second.json", "{\"version\": \"1.0\", \"projections\": {\"codegen\": {}}}");
+        File missing = tempDir.resolve("missing.json").toFile();
+        Project project = ProjectBuilder.builder().withProjectDir(tempDir.toFile()).build();
+        SmithyBuildConfigService service = SmithyBuildConfigService.register(project).get();
+
+        assertThat(SmithyBuildProjections.of(service.read(Arrays.asList(first, second, missing),
+                project.getProviders(), project.getLayout())), contains("codegen", "openapi", "source"));
+    }
+
+    @Test
+    public void findsSmithyBuildConfigsImportedRelativeToTheImportingConfig() throws IOException {
+        File config = write("configs/smithy-build.json", "{\n"
+                + "  \"version\": \"1.0\",\n"
+                + "  \"imports\": [\"../model\", \"model.json\"],\n"
+                + "  \"projections\": {\"openapi\": {\"imports\": [\"other-build.json\"]}}\n"
+                + "}");
+        write("configs/model.json", "{\"smithy\": \"2.0\", \"shapes\": {}}");
+        File imported = write("configs/other-build.json", "{\"version\": \"1.0\", \"projections\": {\"a\": {}}}");
+        Project project = ProjectBuilder.builder().withProjectDir(tempDir.toFile()).build();
+        SmithyBuildConfigService service = SmithyBuildConfigService.register(project).get();
+
+        assertThat(service.findImportedConfigs(Collections.singletonList(config),
+                project.getProviders(), project.getLayout()), contains(imported.getAbsoluteFile()));
+    }
+
+    @Test
+    public void alwaysIncludesSourceProjection() {
+        assertThat(SmithyBuildProjections.of(Collections.emptyList()), contains("source"));
+    }
+
+    @Test
+    public void createsTaskNameSuffixes() {
+        assertThat(SmithyBuildProjections.taskNameSuffix("source"), equalTo("Source"));
+        assertThat(SmithyBuildProjections.taskNameSuffix("openapi-conversion"), equalTo("OpenapiConversion"));
+        assertThat(SmithyBuildProjections.taskNameSuffix("my.v2_model"), equalTo("MyV2Model"));
+    }
+
+    @Test
+    public void createsTaskNameSuffixesOfEveryProjection() {
+        assertThat(SmithyBuildProjections.taskNameSuffixes(Arrays.asList("source", "openapi-conversion")).values(),
+                contains("Source", "OpenapiConversion"));
+    }
+
+    @Test
+    public void failsWhenProjectionsHaveTheSameTaskNameSuffix() {
+        GradleException e = assertThrows(GradleException.class,
+                () -> SmithyBuildProjections.taskNameSuffixes(Arrays.asList("foo-bar", "source", "fooBar")));
+
+        assertThat(e.getMessage(), containsString("`foo-bar` and `fooBar`"));
+    }
+
+    @Test
+    public void failsWhenProjectionHasNoTaskNameSuffix() {
+        assertThrows(GradleException.class, () -> SmithyBuildProjections.taskNameSuffixes(Arrays.asList("--")));
+    }
+
+    private File write(String name, String contents) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+}
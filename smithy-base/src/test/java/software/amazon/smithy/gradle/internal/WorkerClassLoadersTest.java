@@ -0,0 +1,74 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WorkerClassLoadersTest {
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void clearAffinity() {
+        System.clearProperty(WorkerClassLoaders.AFFINITY_PROPERTY);
+    }
+
+    @Test
+    public void reusesClassLoaderForSameClasspath() throws IOException {
+        Set<File> classpath = classpath("a", "same");
+        AtomicReference<ClassLoader> first = new AtomicReference<>();
+        AtomicReference<ClassLoader> second = new AtomicReference<>();
+
+        WorkerClassLoaders.withClassLoader(classpath, first::set);
+        WorkerClassLoaders.withClassLoader(classpath, second::set);
+
+        assertSame(first.get(), second.get());
+    }
+
+    @Test
+    public void separatesClassLoadersForDifferentClasspaths() throws IOException {
+        AtomicReference<ClassLoader> first = new AtomicReference<>();
+        AtomicReference<ClassLoader> second = new AtomicReference<>();
+
+        WorkerClassLoaders.withClassLoader(classpath("a", "a"), first::set);
+        WorkerClassLoaders.withClassLoader(classpath("b", "b"), second::set);
+
+        assertThat(second.get(), not(first.get()));
+    }
+
+    @Test
+    public void separatesClassLoadersForDifferentAffinityKeys() throws IOException {
+        Set<File> classpath = classpath("a", "same");
+        AtomicReference<ClassLoader> first = new AtomicReference<>();
+        AtomicReference<ClassLoader> second = new AtomicReference<>();
+
+        System.setProperty(WorkerClassLoaders.AFFINITY_PROPERTY, "first");
+        WorkerClassLoaders.withClassLoader(classpath, first::set);
+        System.setProperty(WorkerClassLoaders.AFFINITY_PROPERTY, "second");
+        WorkerClassLoaders.withClassLoader(classpath, second::set);
+
+        assertThat(second.get(), not(first.get()));
+    }
+
+    private Set<File> classpath(String name, String contents) throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve(name));
+        Files.write(dir.resolve("marker.txt"), contents.getBytes(StandardCharsets.UTF_8));
+        return Collections.singleton(dir.toFile());
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class ConfigurationCacheTest {
+    @ParameterizedTest
+    @MethodSource("exampleProjects")
+    public void reusesConfigurationCache(String projectName) {
+        Utils.assertConfigurationCacheReused(projectName, "clean", "build");
+    }
+
+    static Stream<String> exampleProjects() {
+        return Utils.listExampleProjects("jar-plugin");
+    }
+}
@@ -5,6 +5,8 @@
 package software.amazon.smithy.gradle;
 
 import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class DisableJarTest {
@@ -24,6 +26,8 @@ public class DisableJarTest {
                     "build/smithyprojections/disable-jar/source/sources/main.smithy",
                     "build/smithyprojections/disable-jar/source/sources/manifest");
             Utils.assertArtifactsNotCreated(buildDir, "build/libs/disable-jar.jar");
+            Assertions.assertEquals(TaskOutcome.SKIPPED, result.task(":smithyJarStaging").getOutcome());
+            Assertions.assertEquals(TaskOutcome.SKIPPED, result.task(":smithyJarValidate").getOutcome());
         });
     }
 }
@@ -5,7 +5,9 @@
 package software.amazon.smithy.gradle;
 
 import java.io.File;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.inject.Inject;
 import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
@@ -14,6 +16,8 @@ import org.gradle.api.Task;
 import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.SourceDirectorySet;
 import org.gradle.api.plugins.AppliedPlugin;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
@@ -82,34 +86,42 @@ public class SmithyJarPlugin implements Plugin<Project> {
         project.getExtensions().getByType(SourceSetContainer.class).forEach(sourceSet -> {
             // Only stage jar task for main component
             if (SourceSet.isMain(sourceSet)) {
-                SmithyBuildTask buildTask = project.getTasks()
-                        .withType(SmithyBuildTask.class)
-                        .getByName(SmithyBasePlugin.SMITHY_BUILD_TASK_NAME);
+                TaskProvider<SmithyBuildTask> buildTask = project.getTasks()
+                        .named(SmithyBasePlugin.SMITHY_BUILD_TASK_NAME, SmithyBuildTask.class);
                 // Must execute after project has evaluated or else the java "enabled" setting will not be resolved
                 project.afterEvaluate(p -> addJavaTasksForSourceSet(sourceSet, buildTask));
             }
         });
     }
 
-    private void addJavaTasksForSourceSet(SourceSet sourceSet, SmithyBuildTask buildTask) {
-        Task jarTask = project.getTasks().getByName(sourceSet.getJarTaskName());
+    private void addJavaTasksForSourceSet(SourceSet sourceSet, TaskProvider<SmithyBuildTask> buildTask) {
+        TaskProvider<Task> jarTask = project.getTasks().named(sourceSet.getJarTaskName());
+        // Whether the other tasks are enabled is only read once the task graph is ready, so that builds can
+        // still disable them after this plugin configured its tasks.
+        Provider<Boolean> jarEnabled = project.getProviders().provider(() -> jarTask.get().getEnabled());
+        Provider<Boolean> buildEnabled = project.getProviders().provider(() -> buildTask.get().getEnabled());
 
         // Set up staging task
         TaskProvider<SmithyJarStagingTask> jarStagingTaskProvider = project.getTasks()
                 .register(STAGING_TASK_NAME, SmithyJarStagingTask.class, stagingTask -> {
-                    stagingTask.mustRunAfter(buildTask);
-                    stagingTask.getInputDirectory().set(buildTask.getOutputDir());
+                    // When projection tasks are enabled, the build task only depends on them and they build
+                    // into its output directory.
+                    stagingTask.dependsOn(buildTask);
+                    stagingTask.getInputDirectory().set(buildTask.flatMap(SmithyBuildTask::getOutputDir));
                     stagingTask.getProjection().set(extension.getSourceProjection());
-                    // Only enable this task if the jar task and build task are also enabled.
-                    stagingTask.setEnabled(jarTask.getEnabled() && buildTask.getEnabled());
+                    // Only run this task if the jar task and build task are also enabled.
+                    stagingTask.onlyIf("the jar and Smithy build tasks are enabled",
+                            task -> jarEnabled.get() && buildEnabled.get());
                 });
-        jarTask.dependsOn(jarStagingTaskProvider);
 
         // Include Smithy models and the generated manifest in the JAR by adding them to the resources source set.
-        File metaInf = jarStagingTaskProvider.get().getSmithyMetaInfDir().get();
-        project.getLogger().debug("Registering Smithy resource artifacts with Java resources: {}", metaInf);
-        SourceDirectorySet metaInfSrcDir = sourceSet.getResources().srcDir(metaInf);
+        SourceDirectorySet metaInfSrcDir = sourceSet.getResources()
+                .srcDir(jarStagingTaskProvider.flatMap(SmithyJarStagingTask::getSmithyMetaInfDir));
 
+        // The staging task writes to the build directory, so the directory is known without creating the task.
+        // It is only resolved once every project is evaluated, so later changes to the build directory apply.
+        Provider<File> metaInf = project.getLayout().getBuildDirectory().getAsFile()
+                .map(buildDir -> SmithyUtils.getSmithyResourceStagingDir(STAGING_TASK_NAME, buildDir));
         IdeaPlugin ideaPlugin = project.getPlugins().getPlugin(IdeaPlugin.class);
 
         // by adding the generated "staging" are to the resources source set
@@ -123,46 +135,54 @@ public class SmithyJarPlugin implements Plugin<Project> {
         // or worse, when you removed a shape/trait, but still see it as "available" in IDE
         // but when you run (clean) build it fails
         // so marking this folder as "excluded" just for IntelliJ solves these problems
-        ideaPlugin.getModel().getModule().getExcludeDirs().add(metaInf);
+        project.getGradle().projectsEvaluated(gradle -> {
+            project.getLogger().debug("Registering Smithy resource artifacts with Java resources: {}", metaInf.get());
+            ideaPlugin.getModel().getModule().getExcludeDirs().add(metaInf.get());
+        });
 
         // This plugin supports loading Smithy models from various locations, including
         // META-INF/smithy. It also creates a staging directory for all the merged
         // resources that were found in each search location. This can cause conflicts
         // between the META-INF/smithy files and staging directory, so we need to
         // ignore duplicate conflicts.
-        ProcessResources process = project.getTasks().withType(ProcessResources.class).getByName("processResources");
-        process.setDuplicatesStrategy(DuplicatesStrategy.EXCLUDE);
-        process.dependsOn(jarStagingTaskProvider);
+        TaskProvider<ProcessResources> process = project.getTasks()
+                .named(sourceSet.getProcessResourcesTaskName(), ProcessResources.class, processTask -> {
+                    processTask.setDuplicatesStrategy(DuplicatesStrategy.EXCLUDE);
+                    processTask.dependsOn(jarStagingTaskProvider);
+                });
 
         // Ensure the smithy files generated for the JAR are available for any Compile tasks so smithy-generated
         // data can be picked up by annotation processors and compile tasks
+        Set<String> compileTaskNames = new HashSet<>();
         for (String lang : SUPPORTED_LANGUAGES) {
-            AbstractCompile compileTask = project.getTasks()
-                    .withType(AbstractCompile.class)
-                    .findByName(sourceSet.getCompileTaskName(lang));
-            if (compileTask != null) {
+            compileTaskNames.add(sourceSet.getCompileTaskName(lang));
+        }
+        project.getTasks().withType(AbstractCompile.class).configureEach(compileTask -> {
+            if (compileTaskNames.contains(compileTask.getName())) {
                 // Ensures staging occurs before compilation so smithy files are available
                 compileTask.dependsOn(process);
                 compileTask.setClasspath(compileTask.getClasspath().plus(metaInfSrcDir.getSourceDirectories()));
             }
-        }
+        });
 
         // Update manifest with smithy build info and source tags
-        jarTask.doFirst("updateJarManifest",
-                new SmithyManifestUpdateAction(project, extension.getTags().get()));
+        jarTask.configure(jar -> {
+            jar.dependsOn(jarStagingTaskProvider);
+            jar.doFirst("updateJarManifest", new SmithyManifestUpdateAction(project, extension.getTags()));
+        });
 
         TaskProvider<SmithyValidateTask> validateTaskProvider = project.getTasks()
                 .register(VALIDATE_JAR_TASK_NAME, SmithyValidateTask.class, validateTask -> {
                     validateTask.dependsOn(jarTask);
 
-                    // Only enable validation if the jar Task is also enabled
-                    validateTask.setEnabled(jarTask.getEnabled());
-                    validateTask.getSources().set(jarTask.getOutputs().getFiles());
+                    // Only run validation if the jar Task is also enabled
+                    validateTask.onlyIf("the jar task is enabled", task -> jarEnabled.get());
+                    validateTask.getSources().set(jarTask.get().getOutputs().getFiles());
                     validateTask.getAllowUnknownTraits().set(extension.getAllowUnknownTraits());
 
                     // Add to verification group, so this tasks shows up in the output of `gradle tasks`
                     validateTask.setGroup(LifecycleBasePlugin.VERIFICATION_GROUP);
                 });
-        project.getTasks().getByName("test").dependsOn(validateTaskProvider);
+        project.getTasks().named(JavaPlugin.TEST_TASK_NAME, test -> test.dependsOn(validateTaskProvider));
     }
 }
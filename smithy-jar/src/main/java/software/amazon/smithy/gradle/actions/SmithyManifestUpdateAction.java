@@ -13,6 +13,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.java.archives.Attributes;
+import org.gradle.api.provider.Provider;
 import org.gradle.jvm.tasks.Jar;
 import org.gradle.util.GradleVersion;
 import software.amazon.smithy.gradle.SmithyGradleVersion;
@@ -23,15 +24,29 @@ import software.amazon.smithy.gradle.SmithyGradleVersion;
  * <p>This action adds projection tags to JAR manifest via the {@code SmithyTags} property.
  * A number of headers are also included in the manifest to add basic build info such as
  * JDK version used for the build and the build timestamp.
+ *
+ * <p>The action does not keep a reference to the project, so that it can be stored in the
+ * configuration cache.
  */
 public final class SmithyManifestUpdateAction implements Action<Task> {
     private static final String BUILD_TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
     private final Set<String> tags = new HashSet<>();
+    private final Provider<? extends Set<String>> configuredTags;
 
     public SmithyManifestUpdateAction(Project project, Set<String> tags) {
+        this(project, project.provider(() -> tags));
+    }
+
+    /**
+     * Creates an action that adds the default tags of the project and the configured tags.
+     *
+     * @param project Project to derive the default tags from.
+     * @param configuredTags Provider of the configured tags, which is queried when the action runs.
+     */
+    public SmithyManifestUpdateAction(Project project, Provider<? extends Set<String>> configuredTags) {
         addDefaultTags(project);
-        this.tags.addAll(tags);
+        this.configuredTags = configuredTags;
     }
 
     @Override
@@ -71,6 +86,8 @@ public final class SmithyManifestUpdateAction implements Action<Task> {
     }
 
     private void addTagsToManifest(Attributes manifestAttributes) {
-        manifestAttributes.put("Smithy-Tags", String.join(", ", tags));
+        Set<String> allTags = new HashSet<>(tags);
+        allTags.addAll(configuredTags.get());
+        manifestAttributes.put("Smithy-Tags", String.join(", ", allTags));
     }
 }
@@ -124,7 +124,7 @@ public abstract class SmithyJarStagingTask extends DefaultTask {
      */
     @OutputDirectory
     public Provider<File> getSmithyMetaInfDir() {
-        return getSmithyStagingDir().map(File::getParentFile);
+        return getOutputDir().getAsFile().map(file -> SmithyUtils.getSmithyResourceStagingDir(getName(), file));
     }
 
     @TaskAction
@@ -0,0 +1,30 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package software.amazon.smithy.gradle;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LazyTaskConfigurationTest {
+    private static final Pattern REALIZED = Pattern.compile("Realized tasks: (.*)");
+
+    @Test
+    public void helpDoesNotRealizeMergeTask() {
+        Utils.withCopy("trait-package-plugin/lazy-task-configuration", buildDir -> {
+            BuildResult result = Utils.createGradleRunner()
+                    .forwardOutput()
+                    .withProjectDir(buildDir)
+                    .withArguments("help", "--stacktrace")
+                    .build();
+
+            Matcher matcher = REALIZED.matcher(result.getOutput());
+            Assertions.assertTrue(matcher.find(), "realized tasks were not logged");
+            Assertions.assertEquals("help", matcher.group(1).trim());
+        });
+    }
+}
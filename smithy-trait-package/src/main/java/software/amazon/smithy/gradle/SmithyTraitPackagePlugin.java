@@ -10,14 +10,14 @@ import java.util.Optional;
 import javax.inject.Inject;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
-import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.plugins.JavaLibraryPlugin;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
-import org.gradle.language.jvm.tasks.ProcessResources;
 import software.amazon.smithy.gradle.internal.CliDependencyResolver;
 import software.amazon.smithy.gradle.tasks.MergeSpiFilesTask;
 import software.amazon.smithy.gradle.tasks.SmithyBuildTask;
@@ -52,7 +52,7 @@ public class SmithyTraitPackagePlugin implements Plugin<Project> {
         // Only configure trait codegen dependency for main sourceSet
         project.getExtensions().getByType(SourceSetContainer.class).all(sourceSet -> {
             if (SourceSet.isMain(sourceSet)) {
-                project.afterEvaluate(p -> configureDependencies(sourceSet));
+                configureDependencies(sourceSet);
 
                 // Add Trait codegen outputs to source set
                 Path pluginOutput = extension.getPluginProjectionPath(SOURCE, TRAIT_CODEGEN_PLUGIN_NAME).get();
@@ -65,10 +65,10 @@ public class SmithyTraitPackagePlugin implements Plugin<Project> {
                     TaskProvider<MergeSpiFilesTask> mergeTaskProvider = addMergeTask(sourceSet,
                             pluginOutput,
                             existingOptional.get());
-                    sourceSet.getResources().srcDir(mergeTaskProvider.get().getOutputDir());
+                    sourceSet.getResources().srcDir(mergeTaskProvider.flatMap(MergeSpiFilesTask::getOutputDir));
 
                     // remove existing from resources to prevent conflicts
-                    sourceSet.getResources().exclude(e -> e.getFile().equals(existingOptional.get()));
+                    sourceSet.getResources().exclude(new IsFile(existingOptional.get()));
                 } else {
                     // Add the generated SPI file as a resource
                     sourceSet.getResources().srcDir(pluginOutput).exclude("**/*.java");
@@ -89,42 +89,60 @@ public class SmithyTraitPackagePlugin implements Plugin<Project> {
         Configuration smithyBuild = project.getConfigurations()
                 .getByName(SmithyUtils.getSmithyBuildConfigurationName(sourceSet));
 
-        // Prefer explicit dependency
-        Optional<Dependency> explicitDepOptional = smithyBuild.getAllDependencies()
-                .stream()
-                .filter(d -> SmithyUtils.isMatchingDependency(d, SMITHY_TRAIT_CODEGEN_DEP_NAME))
-                .findFirst();
-        if (explicitDepOptional.isPresent()) {
-            project.getLogger()
-                    .info(String.format("(using explicitly configured Dependency for %s: %s)",
-                            SMITHY_TRAIT_CODEGEN_DEP_NAME,
-                            explicitDepOptional.get().getVersion()));
-            return;
-        }
+        // Only detect the version once the configuration is resolved, so that configuring the project
+        // does not resolve its dependencies.
+        smithyBuild.withDependencies(dependencies -> {
+            // Prefer explicit dependency
+            Optional<Dependency> explicitDepOptional = smithyBuild.getAllDependencies()
+                    .stream()
+                    .filter(d -> SmithyUtils.isMatchingDependency(d, SMITHY_TRAIT_CODEGEN_DEP_NAME))
+                    .findFirst();
+            if (explicitDepOptional.isPresent()) {
+                project.getLogger()
+                        .info(String.format("(using explicitly configured Dependency for %s: %s)",
+                                SMITHY_TRAIT_CODEGEN_DEP_NAME,
+                                explicitDepOptional.get().getVersion()));
+                return;
+            }
 
-        // If trait codegen does not exist, add the dependency with the same version as the resolved CLI version
-        String cliVersion = CliDependencyResolver.resolve(project);
-        project.getDependencies()
-                .add(smithyBuild.getName(),
-                        String.format(DEPENDENCY_NOTATION, SMITHY_TRAIT_CODEGEN_DEP_NAME, cliVersion));
+            // If trait codegen does not exist, add the dependency with the same version as the CLI
+            String cliVersion = CliDependencyResolver.resolveVersion(project);
+            dependencies.add(project.getDependencies()
+                    .create(String.format(DEPENDENCY_NOTATION, SMITHY_TRAIT_CODEGEN_DEP_NAME, cliVersion)));
+        });
     }
 
     private TaskProvider<MergeSpiFilesTask> addMergeTask(SourceSet sourceSet, Path pluginPath, File existing) {
         String mergeTaskName = SmithyUtils.getRelativeSourceSetName(sourceSet, MERGE_TASK_NAME);
-        SmithyBuildTask buildTask = project.getTasks()
-                .withType(SmithyBuildTask.class)
-                .getByName(SmithyBasePlugin.SMITHY_BUILD_TASK_NAME);
-        ProcessResources process = project.getTasks().withType(ProcessResources.class).getByName("processResources");
-        Task compileTask = project.getTasks().getByName(sourceSet.getCompileJavaTaskName());
-        return project.getTasks()
+        TaskProvider<SmithyBuildTask> buildTask = project.getTasks()
+                .named(SmithyBasePlugin.SMITHY_BUILD_TASK_NAME, SmithyBuildTask.class);
+        TaskProvider<MergeSpiFilesTask> mergeTaskProvider = project.getTasks()
                 .register(mergeTaskName,
                         MergeSpiFilesTask.class,
                         mergeTask -> {
                             mergeTask.mustRunAfter(buildTask);
-                            process.dependsOn(mergeTask);
-                            compileTask.dependsOn(mergeTask);
                             mergeTask.getGeneratedFile().set(pluginPath.resolve(TRAIT_SPI_FILE_PATH).toFile());
                             mergeTask.getExistingFile().set(existing);
                         });
+        project.getTasks()
+                .named(sourceSet.getProcessResourcesTaskName(), process -> process.dependsOn(mergeTaskProvider));
+        project.getTasks()
+                .named(sourceSet.getCompileJavaTaskName(), compile -> compile.dependsOn(mergeTaskProvider));
+        return mergeTaskProvider;
+    }
+
+    // A named class rather than a lambda, so that the resources of the source set can be stored in the
+    // configuration cache.
+    private static final class IsFile implements Spec<FileTreeElement> {
+        private final File file;
+
+        IsFile(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public boolean isSatisfiedBy(FileTreeElement element) {
+            return element.getFile().equals(file);
+        }
     }
 }